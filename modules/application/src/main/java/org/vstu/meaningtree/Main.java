@@ -7,9 +7,11 @@ import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
-import org.apache.jena.rdf.model.Model;
-import org.apache.jena.rdf.model.ModelFactory;
+import org.vstu.meaningtree.languages.LanguageProvider;
+import org.vstu.meaningtree.languages.LanguageProviders;
 import org.vstu.meaningtree.languages.LanguageTranslator;
+import org.vstu.meaningtree.languages.ParseCache;
+import org.vstu.meaningtree.languages.ProjectTranslator;
 import org.vstu.meaningtree.languages.SourceMapGenerator;
 import org.vstu.meaningtree.languages.configs.Config;
 import org.vstu.meaningtree.languages.configs.ConfigBuilder;
@@ -22,17 +24,23 @@ import org.vstu.meaningtree.serializers.json.JsonSerializer;
 import org.vstu.meaningtree.serializers.json.JsonTypeHierarchyBuilder;
 import org.vstu.meaningtree.serializers.model.IOAlias;
 import org.vstu.meaningtree.serializers.model.IOAliases;
-import org.vstu.meaningtree.serializers.rdf.RDFDeserializer;
-import org.vstu.meaningtree.serializers.rdf.RDFSerializer;
 import org.vstu.meaningtree.serializers.xml.XMLDeserializer;
 import org.vstu.meaningtree.serializers.xml.XMLSerializer;
+import org.vstu.meaningtree.utils.metrics.MetricsRecorder;
+import org.vstu.meaningtree.utils.metrics.TranslationMetrics;
+import org.vstu.meaningtree.utils.metrics.TranslationPhase;
 import org.vstu.meaningtree.utils.tokens.Token;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.BiFunction;
 
 public class Main {
@@ -75,12 +83,15 @@ public class Main {
         @Parameter(names = "--input-type", description = "Type of serialized object: meaning-tree, node")
         private String type = "meaning-tree";
 
-        @Parameter(names = "--format", description = "Serialization format of input file: json, xml, rdf, rdf-turtle")
+        @Parameter(names = "--format", description = "Serialization format of input file: json, xml, rdf, rdf-turtle, rdf-ntriples")
         private String serializeFormat = "json";
 
-        @Parameter(names = "--serialize", description = "Output serialization format: json, xml, rdf, rdf-turtle, dot")
+        @Parameter(names = "--serialize", description = "Output serialization format: json, xml, rdf, rdf-turtle, rdf-ntriples, dot")
         private String outputSerializeFormat;
 
+        @Parameter(names = "--profile", description = "Print per-phase timings and counters of translation to stderr")
+        private boolean profile = false;
+
         @Parameter(description = "<input_file> [output_file]", required = true)
         private java.util.List<String> positionalParams;
 
@@ -162,7 +173,7 @@ public class Main {
         @Parameter(names = "--skip-errors", description = "Allow translator/parser to skip recoverable errors unless overridden by --config")
         private boolean skipErrors = false;
 
-        @Parameter(names = "--serialize", description = "Serialization format: json, xml, rdf, rdf-turtle, dot")
+        @Parameter(names = "--serialize", description = "Serialization format: json, xml, rdf, rdf-turtle, rdf-ntriples, dot")
         private String serializeFormat;
 
         @Parameter(
@@ -171,6 +182,15 @@ public class Main {
         )
         private String projectContext;
 
+        @Parameter(names = "--cache-dir", description = "Directory of the on-disk parse cache (disabled if not set)")
+        private String cacheDir = null;
+
+        @Parameter(names = "--cache-size", description = "Parse cache size limit, MiB")
+        private long cacheSizeMib = 1024;
+
+        @Parameter(names = "--profile", description = "Print per-phase timings and counters of translation to stderr")
+        private boolean profile = false;
+
         @Parameter(description = "<input_file> [output_file]", required = true)
         private java.util.List<String> positionalParams;
 
@@ -199,6 +219,49 @@ public class Main {
         }
     }
 
+    @Parameters(commandDescription = "Translate every source file of a project, resolving symbols across files")
+    public static class TranslateProjectCommand {
+        @Parameter(names = "--from", description = "Source language", required = true)
+        private String fromLanguage;
+
+        @Parameter(names = "--to", description = "Target language", required = true)
+        private String toLanguage;
+
+        @Parameter(names = "--mode", description = "Translator mode (expression, simple, procedural, full)")
+        private TranslatorMode translatorMode = TranslatorMode.full;
+
+        @Parameter(names = "--skip-errors", description = "Allow translator/parser to skip recoverable errors")
+        private boolean skipErrors = false;
+
+        @Parameter(names = "--threads", description = "Number of worker threads (default: number of processors)")
+        private int threads = Runtime.getRuntime().availableProcessors();
+
+        @Parameter(names = "--progress-every", description = "Report progress to stderr every N files (0 disables)")
+        private int progressEvery = 100;
+
+        @Parameter(names = "--cache-dir", description = "Directory of the on-disk parse cache (disabled if not set)")
+        private String cacheDir = null;
+
+        @Parameter(names = "--cache-size", description = "Parse cache size limit, MiB")
+        private long cacheSizeMib = 1024;
+
+        @Parameter(description = "<project_root> <output_dir>", required = true, arity = 2)
+        private java.util.List<String> positionalParams;
+    }
+
+    @Parameters(commandDescription = "Run every language and serialization format on the bundled test corpora "
+            + "and record the loaded classes into a class data sharing (AppCDS) archive for faster startup")
+    public static class WarmupCommand {
+        @Parameter(names = "--archive", description = "Archive to create (default: <application jar without .jar>.jsa next to the jar)")
+        private String archive = null;
+
+        @Parameter(names = "--no-archive", description = "Only exercise translators and serializers in this JVM, without creating an archive")
+        private boolean noArchive = false;
+
+        @Parameter(description = "[corpus.test | directory ...] (default: corpora bundled into the jar)")
+        private java.util.List<String> corpora = new ArrayList<>();
+    }
+
     @Parameters(commandDescription = "List all supported languages")
     public static class ListLangsCommand {}
 
@@ -208,21 +271,17 @@ public class Main {
         private boolean prettify = false;
     }
 
-    public static Map<String, Class<? extends LanguageTranslator>> translators =
-            SupportedLanguage.getStringMap();
+    /**
+     * Поставщики трансляторов из модулей языков в пути классов. Транслятор (и грамматика
+     * tree-sitter) создаётся только для языков, указанных в команде.
+     */
+    public static Map<String, LanguageProvider> translators = LanguageProviders.byName();
 
-    private static String serializeRdf(Serializable node, String format) {
-        Model model = new RDFSerializer().serialize(node);
-        StringWriter writer = new StringWriter();
-        model.write(writer, format);
-        return writer.toString();
-    }
-
-    private static Serializable deserializeRdf(String text, boolean isNode, String format) {
-        Model model = ModelFactory.createDefaultModel();
-        model.read(new StringReader(text), null, format);
-        return isNode ? new RDFDeserializer().deserialize(model) : new RDFDeserializer().deserializeTree(model);
-    }
+    /**
+     * Все форматы {@link #serializers}; у {@code dot} нет обратного преобразования.
+     */
+    private static final List<String> SERIALIZATION_FORMATS =
+            List.of("json", "xml", "dot", "rdf", "rdf-turtle", "rdf-ntriples");
 
     private static final IOAliases<BiFunction<Serializable, Boolean, String>> serializers = new IOAliases<>(List.of(
             new IOAlias<>("json", (node, pretty) -> {
@@ -235,8 +294,9 @@ public class Main {
             }),
             new IOAlias<>("xml", (node, pretty) -> new XMLSerializer(pretty).serialize(node)),
             new IOAlias<>("dot", (node, pretty) -> new GraphvizDotSerializer().serialize(node)),
-            new IOAlias<>("rdf", (node, pretty) -> serializeRdf(node, "RDF/XML")),
-            new IOAlias<>("rdf-turtle", (node, pretty) -> serializeRdf(node, "TURTLE"))
+            new IOAlias<>("rdf", (node, pretty) -> RdfFormats.serialize(node, "RDF/XML")),
+            new IOAlias<>("rdf-turtle", (node, pretty) -> RdfFormats.stream(node, true)),
+            new IOAlias<>("rdf-ntriples", (node, pretty) -> RdfFormats.stream(node, false))
     ));
 
     private static final IOAliases<BiFunction<String, Boolean, Serializable>> deserializers = new IOAliases<>(List.of(
@@ -246,8 +306,9 @@ public class Main {
             ),
             new IOAlias<>("xml", (text, node) -> node ?
                     new XMLDeserializer().deserialize(text) : new XMLDeserializer().deserializeTree(text)),
-            new IOAlias<>("rdf", (text, node) -> deserializeRdf(text, node, "RDF/XML")),
-            new IOAlias<>("rdf-turtle", (text, node) -> deserializeRdf(text, node, "TURTLE"))
+            new IOAlias<>("rdf", (text, node) -> RdfFormats.deserialize(text, node, "RDF/XML")),
+            new IOAlias<>("rdf-turtle", (text, node) -> RdfFormats.unstream(text, node, true)),
+            new IOAlias<>("rdf-ntriples", (text, node) -> RdfFormats.unstream(text, node, false))
     ));
 
     public static void main(String[] args) throws Exception {
@@ -255,12 +316,16 @@ public class Main {
         ListLangsCommand listLangsCommand = new ListLangsCommand();
         GenerateCommand generateCommand = new GenerateCommand();
         NodeHierarchyCommand nodeHierarchyCommand = new NodeHierarchyCommand();
+        TranslateProjectCommand translateProjectCommand = new TranslateProjectCommand();
+        WarmupCommand warmupCommand = new WarmupCommand();
 
         JCommander jc = JCommander.newBuilder()
                 .addCommand("translate", translateCommand)
+                .addCommand("translate-project", translateProjectCommand)
                 .addCommand("generate", generateCommand)
                 .addCommand("list-langs", listLangsCommand)
                 .addCommand("node-hierarchy", nodeHierarchyCommand)
+                .addCommand("warmup", warmupCommand, "train")
                 .build();
 
         jc.parse(args);
@@ -270,15 +335,159 @@ public class Main {
             listSupportedLanguages();
         } else if ("translate".equals(parsed)) {
             runTranslation(translateCommand);
+        } else if ("translate-project".equals(parsed)) {
+            runProjectTranslation(translateProjectCommand);
         } else if ("generate".equals(parsed)) {
             runGeneration(generateCommand);
         } else if ("node-hierarchy".equals(parsed)) {
             viewHierarchy(nodeHierarchyCommand);
+        } else if ("warmup".equals(parsed)) {
+            runWarmup(warmupCommand);
         } else {
             jc.usage();
         }
     }
 
+    private static void runProjectTranslation(TranslateProjectCommand cmd) throws Exception {
+        String fromLanguage = cmd.fromLanguage.toLowerCase();
+        String toLanguage = cmd.toLanguage.toLowerCase();
+        for (String language : List.of(fromLanguage, toLanguage)) {
+            if (!translators.containsKey(language)) {
+                System.err.println("Unsupported language: " + language + ". Supported languages: " + translators.keySet());
+                return;
+            }
+        }
+        Config config = new Config(cmd.translatorMode.getConfigEntry(),
+                ConfigParameters.skipErrors.withValue(cmd.skipErrors));
+        LanguageTranslator fromTranslator =
+                translators.get(fromLanguage).create(config);
+        LanguageTranslator toTranslator =
+                translators.get(toLanguage).create(config);
+        if (toTranslator.getFileExtensions().isEmpty()) {
+            System.err.println("Target language " + toLanguage + " doesn't declare a file extension");
+            return;
+        }
+
+        int every = cmd.progressEvery;
+        ParseCache cache = openCache(cmd.cacheDir, cmd.cacheSizeMib);
+        ProjectTranslator.Result result = new ProjectTranslator(fromTranslator, toTranslator)
+                .withParallelism(cmd.threads)
+                .withParseCache(cache)
+                .withProgressListener((stage, file, done, total) -> {
+                    if (every > 0 && (done % every == 0 || done == total)) {
+                        System.err.printf("[%s] %d/%d%n", stage.name().toLowerCase(), done, total);
+                    }
+                })
+                .translate(Path.of(cmd.positionalParams.get(0)),
+                        ProjectTranslator.writingTo(Path.of(cmd.positionalParams.get(1)),
+                                toTranslator.getFileExtensions().getFirst()));
+
+        for (ProjectTranslator.FileFailure failure : result.failures()) {
+            System.err.println("Failed to translate " + failure.file() + " (" + failure.stage().name().toLowerCase()
+                    + "): " + failure.error().getMessage());
+        }
+        System.err.printf("Translated %d of %d files%n", result.translated(), result.files());
+        if (cache != null) {
+            System.err.println(cache.stats().format());
+        }
+    }
+
+    private static ParseCache openCache(String directory, long sizeMib) throws IOException {
+        if (directory == null) {
+            return null;
+        }
+        return ParseCache.open(Path.of(directory), sizeMib * 1024 * 1024);
+    }
+
+    /**
+     * Архив классов пишет только сама JVM при выходе ({@code -XX:ArchiveClassesAtExit}), поэтому
+     * прогрев идёт в дочерней JVM с тем же classpath, а здесь лишь запускается и ждёт её.
+     * Архив сначала пишется во временный файл: лаунчер никогда не увидит недописанный.
+     * Если архив не создан, процесс завершается с ненулевым кодом.
+     */
+    private static void runWarmup(WarmupCommand cmd) throws Exception {
+        if (cmd.noArchive) {
+            exerciseTranslators(cmd.corpora);
+            return;
+        }
+        Path archive = cmd.archive != null ? Path.of(cmd.archive) : defaultArchive();
+        if (archive == null) {
+            System.err.println("Application is not started from a jar: pass --archive explicitly");
+            System.exit(2);
+        }
+        archive = archive.toAbsolutePath().normalize();
+        Path temporary = archive.resolveSibling(archive.getFileName() + ".tmp");
+        Files.deleteIfExists(temporary);
+
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-XX:ArchiveClassesAtExit=" + temporary);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(Main.class.getName());
+        command.add("warmup");
+        command.add("--no-archive");
+        command.addAll(cmd.corpora);
+        int exitCode = new ProcessBuilder(command).inheritIO().start().waitFor();
+        if (exitCode != 0 || !Files.exists(temporary)) {
+            Files.deleteIfExists(temporary);
+            System.err.println("Warmup JVM failed (exit code " + exitCode + "), archive was not created");
+            // Архив не создан — вызывающий скрипт должен это увидеть, даже если дочерняя JVM вышла с 0
+            System.exit(exitCode != 0 ? exitCode : 1);
+        }
+        Files.move(temporary, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        System.err.printf("Created class data sharing archive %s (%.1f MiB)%n", archive,
+                Files.size(archive) / (1024.0 * 1024.0));
+    }
+
+    /**
+     * {@code application.jar} → {@code application.jsa} рядом с ним; это имя ищет лаунчер
+     * {@code bin/meaningtree}.
+     */
+    private static Path defaultArchive() throws Exception {
+        Path location = Path.of(Main.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        String name = location.getFileName().toString();
+        if (Files.isDirectory(location) || !name.endsWith(".jar")) {
+            return null;
+        }
+        return location.resolveSibling(name.substring(0, name.length() - ".jar".length()) + ".jsa");
+    }
+
+    /**
+     * Каждый фрагмент корпуса разбирается своим транслятором, отрисовывается всеми языками (кодом,
+     * токенами и source map) и проходит через все форматы сериализации туда и обратно. Ошибки
+     * отдельных фрагментов не важны: нужны загруженные по пути классы.
+     */
+    private static void exerciseTranslators(List<String> corpora) throws Exception {
+        List<WarmupCorpus.Snippet> snippets = WarmupCorpus.load(corpora, translators.keySet());
+        Config config = new Config(TranslatorMode.simple.getConfigEntry(), ConfigParameters.skipErrors.withValue(true));
+        Map<String, LanguageTranslator> instances = new LinkedHashMap<>();
+        for (var entry : translators.entrySet()) {
+            instances.put(entry.getKey(), entry.getValue().create(config));
+        }
+
+        long start = System.nanoTime();
+        int failures = 0;
+        for (WarmupCorpus.Snippet snippet : snippets) {
+            try {
+                MeaningTree tree = instances.get(snippet.language()).getMeaningTree(snippet.code());
+                for (LanguageTranslator target : instances.values()) {
+                    target.getCode(tree);
+                    target.getCodeAsTokens(tree, true, true, false);
+                    new SourceMapGenerator(target).process(tree);
+                }
+                for (String format : SERIALIZATION_FORMATS) {
+                    String text = serialize(format, tree, false, false).orElseThrow();
+                    deserializers.apply(format, function -> function.apply(text, false));
+                }
+            } catch (Exception | StackOverflowError e) {
+                failures++;
+            }
+        }
+        System.err.printf("Warmed up on %d snippets (%d failed) in %d ms%n",
+                snippets.size(), failures, (System.nanoTime() - start) / 1_000_000);
+    }
+
     private static void viewHierarchy(NodeHierarchyCommand nodeHierarchyCommand) {
         var builder = new GsonBuilder().disableHtmlEscaping();
         if (nodeHierarchyCommand.prettify) {
@@ -345,7 +554,7 @@ public class Main {
         var target = object.get();
 
         if (serializeOnly) {
-            serializers.apply(outputFormat, function -> function.apply(target, cmd.prettify))
+            serialize(outputFormat, target, cmd.prettify, cmd.profile)
                     .ifPresentOrElse(
                             result -> writeOutput(result, outputFilePath),
                             () -> System.err.println("Unknown serialization format: " + outputFormat + ". " + serializers.getSupportedFormatsMessage())
@@ -355,37 +564,41 @@ public class Main {
 
         Config config = new Config(
                 cmd.translatorMode.getConfigEntry(),
-                ConfigParameters.skipErrors.withValue(cmd.skipErrors)
+                ConfigParameters.skipErrors.withValue(cmd.skipErrors),
+                ConfigParameters.collectMetrics.withValue(cmd.profile)
         );
         if (cmd.config != null) {
             JsonElement element = JsonParser.parseString(cmd.config);
-            Config jsonConfig = new ConfigBuilder().fromJson(translators.get(toLanguage), element.getAsJsonObject()).toConfig();
+            Config jsonConfig = new ConfigBuilder().fromJson(translators.get(toLanguage).getTranslatorClass(), element.getAsJsonObject()).toConfig();
             config = config.merge(jsonConfig);
         }
 
         LanguageTranslator toTranslator =
-                translators.get(toLanguage).getDeclaredConstructor(Config.class).newInstance(config);
+                translators.get(toLanguage).create(config);
 
         if (cmd.isNode()) {
             if (cmd.outputSourceMap) {
                 SourceMapGenerator srcMapGen = new SourceMapGenerator(toTranslator);
                 var srcMap = srcMapGen.process((Node) target);
+                reportMetrics(toTranslator);
                 String srcMapFormat = outputFormat != null ? outputFormat : "json";
-                serializers.apply(srcMapFormat, function -> function.apply(srcMap, cmd.prettify))
+                serialize(srcMapFormat, srcMap, cmd.prettify, cmd.profile)
                         .ifPresentOrElse(
                                 result -> writeOutput(result, outputFilePath),
                                 () -> System.err.println("Unknown serialization format: " + srcMapFormat + ". " + serializers.getSupportedFormatsMessage())
                         );
             } else {
                 String translatedCode = toTranslator.getCode((Node) target);
+                reportMetrics(toTranslator);
                 writeOutput(translatedCode, outputFilePath);
             }
         } else {
             if (cmd.outputSourceMap) {
                 SourceMapGenerator srcMapGen = new SourceMapGenerator(toTranslator);
                 var srcMap = srcMapGen.process((MeaningTree) target);
+                reportMetrics(toTranslator);
                 String srcMapFormat = outputFormat != null ? outputFormat : "json";
-                serializers.apply(srcMapFormat, function -> function.apply(srcMap, cmd.prettify))
+                serialize(srcMapFormat, srcMap, cmd.prettify, cmd.profile)
                         .ifPresentOrElse(
                                 result -> writeOutput(result, outputFilePath),
                                 () -> System.err.println("Unknown serialization format: " + srcMapFormat + ". " + serializers.getSupportedFormatsMessage())
@@ -393,14 +606,16 @@ public class Main {
             } else if (cmd.performTokenize) {
                 Token.setupId(cmd.startTokenId);
                 var tokens = toTranslator.getCodeAsTokens((MeaningTree) target, true, cmd.detailedTokens, false);
+                reportMetrics(toTranslator);
                 String tokenFormat = outputFormat != null ? outputFormat : "json";
-                serializers.apply(tokenFormat, function -> function.apply(tokens, cmd.prettify))
+                serialize(tokenFormat, tokens, cmd.prettify, cmd.profile)
                         .ifPresentOrElse(
                                 result -> writeOutput(result, outputFilePath),
                                 () -> System.err.println("Unknown serialization format: " + tokenFormat + ". " + serializers.getSupportedFormatsMessage())
                         );
             } else {
                 String translatedCode = toTranslator.getCode((MeaningTree) target);
+                reportMetrics(toTranslator);
                 writeOutput(translatedCode, outputFilePath);
             }
         }
@@ -437,12 +652,13 @@ public class Main {
         // Instantiate source-language translator
         Config fromConfig = new Config(cmd.translatorMode.getConfigEntry(),
                 ConfigParameters.bytePositionAnnotations.withValue(cmd.saveBytes),
-                ConfigParameters.skipErrors.withValue(cmd.skipErrors));
+                ConfigParameters.skipErrors.withValue(cmd.skipErrors),
+                ConfigParameters.collectMetrics.withValue(cmd.profile));
         Config toConfig = fromConfig.clone();
         if (cmd.config != null) {
             var element = JsonParser.parseString(cmd.config).getAsJsonObject();
-            var fromTranslatorClass = translators.get(fromLanguage);
-            var toTranslatorClass = toLanguage == null ? null : translators.get(toLanguage);
+            var fromTranslatorClass = translators.get(fromLanguage).getTranslatorClass();
+            var toTranslatorClass = toLanguage == null ? null : translators.get(toLanguage).getTranslatorClass();
             JsonObject toJson = new JsonObject();
             JsonObject fromJson = new JsonObject();
             for (String key : element.keySet()) {
@@ -460,7 +676,7 @@ public class Main {
         }
 
         LanguageTranslator fromTranslator =
-                translators.get(fromLanguage).getDeclaredConstructor(Config.class).newInstance(fromConfig);
+                translators.get(fromLanguage).create(fromConfig);
         if (cmd.getProjectContext() != null) {
             try {
                 ProjectSourceContext projectSourceContext = parseProjectSourceContext(cmd.getProjectContext());
@@ -473,12 +689,17 @@ public class Main {
                 return;
             }
         }
-        var meaningTree = fromTranslator.getMeaningTree(code);
+        ParseCache cache = openCache(cmd.cacheDir, cmd.cacheSizeMib);
+        var meaningTree = cache != null ? cache.parse(fromTranslator, code).tree() : fromTranslator.getMeaningTree(code);
+        reportMetrics(fromTranslator);
+        if (cache != null) {
+            System.err.println(cache.stats().format());
+        }
         final var rootNode = meaningTree.getRootNode();
 
         // Handle serialization if requested
         if (serializeFormat != null) {
-            serializers.apply(serializeFormat, function -> function.apply(rootNode, cmd.prettify))
+            serialize(serializeFormat, rootNode, cmd.prettify, cmd.profile)
                     .ifPresentOrElse(
                             result -> writeOutput(result, outputFilePath),
                             () -> System.err.println("Unknown serialization format: " + serializeFormat + ". " + serializers.getSupportedFormatsMessage())
@@ -490,14 +711,15 @@ public class Main {
         if (cmd.performOriginTokenize) {
             Token.setupId(cmd.startTokenId);
             var tokens = fromTranslator.getCodeAsTokens(meaningTree, true, cmd.detailedTokens, false);
-            serializers.apply(serializeFormat == null ? "json" : serializeFormat, function -> function.apply(tokens, cmd.prettify))
+            reportMetrics(fromTranslator);
+            serialize(serializeFormat == null ? "json" : serializeFormat, tokens, cmd.prettify, cmd.profile)
                     .ifPresentOrElse(
                             result -> writeOutput(result, outputFilePath),
                             () -> System.err.println("Unknown serialization format: " + serializeFormat + ". " + serializers.getSupportedFormatsMessage())
                     );
         } else if (toLanguage != null) {
             LanguageTranslator toTranslator =
-                    translators.get(toLanguage.toLowerCase()).getDeclaredConstructor(Config.class).newInstance(toConfig);
+                    translators.get(toLanguage.toLowerCase()).create(toConfig);
 
             if (cmd.outputSourceMap && cmd.performTokenize) {
                 System.err.println("Source map building and tokenizing are both required. Defaulting to using only `outputSourceMap`");
@@ -506,7 +728,8 @@ public class Main {
             if (cmd.outputSourceMap) {
                 SourceMapGenerator srcMapGen = new SourceMapGenerator(toTranslator);
                 var srcMap = srcMapGen.process(meaningTree);
-                serializers.apply("json", function -> function.apply(srcMap, cmd.prettify))
+                reportMetrics(toTranslator);
+                serialize("json", srcMap, cmd.prettify, cmd.profile)
                         .ifPresentOrElse(
                                 result -> writeOutput(result, outputFilePath),
                                 () -> System.err.println("Unknown serialization error")
@@ -514,18 +737,43 @@ public class Main {
             } else if (cmd.performTokenize) {
                 Token.setupId(cmd.startTokenId);
                 var tokens = toTranslator.getCodeAsTokens(meaningTree, true, cmd.detailedTokens, false);
-                serializers.apply(serializeFormat == null ? "json" : serializeFormat, function -> function.apply(tokens, cmd.prettify))
+                reportMetrics(toTranslator);
+                serialize(serializeFormat == null ? "json" : serializeFormat, tokens, cmd.prettify, cmd.profile)
                         .ifPresentOrElse(
                                 result -> writeOutput(result, outputFilePath),
                                 () -> System.err.println("Unknown serialization format: " + serializeFormat + ". " + serializers.getSupportedFormatsMessage())
                         );
             } else {
                 String translatedCode = toTranslator.getCode(meaningTree);
+                reportMetrics(toTranslator);
                 writeOutput(translatedCode, outputFilePath);
             }
         }
     }
 
+    private static Optional<String> serialize(String format, Serializable object, boolean prettify, boolean profile) {
+        return serializers.apply(format, function -> {
+            MetricsRecorder metrics = MetricsRecorder.start("serialize", format, profile);
+            if (metrics == null) {
+                return function.apply(object, prettify);
+            }
+            String result = metrics.measure(TranslationPhase.SERIALIZATION, () -> function.apply(object, prettify));
+            metrics.produced(result);
+            reportMetrics(metrics.finish());
+            return result;
+        });
+    }
+
+    private static void reportMetrics(LanguageTranslator translator) {
+        reportMetrics(translator.getLastMetrics());
+    }
+
+    private static void reportMetrics(TranslationMetrics metrics) {
+        if (metrics != null) {
+            System.err.println(metrics.format());
+        }
+    }
+
     private static void writeOutput(String content, String outputFilePath) {
         try {
             if ("-".equals(outputFilePath)) {
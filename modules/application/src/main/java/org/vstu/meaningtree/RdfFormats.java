@@ -0,0 +1,52 @@
+package org.vstu.meaningtree;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFFormat;
+import org.vstu.meaningtree.serializers.rdf.RDFDeserializer;
+import org.vstu.meaningtree.serializers.rdf.RDFSerializer;
+import org.vstu.meaningtree.serializers.rdf.StreamingRDFDeserializer;
+import org.vstu.meaningtree.serializers.rdf.StreamingRDFSerializer;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Форматы RDF для CLI. Вынесены из {@link Main}, чтобы в нём не было ни одной ссылки на Jena:
+ * её инициализация (подсистемы, реестры форматов) занимает сотни миллисекунд, и класс
+ * загружается только при первом обращении к RDF — из {@code --serialize rdf*} или
+ * {@code --format rdf*}.
+ */
+final class RdfFormats {
+    private RdfFormats() {}
+
+    static String serialize(Serializable node, String format) {
+        Model model = new RDFSerializer().serialize(node);
+        StringWriter writer = new StringWriter();
+        model.write(writer, format);
+        return writer.toString();
+    }
+
+    static Serializable deserialize(String text, boolean isNode, String format) {
+        Model model = ModelFactory.createDefaultModel();
+        model.read(new StringReader(text), null, format);
+        return isNode ? new RDFDeserializer().deserialize(model) : new RDFDeserializer().deserializeTree(model);
+    }
+
+    /**
+     * Форматы, которые Jena пишет и читает потоково, — без модели в памяти.
+     */
+    static String stream(Serializable node, boolean turtle) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new StreamingRDFSerializer().write(node, out, turtle ? RDFFormat.TURTLE_BLOCKS : RDFFormat.NTRIPLES);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    static Serializable unstream(String text, boolean isNode, boolean turtle) {
+        StreamingRDFDeserializer deserializer =
+                new StreamingRDFDeserializer(RDFSerializer.NS, turtle ? Lang.TURTLE : Lang.NTRIPLES);
+        InputStream in = new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+        return isNode ? deserializer.deserialize(in) : deserializer.deserializeTree(in);
+    }
+}
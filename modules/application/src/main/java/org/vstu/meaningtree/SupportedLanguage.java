@@ -2,14 +2,21 @@ package org.vstu.meaningtree;
 
 import org.vstu.meaningtree.languages.CppTranslator;
 import org.vstu.meaningtree.languages.JavaTranslator;
+import org.vstu.meaningtree.languages.LanguageProvider;
+import org.vstu.meaningtree.languages.LanguageProviders;
 import org.vstu.meaningtree.languages.LanguageTranslator;
 import org.vstu.meaningtree.languages.PythonTranslator;
 
-import java.lang.reflect.InvocationTargetException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
+/**
+ * Языки, модули которых входят в приложение. Трансляторы создаются через
+ * {@link LanguageProvider}, так что перечисление не загружает классы трансляторов
+ * (их {@code ID} — константы времени компиляции).
+ */
 public enum SupportedLanguage {
     JAVA("java", JavaTranslator.ID),
     PYTHON("python", PythonTranslator.ID),
@@ -28,7 +35,7 @@ public enum SupportedLanguage {
     }
 
     public static SupportedLanguage from(int id) {
-        for (SupportedLanguage language : translators.keySet()) {
+        for (SupportedLanguage language : values()) {
             if (language.id == id) {
                 return language;
             }
@@ -41,20 +48,16 @@ public enum SupportedLanguage {
         return stringValue;
     }
 
-    private static Map<SupportedLanguage, Class<? extends LanguageTranslator>> translators = new HashMap<>();
-
-    static {
-        translators.put(JAVA, JavaTranslator.class);
-        translators.put(CPP, CppTranslator.class);
-        translators.put(PYTHON, PythonTranslator.class);
-    }
-
     public static Map<SupportedLanguage, Class<? extends LanguageTranslator>> getMap() {
-        return translators;
+        HashMap<SupportedLanguage, Class<? extends LanguageTranslator>> map = new HashMap<>();
+        for (SupportedLanguage lang : values()) {
+            map.put(lang, lang.getTranslatorClass());
+        }
+        return map;
     }
 
     public static SupportedLanguage fromString(String s) {
-        for (SupportedLanguage lang : translators.keySet()) {
+        for (SupportedLanguage lang : values()) {
             if (lang.toString().equals(s.toLowerCase())) {
                 return lang;
             }
@@ -64,39 +67,37 @@ public enum SupportedLanguage {
 
     public static Map<String, Class<? extends LanguageTranslator>> getStringMap() {
         HashMap<String, Class<? extends LanguageTranslator>> map = new HashMap<>();
-        for (SupportedLanguage lang : translators.keySet()) {
-            map.put(lang.toString(), translators.get(lang));
+        for (SupportedLanguage lang : values()) {
+            map.put(lang.toString(), lang.getTranslatorClass());
         }
         return map;
     }
 
-    public LanguageTranslator createTranslatorOrThrow() throws NoSuchMethodException, InvocationTargetException,
-            InstantiationException, IllegalAccessException {
-        return translators.get(this).getConstructor().newInstance();
+    /**
+     * @throws NoSuchElementException если модуль языка отсутствует в пути классов
+     */
+    public LanguageProvider getProvider() {
+        return LanguageProviders.find(stringValue)
+                .orElseThrow(() -> new NoSuchElementException("No provider for language " + stringValue));
     }
 
-    public LanguageTranslator createTranslatorOrThrow(Map<String, String> config) throws NoSuchMethodException, InvocationTargetException,
-            InstantiationException, IllegalAccessException {
-        return translators.get(this).getConstructor(Map.class).newInstance(config);
+    public LanguageTranslator createTranslatorOrThrow() {
+        return getProvider().create();
+    }
+
+    public LanguageTranslator createTranslatorOrThrow(Map<String, Object> config) {
+        return getProvider().create(config);
     }
 
     public Optional<LanguageTranslator> createTranslator() {
-        try {
-            return Optional.of(translators.get(this).getConstructor().newInstance());
-        } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
-            return Optional.empty();
-        }
+        return LanguageProviders.find(stringValue).map(LanguageProvider::create);
     }
 
-    public Optional<LanguageTranslator> createTranslator(Map<String, String> config) {
-        try {
-            return Optional.of(translators.get(this).getConstructor(Map.class).newInstance(config));
-        } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
-            return Optional.empty();
-        }
+    public Optional<LanguageTranslator> createTranslator(Map<String, Object> config) {
+        return LanguageProviders.find(stringValue).map(provider -> provider.create(config));
     }
 
     public Class<? extends LanguageTranslator> getTranslatorClass() {
-        return translators.get(this);
+        return getProvider().getTranslatorClass();
     }
 }
@@ -0,0 +1,115 @@
+package org.vstu.meaningtree;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Фрагменты кода из файлов тестов {@code .test} для прогрева: каждый фрагмент — код одного
+ * языка одного тест-кейса. Разбор упрощённый по сравнению с тестовым модулем: ожидаемые
+ * результаты, альтернативы и параметры кейсов не нужны, важно лишь получить код, на котором
+ * отработают все ветви трансляторов.
+ * <p>
+ * Файлы тестового модуля кладутся в jar приложения в {@value #RESOURCE_DIRECTORY} (см. pom).
+ */
+final class WarmupCorpus {
+    static final String RESOURCE_DIRECTORY = "warmup/";
+    /** Имя файла тестов C++ начинается с кириллической «с» */
+    static final List<String> BUNDLED = List.of("common.test", "python.test", "с++.test");
+
+    private static final Pattern CASE_HEADER = Pattern.compile("^\\h*case(?:\\[[^\\]]*])?:.*$");
+    private static final Pattern LANGUAGE_HEADER = Pattern.compile("^(\\h+)(?:(?:main|alt|isolated)\\h+)?(\\S+):\\h*$");
+
+    record Snippet(String language, String code) {}
+
+    private WarmupCorpus() {}
+
+    /**
+     * Фрагменты из перечисленных файлов и каталогов (в каталоге берутся все {@code *.test}), а
+     * если ничего не перечислено — из файлов, вложенных в jar.
+     */
+    static List<Snippet> load(List<String> paths, Set<String> languages) throws IOException {
+        List<Snippet> snippets = new ArrayList<>();
+        if (paths.isEmpty()) {
+            for (String name : BUNDLED) {
+                try (InputStream in = WarmupCorpus.class.getClassLoader().getResourceAsStream(RESOURCE_DIRECTORY + name)) {
+                    if (in != null) {
+                        snippets.addAll(parse(new String(in.readAllBytes(), StandardCharsets.UTF_8), languages));
+                    }
+                }
+            }
+            return snippets;
+        }
+        for (String path : paths) {
+            Path root = Path.of(path);
+            List<Path> files;
+            if (Files.isDirectory(root)) {
+                try (Stream<Path> walk = Files.walk(root)) {
+                    files = walk.filter(file -> file.toString().endsWith(".test")).sorted().toList();
+                }
+            } else {
+                files = List.of(root);
+            }
+            for (Path file : files) {
+                snippets.addAll(parse(Files.readString(file), languages));
+            }
+        }
+        return snippets;
+    }
+
+    /**
+     * Заголовки языков кейса — строки {@code язык:} с отступом первого такого заголовка после
+     * {@code case:}; всё до следующего заголовка — код, из которого убран общий отступ.
+     * Учитываются только языки из {@code languages}, так что строки кода вроде {@code else:}
+     * заголовками не считаются.
+     */
+    static List<Snippet> parse(String text, Set<String> languages) {
+        List<Snippet> snippets = new ArrayList<>();
+        String headerIndent = null;
+        String language = null;
+        List<String> lines = new ArrayList<>();
+        for (String line : text.split("\\R")) {
+            Matcher header = LANGUAGE_HEADER.matcher(line);
+            boolean isCase = CASE_HEADER.matcher(line).matches() || line.startsWith("group");
+            boolean isLanguage = !isCase && header.matches() && languages.contains(header.group(2))
+                    && (headerIndent == null || headerIndent.equals(header.group(1)));
+            if (isCase || isLanguage) {
+                flush(snippets, language, lines);
+                language = isLanguage ? header.group(2) : null;
+                headerIndent = isLanguage ? header.group(1) : null;
+            } else if (language != null) {
+                lines.add(line);
+            }
+        }
+        flush(snippets, language, lines);
+        return snippets;
+    }
+
+    private static void flush(List<Snippet> snippets, String language, List<String> lines) {
+        String indent = null;
+        for (String line : lines) {
+            if (!line.isBlank()) {
+                String prefix = line.substring(0, line.length() - line.stripLeading().length());
+                if (indent == null || prefix.length() < indent.length()) {
+                    indent = prefix;
+                }
+            }
+        }
+        if (language != null && indent != null) {
+            StringBuilder code = new StringBuilder();
+            for (String line : lines) {
+                code.append(line.isBlank() ? "" : line.substring(Math.min(indent.length(), line.length()))).append('\n');
+            }
+            snippets.add(new Snippet(language, code.toString().strip() + "\n"));
+        }
+        lines.clear();
+    }
+}
@@ -1,6 +1,8 @@
 package org.vstu.meaningtree;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.vstu.meaningtree.exceptions.IllegalUsageException;
 import org.vstu.meaningtree.iterators.DFSNodeIterator;
 import org.vstu.meaningtree.iterators.utils.FieldDescriptor;
 import org.vstu.meaningtree.iterators.utils.NodeInfo;
@@ -11,6 +13,10 @@ import org.vstu.meaningtree.utils.Label;
 import org.vstu.meaningtree.utils.LabelAttachable;
 import org.vstu.meaningtree.utils.ReplaceResult;
 import org.vstu.meaningtree.utils.ReplaceStatus;
+import org.vstu.meaningtree.utils.analysis.AnalysisBundle;
+import org.vstu.meaningtree.utils.analysis.DeferredAnalysis;
+import org.vstu.meaningtree.utils.query.NodeTypeIndex;
+import org.vstu.meaningtree.utils.scopes.ScopeTable;
 
 import java.io.Serializable;
 import java.util.*;
@@ -20,7 +26,28 @@ import java.util.function.Predicate;
 public class MeaningTree implements Serializable, LabelAttachable, Cloneable, NodeIterable {
     @TreeNode private Node rootNode;
     private LinkedHashMap<Long, NodeInfo> _index = null;
+    private transient NodeTypeIndex _typeIndex = null;
     private Set<Label> _labels = new HashSet<>();
+    private boolean _readOnly = false;
+
+    /**
+     * Таблица областей видимости, построенная разбором именно этого дерева: её области
+     * привязаны к составным инструкциям дерева. Viewer берёт её копию вместо того, чтобы
+     * регистрировать объявления и выводить типы заново. Сбрасывается вместе с индексами
+     * при любом изменении дерева.
+     */
+    private transient ScopeTable _scopeSnapshot = null;
+
+    /**
+     * Результаты анализов дерева (см. {@link #analyses()}); сбрасываются вместе с индексами.
+     */
+    private transient AnalysisBundle _analyses = null;
+
+    /**
+     * Отложенные проходы конвейера анализа (см. {@link #ensureAnalyzed()}). Это не кэш:
+     * изменение дерева его не сбрасывает, а отложенный анализ обойдёт дерево уже изменённым.
+     */
+    private transient DeferredAnalysis _deferredAnalysis = null;
 
     public MeaningTree(Node rootNode) {
         this.rootNode = rootNode;
@@ -31,12 +58,38 @@ public class MeaningTree implements Serializable, LabelAttachable, Cloneable, No
     }
 
     public void changeRoot(Node node) {
+        requireWritable();
         rootNode = node;
         invalidateCache();
     }
 
     public void invalidateCache() {
+        if (_readOnly) {
+            // Снимок не меняется, а индексы построены заранее: сбрасывать их значит
+            // перестраивать лениво из нескольких потоков сразу
+            return;
+        }
         _index = null;
+        _typeIndex = null;
+        _scopeSnapshot = null;
+        _analyses = null;
+    }
+
+    /**
+     * Таблица областей видимости разбора, если дерево не менялось после него.
+     */
+    public Optional<ScopeTable> getScopeSnapshot() {
+        return Optional.ofNullable(_scopeSnapshot);
+    }
+
+    /**
+     * Запомнить таблицу, построенную разбором этого дерева. Вызывает транслятор после
+     * успешного разбора; другая таблица здесь смысла не имеет — области должны быть
+     * привязаны к составным инструкциям именно этого дерева.
+     */
+    public void attachScopeSnapshot(@Nullable ScopeTable table) {
+        requireWritable();
+        _scopeSnapshot = table;
     }
 
     public void makeIndex() {
@@ -55,6 +108,44 @@ public class MeaningTree implements Serializable, LabelAttachable, Cloneable, No
             }
         }
         _index = index;
+        _typeIndex = null;
+    }
+
+    /**
+     * Результаты анализов этого дерева. Анализы, запрошенные вместе, выполняются одним
+     * обходом; результат хранится до изменения дерева.
+     */
+    public AnalysisBundle analyses() {
+        if (_analyses == null) {
+            _analyses = new AnalysisBundle(this);
+        }
+        return _analyses;
+    }
+
+    /**
+     * Отложить анализ дерева до первого обращения к его результатам. Вызывает парсер, когда
+     * конвейер анализа работает лениво; узлы должны быть привязаны к тому же анализу.
+     */
+    public void deferAnalysis(@Nullable DeferredAnalysis analysis) {
+        requireWritable();
+        _deferredAnalysis = analysis;
+    }
+
+    /**
+     * Выполнить отложенный анализ, если он ещё не выполнен: после вызова оценки значений
+     * выражений и итераций циклов записаны на узлы. Для дерева без отложенного анализа
+     * ничего не делает.
+     */
+    public void ensureAnalyzed() {
+        DeferredAnalysis analysis = _deferredAnalysis;
+        if (analysis != null) {
+            analysis.ensure();
+        }
+    }
+
+    public boolean isAnalysisPending() {
+        DeferredAnalysis analysis = _deferredAnalysis;
+        return analysis != null && !analysis.isDone();
     }
 
     public NodeInfo getNodeById(long id) {
@@ -64,6 +155,19 @@ public class MeaningTree implements Serializable, LabelAttachable, Cloneable, No
         return _index.get(id);
     }
 
+    /**
+     * Индекс узлов по классу, строится по тому же обходу, что и индекс по id
+     */
+    public NodeTypeIndex getTypeIndex() {
+        if (_index == null) {
+            makeIndex();
+        }
+        if (_typeIndex == null) {
+            _typeIndex = NodeTypeIndex.of(_index.values());
+        }
+        return _typeIndex;
+    }
+
     @Override
     @NotNull
     public Iterator<NodeInfo> iterator() {
@@ -80,15 +184,7 @@ public class MeaningTree implements Serializable, LabelAttachable, Cloneable, No
 
     public boolean hasNodeType(Class<? extends Node> type) {
         Objects.requireNonNull(type, "type must not be null");
-        if (_index == null) {
-            makeIndex();
-        }
-        for (NodeInfo inf : _index.values()) {
-            if (type.isAssignableFrom(inf.node().getClass())) {
-                return true;
-            }
-        }
-        return false;
+        return getTypeIndex().contains(type);
     }
 
     public boolean anyMatch(Predicate<Node> predicate) {
@@ -124,15 +220,58 @@ public class MeaningTree implements Serializable, LabelAttachable, Cloneable, No
         return Objects.hash(toHash.toArray(new Object[0]));
     }
 
+    /**
+     * Снимок дерева только для чтения — для одновременного рендеринга в несколько языков.
+     * <p>
+     * Узлы не копируются: снимок разделяет их с исходным деревом. Индексы по id и по типу
+     * строятся сразу, поэтому чтение из нескольких потоков ничего не достраивает лениво;
+     * {@link #analyses()} тоже заводится сразу и вычисляет результаты под своей блокировкой.
+     * Любая модификация через снимок ({@code replace*}, {@code changeRoot}, метки дерева)
+     * бросает {@link IllegalUsageException}. Менять узлы напрямую, как и исходное дерево,
+     * пока снимок используется, нельзя: этот контракт не проверяется, но ему следуют все
+     * viewer'ы — подготовка дерева ({@code preprocessTree}, {@code ParenthesesFiller})
+     * создаёт изменённые копии, а не правит исходные узлы.
+     */
+    public MeaningTree asReadOnly() {
+        if (_readOnly) {
+            return this;
+        }
+        MeaningTree snapshot = new MeaningTree(rootNode);
+        snapshot._labels = new HashSet<>(_labels);
+        snapshot._scopeSnapshot = _scopeSnapshot;
+        snapshot._deferredAnalysis = _deferredAnalysis;
+        snapshot.makeIndex();
+        snapshot.getTypeIndex();
+        snapshot._analyses = new AnalysisBundle(snapshot);
+        snapshot._readOnly = true;
+        return snapshot;
+    }
+
+    public boolean isReadOnly() {
+        return _readOnly;
+    }
+
+    private void requireWritable() {
+        if (_readOnly) {
+            throw new IllegalUsageException("MeaningTree snapshot is read-only; clone() it to make changes");
+        }
+    }
+
+    /**
+     * Глубокая копия; копия снимка только для чтения изменяема.
+     */
     @Override
     public MeaningTree clone() {
         MeaningTree mt = new MeaningTree(rootNode.clone());
         mt._labels = new HashSet<>(this._labels);
+        // Узлы копии привязаны к анализу исходного дерева и читают оценки по id
+        mt._deferredAnalysis = _deferredAnalysis;
         return mt;
     }
 
     @Override
     public MeaningTree setLabel(Label label) {
+        requireWritable();
         // Метка с таким id уже может быть на дереве: set обязан заменить её, иначе останется старый атрибут
         _labels.remove(label);
         _labels.add(label);
@@ -151,6 +290,7 @@ public class MeaningTree implements Serializable, LabelAttachable, Cloneable, No
 
     @Override
     public boolean removeLabel(Label label) {
+        requireWritable();
         return _labels.remove(label);
     }
 
@@ -174,6 +314,7 @@ public class MeaningTree implements Serializable, LabelAttachable, Cloneable, No
     }
 
     public ReplaceResult replace(long id, Node node) {
+        requireWritable();
         if (node == null) {
             return new ReplaceResult(ReplaceStatus.NULL_VALUE, "Replacement node is null", null, null, null);
         }
@@ -197,6 +338,7 @@ public class MeaningTree implements Serializable, LabelAttachable, Cloneable, No
     }
 
     public ReplaceResult replace(FieldDescriptor slot, Node newNode) {
+        requireWritable();
         ReplaceResult result = rootNode.replace(slot, newNode);
         if (result.isSuccess()) {
             invalidateCache();
@@ -205,6 +347,7 @@ public class MeaningTree implements Serializable, LabelAttachable, Cloneable, No
     }
 
     public ReplaceResult replace(NodeInfo target, Node newNode) {
+        requireWritable();
         if (target == null) {
             return new ReplaceResult(ReplaceStatus.FIELD_NOT_FOUND, "NodeInfo is null", null, null, newNode);
         }
@@ -225,6 +368,7 @@ public class MeaningTree implements Serializable, LabelAttachable, Cloneable, No
     }
 
     public ReplaceResult replaceFirst(Predicate<NodeInfo> matcher, Function<Node, Node> replacer) {
+        requireWritable();
         Objects.requireNonNull(matcher, "matcher is required");
         Objects.requireNonNull(replacer, "replacer is required");
 
@@ -245,6 +389,7 @@ public class MeaningTree implements Serializable, LabelAttachable, Cloneable, No
     }
 
     public List<ReplaceResult> replaceAll(Predicate<NodeInfo> matcher, Function<Node, Node> replacer) {
+        requireWritable();
         Objects.requireNonNull(matcher, "matcher is required");
         Objects.requireNonNull(replacer, "replacer is required");
 
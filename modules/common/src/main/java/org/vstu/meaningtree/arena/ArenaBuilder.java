@@ -0,0 +1,382 @@
+package org.vstu.meaningtree.arena;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import org.jetbrains.annotations.Nullable;
+import org.vstu.meaningtree.nodes.Node;
+import org.vstu.meaningtree.serializers.json.JsonNodeTypeClassMapper;
+
+import java.util.*;
+
+/**
+ * Построитель {@link MeaningTreeArena} для десериализаторов.
+ * <p>
+ * Узлы добавляются в прямом порядке обхода: родитель раньше детей, дети одного родителя — в
+ * порядке их полей. Благодаря этому индекс узла в арене совпадает с его номером в прямом
+ * обходе, а поддерево занимает непрерывный отрезок индексов — на этом построены
+ * {@link MeaningTreeArena#subtreeEnd(int)} и обходы без рекурсии.
+ * <p>
+ * Атрибуты узла — строки из трёх колонок: ключ, вид значения и само значение в {@code long}
+ * (число, биты {@code double}, флаг или индекс в таблице строк). Составные значения, которые
+ * не являются узлами, хранятся строкой JSON. Повторяющиеся значения (имена типов, полей и
+ * ключей, строки, набор атрибутов узла целиком, литералы, идентификаторы) хранятся один раз,
+ * узел ссылается на них индексом.
+ */
+public final class ArenaBuilder {
+    private int size = 0;
+    private int[] type = new int[64];
+    private int[] parent = new int[64];
+    private int[] fieldSlot = new int[64];
+    private int[] fieldIndex = new int[64];
+    private int[] attributes = new int[64];
+    private int[] value = new int[64];
+    private long[] nodeId = new long[64];
+
+    private int rowCount = 0;
+    private int[] rowKey = new int[64];
+    private byte[] rowKind = new byte[64];
+    private long[] rowValue = new long[64];
+
+    /** Наборы атрибутов: отрезки строк {@code [setStart, setEnd)} */
+    private int setCount = 0;
+    private int[] setStart = new int[64];
+    private int[] setEnd = new int[64];
+    /** Следующий набор с тем же хэшем или {@code -1} */
+    private int[] setNext = new int[64];
+    private final Map<Integer, Integer> setsByHash = new HashMap<>();
+
+    /** Узел, атрибуты которого ещё дописываются, или {@code -1} */
+    private int open = -1;
+    private int openRows = 0;
+
+    private final Map<String, Integer> typeIds = new HashMap<>();
+    private final List<String> typeNames = new ArrayList<>();
+    private final Map<String, Integer> fieldIds = new HashMap<>();
+    private final List<String> fieldNames = new ArrayList<>();
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    private final Map<Object, Integer> literalIds = new HashMap<>();
+    private final List<Object> literals = new ArrayList<>();
+    private final Map<String, Integer> identifierIds = new HashMap<>();
+    private final List<String> identifiers = new ArrayList<>();
+
+    private JsonArray treeLabels = null;
+
+    /**
+     * Начать очередной узел. Его атрибуты добавляются через {@link #attribute} и
+     * {@link #nodeArray} до начала следующего узла.
+     *
+     * @param typeName тип узла в терминах {@link JsonNodeTypeClassMapper}
+     * @param id       id узла
+     * @param parent   индекс родителя, уже добавленного в арену, или {@code -1} для корня
+     * @param field    имя поля родителя, в котором лежит узел; {@code null} только у корня
+     * @param index    позиция в поле-массиве или {@code -1}, если поле одиночное
+     * @return индекс добавленного узла
+     */
+    public int beginNode(String typeName, long id, int parent, @Nullable String field, int index) {
+        Objects.requireNonNull(typeName, "typeName must not be null");
+        if (parent >= size || parent < -1 || (parent == -1) != (size == 0)) {
+            throw new IllegalArgumentException("Nodes must be added in pre-order: root first, parents before children");
+        }
+        closeNode();
+        ensureCapacity(size + 1);
+        int node = size++;
+        this.type[node] = intern(typeName, typeIds, typeNames);
+        this.parent[node] = parent;
+        this.fieldSlot[node] = field == null ? -1 : intern(field, fieldIds, fieldNames);
+        this.fieldIndex[node] = index;
+        this.nodeId[node] = id;
+        this.value[node] = -1;
+        open = node;
+        openRows = rowCount;
+        return node;
+    }
+
+    /**
+     * Добавить узел со всеми атрибутами сразу.
+     *
+     * @param attributes всё содержимое узла, кроме детей и id
+     * @see #beginNode
+     */
+    public int addNode(String typeName, long id, int parent, @Nullable String field, int index,
+                       JsonObject attributes) {
+        Objects.requireNonNull(attributes, "attributes must not be null");
+        int node = beginNode(typeName, id, parent, field, index);
+        for (Map.Entry<String, JsonElement> attribute : attributes.entrySet()) {
+            attribute(attribute.getKey(), attribute.getValue());
+        }
+        return node;
+    }
+
+    /**
+     * Атрибут последнего начатого узла — значение в том виде, в каком его пишет
+     * JSON-сериализатор.
+     */
+    public ArenaBuilder attribute(String key, @Nullable JsonElement element) {
+        requireOpen();
+        if (element == null || element.isJsonNull()) {
+            addRow(key, MeaningTreeArena.NULL, 0);
+        } else if (element.isJsonPrimitive()) {
+            addPrimitive(key, element.getAsJsonPrimitive());
+        } else {
+            addRow(key, MeaningTreeArena.JSON, intern(element.toString(), stringIds, strings));
+        }
+        return this;
+    }
+
+    /**
+     * Поле-массив детей последнего начатого узла длины {@code length}. Сами дети добавляются
+     * обычными узлами с индексами в этом массиве; позиции без ребёнка — {@code null}, в том
+     * числе в конце массива.
+     */
+    public ArenaBuilder nodeArray(String key, int length) {
+        requireOpen();
+        if (length < 0) {
+            throw new IllegalArgumentException("length must not be negative");
+        }
+        addRow(key, MeaningTreeArena.NODE_ARRAY, length);
+        return this;
+    }
+
+    /**
+     * Метки самого дерева — в том виде, в каком их пишет JSON-сериализатор.
+     */
+    public ArenaBuilder setTreeLabels(@Nullable JsonArray labels) {
+        this.treeLabels = labels;
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public MeaningTreeArena build() {
+        if (size == 0) {
+            throw new IllegalStateException("Arena must contain at least the root node");
+        }
+        closeNode();
+        int[] firstChild = new int[size];
+        int[] nextSibling = new int[size];
+        int[] lastChild = new int[size];
+        int[] subtreeEnd = new int[size];
+        int[] depth = new int[size];
+        Arrays.fill(firstChild, -1);
+        Arrays.fill(nextSibling, -1);
+        Arrays.fill(lastChild, -1);
+        for (int node = 1; node < size; node++) {
+            int owner = parent[node];
+            depth[node] = depth[owner] + 1;
+            if (lastChild[owner] == -1) {
+                firstChild[owner] = node;
+            } else {
+                nextSibling[lastChild[owner]] = node;
+            }
+            lastChild[owner] = node;
+        }
+        // В прямом порядке поддерево кончается там, где кончается поддерево последнего ребёнка;
+        // дети всегда правее родителя, поэтому хватает одного прохода справа налево
+        for (int node = size - 1; node >= 0; node--) {
+            subtreeEnd[node] = lastChild[node] == -1 ? node + 1 : subtreeEnd[lastChild[node]];
+        }
+
+        Class<?>[] classes = new Class<?>[typeNames.size()];
+        for (int i = 0; i < classes.length; i++) {
+            classes[i] = JsonNodeTypeClassMapper.getClassForType(typeNames.get(i));
+        }
+
+        return new MeaningTreeArena(
+                size,
+                Arrays.copyOf(type, size),
+                Arrays.copyOf(parent, size),
+                firstChild,
+                nextSibling,
+                subtreeEnd,
+                depth,
+                Arrays.copyOf(fieldSlot, size),
+                Arrays.copyOf(fieldIndex, size),
+                Arrays.copyOf(nodeId, size),
+                Arrays.copyOf(attributes, size),
+                Arrays.copyOf(value, size),
+                typeNames.toArray(new String[0]),
+                classes,
+                fieldNames.toArray(new String[0]),
+                Arrays.copyOf(setStart, setCount),
+                Arrays.copyOf(setEnd, setCount),
+                Arrays.copyOf(rowKey, rowCount),
+                Arrays.copyOf(rowKind, rowCount),
+                Arrays.copyOf(rowValue, rowCount),
+                strings.toArray(new String[0]),
+                literals.toArray(),
+                identifiers.toArray(new String[0]),
+                treeLabels
+        );
+    }
+
+    private void requireOpen() {
+        if (open == -1) {
+            throw new IllegalStateException("Attributes must follow beginNode");
+        }
+    }
+
+    private void addPrimitive(String key, JsonPrimitive primitive) {
+        if (primitive.isBoolean()) {
+            addRow(key, MeaningTreeArena.BOOLEAN, primitive.getAsBoolean() ? 1 : 0);
+        } else if (primitive.isString()) {
+            addRow(key, MeaningTreeArena.STRING, intern(primitive.getAsString(), stringIds, strings));
+        } else {
+            Number number = primitive.getAsNumber();
+            if (number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte) {
+                addRow(key, MeaningTreeArena.LONG, number.longValue());
+            } else if (number instanceof Double || number instanceof Float) {
+                addRow(key, MeaningTreeArena.DOUBLE, Double.doubleToRawLongBits(number.doubleValue()));
+            } else {
+                // Число, прочитанное из текста: целое, если помещается в long, иначе как есть
+                String text = primitive.getAsString();
+                try {
+                    addRow(key, MeaningTreeArena.LONG, Long.parseLong(text));
+                } catch (NumberFormatException e) {
+                    addRow(key, MeaningTreeArena.JSON, intern(text, stringIds, strings));
+                }
+            }
+        }
+    }
+
+    private void addRow(String key, byte kind, long rowValue) {
+        if (rowCount == rowKey.length) {
+            int capacity = rowKey.length * 2;
+            rowKey = Arrays.copyOf(rowKey, capacity);
+            rowKind = Arrays.copyOf(rowKind, capacity);
+            this.rowValue = Arrays.copyOf(this.rowValue, capacity);
+        }
+        rowKey[rowCount] = intern(key, stringIds, strings);
+        rowKind[rowCount] = kind;
+        this.rowValue[rowCount] = rowValue;
+        rowCount++;
+    }
+
+    /**
+     * Закончить атрибуты открытого узла: если такой же набор уже есть, строки узла
+     * отбрасываются и узел ссылается на имеющийся.
+     */
+    private void closeNode() {
+        if (open == -1) {
+            return;
+        }
+        int start = openRows;
+        int end = rowCount;
+        int hash = 1;
+        for (int row = start; row < end; row++) {
+            hash = 31 * (31 * (31 * hash + rowKey[row]) + rowKind[row]) + Long.hashCode(rowValue[row]);
+        }
+        Integer head = setsByHash.get(hash);
+        int set = -1;
+        for (int candidate = head == null ? -1 : head; candidate != -1; candidate = setNext[candidate]) {
+            if (sameRows(candidate, start, end)) {
+                set = candidate;
+                break;
+            }
+        }
+        if (set == -1) {
+            if (setCount == setStart.length) {
+                int capacity = setStart.length * 2;
+                setStart = Arrays.copyOf(setStart, capacity);
+                setEnd = Arrays.copyOf(setEnd, capacity);
+                setNext = Arrays.copyOf(setNext, capacity);
+            }
+            set = setCount++;
+            setStart[set] = start;
+            setEnd[set] = end;
+            setNext[set] = head == null ? -1 : head;
+            setsByHash.put(hash, set);
+        } else {
+            rowCount = start;
+        }
+        attributes[open] = set;
+        value[open] = internValue(typeNames.get(type[open]), set);
+        open = -1;
+    }
+
+    private boolean sameRows(int set, int start, int end) {
+        if (setEnd[set] - setStart[set] != end - start) {
+            return false;
+        }
+        for (int i = 0; i < end - start; i++) {
+            int row = setStart[set] + i;
+            if (rowKey[row] != rowKey[start + i] || rowKind[row] != rowKind[start + i]
+                    || rowValue[row] != rowValue[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int internValue(String typeName, int set) {
+        Class<? extends Node> nodeClass = JsonNodeTypeClassMapper.getClassForType(typeName);
+        if (nodeClass == null) {
+            return -1;
+        }
+        if (MeaningTreeArena.isIdentifierClass(nodeClass)) {
+            int row = findRow(set, "name");
+            return row == -1 || rowKind[row] != MeaningTreeArena.STRING
+                    ? -1 : intern(strings.get((int) rowValue[row]), identifierIds, identifiers);
+        }
+        if (MeaningTreeArena.isLiteralClass(nodeClass)) {
+            int row = findRow(set, "value");
+            if (row == -1) {
+                return -1;
+            }
+            long bits = rowValue[row];
+            boolean floating = MeaningTreeArena.isFloatingClass(nodeClass);
+            Object unwrapped = switch (rowKind[row]) {
+                case MeaningTreeArena.BOOLEAN -> bits != 0;
+                case MeaningTreeArena.LONG -> floating ? (Object) (double) bits : (Object) bits;
+                case MeaningTreeArena.DOUBLE -> floating
+                        ? (Object) Double.longBitsToDouble(bits) : (Object) (long) Double.longBitsToDouble(bits);
+                case MeaningTreeArena.STRING -> strings.get((int) bits);
+                default -> null;
+            };
+            return unwrapped == null ? -1 : intern(unwrapped, literalIds, literals);
+        }
+        return -1;
+    }
+
+    private int findRow(int set, String key) {
+        Integer keyId = stringIds.get(key);
+        if (keyId == null) {
+            return -1;
+        }
+        for (int row = setStart[set]; row < setEnd[set]; row++) {
+            if (rowKey[row] == keyId) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    private static <T> int intern(T item, Map<T, Integer> ids, List<T> table) {
+        Integer existing = ids.get(item);
+        if (existing != null) {
+            return existing;
+        }
+        int id = table.size();
+        table.add(item);
+        ids.put(item, id);
+        return id;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= type.length) {
+            return;
+        }
+        int capacity = Math.max(required, type.length * 2);
+        type = Arrays.copyOf(type, capacity);
+        parent = Arrays.copyOf(parent, capacity);
+        fieldSlot = Arrays.copyOf(fieldSlot, capacity);
+        fieldIndex = Arrays.copyOf(fieldIndex, capacity);
+        attributes = Arrays.copyOf(attributes, capacity);
+        value = Arrays.copyOf(value, capacity);
+        nodeId = Arrays.copyOf(nodeId, capacity);
+    }
+}
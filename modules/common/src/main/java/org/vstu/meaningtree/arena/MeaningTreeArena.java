@@ -0,0 +1,605 @@
+package org.vstu.meaningtree.arena;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import org.jetbrains.annotations.Nullable;
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.exceptions.MeaningTreeSerializationException;
+import org.vstu.meaningtree.nodes.Node;
+import org.vstu.meaningtree.nodes.expressions.Literal;
+import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
+import org.vstu.meaningtree.nodes.expressions.literals.FloatLiteral;
+import org.vstu.meaningtree.serializers.json.JsonDeserializer;
+import org.vstu.meaningtree.serializers.json.JsonNodeTypeClassMapper;
+import org.vstu.meaningtree.serializers.json.JsonSerializer;
+import org.vstu.meaningtree.utils.Experimental;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Неизменяемое колоночное представление дерева для массовой аналитики.
+ * <p>
+ * Вместо графа объектов {@link Node} (дети через рефлексию, набор меток на каждом узле,
+ * упакованные {@code Optional}) структура хранится в примитивных колонках, по одной ячейке на
+ * узел: тип, родитель, первый ребёнок, следующий брат, поле родителя. Узел — это индекс
+ * {@code int}; корень — всегда {@code 0}, индексы идут в прямом порядке обхода, поэтому
+ * поддерево узла {@code i} — это отрезок {@code [i, subtreeEnd(i))}.
+ * <p>
+ * Всё содержимое узла, кроме структуры, хранится так, как его пишет
+ * {@link JsonSerializer}: поля называются по ключам JSON, а не по полям классов. Значения
+ * лежат в колонках строк атрибутов (ключ, вид, {@code long}) и общей таблице строк, а не в
+ * объектах Gson. Литералы и имена идентификаторов вынесены в отдельные таблицы, чтобы
+ * аналитика читала их без разбора атрибутов. Обратно в {@link Node} узел превращается по
+ * требованию через {@link JsonDeserializer} — {@link #toNode(int)}.
+ * <p>
+ * Строится из готового дерева ({@link #of(MeaningTree)}) узел за узлом, без JSON всего
+ * дерева, или прямо из JSON без создания узлов ({@link #fromJson(JsonObject)});
+ * десериализаторы других форматов могут наполнять {@link ArenaBuilder} сами.
+ */
+@Experimental
+public final class MeaningTreeArena {
+    /* Виды значений в строках атрибутов */
+    static final byte NULL = 0;
+    static final byte BOOLEAN = 1;
+    static final byte LONG = 2;
+    /** Биты {@code double} */
+    static final byte DOUBLE = 3;
+    /** Индекс в таблице строк */
+    static final byte STRING = 4;
+    /** Составное значение или число вне {@code long}: текст JSON в таблице строк */
+    static final byte JSON = 5;
+    /** Поле-массив детей; значение — длина массива вместе с пустыми позициями */
+    static final byte NODE_ARRAY = 6;
+
+    private final int size;
+    private final int[] type;
+    private final int[] parent;
+    private final int[] firstChild;
+    private final int[] nextSibling;
+    private final int[] subtreeEnd;
+    private final int[] depth;
+    private final int[] fieldSlot;
+    private final int[] fieldIndex;
+    private final long[] nodeId;
+    private final int[] attributes;
+    private final int[] value;
+
+    private final String[] typeNames;
+    private final Class<?>[] typeClasses;
+    private final String[] fieldNames;
+    private final int[] setStart;
+    private final int[] setEnd;
+    private final int[] rowKey;
+    private final byte[] rowKind;
+    private final long[] rowValue;
+    private final String[] strings;
+    private final Object[] literals;
+    private final String[] identifiers;
+    private final JsonArray treeLabels;
+
+    MeaningTreeArena(int size, int[] type, int[] parent, int[] firstChild, int[] nextSibling,
+                     int[] subtreeEnd, int[] depth, int[] fieldSlot, int[] fieldIndex, long[] nodeId,
+                     int[] attributes, int[] value, String[] typeNames, Class<?>[] typeClasses,
+                     String[] fieldNames, int[] setStart, int[] setEnd, int[] rowKey, byte[] rowKind,
+                     long[] rowValue, String[] strings, Object[] literals, String[] identifiers,
+                     @Nullable JsonArray treeLabels) {
+        this.size = size;
+        this.type = type;
+        this.parent = parent;
+        this.firstChild = firstChild;
+        this.nextSibling = nextSibling;
+        this.subtreeEnd = subtreeEnd;
+        this.depth = depth;
+        this.fieldSlot = fieldSlot;
+        this.fieldIndex = fieldIndex;
+        this.nodeId = nodeId;
+        this.attributes = attributes;
+        this.value = value;
+        this.typeNames = typeNames;
+        this.typeClasses = typeClasses;
+        this.fieldNames = fieldNames;
+        this.setStart = setStart;
+        this.setEnd = setEnd;
+        this.rowKey = rowKey;
+        this.rowKind = rowKind;
+        this.rowValue = rowValue;
+        this.strings = strings;
+        this.literals = literals;
+        this.identifiers = identifiers;
+        this.treeLabels = treeLabels;
+    }
+
+    /* -----------------------------
+    |          Построение           |
+    ------------------------------ */
+
+    public static MeaningTreeArena of(MeaningTree tree) {
+        ArenaBuilder builder = new ArenaBuilder();
+        ShallowJsonSerializer serializer = new ShallowJsonSerializer();
+        JsonObject shell = serializer.serializeShell(tree);
+        if (shell.has("labels") && shell.get("labels").isJsonArray()) {
+            builder.setTreeLabels(shell.getAsJsonArray("labels"));
+        }
+        readNodes(builder, serializer, tree.getRootNode());
+        return builder.build();
+    }
+
+    public static MeaningTreeArena of(Node node) {
+        ArenaBuilder builder = new ArenaBuilder();
+        readNodes(builder, new ShallowJsonSerializer(), node);
+        return builder.build();
+    }
+
+    /**
+     * Обход узлов с явным стеком. Каждый узел сериализуется отдельно, вместо детей в его
+     * JSON стоят метки, поэтому JSON всего дерева не строится и не удерживается.
+     */
+    private static void readNodes(ArenaBuilder builder, ShallowJsonSerializer serializer, Node rootNode) {
+        record Pending(Node node, int parent, String field, int index) {}
+
+        List<Pending> stack = new ArrayList<>();
+        stack.add(new Pending(rootNode, -1, null, -1));
+        while (!stack.isEmpty()) {
+            Pending current = stack.removeLast();
+            JsonObject json = serializer.serializeShallow(current.node());
+            int node = builder.beginNode(json.get("type").getAsString(), current.node().getId(),
+                    current.parent(), current.field(), current.index());
+            List<Pending> children = new ArrayList<>();
+            for (Map.Entry<String, JsonElement> property : json.entrySet()) {
+                String key = property.getKey();
+                JsonElement element = property.getValue();
+                if (key.equals("id") || key.equals("unique_hash")) {
+                    continue;
+                }
+                Node child = serializer.childOf(element);
+                if (child != null) {
+                    children.add(new Pending(child, node, key, -1));
+                } else if (serializer.isChildArray(element)) {
+                    JsonArray array = element.getAsJsonArray();
+                    builder.nodeArray(key, array.size());
+                    for (int i = 0; i < array.size(); i++) {
+                        if (!array.get(i).isJsonNull()) {
+                            children.add(new Pending(serializer.childOf(array.get(i)), node, key, i));
+                        }
+                    }
+                } else {
+                    builder.attribute(key, serializer.expand(element));
+                }
+            }
+            // Стек разворачивает порядок: дети кладутся с конца, чтобы добавиться по порядку
+            for (int i = children.size() - 1; i >= 0; i--) {
+                stack.add(children.get(i));
+            }
+        }
+    }
+
+    /**
+     * Построить арену прямо из JSON дерева ({@code meaning_tree}) или отдельного узла, не
+     * создавая ни одного {@link Node}.
+     */
+    public static MeaningTreeArena fromJson(JsonObject json) {
+        ArenaBuilder builder = new ArenaBuilder();
+        JsonObject root = json;
+        if (json.has("type") && "meaning_tree".equals(json.get("type").getAsString())) {
+            root = json.getAsJsonObject("root_node");
+            if (json.has("labels") && json.get("labels").isJsonArray()) {
+                builder.setTreeLabels(json.getAsJsonArray("labels").deepCopy());
+            }
+        }
+        if (!isSerializedNode(root)) {
+            throw new MeaningTreeSerializationException("Expected serialized node as arena root");
+        }
+        readNode(builder, root);
+        return builder.build();
+    }
+
+    /**
+     * Обход JSON с явным стеком: рекурсия по глубине дерева здесь недопустима, арена как раз
+     * для больших деревьев.
+     */
+    private static void readNode(ArenaBuilder builder, JsonObject rootJson) {
+        record Pending(JsonObject json, int parent, String field, int index) {}
+
+        List<Pending> stack = new ArrayList<>();
+        stack.add(new Pending(rootJson, -1, null, -1));
+        while (!stack.isEmpty()) {
+            Pending current = stack.removeLast();
+            int node = builder.beginNode(current.json().get("type").getAsString(), current.json().get("id").getAsLong(),
+                    current.parent(), current.field(), current.index());
+            List<Pending> children = new ArrayList<>();
+            for (Map.Entry<String, JsonElement> property : current.json().entrySet()) {
+                String key = property.getKey();
+                JsonElement element = property.getValue();
+                if (key.equals("id") || key.equals("unique_hash")) {
+                    continue;
+                }
+                if (element.isJsonObject() && isSerializedNode(element.getAsJsonObject())) {
+                    children.add(new Pending(element.getAsJsonObject(), node, key, -1));
+                } else if (isNodeArray(element)) {
+                    JsonArray array = element.getAsJsonArray();
+                    builder.nodeArray(key, array.size());
+                    for (int i = 0; i < array.size(); i++) {
+                        if (!array.get(i).isJsonNull()) {
+                            children.add(new Pending(array.get(i).getAsJsonObject(), node, key, i));
+                        }
+                    }
+                } else {
+                    builder.attribute(key, element);
+                }
+            }
+            // Стек разворачивает порядок: дети кладутся с конца, чтобы добавиться по порядку
+            for (int i = children.size() - 1; i >= 0; i--) {
+                stack.add(children.get(i));
+            }
+        }
+    }
+
+    private static boolean isSerializedNode(JsonObject json) {
+        return json.has("id") && json.has("type") && json.get("type").isJsonPrimitive()
+                && JsonNodeTypeClassMapper.isTypeRegistered(json.get("type").getAsString());
+    }
+
+    private static boolean isNodeArray(JsonElement element) {
+        if (!element.isJsonArray()) {
+            return false;
+        }
+        boolean hasNode = false;
+        for (JsonElement item : element.getAsJsonArray()) {
+            if (item.isJsonNull()) {
+                continue;
+            }
+            if (!item.isJsonObject() || !isSerializedNode(item.getAsJsonObject())) {
+                return false;
+            }
+            hasNode = true;
+        }
+        return hasNode;
+    }
+
+    static boolean isIdentifierClass(Class<?> nodeClass) {
+        return SimpleIdentifier.class.isAssignableFrom(nodeClass);
+    }
+
+    static boolean isLiteralClass(Class<?> nodeClass) {
+        return Literal.class.isAssignableFrom(nodeClass);
+    }
+
+    static boolean isFloatingClass(Class<?> nodeClass) {
+        return FloatLiteral.class.isAssignableFrom(nodeClass);
+    }
+
+    /* -----------------------------
+    |           Колонки             |
+    ------------------------------ */
+
+    public int size() {
+        return size;
+    }
+
+    public int root() {
+        return 0;
+    }
+
+    public int typeId(int node) {
+        return type[node];
+    }
+
+    public int typeCount() {
+        return typeNames.length;
+    }
+
+    public String typeName(int node) {
+        return typeNames[type[node]];
+    }
+
+    /**
+     * Идентификатор типа по имени или {@code -1}, если узлов такого типа в арене нет.
+     */
+    public int typeIdOf(String typeName) {
+        for (int i = 0; i < typeNames.length; i++) {
+            if (typeNames[i].equals(typeName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public Class<? extends Node> nodeClass(int node) {
+        return (Class<? extends Node>) typeClasses[type[node]];
+    }
+
+    public boolean isInstance(int node, Class<? extends Node> nodeType) {
+        Class<?> actual = typeClasses[type[node]];
+        return actual != null && nodeType.isAssignableFrom(actual);
+    }
+
+    /** Родитель узла или {@code -1} у корня. */
+    public int parent(int node) {
+        return parent[node];
+    }
+
+    /** Первый ребёнок или {@code -1}. */
+    public int firstChild(int node) {
+        return firstChild[node];
+    }
+
+    /** Следующий ребёнок того же родителя или {@code -1}. */
+    public int nextSibling(int node) {
+        return nextSibling[node];
+    }
+
+    /** Индекс, следующий за последним узлом поддерева: поддерево — это {@code [node, subtreeEnd(node))}. */
+    public int subtreeEnd(int node) {
+        return subtreeEnd[node];
+    }
+
+    public int depth(int node) {
+        return depth[node];
+    }
+
+    /** Имя поля родителя, в котором лежит узел; {@code null} у корня. */
+    @Nullable
+    public String fieldName(int node) {
+        return fieldSlot[node] == -1 ? null : fieldNames[fieldSlot[node]];
+    }
+
+    /** Позиция в поле-массиве или {@code -1}. */
+    public int fieldIndex(int node) {
+        return fieldIndex[node];
+    }
+
+    public long nodeId(int node) {
+        return nodeId[node];
+    }
+
+    /**
+     * Индекс узла с заданным id или {@code -1}. Линейный поиск — для аналитики, которой id
+     * нужен изредка; частые запросы по id лучше делать по {@link MeaningTree}.
+     */
+    public int indexOf(long id) {
+        for (int node = 0; node < size; node++) {
+            if (nodeId[node] == id) {
+                return node;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Атрибуты узла — содержимое его JSON без детей и id. Собирается из колонок при каждом
+     * вызове.
+     */
+    public JsonObject attributes(int node) {
+        JsonObject json = new JsonObject();
+        int set = attributes[node];
+        for (int row = setStart[set]; row < setEnd[set]; row++) {
+            if (rowKind[row] != NODE_ARRAY) {
+                json.add(strings[rowKey[row]], rowElement(row));
+            }
+        }
+        return json;
+    }
+
+    private JsonElement rowElement(int row) {
+        long bits = rowValue[row];
+        return switch (rowKind[row]) {
+            case BOOLEAN -> new JsonPrimitive(bits != 0);
+            case LONG -> new JsonPrimitive(bits);
+            case DOUBLE -> new JsonPrimitive(Double.longBitsToDouble(bits));
+            case STRING -> new JsonPrimitive(strings[(int) bits]);
+            case JSON -> JsonParser.parseString(strings[(int) bits]);
+            default -> JsonNull.INSTANCE;
+        };
+    }
+
+    public boolean isLiteral(int node) {
+        return value[node] != -1 && isLiteralClass(typeClasses[type[node]]);
+    }
+
+    public boolean isIdentifier(int node) {
+        return value[node] != -1 && isIdentifierClass(typeClasses[type[node]]);
+    }
+
+    /**
+     * Значение литерала: {@code Long}, {@code Double}, {@code Boolean} или {@code String};
+     * {@code null}, если узел не литерал или литерал без значения.
+     */
+    @Nullable
+    public Object literalValue(int node) {
+        return isLiteral(node) ? literals[value[node]] : null;
+    }
+
+    @Nullable
+    public String identifierName(int node) {
+        return isIdentifier(node) ? identifiers[value[node]] : null;
+    }
+
+    /* -----------------------------
+    |            Обходы             |
+    ------------------------------ */
+
+    /**
+     * Обход в глубину в том же порядке, что и {@link org.vstu.meaningtree.iterators.DFSNodeIterator}:
+     * узел выдаётся после всех своих потомков, корень — последним.
+     */
+    public PrimitiveIterator.OfInt dfs() {
+        return dfs(root());
+    }
+
+    public PrimitiveIterator.OfInt dfs(int from) {
+        return new PostOrderIterator(from);
+    }
+
+    /** Прямой порядок: индексы поддерева подряд, без какого-либо стека. */
+    public PrimitiveIterator.OfInt preOrder(int from) {
+        int end = subtreeEnd[from];
+        return new PrimitiveIterator.OfInt() {
+            private int next = from;
+
+            @Override
+            public boolean hasNext() {
+                return next < end;
+            }
+
+            @Override
+            public int nextInt() {
+                if (next >= end) {
+                    throw new NoSuchElementException();
+                }
+                return next++;
+            }
+        };
+    }
+
+    /**
+     * Обход в ширину, как {@link org.vstu.meaningtree.iterators.BFSNodeIterator}: по уровням,
+     * внутри уровня — в порядке полей.
+     */
+    public PrimitiveIterator.OfInt bfs() {
+        return bfs(root());
+    }
+
+    public PrimitiveIterator.OfInt bfs(int from) {
+        int[] queue = new int[subtreeEnd[from] - from];
+        queue[0] = from;
+        return new PrimitiveIterator.OfInt() {
+            private int head = 0;
+            private int tail = 1;
+
+            @Override
+            public boolean hasNext() {
+                return head < tail;
+            }
+
+            @Override
+            public int nextInt() {
+                if (head >= tail) {
+                    throw new NoSuchElementException();
+                }
+                int node = queue[head++];
+                for (int child = firstChild[node]; child != -1; child = nextSibling[child]) {
+                    queue[tail++] = child;
+                }
+                return node;
+            }
+        };
+    }
+
+    private final class PostOrderIterator implements PrimitiveIterator.OfInt {
+        private final int end;
+        private final int[] stack;
+        private int top = 0;
+        private int cursor;
+
+        private PostOrderIterator(int from) {
+            this.cursor = from;
+            this.end = subtreeEnd[from];
+            this.stack = new int[maxDepth(from) + 1];
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor < end || top > 0;
+        }
+
+        /**
+         * Прямой порядок превращается в обратный стеком предков: узел выдаётся, как только
+         * прямой обход вышел за его поддерево.
+         */
+        @Override
+        public int nextInt() {
+            while (cursor < end) {
+                if (top > 0 && subtreeEnd[stack[top - 1]] <= cursor) {
+                    return stack[--top];
+                }
+                stack[top++] = cursor++;
+            }
+            if (top == 0) {
+                throw new NoSuchElementException();
+            }
+            return stack[--top];
+        }
+
+        private int maxDepth(int from) {
+            int base = depth[from];
+            int max = 0;
+            for (int node = from; node < end; node++) {
+                max = Math.max(max, depth[node] - base);
+            }
+            return max;
+        }
+    }
+
+    /* -----------------------------
+    |       Обратно в объекты       |
+    ------------------------------ */
+
+    /**
+     * Собрать JSON поддерева в том виде, в каком его пишет {@link JsonSerializer}.
+     */
+    public JsonObject toJson(int node) {
+        JsonObject[] rendered = new JsonObject[subtreeEnd[node] - node];
+        // Справа налево: к моменту сборки узла все его дети уже собраны
+        for (int current = subtreeEnd[node] - 1; current >= node; current--) {
+            JsonObject json = new JsonObject();
+            int set = attributes[current];
+            for (int row = setStart[set]; row < setEnd[set]; row++) {
+                if (rowKind[row] == NODE_ARRAY) {
+                    // Все позиции массива, в том числе пустые в конце; дети встанут на свои места ниже
+                    JsonArray array = new JsonArray((int) rowValue[row]);
+                    for (int i = 0; i < rowValue[row]; i++) {
+                        array.add(JsonNull.INSTANCE);
+                    }
+                    json.add(strings[rowKey[row]], array);
+                } else {
+                    json.add(strings[rowKey[row]], rowElement(row));
+                }
+            }
+            json.addProperty("id", nodeId[current]);
+            for (int child = firstChild[current]; child != -1; child = nextSibling[child]) {
+                String field = fieldNames[fieldSlot[child]];
+                JsonObject childJson = rendered[child - node];
+                if (fieldIndex[child] == -1) {
+                    json.add(field, childJson);
+                    continue;
+                }
+                JsonArray array = json.has(field) && json.get(field).isJsonArray()
+                        ? json.getAsJsonArray(field) : new JsonArray();
+                while (array.size() <= fieldIndex[child]) {
+                    array.add(JsonNull.INSTANCE);
+                }
+                array.set(fieldIndex[child], childJson);
+                json.add(field, array);
+            }
+            rendered[current - node] = json;
+        }
+        return rendered[0];
+    }
+
+    /**
+     * Узел вместе с поддеревом как обычный граф объектов.
+     */
+    public Node toNode(int node) {
+        return new JsonDeserializer().deserialize(toJson(node));
+    }
+
+    public MeaningTree toMeaningTree() {
+        JsonObject json = new JsonObject();
+        json.addProperty("type", "meaning_tree");
+        json.add("root_node", toJson(root()));
+        if (treeLabels != null) {
+            json.add("labels", treeLabels.deepCopy());
+        }
+        return new JsonDeserializer().deserializeTree(json);
+    }
+}
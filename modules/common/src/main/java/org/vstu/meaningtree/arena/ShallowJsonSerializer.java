@@ -0,0 +1,121 @@
+package org.vstu.meaningtree.arena;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.jetbrains.annotations.Nullable;
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.nodes.Node;
+import org.vstu.meaningtree.serializers.json.JsonSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON-сериализатор одного узла для {@link MeaningTreeArena#of(Node)}: формат полей узла
+ * берётся из {@link JsonSerializer}, но вместо вложенных узлов в JSON стоят метки со ссылкой
+ * на сам узел. Арена обходит детей сама, поэтому JSON дерева целиком не строится.
+ */
+final class ShallowJsonSerializer extends JsonSerializer {
+    /** Ключ метки; такого ключа нет ни в одном формате узла */
+    private static final String CHILD_KEY = "\u0000arena_child";
+
+    private final List<Node> children = new ArrayList<>();
+    private boolean nested = false;
+
+    /**
+     * JSON узла, где вместо каждого вложенного узла стоит метка. Метки действительны до
+     * следующего вызова.
+     */
+    JsonObject serializeShallow(Node node) {
+        children.clear();
+        return serialize(node);
+    }
+
+    /**
+     * JSON дерева без корня: только его собственные поля, в том числе метки.
+     */
+    JsonObject serializeShell(MeaningTree tree) {
+        children.clear();
+        nested = true;
+        try {
+            JsonObject json = serialize(tree);
+            for (Map.Entry<String, JsonElement> property : json.entrySet()) {
+                property.setValue(expand(property.getValue()));
+            }
+            return json;
+        } finally {
+            nested = false;
+        }
+    }
+
+    @Override
+    public JsonObject serialize(Node node) {
+        if (node == null) {
+            return null;
+        }
+        if (nested) {
+            JsonObject marker = new JsonObject();
+            marker.addProperty(CHILD_KEY, children.size());
+            children.add(node);
+            return marker;
+        }
+        nested = true;
+        try {
+            return super.serialize(node);
+        } finally {
+            nested = false;
+        }
+    }
+
+    /** Узел, на который ссылается метка, или {@code null}, если это не метка. */
+    @Nullable
+    Node childOf(JsonElement element) {
+        if (!element.isJsonObject()) {
+            return null;
+        }
+        JsonObject json = element.getAsJsonObject();
+        return json.size() == 1 && json.has(CHILD_KEY) ? children.get(json.get(CHILD_KEY).getAsInt()) : null;
+    }
+
+    /** Массив, в котором есть метки и нет ничего, кроме меток и {@code null}. */
+    boolean isChildArray(JsonElement element) {
+        if (!element.isJsonArray()) {
+            return false;
+        }
+        boolean hasChild = false;
+        for (JsonElement item : element.getAsJsonArray()) {
+            if (item.isJsonNull()) {
+                continue;
+            }
+            if (childOf(item) == null) {
+                return false;
+            }
+            hasChild = true;
+        }
+        return hasChild;
+    }
+
+    /**
+     * Значение атрибута, в котором метки на любой глубине заменены полным JSON узла: узлы
+     * внутри составных атрибутов арена хранит как есть, а не отдельными узлами.
+     */
+    JsonElement expand(JsonElement element) {
+        Node child = childOf(element);
+        if (child != null) {
+            return new JsonSerializer().serialize(child);
+        }
+        if (element.isJsonArray()) {
+            JsonArray array = element.getAsJsonArray();
+            for (int i = 0; i < array.size(); i++) {
+                array.set(i, expand(array.get(i)));
+            }
+        } else if (element.isJsonObject()) {
+            for (Map.Entry<String, JsonElement> property : element.getAsJsonObject().entrySet()) {
+                property.setValue(expand(property.getValue()));
+            }
+        }
+        return element;
+    }
+}
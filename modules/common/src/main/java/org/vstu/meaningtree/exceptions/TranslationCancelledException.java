@@ -0,0 +1,28 @@
+package org.vstu.meaningtree.exceptions;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Трансляция прервана через {@link org.vstu.meaningtree.utils.CancellationToken}: отменена
+ * вызывающим кодом или вышла за срок.
+ * <p>
+ * Наследуется от {@link CancellationException}, а не от {@link MeaningTreeException}, по той
+ * же причине, что и {@link ConcurrentTranslationException}: методы {@code tryGet...} ловят
+ * {@code MeaningTreeException} и вернули бы «код не разобрался», хотя с кодом всё в порядке —
+ * его просто не дали дотранслировать.
+ */
+public class TranslationCancelledException extends CancellationException {
+    private final boolean deadlineExceeded;
+
+    public TranslationCancelledException(String msg, boolean deadlineExceeded) {
+        super(msg);
+        this.deadlineExceeded = deadlineExceeded;
+    }
+
+    /**
+     * @return {@code true}, если трансляция вышла за срок, {@code false} — если её отменили
+     */
+    public boolean isDeadlineExceeded() {
+        return deadlineExceeded;
+    }
+}
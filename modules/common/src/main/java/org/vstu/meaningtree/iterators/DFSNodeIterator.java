@@ -3,10 +3,7 @@ package org.vstu.meaningtree.iterators;
 import org.vstu.meaningtree.iterators.utils.*;
 import org.vstu.meaningtree.nodes.Node;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
-import java.util.Iterator;
-import java.util.NoSuchElementException;
+import java.util.*;
 
 public class DFSNodeIterator extends AbstractNodeIterator {
 
@@ -54,8 +51,14 @@ public class DFSNodeIterator extends AbstractNodeIterator {
         return !stack.isEmpty();
     }
 
+    /**
+     * Обход в глубину с явным стеком кадров: глубина дерева ограничена только кучей, а не
+     * стеком потока, поэтому машинно сгенерированные выражения с десятками тысяч уровней
+     * вложенности обходятся так же, как обычные.
+     */
     @Override
     public NodeInfo next() {
+        descend:
         while (!stack.isEmpty()) {
             Frame frame = stack.peek();
             Node parentNode = frame.parentField == null ? null : frame.parentField.getOwner();
@@ -73,7 +76,7 @@ public class DFSNodeIterator extends AbstractNodeIterator {
                                 continue;
                             }
                             stack.push(new Frame(child, fd, frame.info, frame.info.depth() + 1));
-                            return next(); // углубляемся дальше
+                            continue descend; // углубляемся дальше
                         } else if (fd instanceof ArrayFieldDescriptor afd) {
                             frame.nodeIterator = afd.iterator();
                             frame.fieldIndex = -1;
@@ -96,7 +99,7 @@ public class DFSNodeIterator extends AbstractNodeIterator {
                             continue;
                         }
                         stack.push(new Frame(child, frame.currentField.withIndex(frame.fieldIndex), frame.info, frame.info.depth() + 1));
-                        return next();
+                        continue descend;
                     }
                 }
 
@@ -113,7 +116,29 @@ public class DFSNodeIterator extends AbstractNodeIterator {
         throw new NoSuchElementException();
     }
 
-    private void prePushChildren(Frame frame) {
+    /**
+     * Кладёт в стек всех потомков {@code root} сразу и помечает их обойдёнными. Порядок
+     * тот же, что у рекурсивной раскладки: потомок кладётся перед своими потомками, а те —
+     * перед его следующим братом.
+     */
+    private void prePushChildren(Frame root) {
+        Deque<Frame> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Frame frame = pending.pop();
+            if (frame != root) {
+                stack.push(frame);
+            }
+            List<Frame> children = childFrames(frame);
+            for (int i = children.size() - 1; i >= 0; i--) {
+                pending.push(children.get(i));
+            }
+            frame.visitedChildren = true;
+        }
+    }
+
+    private List<Frame> childFrames(Frame frame) {
+        List<Frame> children = new ArrayList<>();
         while (frame.fieldIterator.hasNext()) {
             FieldDescriptor fd = frame.fieldIterator.next();
             frame.currentField = fd;
@@ -122,40 +147,25 @@ public class DFSNodeIterator extends AbstractNodeIterator {
             try {
                 if (fd instanceof NodeFieldDescriptor nfd) {
                     Node child = nfd.get();
-                    if (child == null) {
-                        continue;
+                    if (child != null) {
+                        children.add(new Frame(child, fd, frame.info, frame.info.depth() + 1));
                     }
-                    stack.push(new Frame(child, fd, frame.info, frame.info.depth() + 1));
-                    prePushChildren(stack.peek());
-                } else if (fd instanceof ArrayFieldDescriptor afd) {
-                    Iterator<Node> iter = afd.iterator();
+                } else if (fd instanceof ArrayFieldDescriptor || fd instanceof CollectionFieldDescriptor) {
+                    Iterator<Node> iter = fd instanceof ArrayFieldDescriptor afd ? afd.iterator()
+                            : ((CollectionFieldDescriptor) fd).iterator();
                     int idx = -1;
                     while (iter.hasNext()) {
                         Node child = iter.next();
                         idx++;
-                        if (child == null) {
-                            continue;
-                        }
-                        stack.push(new Frame(child, fd.withIndex(idx), frame.info, frame.info.depth() + 1));
-                        prePushChildren(stack.peek());
-                    }
-                } else if (fd instanceof CollectionFieldDescriptor cfd) {
-                    Iterator<Node> iter = cfd.iterator();
-                    int idx = -1;
-                    while (iter.hasNext()) {
-                        Node child = iter.next();
-                        idx++;
-                        if (child == null) {
-                            continue;
+                        if (child != null) {
+                            children.add(new Frame(child, fd.withIndex(idx), frame.info, frame.info.depth() + 1));
                         }
-                        stack.push(new Frame(child, fd.withIndex(idx), frame.info, frame.info.depth() + 1));
-                        prePushChildren(stack.peek());
                     }
                 }
             } catch (IllegalAccessException e) {
                 // пропускаем поле
             }
         }
-        frame.visitedChildren = true;
+        return children;
     }
 }
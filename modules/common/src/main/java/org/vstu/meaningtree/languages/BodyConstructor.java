@@ -104,7 +104,13 @@ public class BodyConstructor implements Iterable<Node> {
     }
 
     private void setNodeHook(Node node) {
-        if (!ctx.consumeIgnore(node)) {
+        boolean ignored = ctx.consumeIgnore(node);
+        if (ctx.isScopeAdopted()) {
+            // Таблица взята из разбора этого же дерева: узел там уже зарегистрирован, а его
+            // типы выведены
+            return;
+        }
+        if (!ignored) {
             if (node instanceof ClassDefinition def) {
                 for (Node clsComponent : def.getBody().getNodes()) {
                     if (clsComponent instanceof FieldDeclaration field) {
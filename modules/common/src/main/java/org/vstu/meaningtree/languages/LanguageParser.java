@@ -1,26 +1,36 @@
 package org.vstu.meaningtree.languages;
 
+import org.jetbrains.annotations.Nullable;
 import org.treesitter.TSLanguage;
 import org.treesitter.TSNode;
 import org.treesitter.TSParser;
 import org.treesitter.TSTree;
 import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.exceptions.TranslationCancelledException;
 import org.vstu.meaningtree.exceptions.UnsupportedParsingException;
 import org.vstu.meaningtree.languages.configs.ConfigParameters;
 import org.vstu.meaningtree.nodes.Node;
+import org.vstu.meaningtree.nodes.statements.Loop;
+import org.vstu.meaningtree.utils.CancellationToken;
 import org.vstu.meaningtree.utils.Label;
 import org.vstu.meaningtree.utils.TreeSitterUtils;
+import org.vstu.meaningtree.utils.analysis.AnalysisPass;
+import org.vstu.meaningtree.utils.analysis.DeferredAnalysis;
+import org.vstu.meaningtree.utils.analysis.FusedTraversal;
 import org.vstu.meaningtree.utils.analysis.expressions.ExpressionValueEvaluator;
 import org.vstu.meaningtree.utils.analysis.loops.LoopIterationAnalyzer;
 import org.vstu.meaningtree.utils.analysis.symbols.SymbolResolver;
 import org.vstu.meaningtree.utils.hooks.HookHandle;
 import org.vstu.meaningtree.utils.hooks.HookOrder;
 import org.vstu.meaningtree.utils.hooks.HookPhase;
+import org.vstu.meaningtree.utils.metrics.MetricsRecorder;
+import org.vstu.meaningtree.utils.metrics.TranslationPhase;
 import org.vstu.meaningtree.utils.scopes.ScopeTable;
 
 import java.util.*;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
 
 abstract public class LanguageParser extends TranslatorComponent {
@@ -28,10 +38,21 @@ abstract public class LanguageParser extends TranslatorComponent {
     private String _code = "";
     protected Map<int[], Object> _byteValueTags = new HashMap<>();
 
-    protected TSParser _tsParser;
-    protected TSLanguage _tsLanguage;
+    /**
+     * Грамматика и парсер tree-sitter создаются при первом разборе: конструктор грамматики
+     * загружает её нативную библиотеку, а транслятор целевого языка только отрисовывает код.
+     */
+    private final Supplier<TSLanguage> _tsLanguageFactory;
+    private TSParser _tsParser;
+    private TSLanguage _tsLanguage;
     private TSTree _tsTreeCache = null;
 
+    /**
+     * Наибольшая порция разбора tree-sitter при подключённом маркере отмены, мкс. Между
+     * порциями маркер проверяется, так что ручная отмена замечается не позже чем через столько.
+     */
+    static final long TREE_SITTER_SLICE_MICROS = 20_000;
+
     /**
      * Обработчик узла tree-sitter вместе с типом узла, который он строит.
      * <p>
@@ -46,16 +67,52 @@ abstract public class LanguageParser extends TranslatorComponent {
     }
 
     private final Map<String, HandlerEntry> tsNodeHandlers = new LinkedHashMap<>();
+
+    /**
+     * Глубина стека кадров, начиная с которой левые цепочки операций разбираются снизу вверх
+     * (см. {@link #parseLeftChainBottomUp}). Обычный код до неё не доходит и разбирается как
+     * прежде.
+     */
+    static final int DEEP_NESTING_DEPTH = 256;
+
+    /**
+     * Уже построенные звенья левой цепочки, ключ — границы узла tree-sitter
+     */
+    private final Map<Long, Node> _chainResults = new HashMap<>();
+
     private final LoopIterationAnalyzer loopIterationAnalyzer = new LoopIterationAnalyzer();
 
-    public LanguageParser(LanguageTranslator translator, TSLanguage language) {
+    /**
+     * @param language фабрика грамматики, например {@code () -> new TreeSitterJava()}; вызывается
+     *                 один раз, при первом обращении к грамматике. Лямбда, а не ссылка на
+     *                 конструктор: ссылка загружает класс грамматики уже при создании парсера
+     */
+    public LanguageParser(LanguageTranslator translator, Supplier<TSLanguage> language) {
         super(translator);
-        _tsLanguage = language;
-        _tsParser = new TSParser();
-        _tsParser.setLanguage(language);
+        _tsLanguageFactory = language;
         registerAnalysisPasses();
     }
 
+    public LanguageParser(LanguageTranslator translator, TSLanguage language) {
+        this(translator, () -> language);
+    }
+
+    protected TSLanguage tsLanguage() {
+        if (_tsLanguage == null) {
+            _tsLanguage = _tsLanguageFactory.get();
+        }
+        return _tsLanguage;
+    }
+
+    private TSParser tsParser() {
+        if (_tsParser == null) {
+            TSParser parser = new TSParser();
+            parser.setLanguage(tsLanguage());
+            _tsParser = parser;
+        }
+        return _tsParser;
+    }
+
     /**
      * Регистрирует конвейер анализа, выполняемый после построения дерева.
      * <p>
@@ -87,14 +144,49 @@ abstract public class LanguageParser extends TranslatorComponent {
      * предыдущего по всему дереву, поэтому проходы нельзя ни переставить, ни слить в один
      * обход.
      * <p>
+     * При {@link ConfigParameters#lazyAnalysis} сразу выполняется только
+     * {@code SymbolResolver} — он меняет само дерево, и откладывать его значило бы менять
+     * дерево в произвольный момент после разбора. Оценки откладываются до первого
+     * обращения ({@link DeferredAnalysis}); выражения и циклы привязываются к отложенному
+     * анализу тем же обходом, которым {@code SymbolResolver} ищет классы. Отложенный анализ
+     * выполняется вне трансляции, поэтому не попадает в её метрики и не отменяется её маркером.
+     */
+    private void runAnalysisPipeline(MeaningTree tree, ScopeTable scope) {
+        CancellationToken cancellation = translator.cancellation();
+        SymbolResolver resolver = new SymbolResolver(tree, scope).withCancellation(cancellation);
+        if (!settings().lazyAnalysis()) {
+            translator.measured(TranslationPhase.SYMBOL_RESOLUTION, resolver::resolve);
+            estimateValues(tree, scope, cancellation, loopIterationAnalyzer, translator::measured);
+            return;
+        }
+        DeferredAnalysis deferred = new DeferredAnalysis(tree,
+                analyzed -> estimateValues(analyzed, scope, null, new LoopIterationAnalyzer(), (phase, body) -> body.run()));
+        translator.measured(TranslationPhase.SYMBOL_RESOLUTION,
+                () -> resolver.alongside(deferred.attachingPass()).resolve());
+        tree.deferAnalysis(deferred);
+    }
+
+    /**
+     * Оценки значений и итераций циклов. Сбор циклов от оценок не зависит, поэтому идёт общим
+     * {@link FusedTraversal} с вычислителем; оценка самих циклов начинается только после этого
+     * обхода. Циклы собираются заново, а не берутся из {@link MeaningTree#analyses()}: к
+     * моменту отложенного анализа набор может хранить список, снятый до правок дерева.
+     * <p>
      * Вычислитель выражений создаётся один раз и передаётся дальше: иначе
      * {@code LoopIterationAnalyzer} заводит на то же дерево второй независимый экземпляр.
+     * Метод статический: отложенный анализ не должен удерживать парсер.
      */
-    private void runAnalysisPipeline(MeaningTree tree, ScopeTable scope) {
-        new SymbolResolver(tree, scope).resolve();
-        ExpressionValueEvaluator evaluator = new ExpressionValueEvaluator(tree, scope);
-        evaluator.analyze();
-        loopIterationAnalyzer.analyze(tree, evaluator);
+    private static void estimateValues(MeaningTree tree, ScopeTable scope, @Nullable CancellationToken cancellation,
+                                       LoopIterationAnalyzer loopIterationAnalyzer,
+                                       BiConsumer<TranslationPhase, Runnable> measured) {
+        ExpressionValueEvaluator evaluator = new ExpressionValueEvaluator(tree, scope).withCancellation(cancellation);
+        AnalysisPass<List<Loop>> loops = AnalysisPass.collecting(Loop.class);
+        FusedTraversal evaluation = new FusedTraversal().withCancellation(cancellation)
+                .add(evaluator.pass())
+                .add(loops);
+        measured.accept(TranslationPhase.VALUE_EVALUATION, () -> evaluation.run(tree));
+        measured.accept(TranslationPhase.LOOP_ANALYSIS,
+                () -> loopIterationAnalyzer.analyze(loops.result(), evaluator));
     }
 
     public String getCode() {
@@ -105,6 +197,7 @@ abstract public class LanguageParser extends TranslatorComponent {
         _code = "";
         _byteValueTags.clear();
         _tsTreeCache = null;
+        _chainResults.clear();
         rollbackContext();
     }
 
@@ -115,15 +208,63 @@ abstract public class LanguageParser extends TranslatorComponent {
 
     public TSTree getTSTree() {
         if (_tsTreeCache == null) {
-            _tsTreeCache = _tsParser.parseString(null, _code);
+            _tsTreeCache = translator.measured(TranslationPhase.TREE_SITTER, this::parseTree);
         }
         return _tsTreeCache;
     }
 
+    /**
+     * Разбор tree-sitter. Без маркера отмены — одним вызовом. С маркером — порциями не
+     * длиннее {@link #TREE_SITTER_SLICE_MICROS} и оставшегося до срока времени: по таймауту
+     * tree-sitter возвращает пустой результат, а повторный вызов с тем же текстом продолжает
+     * разбор с места остановки. Флага отмены биндинг не даёт, поэтому маркер проверяется
+     * между порциями; при отмене незаконченный разбор сбрасывается.
+     */
+    private TSTree parseTree() {
+        CancellationToken cancellation = translator.cancellation();
+        TSParser parser = tsParser();
+        if (cancellation == null) {
+            parser.setTimeoutMicros(0);
+            return parser.parseString(null, _code);
+        }
+        try {
+            while (true) {
+                cancellation.throwIfCancelled();
+                parser.setTimeoutMicros(cancellation.sliceMicros(TREE_SITTER_SLICE_MICROS));
+                TSTree tree = parser.parseString(null, _code);
+                if (tree != null) {
+                    return tree;
+                }
+            }
+        } catch (TranslationCancelledException e) {
+            parser.reset();
+            throw e;
+        } finally {
+            parser.setTimeoutMicros(0);
+        }
+    }
+
     public TSNode getRootNode() {
         return getTSTree().getRootNode();
     }
 
+    /**
+     * Только синтаксический разбор: корень дерева tree-sitter для кода без построения MeaningTree.
+     * Обработчики узлов и анализ после разбора не запускаются, поэтому конструкции, которые
+     * парсер не поддерживает, здесь ошибкой не считаются — только синтаксические ошибки.
+     */
+    public TSNode getSyntaxRoot(String code) {
+        setCode(code);
+        TSNode rootNode = getRootNode();
+        if (!settings().skipErrors()) {
+            List<String> errors = lookupErrors(rootNode);
+            if (!errors.isEmpty()) {
+                throw new UnsupportedParsingException(String.format("Given code has syntax errors: %s", errors));
+            }
+        }
+        return rootNode;
+    }
+
     public abstract MeaningTree getMeaningTree(String code);
 
     public abstract MeaningTree getMeaningTree(TSNode node, String code);
@@ -146,7 +287,7 @@ abstract public class LanguageParser extends TranslatorComponent {
         for (int[] indexes : toDelete) {
             _byteValueTags.remove(indexes);
         }
-        if (getConfigParameter("bytePositionAnnotations").asBoolean()) {
+        if (settings().bytePositionAnnotations()) {
             createdNode.setLabel(new Label(Label.BYTEPOS_ANNOTATED, new int[] {
                     start,
                     end - start}));
@@ -163,16 +304,25 @@ abstract public class LanguageParser extends TranslatorComponent {
         return TreeSitterUtils.getCodePiece(_code, node);
     }
 
-    private void _lookupErrors(TSNode node, List<String> list) {
-        if (node.isNull()) {
-            return;
-        }
-        if (node.isError()) {
-            list.add(getCodePiece(node));
-            return;
-        }
-        for (int i = 0; i < node.getChildCount(); i++) {
-            _lookupErrors(node.getChild(i), list);
+    private void _lookupErrors(TSNode root, List<String> list) {
+        // Явный стек: синтаксическое дерево может быть глубже стека потока
+        Deque<TSNode> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            TSNode node = pending.pop();
+            if (node.isNull()) {
+                continue;
+            }
+            if (node.isError()) {
+                list.add(getCodePiece(node));
+                continue;
+            }
+            if (!node.hasError()) {
+                continue;
+            }
+            for (int i = node.getChildCount() - 1; i >= 0; i--) {
+                pending.push(node.getChild(i));
+            }
         }
     }
 
@@ -189,10 +339,75 @@ abstract public class LanguageParser extends TranslatorComponent {
         if (node.isNull()) {
             return null;
         }
+        translator.checkCancelled();
+        if (!_chainResults.isEmpty()) {
+            Node ready = takeChainResult(node);
+            if (ready != null) {
+                return ready;
+            }
+        }
+        if (ctx.callFrames().size() >= DEEP_NESTING_DEPTH) {
+            List<Long> links = new ArrayList<>();
+            try {
+                parseLeftChainBottomUp(node, links);
+                return parseSingleTSNode(node);
+            } finally {
+                // Звено, которое handler так и не запросил, не должно достаться постороннему узлу с теми же границами
+                links.forEach(_chainResults::remove);
+            }
+        }
+        return parseSingleTSNode(node);
+    }
+
+    /**
+     * Режим для глубоко вложенных левых цепочек {@code ((a + b) + c) + ...}: handler бинарной
+     * операции разбирает левый операнд рекурсивно, и цепочка из сотни тысяч операндов
+     * переполнила бы стек потока. Поэтому звенья цепочки под {@code node} разбираются заранее,
+     * от самого глубокого к верхнему, циклом; когда handler следующего звена просит свой левый
+     * операнд, тот уже готов и отдаётся без спуска. Стек потока при этом не растёт с длиной
+     * цепочки.
+     * <p>
+     * Звеном считается узел того же типа tree-sitter в поле {@code left} — так устроены
+     * бинарные операции во всех поддерживаемых грамматиках. Разбор каждого звена идёт тем же
+     * путём, что и обычно (хуки, метки позиций, метрики), но в стеке кадров над ним нет
+     * кадров вышележащих звеньев — только кадры над всей цепочкой.
+     */
+    private void parseLeftChainBottomUp(TSNode node, List<Long> links) {
+        List<TSNode> chain = new ArrayList<>();
+        TSNode current = node;
+        while (true) {
+            TSNode left = current.getChildByFieldName("left");
+            if (left == null || left.isNull() || !left.getType().equals(current.getType())) {
+                break;
+            }
+            chain.add(left);
+            current = left;
+        }
+        for (TSNode link : chain.reversed()) {
+            long key = chainKey(link);
+            links.add(key);
+            _chainResults.put(key, parseSingleTSNode(link));
+        }
+    }
+
+    @Nullable
+    private Node takeChainResult(TSNode node) {
+        return _chainResults.remove(chainKey(node));
+    }
+
+    private static long chainKey(TSNode node) {
+        return ((long) node.getStartByte() << 32) | (node.getEndByte() & 0xFFFFFFFFL);
+    }
+
+    private Node parseSingleTSNode(TSNode node) {
         HandlerEntry entry = tsNodeHandlers.get(node.getType());
         if (entry == null) {
             throw new UnsupportedParsingException(String.format("Can't parse %s", node.getType()));
         }
+        MetricsRecorder metrics = translator.metrics();
+        if (metrics != null) {
+            metrics.nodeParsed();
+        }
         ctx.enterSource(node, entry.produces());
         try {
             Node parsed = entry.handler().apply(node);
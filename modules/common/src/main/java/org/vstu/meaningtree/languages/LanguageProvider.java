@@ -0,0 +1,43 @@
+package org.vstu.meaningtree.languages;
+
+import org.vstu.meaningtree.languages.configs.Config;
+import org.vstu.meaningtree.languages.configs.ConfigBuilder;
+
+import java.util.Map;
+
+/**
+ * Поставщик транслятора языка. Каждый модуль {@code languages/*} регистрирует свою реализацию
+ * в {@code META-INF/services/org.vstu.meaningtree.languages.LanguageProvider}, а приложение
+ * находит их через {@link LanguageProviders}, не зная классов трансляторов заранее.
+ * <p>
+ * Имя и идентификатор языка известны без создания транслятора: класс транслятора, его парсер и
+ * грамматика tree-sitter загружаются только в {@link #create(Config)}, а грамматика — ещё позже,
+ * при первом разборе (см. {@link LanguageParser}).
+ */
+public interface LanguageProvider {
+    /**
+     * Совпадает с {@link LanguageTranslator#getLanguageName()} создаваемого транслятора
+     */
+    String getLanguageName();
+
+    /**
+     * Совпадает с {@link LanguageTranslator#getLanguageId()} создаваемого транслятора
+     */
+    int getLanguageId();
+
+    /**
+     * Класс транслятора — ключ, по которому регистрируются его параметры конфигурации
+     * (см. {@link org.vstu.meaningtree.languages.configs.ConfigParameters}).
+     */
+    Class<? extends LanguageTranslator> getTranslatorClass();
+
+    LanguageTranslator create(Config config);
+
+    default LanguageTranslator create(Map<String, Object> rawConfig) {
+        return create(new ConfigBuilder().fromRawMap(getTranslatorClass(), rawConfig).toConfig());
+    }
+
+    default LanguageTranslator create() {
+        return create(new Config());
+    }
+}
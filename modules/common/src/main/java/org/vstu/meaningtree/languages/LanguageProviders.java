@@ -0,0 +1,48 @@
+package org.vstu.meaningtree.languages;
+
+import java.util.*;
+
+/**
+ * Реестр поставщиков трансляторов, найденных через {@link ServiceLoader} в пути классов.
+ * Поиск выполняется один раз, при первом обращении к реестру.
+ */
+public final class LanguageProviders {
+    private LanguageProviders() {}
+
+    private static final class Holder {
+        static final Map<String, LanguageProvider> BY_NAME = discover();
+    }
+
+    private static Map<String, LanguageProvider> discover() {
+        Map<String, LanguageProvider> providers = new LinkedHashMap<>();
+        for (LanguageProvider provider : ServiceLoader.load(LanguageProvider.class, LanguageProviders.class.getClassLoader())) {
+            LanguageProvider previous = providers.putIfAbsent(provider.getLanguageName(), provider);
+            // Один и тот же модуль может попасть в путь классов дважды (например, в составе shaded jar)
+            if (previous != null && previous.getClass() != provider.getClass()) {
+                throw new IllegalStateException("Language %s is provided by both %s and %s".formatted(
+                        provider.getLanguageName(), previous.getClass().getName(), provider.getClass().getName()));
+            }
+        }
+        return Collections.unmodifiableMap(providers);
+    }
+
+    /**
+     * Поставщики по именам языков в порядке обнаружения
+     */
+    public static Map<String, LanguageProvider> byName() {
+        return Holder.BY_NAME;
+    }
+
+    public static Optional<LanguageProvider> find(String languageName) {
+        return Optional.ofNullable(Holder.BY_NAME.get(languageName.toLowerCase()));
+    }
+
+    public static Optional<LanguageProvider> find(int languageId) {
+        for (LanguageProvider provider : Holder.BY_NAME.values()) {
+            if (provider.getLanguageId() == languageId) {
+                return Optional.of(provider);
+            }
+        }
+        return Optional.empty();
+    }
+}
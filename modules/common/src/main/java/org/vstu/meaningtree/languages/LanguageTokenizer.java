@@ -25,16 +25,23 @@ public abstract class LanguageTokenizer extends TranslatorComponent {
 
     private Set<String> reservedKeywords;
 
+    /**
+     * Однотокенные фрагменты, уже разобранные в текущем вызове
+     * {@link #tokenizeExtended(MeaningTree)}; {@code null} вне его.
+     */
+    private Map<String, Token> fragmentTokens = null;
+
     protected abstract Token recognizeToken(TSNode node);
 
     public TokenList tokenize(String code, boolean noPrepare) {
         return translator.exclusively("tokenize(String)", () -> {
             this.code = noPrepare ? code : translator.prepareCode(code);
             try {
-                parser.getMeaningTree(this.code);
+                // Токены распознаются по узлам tree-sitter, MeaningTree для этого не нужно
+                TSNode root = parser.getSyntaxRoot(this.code);
                 TokenList list = new TokenList();
                 bindTokenListChangeHooks(list);
-                collectTokens(parser.getRootNode(), list, true, null);
+                collectTokens(root, list, true, null);
                 return hooks.run(HookPhase.AFTER_TOKENIZE, list, list);
             } finally {
                 rollbackContext();
@@ -97,6 +104,84 @@ public abstract class LanguageTokenizer extends TranslatorComponent {
 
     public abstract TokenList tokenizeExtended(Node node);
 
+    public abstract TokenGroup tokenizeExtended(Node node, TokenList result);
+
+    /**
+     * Узлы, токены которых {@link #tokenizeExtended(Node, TokenList)} выдаёт сам, по дереву.
+     * Внутри узлов, токенизируемых через рендеринг ({@link #tokenizeRendered}), они
+     * заменяются заглушками, поэтому их токены не теряют связи с узлами и привязанных значений.
+     * <p>
+     * Идентификаторы сюда относить не нужно: тип их токена зависит от синтаксического
+     * окружения, которое знает только разбор текста.
+     */
+    protected boolean emitsTokensDirectly(Node node) {
+        return false;
+    }
+
+    /**
+     * Токены узла, для которого у {@link #tokenizeExtended(Node, TokenList)} нет своего
+     * разбора: узел рендерится viewer'ом, и текст разбирается токенизатором.
+     * <p>
+     * Рендерится только скелет узла (см. {@link LanguageViewer#renderSkeleton}): вложенные
+     * узлы из {@link #emitsTokensDirectly} выдаются по дереву на место своих заглушек.
+     * Поэтому каждый узел рендерится не больше одного раза, а разбирается только текст
+     * между такими узлами.
+     * <p>
+     * По дереву, без повторного разбора, выдаются только выражения. Синтаксис инструкций
+     * (ключевые слова, скобки блоков, разделители) по-прежнему берётся из текста скелета,
+     * который разбирается токенизатором: viewer'ы рендерят инструкции в строки, а не в токены.
+     *
+     * @param dropSeparator отбросить завершающий разделитель инструкции
+     */
+    protected void tokenizeRendered(Node node, TokenList result, boolean dropSeparator) {
+        LanguageViewer.Skeleton skeleton = viewer.renderSkeleton(node, this::emitsTokensDirectly);
+        List<Token> tokens = skeleton.placeholders().isEmpty()
+                ? tokenizeFragment(skeleton.text())
+                : tokenize(skeleton.text());
+        int size = tokens.size();
+        if (dropSeparator && size > 0 && tokens.get(size - 1).type == TokenType.SEPARATOR) {
+            size--;
+        }
+        for (int i = 0; i < size; i++) {
+            Token token = tokens.get(i);
+            int index = skeleton.placeholderIndex(token.value);
+            if (index < 0) {
+                result.add(token);
+                continue;
+            }
+            TokenGroup group = tokenizeExtended(skeleton.placeholders().get(index), result);
+            if (token instanceof OperandToken operand && operand.operandOf() != null) {
+                group.setMetadata(operand.operandOf(), operand.operandPosition());
+            }
+        }
+    }
+
+    /**
+     * Разбор отрендеренного фрагмента без заглушек. Фрагменты из одного простого токена
+     * (литералы, ключевые слова) в пределах вызова {@link #tokenizeExtended(MeaningTree)}
+     * разбираются один раз, пока на токенизацию не подписаны хуки.
+     */
+    private List<Token> tokenizeFragment(String text) {
+        if (fragmentTokens == null
+                || hooks.hasHooks(HookPhase.BEFORE_TOKEN_COLLECT)
+                || hooks.hasHooks(HookPhase.AFTER_TOKENIZE)
+                || hooks.hasHooks(HookPhase.ON_TOKEN_LIST_CHANGE)) {
+            return tokenize(text);
+        }
+        Token cached = fragmentTokens.get(text);
+        if (cached != null) {
+            return List.of(cached.clone());
+        }
+        TokenList tokens = tokenize(text);
+        if (tokens.size() == 1) {
+            Token token = tokens.getFirst();
+            if (token.getClass() == Token.class && token.belongsTo() == null && token.getAssignedValue() == null) {
+                fragmentTokens.put(text, token.clone());
+            }
+        }
+        return tokens;
+    }
+
     /**
      * Токенизирует узлы из дерева MeaningTree, с возможностью выведения привязанных к узлам значений
      * На данный момент расширенные токены генерируются только для выражений (используйте в конфигурации языка expressionMode=true и skipErrors=true)
@@ -105,9 +190,12 @@ public abstract class LanguageTokenizer extends TranslatorComponent {
      */
     public TokenList tokenizeExtended(MeaningTree mt) {
         return translator.exclusively("tokenizeExtended(MeaningTree)", () -> {
+            Map<String, Token> previousFragments = fragmentTokens;
+            fragmentTokens = new HashMap<>();
             try {
                 return tokenizeExtended(mt.getRootNode());
             } finally {
+                fragmentTokens = previousFragments;
                 rollbackContext();
             }
         });
@@ -8,12 +8,19 @@ import org.treesitter.TSNode;
 import org.vstu.meaningtree.MeaningTree;
 import org.vstu.meaningtree.exceptions.ConcurrentTranslationException;
 import org.vstu.meaningtree.exceptions.MeaningTreeException;
+import org.vstu.meaningtree.exceptions.TranslationCancelledException;
 import org.vstu.meaningtree.exceptions.UnsupportedConfigParameterException;
 import org.vstu.meaningtree.languages.configs.*;
 import org.vstu.meaningtree.languages.support.SupportReport;
 import org.vstu.meaningtree.nodes.Node;
+import org.vstu.meaningtree.utils.CancellationToken;
 import org.vstu.meaningtree.utils.Experimental;
 import org.vstu.meaningtree.utils.Label;
+import org.vstu.meaningtree.utils.SourceMap;
+import org.vstu.meaningtree.utils.metrics.MetricsRecorder;
+import org.vstu.meaningtree.utils.metrics.TranslationMetrics;
+import org.vstu.meaningtree.utils.metrics.TranslationPhase;
+import org.vstu.meaningtree.utils.scopes.ProjectIndex;
 import org.vstu.meaningtree.utils.scopes.ScopeTable;
 import org.vstu.meaningtree.utils.tokens.Token;
 import org.vstu.meaningtree.utils.tokens.TokenGroup;
@@ -21,10 +28,11 @@ import org.vstu.meaningtree.utils.tokens.TokenList;
 
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
 import java.util.function.Supplier;
 
 public abstract class LanguageTranslator implements Cloneable {
@@ -33,6 +41,12 @@ public abstract class LanguageTranslator implements Cloneable {
 
     protected Config _config = ConfigParameters.defaultConfig();
 
+    /**
+     * Снимок встроенных параметров {@link #_config}. Пересобирается при первом чтении после
+     * замены конфигурации, см. {@link #settings()}.
+     */
+    private ConfigSnapshot _settings;
+
     /**
      * Таблица областей видимости последнего разбора. Пишется только по завершении разбора.
      */
@@ -40,8 +54,9 @@ public abstract class LanguageTranslator implements Cloneable {
 
     /**
      * Таблица областей видимости последнего рендеринга. Пишется только по завершении
-     * рендеринга. Отдельная от {@link #_parseScopeTable}, потому что viewer строит свою
-     * таблицу заново, а не читает построенную парсером (§3.4 обзора — источник не устранён).
+     * рендеринга. Отдельная от {@link #_parseScopeTable}: для дерева прямо из разбора
+     * viewer работает с копией таблицы разбора ({@link ConfigParameters#reuseParseScopeTable}),
+     * для остальных деревьев строит свою заново.
      */
     private ScopeTable _renderScopeTable = null;
 
@@ -54,6 +69,18 @@ public abstract class LanguageTranslator implements Cloneable {
     private Path _projectRootPath = null;
     private Path _currentFileRelPath = null;
 
+    /**
+     * Глобальные символы остальных файлов проекта. В отличие от контекста исходного файла не
+     * сбрасывается после разбора: один индекс обслуживает все файлы проекта.
+     */
+    private ProjectIndex _projectIndex = null;
+
+    /**
+     * Маркер отмены трансляций; {@code null} — трансляции не прерываются. Как и индекс
+     * проекта, действует, пока его не сменят.
+     */
+    private CancellationToken _cancellation = null;
+
     /**
      * Владение транслятором: поток, который сейчас внутри трансляции, и глубина повторных
      * входов из него же. Оба поля читаются и пишутся только под {@link #ownershipLock}.
@@ -63,6 +90,13 @@ public abstract class LanguageTranslator implements Cloneable {
     private String _ownerOperation = null;
     private int _ownerDepth = 0;
 
+    /**
+     * Метрики текущего вызова верхнего уровня; {@code null}, если вызова нет или метрики не
+     * собираются. Вложенные вызовы пишут в рекордер объемлющего.
+     */
+    private MetricsRecorder _metrics = null;
+    private TranslationMetrics _lastMetrics = null;
+
     public abstract int getLanguageId();
 
     public abstract String getLanguageName();
@@ -140,9 +174,10 @@ public abstract class LanguageTranslator implements Cloneable {
         return _renderScopeTable;
     }
 
-    private void publishParseScopeTable() {
+    private void publishParseScopeTable(MeaningTree mt) {
         _parseScopeTable = _language.context().getScopeTable();
         _latestScopeTable = _parseScopeTable;
+        mt.attachScopeSnapshot(_parseScopeTable);
     }
 
     private void publishRenderScopeTable() {
@@ -165,26 +200,42 @@ public abstract class LanguageTranslator implements Cloneable {
      * необъяснимую задержку, а состояние всё равно общее.
      */
     protected final <T> T exclusively(String operation, Supplier<T> body) {
-        acquireOwnership(operation);
+        boolean topLevel = acquireOwnership(operation);
+        if (topLevel) {
+            _metrics = MetricsRecorder.start(operation, getLanguageName(), settings().collectMetrics());
+        }
         try {
+            if (topLevel) {
+                checkCancelled();
+            }
             return body.get();
         } finally {
+            if (topLevel && _metrics != null) {
+                TranslationMetrics metrics = _metrics.finish();
+                _metrics = null;
+                if (metrics != null) {
+                    _lastMetrics = metrics;
+                }
+            }
             releaseOwnership();
         }
     }
 
-    private void acquireOwnership(String operation) {
+    /**
+     * @return {@code true}, если это вход верхнего уровня, а не повторный из того же потока
+     */
+    private boolean acquireOwnership(String operation) {
         Thread current = Thread.currentThread();
         synchronized (ownershipLock) {
             if (_owner == null) {
                 _owner = current;
                 _ownerOperation = operation;
                 _ownerDepth = 1;
-                return;
+                return true;
             }
             if (_owner == current) {
                 _ownerDepth++;
-                return;
+                return false;
             }
             throw new ConcurrentTranslationException(
                     ("Translator %s is already in use: thread '%s' is running %s, "
@@ -205,6 +256,37 @@ public abstract class LanguageTranslator implements Cloneable {
         }
     }
 
+    /**
+     * Сводка последнего вызова верхнего уровня (в том числе упавшего) или {@code null}, если
+     * {@link ConfigParameters#collectMetrics} выключен.
+     */
+    @Nullable
+    public TranslationMetrics getLastMetrics() {
+        return _lastMetrics;
+    }
+
+    @Nullable
+    MetricsRecorder metrics() {
+        return _metrics;
+    }
+
+    /**
+     * Выполнить часть вызова как фазу. Без рекордера — просто вызов.
+     */
+    final <T> T measured(TranslationPhase phase, Supplier<T> body) {
+        MetricsRecorder metrics = _metrics;
+        return metrics == null ? body.get() : metrics.measure(phase, body);
+    }
+
+    final void measured(TranslationPhase phase, Runnable body) {
+        MetricsRecorder metrics = _metrics;
+        if (metrics == null) {
+            body.run();
+        } else {
+            metrics.measure(phase, body);
+        }
+    }
+
     public LanguageTranslator withSourceContext(Path projectRootPath, Path currentFileRelPath) {
         Objects.requireNonNull(projectRootPath, "projectRootPath must not be null");
         Objects.requireNonNull(currentFileRelPath, "currentFileRelPath must not be null");
@@ -241,11 +323,81 @@ public abstract class LanguageTranslator implements Cloneable {
         _currentFileRelPath = null;
     }
 
+    /**
+     * Подключить индекс символов проекта: поиск объявлений и типов в контексте трансляции,
+     * не найдя имени в текущем файле, продолжается в нём. {@code null} отключает индекс.
+     */
+    public LanguageTranslator withProjectIndex(@Nullable ProjectIndex index) {
+        _projectIndex = index;
+        return this;
+    }
+
+    public Optional<ProjectIndex> getProjectIndex() {
+        return Optional.ofNullable(_projectIndex);
+    }
+
+    /**
+     * Подключить маркер отмены. Он проверяется при входе в трансляцию, перед разбором и
+     * отрисовкой каждого узла, перед запуском хуков и в проходах анализа; разбор tree-sitter
+     * идёт порциями по времени и проверяет маркер между ними. Отменённая трансляция бросает
+     * {@link TranslationCancelledException} и откатывает контекст, как при любой ошибке, —
+     * транслятор остаётся пригодным. Пока подключён отменённый маркер, каждая трансляция
+     * сразу бросает исключение: для следующей нужен новый маркер или {@code null}.
+     */
+    public LanguageTranslator withCancellation(@Nullable CancellationToken token) {
+        _cancellation = token;
+        return this;
+    }
+
+    public Optional<CancellationToken> getCancellation() {
+        return Optional.ofNullable(_cancellation);
+    }
+
+    @Nullable
+    CancellationToken cancellation() {
+        return _cancellation;
+    }
+
+    /**
+     * Точка проверки отмены для компонентов.
+     *
+     * @throws TranslationCancelledException если маркер отменён или срок истёк
+     */
+    final void checkCancelled() {
+        CancellationToken token = _cancellation;
+        if (token != null) {
+            token.throwIfCancelled();
+        }
+    }
+
+    /**
+     * Расширения файлов исходного кода на этом языке, с точкой, основное первым. Пустой
+     * список — язык не умеет находить свои файлы в проекте.
+     */
+    public List<String> getFileExtensions() {
+        return List.of();
+    }
+
+    /**
+     * Отпустить всё, что транслятор держит от последнего файла: дерево tree-sitter и код
+     * в парсере, опубликованные таблицы областей видимости (а через них — деревья). Нужно
+     * при трансляции множества файлов, чтобы в памяти не копились состояния уже
+     * обработанных.
+     */
+    void releaseFileState() {
+        if (_language != null) {
+            _language.resetParserState();
+        }
+        _parseScopeTable = null;
+        _renderScopeTable = null;
+        _latestScopeTable = null;
+    }
+
     public MeaningTree getMeaningTree(String code) {
         return exclusively("getMeaningTree(String)", () -> {
             MeaningTree mt = null;
             try {
-                mt = _language.getMeaningTree(prepareCode(code));
+                mt = measured(TranslationPhase.PARSE, () -> _language.getMeaningTree(prepareCode(code)));
                 return mt;
             } finally {
                 finalizeParsingState(mt);
@@ -275,7 +427,7 @@ public abstract class LanguageTranslator implements Cloneable {
         return exclusively("getMeaningTree(TSNode, String)", () -> {
             MeaningTree mt = null;
             try {
-                mt = _language.getMeaningTree(node, code);
+                mt = measured(TranslationPhase.PARSE, () -> _language.getMeaningTree(node, code));
                 return mt;
             } finally {
                 finalizeParsingState(mt);
@@ -310,7 +462,7 @@ public abstract class LanguageTranslator implements Cloneable {
         return exclusively("getMeaningTree(String, values)", () -> {
             MeaningTree mt = null;
             try {
-                mt = _language.getMeaningTree(prepareCode(code), values);
+                mt = measured(TranslationPhase.PARSE, () -> _language.getMeaningTree(prepareCode(code), values));
                 return mt;
             } finally {
                 finalizeParsingState(mt);
@@ -336,8 +488,8 @@ public abstract class LanguageTranslator implements Cloneable {
     private void finalizeParsingState(@Nullable MeaningTree mt) {
         try {
             if (mt != null) {
-                finalizeMeaningTree(mt);
-                publishParseScopeTable();
+                measured(TranslationPhase.PARSE, () -> finalizeMeaningTree(mt));
+                publishParseScopeTable(mt);
             }
         } finally {
             _language.rollbackContext();
@@ -404,6 +556,17 @@ public abstract class LanguageTranslator implements Cloneable {
         return _viewer.analyzeSupport(node);
     }
 
+    /**
+     * @param includeNodeRegisterCheck проверять, зарегистрирован ли у языка рендерер каждого
+     *                                 типа узла. Рендеринг её выключает, поэтому с {@code false}
+     *                                 ответ совпадает с проверкой перед рендерингом
+     * @param failFast                 оборвать анализ на первой критической проблеме: ответ
+     *                                 «поддерживается ли дерево» без полного перечня проблем
+     */
+    public SupportReport analyzeSupport(MeaningTree tree, boolean includeNodeRegisterCheck, boolean failFast) {
+        return _viewer.analyzeSupport(tree, includeNodeRegisterCheck, failFast);
+    }
+
     public Pair<Boolean, String> tryGetCode(MeaningTree mt) {
         try {
             String result = getCode(mt);
@@ -421,6 +584,65 @@ public abstract class LanguageTranslator implements Cloneable {
         return exclusively("getCode(MeaningTree)", () -> render(() -> _viewer.toString(mt)));
     }
 
+    /**
+     * Рендеринг одного дерева в несколько языков одновременно: по задаче на транслятор.
+     * <p>
+     * Все цели получают один общий {@link MeaningTree#asReadOnly() снимок} дерева вместо
+     * собственных глубоких копий. Транслятор по-прежнему однопоточный, поэтому каждая цель —
+     * отдельный экземпляр; один и тот же экземпляр дважды в списке недопустим.
+     *
+     * @param executor где выполнять рендеринг; задачи не блокируются друг на друге
+     * @return результаты в порядке целей; ошибка рендеринга завершает только свою задачу
+     */
+    public static List<CompletableFuture<String>> getCodeForAll(MeaningTree tree,
+                                                                List<? extends LanguageTranslator> targets,
+                                                                Executor executor) {
+        return fanOut(tree, targets, executor, LanguageTranslator::getCode);
+    }
+
+    public static List<CompletableFuture<String>> getCodeForAll(MeaningTree tree,
+                                                                List<? extends LanguageTranslator> targets) {
+        return getCodeForAll(tree, targets, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * То же, что {@link #getCodeForAll}, но с картой исходного кода для каждой цели.
+     */
+    public static List<CompletableFuture<SourceMap>> getSourceMapsForAll(MeaningTree tree,
+                                                                         List<? extends LanguageTranslator> targets,
+                                                                         Executor executor) {
+        return fanOut(tree, targets, executor,
+                (translator, snapshot) -> new SourceMapGenerator(translator).process(snapshot));
+    }
+
+    public static List<CompletableFuture<SourceMap>> getSourceMapsForAll(MeaningTree tree,
+                                                                         List<? extends LanguageTranslator> targets) {
+        return getSourceMapsForAll(tree, targets, ForkJoinPool.commonPool());
+    }
+
+    private static <T> List<CompletableFuture<T>> fanOut(MeaningTree tree,
+                                                         List<? extends LanguageTranslator> targets,
+                                                         Executor executor,
+                                                         BiFunction<LanguageTranslator, MeaningTree, T> render) {
+        Objects.requireNonNull(tree, "tree must not be null");
+        Objects.requireNonNull(executor, "executor must not be null");
+        Set<LanguageTranslator> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (LanguageTranslator target : targets) {
+            if (!distinct.add(Objects.requireNonNull(target, "target must not be null"))) {
+                throw new IllegalArgumentException(
+                        "Translator %s is listed twice; every target needs its own instance (translator.clone())"
+                                .formatted(target.getLanguageName()));
+            }
+        }
+        // Снимок и его индексы строятся до отправки задач: executor публикует их потокам целиком
+        MeaningTree snapshot = tree.asReadOnly();
+        List<CompletableFuture<T>> result = new ArrayList<>(targets.size());
+        for (LanguageTranslator target : targets) {
+            result.add(CompletableFuture.supplyAsync(() -> render.apply(target, snapshot), executor));
+        }
+        return result;
+    }
+
     /**
      * Рендеринг с гарантированным сбросом контекста viewer'а.
      * <p>
@@ -432,7 +654,10 @@ public abstract class LanguageTranslator implements Cloneable {
      */
     private String render(Supplier<String> rendering) {
         try {
-            String result = rendering.get();
+            String result = measured(TranslationPhase.RENDER, rendering);
+            if (_metrics != null) {
+                _metrics.produced(result);
+            }
             publishRenderScopeTable();
             return result;
         } finally {
@@ -464,7 +689,7 @@ public abstract class LanguageTranslator implements Cloneable {
                                      boolean enableWhitespaces,
                                      boolean detailedTokens,
                                      boolean skipPreparations) {
-        return exclusively("getCodeAsTokens(MeaningTree)", () -> {
+        return exclusively("getCodeAsTokens(MeaningTree)", () -> measured(TranslationPhase.TOKENIZE, () -> {
             var tokenizer = getTokenizer().setEnabledNavigablePseudoTokens(enableWhitespaces);
             if (detailedTokens) {
                 return tokenizer.tokenizeExtended(mt);
@@ -472,16 +697,16 @@ public abstract class LanguageTranslator implements Cloneable {
                 String code = getCode(mt);
                 return tokenizer.tokenize(code, skipPreparations);
             }
-        });
+        }));
     }
 
     public TokenList getCodeAsTokens(String code,
                                      boolean enableWhitespaces,
                                      boolean skipPreparations) {
-        return exclusively("getCodeAsTokens(String)", () -> {
+        return exclusively("getCodeAsTokens(String)", () -> measured(TranslationPhase.TOKENIZE, () -> {
             var tokenizer = getTokenizer().setEnabledNavigablePseudoTokens(enableWhitespaces);
             return tokenizer.tokenize(code, skipPreparations);
-        });
+        }));
     }
 
 
@@ -498,12 +723,26 @@ public abstract class LanguageTranslator implements Cloneable {
         return _config.get(anyInstance.getId());
     }
 
+    /**
+     * Встроенные параметры конфигурации транслятора, разобранные в поля. {@link Config}
+     * неизменяем, а {@link #_config} только заменяется целиком, поэтому снимок достаточно
+     * сверять с текущим экземпляром.
+     */
+    public ConfigSnapshot settings() {
+        ConfigSnapshot settings = _settings;
+        if (settings == null || !settings.isCompiledFrom(_config)) {
+            settings = ConfigSnapshot.of(_config);
+            _settings = settings;
+        }
+        return settings;
+    }
+
     public boolean isExpressionMode() {
-        return getConfigParameter("translationUnitMode").asString().equals("expression");
+        return settings().isExpressionMode();
     }
 
     public boolean isSkipErrors() {
-        return getConfigParameter(ConfigParameters.skipErrors).asBoolean();
+        return settings().skipErrors();
     }
 
     /**
@@ -511,7 +750,7 @@ public abstract class LanguageTranslator implements Cloneable {
      * {@link ConfigParameters#skipOptimizations}.
      */
     public boolean isSkipOptimizations() {
-        return getConfigParameter(ConfigParameters.skipOptimizations).asBoolean();
+        return settings().skipOptimizations();
     }
 
     public boolean getConfigFlag(String id) {
@@ -1,8 +1,11 @@
 package org.vstu.meaningtree.languages;
 
+import org.jetbrains.annotations.Nullable;
 import org.vstu.meaningtree.MeaningTree;
 import org.vstu.meaningtree.exceptions.UnsupportedViewingException;
+import org.vstu.meaningtree.iterators.DFSNodeIterator;
 import org.vstu.meaningtree.iterators.utils.NodeInfo;
+import org.vstu.meaningtree.languages.configs.SupportCheckMode;
 import org.vstu.meaningtree.languages.helpers.ContextualNodeRenderer;
 import org.vstu.meaningtree.languages.helpers.NodeRenderer;
 import org.vstu.meaningtree.languages.support.FeatureContext;
@@ -11,19 +14,25 @@ import org.vstu.meaningtree.languages.support.SupportIssue;
 import org.vstu.meaningtree.languages.support.SupportReport;
 import org.vstu.meaningtree.nodes.Expression;
 import org.vstu.meaningtree.nodes.Node;
+import org.vstu.meaningtree.nodes.expressions.BinaryExpression;
 import org.vstu.meaningtree.nodes.expressions.identifiers.SelfReference;
 import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
 import org.vstu.meaningtree.nodes.expressions.identifiers.SuperClassReference;
 import org.vstu.meaningtree.utils.InternalNode;
 import org.vstu.meaningtree.utils.Label;
 import org.vstu.meaningtree.utils.ParenthesesFiller;
+import org.vstu.meaningtree.utils.frames.Frame;
 import org.vstu.meaningtree.utils.hooks.HookHandle;
 import org.vstu.meaningtree.utils.hooks.HookOrder;
 import org.vstu.meaningtree.utils.hooks.HookPhase;
+import org.vstu.meaningtree.utils.metrics.MetricsRecorder;
+import org.vstu.meaningtree.utils.metrics.TranslationPhase;
 import org.vstu.meaningtree.utils.tokens.OperatorToken;
 
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.BiFunction;
+import java.util.function.Predicate;
 import java.util.function.UnaryOperator;
 
 abstract public class LanguageViewer extends TranslatorComponent {
@@ -36,9 +45,49 @@ abstract public class LanguageViewer extends TranslatorComponent {
     protected ParenthesesFiller parenFiller;
 
     private final List<FeatureSupport> supportRules = new ArrayList<>();
-    private final List<Class<? extends Node>> explicitUnsupportedNodes = new ArrayList<>();
+    private final Set<Class<? extends Node>> explicitUnsupportedNodes = new HashSet<>();
     private final Map<Class<? extends Node>, InternalRenderer> renderers = new LinkedHashMap<>();
 
+    /**
+     * Правила поддержки, применимые к классу узла (см. {@link FeatureSupport#appliesTo()}).
+     * Пересоздаётся при регистрации правила: {@link ClassValue} не умеет сбрасываться
+     * целиком, а регистрация бывает только при создании viewer'а.
+     */
+    private ClassValue<List<FeatureSupport>> supportRulesIndex = createSupportRulesIndex();
+
+    /**
+     * Проблемы, найденные в режиме {@code fused} за текущий рендеринг дерева; {@code null},
+     * если проверка не совмещена с рендерингом.
+     */
+    private List<SupportIssue> fusedSupportIssues = null;
+    private FeatureContext fusedSupportContext = null;
+
+    /**
+     * Узлы, до которых рендеринг в режиме {@code fused} дошёл, — и исходные, и после
+     * подготовок. Остальные узлы дерева рендерер пропустил, и их проверяет
+     * {@link #checkSupportOfSkippedChildren}.
+     */
+    private Set<Node> fusedReachedNodes = null;
+
+    /**
+     * Общий префикс идентификаторов-заглушек, которыми {@link #renderSkeleton} заменяет узлы.
+     * За ним у каждого рендеринга свой случайный ключ (см. {@link Skeleton#placeholderPrefix}).
+     */
+    public static final String PLACEHOLDER_PREFIX = "__mt_placeholder_";
+
+    /**
+     * Узлы, которые при рендеринге «скелета» заменяются заглушками, список, куда они
+     * складываются, и префикс заглушек этого рендеринга; {@code null} вне {@link #renderSkeleton}.
+     */
+    private Predicate<Node> placeholderFilter = null;
+    private List<Node> placeholderNodes = null;
+    private String placeholderPrefix = null;
+
+    /**
+     * Заранее отрисованные звенья левой цепочки операций, см. {@link #renderLeftChainBottomUp}
+     */
+    private final Map<Node, String> chainResults = new IdentityHashMap<>();
+
     
     private static final ClassValue<Boolean> INTERNAL_NODE_TYPE_CACHE = new ClassValue<>() {
         @Override
@@ -102,6 +151,9 @@ abstract public class LanguageViewer extends TranslatorComponent {
 
     protected final Node applyPreRenderPreparations(Node node) {
         Objects.requireNonNull(node, "node must not be null");
+        if (fusedReachedNodes != null) {
+            fusedReachedNodes.add(node);
+        }
         return hooks.run(HookPhase.BEFORE_NODE_RENDER, node, node);
     }
 
@@ -180,7 +232,27 @@ abstract public class LanguageViewer extends TranslatorComponent {
     }
 
     protected void registerUnsupportedFeature(FeatureSupport feature) {
-        supportRules.add(feature);
+        supportRules.add(Objects.requireNonNull(feature, "feature must not be null"));
+        supportRulesIndex = createSupportRulesIndex();
+    }
+
+    private ClassValue<List<FeatureSupport>> createSupportRulesIndex() {
+        List<FeatureSupport> rules = List.copyOf(supportRules);
+        return new ClassValue<>() {
+            @Override
+            protected List<FeatureSupport> computeValue(Class<?> type) {
+                List<FeatureSupport> applicable = new ArrayList<>();
+                for (FeatureSupport feature : rules) {
+                    for (Class<? extends Node> target : feature.appliesTo()) {
+                        if (target.isAssignableFrom(type)) {
+                            applicable.add(feature);
+                            break;
+                        }
+                    }
+                }
+                return List.copyOf(applicable);
+            }
+        };
     }
 
     protected void registerUnsupportedFeature(Class<? extends Node> feature) {
@@ -193,28 +265,44 @@ abstract public class LanguageViewer extends TranslatorComponent {
 
     protected List<SupportIssue> checkNodeSupport(Node node, FeatureContext context) {
         List<SupportIssue> issues = new ArrayList<>();
+        collectNodeSupportIssues(node, context, issues);
+        return issues;
+    }
+
+    /**
+     * Проверка одного узла с дописыванием проблем в готовый список — общий путь для всех
+     * режимов анализа. Флаг регистрации проверяется до поиска рендерера: при рендеринге
+     * дерева он выключен, и линейный поиск по рендерерам на каждом узле был бы впустую.
+     *
+     * @return {@code true}, если среди найденных проблем есть критическая
+     */
+    private boolean collectNodeSupportIssues(Node node, FeatureContext context, List<SupportIssue> issues) {
+        boolean checkRegistered = context == null || context.checkNodeIsRegistered();
         boolean isExplicitlyForbidden = explicitUnsupportedNodes.contains(node.getClass());
-        if (!hasRegisteredRenderer(node.getClass()) && context.checkNodeIsRegistered() || isExplicitlyForbidden) {
+        if (checkRegistered && !hasRegisteredRenderer(node.getClass()) || isExplicitlyForbidden) {
             if (isInternalNodeTypeOrSuperclass(node.getClass()) && !isExplicitlyForbidden) {
-                return issues;
+                return false;
             }
             issues.add(new SupportIssue(
                     translator.getLanguageName(),
                     node, null
             ));
-            return issues;
+            return true;
         }
-        for (FeatureSupport feature : supportRules) {
+        boolean critical = false;
+        for (FeatureSupport feature : supportRulesIndex.get(node.getClass())) {
             if (!feature.matches(node, context)) {
                 continue;
             }
-            issues.add(new SupportIssue(
+            SupportIssue issue = new SupportIssue(
                     translator.getLanguageName(),
                     node,
                     feature
-            ));
+            );
+            issues.add(issue);
+            critical |= issue.requiresThrow();
         }
-        return issues;
+        return critical;
     }
 
     private boolean isInternalNodeTypeOrSuperclass(Class<? extends Node> nodeType) {
@@ -226,13 +314,31 @@ abstract public class LanguageViewer extends TranslatorComponent {
     }
 
     public SupportReport analyzeSupport(MeaningTree tree, boolean includeNodeRegisterCheck) {
+        return analyzeSupport(tree, includeNodeRegisterCheck, false);
+    }
+
+    /**
+     * @param failFast оборвать обход на первой критической проблеме. Отчёт тогда содержит
+     *                 всё найденное до неё включительно — этого достаточно, чтобы отказать в
+     *                 рендеринге, но не для полного перечня проблем.
+     */
+    public SupportReport analyzeSupport(MeaningTree tree, boolean includeNodeRegisterCheck, boolean failFast) {
         List<SupportIssue> issues = new ArrayList<>();
+        // Обход итератором, а не по индексу дерева: после предобработки (LoopElseLowerer,
+        // ComprehensionLowerer) в дереве бывают клоны с общим id, и индекс по id не строится
+        FeatureContext context = null;
         for (NodeInfo info : tree) {
             if (info == null || info.node() == null) {
                 continue;
             }
-            FeatureContext context = new FeatureContext(this, tree, info, info.node(), includeNodeRegisterCheck);
-            issues.addAll(checkNodeSupport(info.node(), context));
+            if (context == null) {
+                context = new FeatureContext(this, tree, info, info.node(), includeNodeRegisterCheck);
+            } else {
+                context.moveTo(info, info.node());
+            }
+            if (collectNodeSupportIssues(info.node(), context, issues) && failFast) {
+                break;
+            }
         }
         return new SupportReport(issues);
     }
@@ -252,6 +358,52 @@ abstract public class LanguageViewer extends TranslatorComponent {
      */
     public final String toString(Node node) {
         Objects.requireNonNull(node);
+        if (!chainResults.isEmpty()) {
+            String ready = chainResults.remove(node);
+            if (ready != null) {
+                return ready;
+            }
+        }
+        if (node instanceof BinaryExpression binary
+                && ctx.callFrames().size() >= LanguageParser.DEEP_NESTING_DEPTH) {
+            List<BinaryExpression> links = new ArrayList<>();
+            try {
+                renderLeftChainBottomUp(binary, links);
+                return renderSingle(node);
+            } finally {
+                // Звено, которое рендерер так и не запросил (например, после подмены узла подготовкой), не должно пережить цепочку
+                links.forEach(chainResults::remove);
+            }
+        }
+        return renderSingle(node);
+    }
+
+    /**
+     * Пара к {@code LanguageParser.parseLeftChainBottomUp}: рендерер бинарной операции
+     * печатает левый операнд рекурсивно, и на цепочке {@code ((a + b) + c) + ...} из сотни
+     * тысяч звеньев стек потока переполнился бы. Глубже {@link LanguageParser#DEEP_NESTING_DEPTH
+     * кадров} звенья цепочки под {@code node} отрисовываются заранее, от самого глубокого к
+     * верхнему, и рендерер каждого следующего получает левый операнд готовой строкой.
+     * <p>
+     * Звено — любая бинарная операция в левом операнде. Отрисовка звена идёт обычным путём
+     * (подготовки, хуки, проверка поддержки), но кадров вышележащих звеньев над ним в стеке нет.
+     */
+    private void renderLeftChainBottomUp(BinaryExpression node, List<BinaryExpression> links) {
+        BinaryExpression current = node;
+        while (current.getLeft() instanceof BinaryExpression left && !chainResults.containsKey(left)) {
+            links.add(left);
+            current = left;
+        }
+        for (BinaryExpression link : links.reversed()) {
+            chainResults.put(link, renderSingle(link));
+        }
+    }
+
+    private String renderSingle(Node node) {
+        String placeholder = placeholderFor(node);
+        if (placeholder != null) {
+            return placeholder;
+        }
         Node preparedNode = applyPreRenderPreparations(node);
         if (preparedNode.hasLabel(Label.DUMMY)) {
             return "";
@@ -274,31 +426,184 @@ abstract public class LanguageViewer extends TranslatorComponent {
      */
     protected final String renderPrepared(Node preparedNode, Object context) {
         Objects.requireNonNull(preparedNode, "preparedNode must not be null");
+        translator.checkCancelled();
+        MetricsRecorder metrics = translator.metrics();
+        if (metrics != null) {
+            metrics.nodeRendered();
+        }
         ctx.enterNode(preparedNode);
+        long previousScopeId = ctx.enterAdoptedScope(preparedNode);
         try {
-            return applyHooks(preparedNode, dispatchRenderer(preparedNode, context));
+            if (fusedSupportIssues != null) {
+                checkSupportWhileRendering(preparedNode);
+            }
+            String rendered = dispatchRenderer(preparedNode, context);
+            if (fusedSupportIssues != null) {
+                checkSupportOfSkippedChildren(preparedNode);
+            }
+            return applyHooks(preparedNode, rendered);
         } finally {
+            ctx.leaveAdoptedScope(previousScopeId);
             ctx.leaveFrame();
         }
     }
 
+    /**
+     * Результат {@link #renderSkeleton}: текст, префикс его заглушек и заменённые узлы по
+     * индексам заглушек.
+     */
+    record Skeleton(String text, String placeholderPrefix, List<Node> placeholders) {
+        /**
+         * Индекс узла, который заменяет идентификатор {@code value}, или {@code -1}, если это
+         * не заглушка этого рендеринга. Идентификатор исходного кода может начинаться с
+         * {@link #PLACEHOLDER_PREFIX}, поэтому проверяется и ключ рендеринга, и индекс.
+         */
+        int placeholderIndex(String value) {
+            if (!value.startsWith(placeholderPrefix)) {
+                return -1;
+            }
+            String digits = value.substring(placeholderPrefix.length());
+            if (digits.isEmpty() || digits.length() > 9 || !digits.chars().allMatch(Character::isDigit)) {
+                return -1;
+            }
+            int index = Integer.parseInt(digits);
+            return index < placeholders.size() ? index : -1;
+        }
+    }
+
+    /**
+     * Рендеринг «скелета» узла для токенизатора: вложенные узлы, для которых {@code direct}
+     * истинно, не печатаются, а заменяются идентификаторами {@code <префикс>N}, где
+     * {@code N} — индекс узла в {@link Skeleton#placeholders}. Префикс — это
+     * {@link #PLACEHOLDER_PREFIX} со случайным ключом рендеринга, так что с идентификаторами
+     * исходного кода заглушки не совпадают.
+     * <p>
+     * Токены таких узлов токенизатор выдаёт сам, прямо по дереву, и лексически разбирает
+     * только оставшийся текст. Заглушка — обычный идентификатор, поэтому скелет остаётся
+     * синтаксически корректным везде, где допустимо выражение. Подготовки и хуки рендеринга
+     * к заменённым узлам не применяются.
+     */
+    Skeleton renderSkeleton(Node node, Predicate<Node> direct) {
+        Predicate<Node> previousFilter = placeholderFilter;
+        List<Node> previousNodes = placeholderNodes;
+        String previousPrefix = placeholderPrefix;
+        List<Node> placeholders = new ArrayList<>();
+        String prefix = PLACEHOLDER_PREFIX + Long.toHexString(ThreadLocalRandom.current().nextLong()) + "_";
+        placeholderFilter = candidate -> candidate != node && direct.test(candidate);
+        placeholderNodes = placeholders;
+        placeholderPrefix = prefix;
+        try {
+            return new Skeleton(toString(node), prefix, placeholders);
+        } finally {
+            placeholderFilter = previousFilter;
+            placeholderNodes = previousNodes;
+            placeholderPrefix = previousPrefix;
+        }
+    }
+
+    /**
+     * Заглушка вместо узла, если идёт {@link #renderSkeleton} и узел выдаётся токенизатором
+     * напрямую, иначе {@code null}. Проверяется каждым путём диспетчеризации до подготовок.
+     */
+    @Nullable
+    protected final String placeholderFor(Node node) {
+        if (placeholderFilter == null || !placeholderFilter.test(node)) {
+            return null;
+        }
+        placeholderNodes.add(node);
+        return placeholderPrefix + (placeholderNodes.size() - 1);
+    }
+
     public abstract OperatorToken mapToToken(Expression expr);
 
     /**
      * Подготовка дерева перед рендерингом. Переопределение — простой путь для языка;
      * внешний потребитель может добиться того же, зарегистрировав перехватчик на
-     * {@link HookPhase#BEFORE_TREE_RENDER}.
+     * {@link HookPhase#BEFORE_TREE_RENDER}. Исходное дерево не меняется: изменения делаются
+     * в копии, а если менять нечего, возвращается само {@code tree}.
      */
     protected MeaningTree preprocessTree(MeaningTree tree) {
         return tree;
     }
 
+    /**
+     * Проверка поддержки в режиме {@code fused}: узел уже лежит в кадре, родитель — кадром
+     * выше. Критическая проблема обрывает рендеринг сразу, остальные копятся до его конца.
+     */
+    private void checkSupportWhileRendering(Node preparedNode) {
+        fusedReachedNodes.add(preparedNode);
+        NodeInfo parentInfo = ctx.parentFrame()
+                .flatMap(Frame::node)
+                .map(parent -> new NodeInfo(parent, null, null, ctx.callFrames().size() - 2))
+                .orElse(null);
+        NodeInfo info = new NodeInfo(preparedNode, parentInfo, null, ctx.callFrames().size() - 1);
+        if (fusedSupportContext == null) {
+            fusedSupportContext = new FeatureContext(this, origin, info, preparedNode, false);
+        } else {
+            fusedSupportContext.moveTo(info, preparedNode);
+        }
+        if (collectNodeSupportIssues(preparedNode, fusedSupportContext, fusedSupportIssues)) {
+            new SupportReport(fusedSupportIssues).throwAll();
+        }
+    }
+
+    /**
+     * Проверка в режиме {@code fused} поддеревьев, которые рендерер узла не отрендерил
+     * (например, {@code PythonViewer} опускает тип переменной при
+     * {@code disableTypeAnnotations}): их узлы не проходят через {@link #renderPrepared}, но
+     * режим {@code full} их проверяет. Обход не заходит в узлы, до которых рендеринг дошёл, —
+     * они проверены сами, а их поддеревья проверяются по окончании их рендеринга.
+     */
+    private void checkSupportOfSkippedChildren(Node preparedNode) {
+        DFSNodeIterator iterator = new DFSNodeIterator(preparedNode, true);
+        iterator.addEnterCondition(child -> !fusedReachedNodes.contains(child));
+        for (NodeInfo info : iterator) {
+            if (fusedReachedNodes.contains(info.node())) {
+                continue;
+            }
+            fusedSupportContext.moveTo(info, info.node());
+            if (collectNodeSupportIssues(info.node(), fusedSupportContext, fusedSupportIssues)) {
+                new SupportReport(fusedSupportIssues).throwAll();
+            }
+        }
+    }
+
     public String toString(MeaningTree mt) {
-        MeaningTree tree = hooks.run(HookPhase.BEFORE_TREE_RENDER, mt, preprocessTree(mt));
+        MeaningTree tree = translator.measured(TranslationPhase.PREPROCESS, () -> {
+            MeaningTree prepared = preprocessTree(mt);
+            if (prepared == mt && hooks.hasHooks(HookPhase.BEFORE_TREE_RENDER)) {
+                // Подготовке нечего было менять, и она вернула дерево вызывающего (возможно,
+                // общий снимок нескольких рендерингов); перехватчик вправе править дерево на
+                // месте, поэтому получает свою копию
+                prepared = mt.clone();
+            }
+            return hooks.run(HookPhase.BEFORE_TREE_RENDER, mt, prepared);
+        });
         origin = tree;
-        analyzeSupport(tree, false).throwAll();
-        String result = toString(tree.getRootNode());
-        return hooks.run(HookPhase.AFTER_TREE_RENDER, tree, result);
+        if (settings().reuseParseScopeTable()) {
+            // Снимок есть только у дерева прямо из разбора: подготовка, изменившая дерево,
+            // возвращает копию без снимка, и тогда таблица строится заново
+            tree.getScopeSnapshot().ifPresent(
+                    snapshot -> ctx.adoptScopeTable(snapshot.copy(), tree.getRootNode()));
+        }
+        SupportCheckMode supportCheckMode = settings().supportCheckMode();
+        if (supportCheckMode != SupportCheckMode.FUSED) {
+            translator.measured(TranslationPhase.SUPPORT_ANALYSIS,
+                    () -> analyzeSupport(tree, false, supportCheckMode == SupportCheckMode.FAIL_FAST)).throwAll();
+            String result = toString(tree.getRootNode());
+            return hooks.run(HookPhase.AFTER_TREE_RENDER, tree, result);
+        }
+        fusedSupportIssues = new ArrayList<>();
+        fusedReachedNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+        try {
+            String result = toString(tree.getRootNode());
+            new SupportReport(fusedSupportIssues).throwAll();
+            return hooks.run(HookPhase.AFTER_TREE_RENDER, tree, result);
+        } finally {
+            fusedSupportIssues = null;
+            fusedSupportContext = null;
+            fusedReachedNodes = null;
+        }
     }
 
     /**
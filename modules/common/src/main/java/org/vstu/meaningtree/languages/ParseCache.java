@@ -0,0 +1,332 @@
+package org.vstu.meaningtree.languages;
+
+import org.jetbrains.annotations.Nullable;
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.iterators.utils.NodeInfo;
+import org.vstu.meaningtree.languages.configs.ConfigParameter;
+import org.vstu.meaningtree.languages.configs.ConfigScope;
+import org.vstu.meaningtree.nodes.Node;
+import org.vstu.meaningtree.utils.scopes.ScopeTable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Кэш разбора на диске: готовое (уже прошедшее анализ) дерево файла вместе с таблицей
+ * областей видимости разбора.
+ * <p>
+ * Ключ — хэш содержимого файла, языка, параметров конфигурации, видимых парсеру, версии
+ * библиотеки и отпечатка {@link org.vstu.meaningtree.utils.scopes.ProjectIndex#fingerprint()
+ * индекса проекта}, если он подключён к транслятору. Изменение тела функции в одном файле
+ * меняет ключ только этого файла; изменение глобальных объявлений — ключи всех файлов,
+ * разбираемых с индексом, как и должно быть.
+ * <p>
+ * Запись — сжатая Java-сериализация, пишется во временный файл и переносится на место
+ * атомарно, так что читатель видит либо старую запись, либо новую целиком. Объём каталога
+ * ограничен: при превышении удаляются записи, к которым дольше всего не обращались (время
+ * обращения — время изменения файла, поэтому порядок переживает перезапуск). Испорченная
+ * или несовместимая запись считается промахом и удаляется.
+ * <p>
+ * Экземпляр можно использовать из нескольких потоков одновременно.
+ */
+public class ParseCache {
+    private static final int FORMAT_VERSION = 1;
+    private static final byte[] MAGIC = {'M', 'T', 'P', 'C', FORMAT_VERSION};
+    private static final String SUFFIX = ".mtc";
+
+    /**
+     * Из записи кэша читаются только классы библиотеки и стандартной библиотеки Java.
+     */
+    private static final ObjectInputFilter CLASS_FILTER = ObjectInputFilter.Config.createFilter(
+            "java.**;org.vstu.meaningtree.**;org.apache.commons.lang3.**;!*");
+
+    public record Entry(MeaningTree tree, @Nullable ScopeTable scopeTable) implements Serializable {}
+
+    public record Stats(long hits, long misses, long writes, long evictions, long failures,
+                        int entries, long bytes) {
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+
+        public String format() {
+            return "Parse cache: %d hits, %d misses (%.1f%% hit rate), %d writes, %d evictions, %d failures; %d entries, %.1f MiB"
+                    .formatted(hits, misses, hitRate() * 100, writes, evictions, failures,
+                            entries, bytes / (1024.0 * 1024.0));
+        }
+    }
+
+    private final Path directory;
+    private final long maxBytes;
+    private final String libraryVersion;
+
+    /** Ключ → размер записи, в порядке обращений: первым идёт самый давний */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    private ParseCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.libraryVersion = Optional.ofNullable(ParseCache.class.getPackage().getImplementationVersion())
+                .orElse("dev");
+    }
+
+    /**
+     * Открыть кэш в каталоге (создаётся при необходимости) и подхватить уже лежащие в нём записи.
+     *
+     * @param maxBytes предельный объём записей в байтах
+     */
+    public static ParseCache open(Path directory, long maxBytes) throws IOException {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+        ParseCache cache = new ParseCache(directory.toAbsolutePath().normalize(), maxBytes);
+        Files.createDirectories(cache.directory);
+        cache.load();
+        return cache;
+    }
+
+    /**
+     * Дерево кода: из кэша, если есть, иначе разбором через {@code translator} с записью в кэш.
+     * Контекст исходного файла ({@link LanguageTranslator#withSourceContext}) сбрасывается в
+     * обоих случаях, как после обычного разбора.
+     */
+    public Entry parse(LanguageTranslator translator, String code) {
+        String key = key(translator, code);
+        Entry cached = read(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            translator.clearSourceContext();
+            long maxId = 0;
+            for (NodeInfo info : cached.tree()) {
+                maxId = Math.max(maxId, info.node().getId());
+            }
+            Node.reserveIdsUpTo(maxId);
+            return cached;
+        }
+        misses.incrementAndGet();
+        MeaningTree tree = translator.getMeaningTree(code);
+        // Отложенный анализ не переживает сериализацию (он transient): без этого дерево из кэша
+        // осталось бы без оценок значений и итераций
+        tree.ensureAnalyzed();
+        Entry entry = new Entry(tree, translator.getParseScopeTable());
+        write(key, entry);
+        return entry;
+    }
+
+    public Stats stats() {
+        synchronized (entries) {
+            return new Stats(hits.get(), misses.get(), writes.get(), evictions.get(), failures.get(),
+                    entries.size(), totalBytes);
+        }
+    }
+
+    /**
+     * Удалить все записи.
+     */
+    public void clear() throws IOException {
+        List<String> keys;
+        synchronized (entries) {
+            keys = new ArrayList<>(entries.keySet());
+            entries.clear();
+            totalBytes = 0;
+        }
+        for (String key : keys) {
+            Files.deleteIfExists(pathOf(key));
+        }
+    }
+
+    String key(LanguageTranslator translator, String code) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            update(digest, "meaningtree-parse-cache/" + FORMAT_VERSION);
+            update(digest, libraryVersion);
+            update(digest, translator.getLanguageName());
+            List<String> parameters = new ArrayList<>();
+            for (ConfigParameter parameter : translator.getConfig()) {
+                if (parameter.inAnyScope(ConfigScope.PARSER, ConfigScope.TRANSLATOR, ConfigScope.ANY)) {
+                    parameters.add(parameter.getId() + "=" + parameter.getValue().asJsonElement());
+                }
+            }
+            Collections.sort(parameters);
+            parameters.forEach(parameter -> update(digest, parameter));
+            update(digest, translator.getProjectIndex().map(index -> index.fingerprint()).orElse("-"));
+            digest.update(code.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String part) {
+        digest.update(part.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    /**
+     * Записи раскладываются по подкаталогам по первым двум символам ключа, чтобы в одном
+     * каталоге не оказывались тысячи файлов.
+     */
+    private Path pathOf(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + SUFFIX);
+    }
+
+    private void load() throws IOException {
+        record Found(String key, long size, FileTime accessed) {}
+        List<Found> found = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(directory, 2)) {
+            for (Path path : (Iterable<Path>) walk::iterator) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    // Остатки записи, прерванной вместе с процессом
+                    Files.deleteIfExists(path);
+                } else if (name.endsWith(SUFFIX) && Files.isRegularFile(path)) {
+                    found.add(new Found(name.substring(0, name.length() - SUFFIX.length()),
+                            Files.size(path), Files.getLastModifiedTime(path)));
+                }
+            }
+        }
+        found.sort(Comparator.comparing(Found::accessed));
+        synchronized (entries) {
+            for (Found entry : found) {
+                entries.put(entry.key(), entry.size());
+                totalBytes += entry.size();
+            }
+        }
+        evictOverflow(null);
+    }
+
+    @Nullable
+    private Entry read(String key) {
+        synchronized (entries) {
+            if (entries.get(key) == null) {
+                return null;
+            }
+        }
+        Path path = pathOf(key);
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(path))) {
+            if (!Arrays.equals(raw.readNBytes(MAGIC.length), MAGIC)) {
+                throw new InvalidObjectException("Unknown cache entry format");
+            }
+            ObjectInputStream in = new ObjectInputStream(new GZIPInputStream(raw));
+            in.setObjectInputFilter(CLASS_FILTER);
+            Entry entry = (Entry) in.readObject();
+            touch(path);
+            return entry;
+        } catch (NoSuchFileException e) {
+            forget(key);
+            return null;
+        } catch (IOException | ClassNotFoundException | ClassCastException | StackOverflowError e) {
+            // Испорчена, записана другой версией классов или слишком глубока для этого стека
+            failures.incrementAndGet();
+            remove(key);
+            return null;
+        }
+    }
+
+    private void write(String key, Entry entry) {
+        Path target = pathOf(key);
+        Path temporary = null;
+        try {
+            Files.createDirectories(target.getParent());
+            temporary = Files.createTempFile(target.getParent(), key, ".tmp");
+            try (OutputStream raw = new BufferedOutputStream(Files.newOutputStream(temporary))) {
+                raw.write(MAGIC);
+                GZIPOutputStream zip = new GZIPOutputStream(raw);
+                ObjectOutputStream out = new ObjectOutputStream(zip);
+                out.writeObject(entry);
+                out.flush();
+                zip.finish();
+            }
+            try {
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            long size = Files.size(target);
+            synchronized (entries) {
+                Long previous = entries.put(key, size);
+                totalBytes += size - (previous == null ? 0 : previous);
+            }
+            writes.incrementAndGet();
+            evictOverflow(key);
+        } catch (IOException | StackOverflowError e) {
+            // Кэш — необязательное ускорение: незаписанная запись означает только промах в следующий раз
+            failures.incrementAndGet();
+            if (temporary != null) {
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private void touch(Path path) {
+        try {
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignored) {
+            // Порядок вытеснения станет чуть менее точным — не повод считать промахом
+        }
+    }
+
+    /**
+     * Вытеснить самые давние записи, пока объём не уложится в предел. Только что записанную
+     * не трогаем, даже если она одна больше предела.
+     */
+    private void evictOverflow(@Nullable String keep) {
+        List<String> victims = new ArrayList<>();
+        synchronized (entries) {
+            Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && iterator.hasNext()) {
+                Map.Entry<String, Long> eldest = iterator.next();
+                if (eldest.getKey().equals(keep)) {
+                    continue;
+                }
+                totalBytes -= eldest.getValue();
+                victims.add(eldest.getKey());
+                iterator.remove();
+            }
+        }
+        for (String victim : victims) {
+            try {
+                Files.deleteIfExists(pathOf(victim));
+                evictions.incrementAndGet();
+            } catch (IOException e) {
+                failures.incrementAndGet();
+            }
+        }
+    }
+
+    private void remove(String key) {
+        forget(key);
+        try {
+            Files.deleteIfExists(pathOf(key));
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void forget(String key) {
+        synchronized (entries) {
+            Long size = entries.remove(key);
+            if (size != null) {
+                totalBytes -= size;
+            }
+        }
+    }
+}
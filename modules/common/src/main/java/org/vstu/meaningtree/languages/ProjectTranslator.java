@@ -0,0 +1,308 @@
+package org.vstu.meaningtree.languages;
+
+import org.jetbrains.annotations.Nullable;
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.utils.scopes.ProjectIndex;
+import org.vstu.meaningtree.utils.scopes.ScopeTable;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Трансляция проекта целиком: все файлы исходного языка под корнем проекта.
+ * <p>
+ * Работа идёт в два прохода на собственном пуле с перехватом задач ({@link ForkJoinPool}):
+ * <ol>
+ *   <li>{@link Stage#INDEX} — каждый файл разбирается, из его таблицы областей видимости
+ *       берутся глобальные символы; сводки сливаются в один неизменяемый {@link ProjectIndex};</li>
+ *   <li>{@link Stage#RENDER} — каждый файл разбирается заново уже с подключённым индексом,
+ *       так что поиск объявлений видит соседние файлы, и отрисовывается на целевом языке.</li>
+ * </ol>
+ * Деревья между проходами не хранятся: иначе память росла бы с размером проекта. Повторный
+ * разбор дешевле, чем держать тысячи деревьев; в каждый момент живы не больше
+ * {@code parallelism} деревьев, а после файла транслятор отпускает дерево tree-sitter и
+ * таблицы областей видимости.
+ * <p>
+ * С {@link #withParseCache кэшем разбора} неизменившиеся файлы в обоих проходах не
+ * разбираются вовсе. Ключ прохода отрисовки включает отпечаток индекса, поэтому правка тела
+ * функции в одном файле заставляет заново разобрать только этот файл.
+ * <p>
+ * Каждый поток пула работает на своих клонах переданных трансляторов, сами они не
+ * используются. Ошибка в файле не останавливает остальные: она попадает в
+ * {@link Result#failures()}.
+ */
+public class ProjectTranslator {
+    public enum Stage {
+        INDEX,
+        RENDER
+    }
+
+    /**
+     * Вызывается из потоков пула после каждого файла, удачного или нет.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(Stage stage, Path file, int done, int total);
+    }
+
+    /**
+     * Получатель результата. Вызывается из потоков пула, по разу на файл.
+     */
+    @FunctionalInterface
+    public interface OutputSink {
+        void accept(Path file, String code) throws IOException;
+    }
+
+    public record FileFailure(Path file, Stage stage, Exception error) {}
+
+    /**
+     * @param files      число найденных файлов
+     * @param translated сколько файлов отрисовано (для {@link #index(Path)} — 0)
+     * @param failures   ошибки по файлам, в порядке путей
+     */
+    public record Result(ProjectIndex index, int files, int translated, List<FileFailure> failures) {
+        public boolean isSuccessful() {
+            return failures.isEmpty();
+        }
+    }
+
+    private final LanguageTranslator source;
+    @Nullable
+    private final LanguageTranslator target;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private ProgressListener progress = (stage, file, done, total) -> {};
+    @Nullable
+    private Predicate<Path> fileFilter = null;
+    private Charset charset = StandardCharsets.UTF_8;
+    @Nullable
+    private ParseCache cache = null;
+
+    /**
+     * @param target язык результата; {@code null} — только построение индекса
+     */
+    public ProjectTranslator(LanguageTranslator source, @Nullable LanguageTranslator target) {
+        this.source = Objects.requireNonNull(source, "source must not be null");
+        this.target = target;
+    }
+
+    public ProjectTranslator withParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public ProjectTranslator withProgressListener(ProgressListener listener) {
+        this.progress = Objects.requireNonNull(listener, "listener must not be null");
+        return this;
+    }
+
+    /**
+     * Отбор файлов по пути относительно корня. По умолчанию берутся файлы с расширениями
+     * {@link LanguageTranslator#getFileExtensions()} исходного языка.
+     */
+    public ProjectTranslator withFileFilter(Predicate<Path> filter) {
+        this.fileFilter = Objects.requireNonNull(filter, "filter must not be null");
+        return this;
+    }
+
+    /**
+     * Брать деревья неизменившихся файлов из кэша разбора, а не разбирать заново.
+     */
+    public ProjectTranslator withParseCache(@Nullable ParseCache cache) {
+        this.cache = cache;
+        return this;
+    }
+
+    public ProjectTranslator withCharset(Charset charset) {
+        this.charset = Objects.requireNonNull(charset, "charset must not be null");
+        return this;
+    }
+
+    /**
+     * Файлы проекта, пути относительно корня, в порядке путей.
+     */
+    public List<Path> discover(Path projectRoot) throws IOException {
+        Path root = projectRoot.toAbsolutePath().normalize();
+        Predicate<Path> filter = fileFilter;
+        if (filter == null) {
+            List<String> extensions = source.getFileExtensions();
+            if (extensions.isEmpty()) {
+                throw new IllegalArgumentException(
+                        "Language %s doesn't declare file extensions, set a file filter"
+                                .formatted(source.getLanguageName()));
+            }
+            filter = path -> {
+                String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+                return extensions.stream().anyMatch(name::endsWith);
+            };
+        }
+        Predicate<Path> accepted = filter;
+        try (Stream<Path> walk = Files.walk(root)) {
+            return walk.filter(Files::isRegularFile)
+                    .map(root::relativize)
+                    .filter(accepted)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Только первый проход: индекс символов проекта.
+     */
+    public Result index(Path projectRoot) throws IOException {
+        Path root = projectRoot.toAbsolutePath().normalize();
+        List<Path> files = discover(root);
+        Queue<FileFailure> failures = new ConcurrentLinkedQueue<>();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            ProjectIndex index = buildIndex(pool, root, files, failures);
+            return new Result(index, files.size(), 0, sorted(failures));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Оба прохода. Результат каждого файла передаётся в {@code sink} сразу после отрисовки.
+     */
+    public Result translate(Path projectRoot, OutputSink sink) throws IOException {
+        if (target == null) {
+            throw new IllegalStateException("Target translator isn't set; use index() to build the index only");
+        }
+        Objects.requireNonNull(sink, "sink must not be null");
+        Path root = projectRoot.toAbsolutePath().normalize();
+        List<Path> files = discover(root);
+        Queue<FileFailure> failures = new ConcurrentLinkedQueue<>();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            ProjectIndex index = buildIndex(pool, root, files, failures);
+            Set<Path> failed = new HashSet<>();
+            failures.forEach(failure -> failed.add(failure.file()));
+            List<Path> renderable = files.stream().filter(file -> !failed.contains(file)).toList();
+
+            ThreadLocal<LanguageTranslator> parsers =
+                    ThreadLocal.withInitial(() -> source.clone().withProjectIndex(index));
+            ThreadLocal<LanguageTranslator> renderers =
+                    ThreadLocal.withInitial(() -> target.clone().withProjectIndex(index));
+            AtomicInteger translated = new AtomicInteger();
+            AtomicInteger done = new AtomicInteger();
+            pool.invoke(new FileTask(renderable, 0, renderable.size(), (position, file) -> {
+                LanguageTranslator parser = parsers.get();
+                LanguageTranslator renderer = renderers.get();
+                try {
+                    MeaningTree tree = parse(parser, root, file).tree();
+                    sink.accept(file, renderer.getCode(tree));
+                    translated.incrementAndGet();
+                } catch (IOException | RuntimeException e) {
+                    failures.add(new FileFailure(file, Stage.RENDER, e));
+                } finally {
+                    parser.releaseFileState();
+                    renderer.releaseFileState();
+                }
+                progress.onProgress(Stage.RENDER, file, done.incrementAndGet(), renderable.size());
+            }));
+            return new Result(index, files.size(), translated.get(), sorted(failures));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Получатель, который пишет результат в дерево каталогов с той же структурой, заменяя
+     * расширение файла.
+     *
+     * @param extension новое расширение с точкой
+     */
+    public static OutputSink writingTo(Path outputRoot, String extension) {
+        Path root = outputRoot.toAbsolutePath().normalize();
+        return (file, code) -> {
+            String name = file.getFileName().toString();
+            int dot = name.lastIndexOf('.');
+            Path output = root.resolve(file).resolveSibling((dot > 0 ? name.substring(0, dot) : name) + extension);
+            Files.createDirectories(output.getParent());
+            Files.writeString(output, code, StandardCharsets.UTF_8);
+        };
+    }
+
+    private ProjectIndex buildIndex(ForkJoinPool pool, Path root, List<Path> files, Queue<FileFailure> failures) {
+        ProjectIndex.FileSymbols[] symbols = new ProjectIndex.FileSymbols[files.size()];
+        ThreadLocal<LanguageTranslator> parsers = ThreadLocal.withInitial(source::clone);
+        AtomicInteger done = new AtomicInteger();
+        pool.invoke(new FileTask(files, 0, files.size(), (position, file) -> {
+            LanguageTranslator parser = parsers.get();
+            try {
+                ScopeTable table = Objects.requireNonNull(parse(parser, root, file).scopeTable());
+                symbols[position] = ProjectIndex.FileSymbols.of(file, table);
+            } catch (IOException | RuntimeException e) {
+                failures.add(new FileFailure(file, Stage.INDEX, e));
+            } finally {
+                parser.releaseFileState();
+            }
+            progress.onProgress(Stage.INDEX, file, done.incrementAndGet(), files.size());
+        }));
+        return ProjectIndex.of(Arrays.stream(symbols).filter(Objects::nonNull).toList());
+    }
+
+    private ParseCache.Entry parse(LanguageTranslator parser, Path root, Path file) throws IOException {
+        String code = Files.readString(root.resolve(file), charset);
+        parser.withSourceContext(root, file);
+        if (cache != null) {
+            return cache.parse(parser, code);
+        }
+        MeaningTree tree = parser.getMeaningTree(code);
+        return new ParseCache.Entry(tree, parser.getParseScopeTable());
+    }
+
+    private static List<FileFailure> sorted(Collection<FileFailure> failures) {
+        List<FileFailure> result = new ArrayList<>(failures);
+        result.sort(Comparator.comparing(FileFailure::file));
+        return List.copyOf(result);
+    }
+
+    @FunctionalInterface
+    private interface FileAction {
+        void process(int position, Path file);
+    }
+
+    /**
+     * Делит диапазон файлов пополам до одного файла. Файлы сильно различаются по размеру,
+     * и освободившиеся потоки забирают себе оставшиеся половины у занятых.
+     */
+    private static final class FileTask extends RecursiveAction {
+        private final List<Path> files;
+        private final int from;
+        private final int to;
+        private final FileAction action;
+
+        FileTask(List<Path> files, int from, int to, FileAction action) {
+            this.files = files;
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (from < to) {
+                    action.process(from, files.get(from));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new FileTask(files, from, middle, action), new FileTask(files, middle, to, action));
+        }
+    }
+}
@@ -1,10 +1,10 @@
 package org.vstu.meaningtree.languages;
 
-import org.apache.commons.lang3.tuple.Pair;
 import org.vstu.meaningtree.MeaningTree;
 import org.vstu.meaningtree.iterators.utils.NodeIterable;
 import org.vstu.meaningtree.nodes.Node;
 import org.vstu.meaningtree.utils.Label;
+import org.vstu.meaningtree.utils.NodePositions;
 import org.vstu.meaningtree.utils.SourceMap;
 import org.vstu.meaningtree.utils.analysis.CyclomaticComplexityAnalyzer;
 import org.vstu.meaningtree.utils.hooks.*;
@@ -109,8 +109,8 @@ public class SourceMapGenerator {
      */
     private SourceMap buildSourceMap(NodeIterable root, String instrumentedCode) {
         // Собственная разметка узла точнее разметки его замен, поэтому копим их раздельно
-        Map<Long, Pair<Integer, Integer>> ownPositions = new HashMap<>();
-        Map<Long, Pair<Integer, Integer>> remappedPositions = new HashMap<>();
+        NodePositions.Builder ownPositions = NodePositions.builder();
+        NodePositions.Builder remappedPositions = NodePositions.builder();
 
         Pattern tagPattern = Pattern.compile(START_TAG + "(/?)([NR])(\\d+)" + END_TAG);
         Matcher matcher = tagPattern.matcher(instrumentedCode);
@@ -138,17 +138,19 @@ public class SourceMapGenerator {
                 long[] open = stack.pop();
                 int start = (int) open[1];
                 int length = utf8Length(cleanCode) - start;
-                Map<Long, Pair<Integer, Integer>> target =
-                        open[2] == OWN_MARK ? ownPositions : remappedPositions;
-                // У замен побеждает самая внешняя: она покрывает весь отрисованный ими текст
-                target.put(open[0], Pair.of(start, length));
+                NodePositions.Builder target = open[2] == OWN_MARK ? ownPositions : remappedPositions;
+                // У замен побеждает самая внешняя: она закрывается последней и покрывает весь
+                // отрисованный ими текст
+                target.put(open[0], start, length);
             }
         }
 
         cleanCode.append(instrumentedCode.substring(lastEnd));
 
-        Map<Long, Pair<Integer, Integer>> result = new HashMap<>(remappedPositions);
-        result.putAll(ownPositions);
+        NodePositions result = NodePositions.builder()
+                .putAll(remappedPositions.build())
+                .putAll(ownPositions.build())
+                .build();
 
         Map<String, Number> metrics = new LinkedHashMap<>();
         metrics.put("cyclomatic", cyclomaticComplexityAnalyzer.analyze(root));
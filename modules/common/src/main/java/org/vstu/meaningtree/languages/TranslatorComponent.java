@@ -2,13 +2,17 @@ package org.vstu.meaningtree.languages;
 
 import org.vstu.meaningtree.languages.configs.Config;
 import org.vstu.meaningtree.languages.configs.ConfigParameter;
+import org.vstu.meaningtree.languages.configs.ConfigSnapshot;
+import org.vstu.meaningtree.utils.CancellationToken;
 import org.vstu.meaningtree.utils.frames.FrameStack;
 import org.vstu.meaningtree.utils.hooks.HookHost;
 import org.vstu.meaningtree.utils.hooks.HookRegistry;
+import org.vstu.meaningtree.utils.metrics.MetricsRecorder;
 import org.vstu.meaningtree.utils.scopes.ScopeTable;
 
 public abstract class TranslatorComponent implements HookHost {
     private Config config;
+    private ConfigSnapshot settings;
     protected TranslatorContext ctx;
     protected LanguageTranslator translator;
 
@@ -18,8 +22,14 @@ public abstract class TranslatorComponent implements HookHost {
      */
     protected final HookRegistry hooks = new HookRegistry(this);
 
+    /**
+     * Задать конфигурацию компонента. Встроенные параметры сразу разбираются в
+     * {@link ConfigSnapshot}; наследник, которому на горячем пути нужны параметры своего
+     * языка, переопределяет метод и разбирает их здесь же.
+     */
     public void setConfig(Config config) {
         this.config = config;
+        this.settings = ConfigSnapshot.of(config);
     }
 
     public TranslatorComponent(LanguageTranslator translator) {
@@ -70,6 +80,16 @@ public abstract class TranslatorComponent implements HookHost {
         return translator.getLanguageName();
     }
 
+    @Override
+    public MetricsRecorder hookMetrics() {
+        return translator.metrics();
+    }
+
+    @Override
+    public CancellationToken hookCancellation() {
+        return translator.cancellation();
+    }
+
     protected ConfigParameter getConfigParameter(String id) {
         return config.get(id);
     }
@@ -78,8 +98,15 @@ public abstract class TranslatorComponent implements HookHost {
         return config.get(anyInstance.getId());
     }
 
+    /**
+     * Встроенные параметры конфигурации, разобранные при {@link #setConfig(Config)}.
+     */
+    protected ConfigSnapshot settings() {
+        return settings;
+    }
+
     protected boolean isExpressionMode() {
-        return getConfigParameter("translationUnitMode").asString().equals("expression");
+        return settings.isExpressionMode();
     }
 
     public LanguageTranslator getTranslator() {
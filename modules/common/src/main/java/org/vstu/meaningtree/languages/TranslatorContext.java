@@ -1,6 +1,9 @@
 package org.vstu.meaningtree.languages;
 
 import org.treesitter.TSNode;
+import org.vstu.meaningtree.iterators.DFSNodeIterator;
+import org.vstu.meaningtree.iterators.utils.NodeInfo;
+import org.vstu.meaningtree.languages.configs.ConfigParameters;
 import org.vstu.meaningtree.nodes.*;
 import org.vstu.meaningtree.nodes.declarations.VariableDeclaration;
 import org.vstu.meaningtree.nodes.expressions.Identifier;
@@ -35,6 +38,23 @@ public class TranslatorContext {
      */
     protected ScopeTable scope;
 
+    /**
+     * Таблица взята из разбора рендерируемого дерева: объявления уже зарегистрированы,
+     * типы выведены, а составные инструкции привязаны к своим областям.
+     */
+    private boolean scopeAdopted = false;
+
+    /**
+     * Область, в которой разбор держал каждую инструкцию, — по составной инструкции, прямо
+     * содержащей её. Заполняется только вместе с {@link #scopeAdopted}.
+     */
+    private Map<Node, Long> adoptedStatementScopes = null;
+
+    /**
+     * Таблица, к кэшу вывода типов которой уже применён {@link ConfigParameters#memoizeTypeInference}.
+     */
+    private ScopeTable inferenceConfiguredFor = null;
+
     /**
      * Контекст разбора: стек узлов, внутри которых ядро находится прямо сейчас.
      * Ведут его {@link LanguageViewer#toString(Node)} и {@link LanguageParser#parseTSNode},
@@ -80,7 +100,7 @@ public class TranslatorContext {
      * @return выведенный тип
      */
     public Type inferType(Expression expression) {
-        return SimpleTypeInferrer.inference(expression, scope);
+        return SimpleTypeInferrer.inference(expression, inferenceScope());
     }
 
     /**
@@ -88,7 +108,15 @@ public class TranslatorContext {
      * @param node данный узел
      */
     public void processInfer(Node node) {
-        SimpleTypeInferrer.inference(node, scope);
+        SimpleTypeInferrer.inference(node, inferenceScope());
+    }
+
+    private ScopeTable inferenceScope() {
+        if (inferenceConfiguredFor != scope) {
+            scope.inferenceCache().setEnabled(translator.settings().memoizeTypeInference());
+            inferenceConfiguredFor = scope;
+        }
+        return scope;
     }
 
     boolean isBodyFinished() {
@@ -126,7 +154,8 @@ public class TranslatorContext {
      * @return найденный (или нет) тип
      */
     public Optional<Type> lookupRegisteredType(Identifier typeName) {
-        return scope.findType(typeName);
+        return scope.findType(typeName)
+                .or(() -> translator.getProjectIndex().flatMap(index -> index.findType(typeName)));
     }
 
     public Optional<VariableDeclaration> lookupVariable(String variableName) {
@@ -146,15 +175,25 @@ public class TranslatorContext {
     }
 
     public Optional<Declaration> lookupDeclaration(String declarationName) {
-        return scope.findDeclaration(new SimpleIdentifier(declarationName), null);
+        return lookupDeclaration(declarationName, null);
     }
 
+    /**
+     * Объявление типа: сначала в текущем файле, затем в индексе проекта, если он подключён.
+     */
     public Optional<Declaration> lookupDeclaration(Type type) {
-        return scope.findTypeDeclaration(type);
+        return scope.findTypeDeclaration(type)
+                .or(() -> translator.getProjectIndex().flatMap(index -> index.findTypeDeclaration(type)));
     }
 
+    /**
+     * Объявление по имени: сначала в видимых областях текущего файла, затем среди объявлений
+     * верхнего уровня других файлов проекта, если подключён {@link LanguageTranslator#withProjectIndex индекс}.
+     */
     public Optional<Declaration> lookupDeclaration(String declarationName, Class<? extends Declaration> type) {
-        return scope.findDeclaration(new SimpleIdentifier(declarationName), type);
+        SimpleIdentifier name = new SimpleIdentifier(declarationName);
+        return scope.findDeclaration(name, type)
+                .or(() -> translator.getProjectIndex().flatMap(index -> index.findDeclaration(name, type)));
     }
 
     /**
@@ -274,6 +313,61 @@ public class TranslatorContext {
         return scope;
     }
 
+    /**
+     * Работать с таблицей, построенной разбором рендерируемого дерева, вместо пустой.
+     * Регистрация и вывод типов в {@link BodyConstructor} после этого не выполняются —
+     * разбор уже сделал их для тех же узлов, — а перед отрисовкой каждой инструкции
+     * таблица переключается на область, в которой эта инструкция лежала при разборе.
+     *
+     * @param table копия таблицы разбора; контекст её меняет
+     * @param root  корень дерева, к составным инструкциям которого привязаны области таблицы
+     */
+    void adoptScopeTable(ScopeTable table, Node root) {
+        Map<Node, Long> statementScopes = new IdentityHashMap<>();
+        for (Iterator<NodeInfo> iterator = new DFSNodeIterator(root, true); iterator.hasNext(); ) {
+            if (iterator.next().node() instanceof CompoundStatement compound
+                    && compound.getScopeId().isPresent()
+                    && table.findScope(compound.getScopeId().getAsLong()).isPresent()) {
+                long scopeId = compound.getScopeId().getAsLong();
+                for (Node statement : compound.getNodes()) {
+                    statementScopes.put(statement, scopeId);
+                }
+            }
+        }
+        this.scope = table;
+        this.scopeAdopted = true;
+        this.adoptedStatementScopes = statementScopes;
+    }
+
+    boolean isScopeAdopted() {
+        return scopeAdopted;
+    }
+
+    /**
+     * Переключить взятую из разбора таблицу на область инструкции.
+     *
+     * @return id области, которую надо вернуть после отрисовки узла, или {@code -1}, если
+     * переключения не было
+     */
+    long enterAdoptedScope(Node node) {
+        if (!scopeAdopted) {
+            return -1;
+        }
+        Long scopeId = adoptedStatementScopes.get(node);
+        if (scopeId == null || scopeId == scope.currentScopeId()) {
+            return -1;
+        }
+        long previous = scope.currentScopeId();
+        scope.setCurrentScope(scopeId);
+        return previous;
+    }
+
+    void leaveAdoptedScope(long previousScopeId) {
+        if (previousScopeId >= 0) {
+            scope.setCurrentScope(previousScopeId);
+        }
+    }
+
     public Optional<Path> getProjectRootPath() {
         return translator.getProjectRootPath();
     }
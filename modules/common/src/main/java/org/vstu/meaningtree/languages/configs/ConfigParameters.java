@@ -42,6 +42,70 @@ public class ConfigParameters {
             ConfigScope.ANY
     );
 
+    /**
+     * Откладывать ли оценку значений выражений и числа итераций циклов до первого обращения
+     * к ним ({@code Expression#getValueEstimate()}, {@code Loop#getIterationEstimate()},
+     * направление {@code Range}) или до {@code MeaningTree#ensureAnalyzed()}. Тогда разбор
+     * для тех, кому нужен только синтаксис, эти проходы не оплачивает. {@code SymbolResolver}
+     * выполняется сразу в любом случае: он меняет само дерево.
+     * <p>
+     * Выключено по умолчанию, потому что меняет смысл оценок: они считаются по дереву в
+     * момент первого обращения — уже после хуков трансляции и правок пользователя — и вне
+     * маркера отмены и метрик трансляции.
+     */
+    public static final ConfigParameter lazyAnalysis = register("lazyAnalysis",
+            new ConfigValue(false),
+            ConfigScope.PARSER
+    );
+
+    /**
+     * Как viewer проверяет поддержку дерева перед рендерингом:
+     * <ul>
+     *   <li>{@code full} — отдельный обход всего дерева, в отчёт попадают все проблемы;</li>
+     *   <li>{@code failFast} — тот же обход, но он обрывается на первой критической проблеме;</li>
+     *   <li>{@code fused} — отдельного обхода нет, правила проверяются на каждом узле прямо
+     *       в точке диспетчеризации рендеринга, уже после {@code BEFORE_NODE_RENDER}.
+     *       Поддеревья, которые рендерер пропустил, проверяются по окончании рендеринга
+     *       их родителя, поэтому отвергается то же, что и в {@code full}.</li>
+     * </ul>
+     */
+    public static final ConfigParameter supportCheckMode = register("supportCheckMode",
+            ConfigValue.ofPossible(String.class, "full", List.of("full", "failFast", "fused")),
+            ConfigScope.VIEWER
+    );
+
+    /**
+     * Брать ли при рендеринге таблицу областей видимости, построенную разбором того же
+     * дерева ({@code MeaningTree#getScopeSnapshot()}), вместо того чтобы регистрировать
+     * объявления и выводить типы заново. Viewer работает с копией таблицы, так что
+     * сама она не меняется. Дерево, изменённое после разбора, снимка не несёт и
+     * рендерится по-старому.
+     */
+    public static final ConfigParameter reuseParseScopeTable = register("reuseParseScopeTable",
+            new ConfigValue(true),
+            ConfigScope.VIEWER
+    );
+
+    /**
+     * Запоминать ли на время трансляции выведенные типы составных выражений
+     * ({@code TypeInferenceCache}). Выключается для сравнения и поиска ошибок: результат
+     * вывода от флага не зависит.
+     */
+    public static final ConfigParameter memoizeTypeInference = register("memoizeTypeInference",
+            new ConfigValue(true),
+            ConfigScope.TRANSLATOR
+    );
+
+    /**
+     * Собирать ли для каждого вызова транслятора сводку {@code TranslationMetrics}: время по
+     * фазам, число разобранных и отрисованных узлов, срабатываний хуков, размер результата.
+     * События JFR от этого флага не зависят — ими управляет сама запись JFR.
+     */
+    public static final ConfigParameter collectMetrics = register("collectMetrics",
+            new ConfigValue(false),
+            ConfigScope.TRANSLATOR
+    );
+
     public static ConfigParameter get(Class<? extends LanguageTranslator> translator, String id) {
         var registry = langRegistry.getOrDefault(translator, null);
         if (registry == null) {
@@ -0,0 +1,105 @@
+package org.vstu.meaningtree.languages.configs;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Встроенные параметры {@link Config}, разобранные один раз в поля примитивных и
+ * перечислимых типов. Компоненты транслятора собирают снимок в {@code setConfig} и на
+ * горячих путях (каждый разобранный узел, каждая трансляция) читают его, а не ищут
+ * параметр по строковому id и не сравнивают строки.
+ * <p>
+ * Параметр, которого нет в подмножестве конфигурации компонента (например, параметр
+ * парсера в конфигурации viewer), принимает значение по умолчанию. Параметры конкретных
+ * языков в снимок не входят: их компоненты разбирают в своём {@code setConfig}.
+ */
+public final class ConfigSnapshot {
+    private final Config source;
+
+    private final TranslationUnitMode translationUnitMode;
+    private final boolean skipErrors;
+    @Nullable
+    private final String targetLanguageVersion;
+    private final boolean bytePositionAnnotations;
+    private final boolean skipOptimizations;
+    private final boolean lazyAnalysis;
+    private final SupportCheckMode supportCheckMode;
+    private final boolean reuseParseScopeTable;
+    private final boolean memoizeTypeInference;
+    private final boolean collectMetrics;
+
+    private ConfigSnapshot(Config source) {
+        this.source = source;
+        translationUnitMode = TranslationUnitMode.fromId(param(source, ConfigParameters.translationUnitMode).asString());
+        skipErrors = param(source, ConfigParameters.skipErrors).asBoolean();
+        ConfigParameter version = param(source, ConfigParameters.targetLanguageVersion);
+        targetLanguageVersion = version.isNull() ? null : version.asString();
+        bytePositionAnnotations = param(source, ConfigParameters.bytePositionAnnotations).asBoolean();
+        skipOptimizations = param(source, ConfigParameters.skipOptimizations).asBoolean();
+        lazyAnalysis = param(source, ConfigParameters.lazyAnalysis).asBoolean();
+        supportCheckMode = SupportCheckMode.fromId(param(source, ConfigParameters.supportCheckMode).asString());
+        reuseParseScopeTable = param(source, ConfigParameters.reuseParseScopeTable).asBoolean();
+        memoizeTypeInference = param(source, ConfigParameters.memoizeTypeInference).asBoolean();
+        collectMetrics = param(source, ConfigParameters.collectMetrics).asBoolean();
+    }
+
+    public static ConfigSnapshot of(Config config) {
+        return new ConfigSnapshot(config);
+    }
+
+    private static ConfigParameter param(Config config, ConfigParameter builtin) {
+        return config.getOptional(builtin.getId()).orElse(builtin);
+    }
+
+    /**
+     * Собран ли снимок именно из этого экземпляра конфигурации. {@link Config} неизменяем,
+     * так что совпадение экземпляра означает актуальность снимка.
+     */
+    public boolean isCompiledFrom(Config config) {
+        return source == config;
+    }
+
+    public TranslationUnitMode translationUnitMode() {
+        return translationUnitMode;
+    }
+
+    public boolean isExpressionMode() {
+        return translationUnitMode == TranslationUnitMode.EXPRESSION;
+    }
+
+    public boolean skipErrors() {
+        return skipErrors;
+    }
+
+    @Nullable
+    public String targetLanguageVersion() {
+        return targetLanguageVersion;
+    }
+
+    public boolean bytePositionAnnotations() {
+        return bytePositionAnnotations;
+    }
+
+    public boolean skipOptimizations() {
+        return skipOptimizations;
+    }
+
+    public boolean lazyAnalysis() {
+        return lazyAnalysis;
+    }
+
+    public SupportCheckMode supportCheckMode() {
+        return supportCheckMode;
+    }
+
+    public boolean reuseParseScopeTable() {
+        return reuseParseScopeTable;
+    }
+
+    public boolean memoizeTypeInference() {
+        return memoizeTypeInference;
+    }
+
+    public boolean collectMetrics() {
+        return collectMetrics;
+    }
+}
@@ -0,0 +1,29 @@
+package org.vstu.meaningtree.languages.configs;
+
+/**
+ * Значения параметра {@link ConfigParameters#supportCheckMode}.
+ */
+public enum SupportCheckMode {
+    FULL("full"),
+    FAIL_FAST("failFast"),
+    FUSED("fused");
+
+    private final String id;
+
+    SupportCheckMode(String id) {
+        this.id = id;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public static SupportCheckMode fromId(String id) {
+        for (SupportCheckMode mode : values()) {
+            if (mode.id.equals(id)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown support check mode: " + id);
+    }
+}
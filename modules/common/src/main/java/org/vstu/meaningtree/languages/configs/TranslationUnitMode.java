@@ -0,0 +1,30 @@
+package org.vstu.meaningtree.languages.configs;
+
+/**
+ * Значения параметра {@link ConfigParameters#translationUnitMode}.
+ */
+public enum TranslationUnitMode {
+    EXPRESSION("expression"),
+    SIMPLE("simple"),
+    PROCEDURAL("procedural"),
+    FULL("full");
+
+    private final String id;
+
+    TranslationUnitMode(String id) {
+        this.id = id;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public static TranslationUnitMode fromId(String id) {
+        for (TranslationUnitMode mode : values()) {
+            if (mode.id.equals(id)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown translation unit mode: " + id);
+    }
+}
@@ -28,7 +28,8 @@ import java.util.Map;
 
 /**
  * Rewrites collection comprehensions into a declaration followed by a loop before rendering.
- * The returned tree is a clone, so rendering never mutates the caller's meaning tree.
+ * The returned tree is a clone, so rendering never mutates the caller's meaning tree. A tree
+ * without comprehensions is returned as is instead of being copied.
  */
 public final class ComprehensionLowerer {
     public enum CollectionKind {
@@ -54,6 +55,9 @@ public final class ComprehensionLowerer {
     }
 
     public static MeaningTree lower(MeaningTree source, Target target) {
+        if (!hasComprehensions(source)) {
+            return source;
+        }
         MeaningTree result = new MeaningTree(source.getRootNode().clone());
         List<Plan> plans = collectPlans(result);
         Map<Node, List<Plan>> plansByContainer = new IdentityHashMap<>();
@@ -78,6 +82,15 @@ public final class ComprehensionLowerer {
         return result;
     }
 
+    private static boolean hasComprehensions(MeaningTree tree) {
+        for (NodeInfo info : tree) {
+            if (info.node() instanceof Comprehension) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private static List<Plan> collectPlans(MeaningTree tree) {
         List<Plan> plans = new ArrayList<>();
         int ordinal = 1;
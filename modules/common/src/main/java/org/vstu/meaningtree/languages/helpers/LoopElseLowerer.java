@@ -27,7 +27,8 @@ import java.util.List;
  * Desugars a loop's Python-only else-clause (executed when the loop completes without a break
  * belonging to it) into a construct languages without that syntax (Java, C++) can render:
  * a boolean flag set false before every break belonging to the loop, checked in a trailing `if`
- * after the loop. Rewrites a clone of the input tree; never mutates the caller's tree.
+ * after the loop. Rewrites a clone of the input tree; never mutates the caller's tree. A tree
+ * without such loops is returned as is, so the common case costs one traversal instead of a deep copy.
  */
 public final class LoopElseLowerer {
     private record Plan(NodeInfo loopInfo, Node container) {
@@ -37,6 +38,9 @@ public final class LoopElseLowerer {
     }
 
     public static MeaningTree lower(MeaningTree source) {
+        if (!hasLoopElse(source)) {
+            return source;
+        }
         MeaningTree result = new MeaningTree(source.getRootNode().clone());
         List<Plan> plans = collectPlans(result);
 
@@ -48,6 +52,15 @@ public final class LoopElseLowerer {
         return result;
     }
 
+    private static boolean hasLoopElse(MeaningTree tree) {
+        for (NodeInfo info : tree) {
+            if (info.node() instanceof Loop loop && loop.hasElseBranch()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private static List<Plan> collectPlans(MeaningTree tree) {
         List<Plan> plans = new ArrayList<>();
         for (NodeInfo info : tree) {
@@ -7,6 +7,62 @@ import org.vstu.meaningtree.iterators.utils.NodeInfo;
 import org.vstu.meaningtree.languages.TranslatorComponent;
 import org.vstu.meaningtree.nodes.Node;
 
-public record FeatureContext(@NotNull TranslatorComponent component, @Nullable MeaningTree meaningTree,
-                             @Nullable NodeInfo nodeInfo, @NotNull Node node, boolean checkNodeIsRegistered) {
+import java.util.Objects;
+
+/**
+ * Контекст проверки узла правилами {@link FeatureSupport}.
+ * <p>
+ * Изменяемый: анализ поддержки заводит один экземпляр на весь обход и переставляет его на
+ * очередной узел через {@link #moveTo}, а не аллоцирует контекст на каждый узел дерева.
+ * Отсюда ограничение для правил — контекст действителен только внутри вызова
+ * {@link FeatureSupport#matches(Node, FeatureContext)}, сохранять ссылку на него нельзя.
+ */
+public final class FeatureContext {
+    private final TranslatorComponent component;
+    private final MeaningTree meaningTree;
+    private final boolean checkNodeIsRegistered;
+
+    private NodeInfo nodeInfo;
+    private Node node;
+
+    public FeatureContext(@NotNull TranslatorComponent component, @Nullable MeaningTree meaningTree,
+                          @Nullable NodeInfo nodeInfo, @NotNull Node node, boolean checkNodeIsRegistered) {
+        this.component = Objects.requireNonNull(component, "component must not be null");
+        this.meaningTree = meaningTree;
+        this.checkNodeIsRegistered = checkNodeIsRegistered;
+        moveTo(nodeInfo, node);
+    }
+
+    /**
+     * Переставить контекст на другой узел того же обхода.
+     */
+    public FeatureContext moveTo(@Nullable NodeInfo nodeInfo, @NotNull Node node) {
+        this.nodeInfo = nodeInfo;
+        this.node = Objects.requireNonNull(node, "node must not be null");
+        return this;
+    }
+
+    @NotNull
+    public TranslatorComponent component() {
+        return component;
+    }
+
+    @Nullable
+    public MeaningTree meaningTree() {
+        return meaningTree;
+    }
+
+    @Nullable
+    public NodeInfo nodeInfo() {
+        return nodeInfo;
+    }
+
+    @NotNull
+    public Node node() {
+        return node;
+    }
+
+    public boolean checkNodeIsRegistered() {
+        return checkNodeIsRegistered;
+    }
 }
@@ -3,6 +3,8 @@ package org.vstu.meaningtree.languages.support;
 import org.jetbrains.annotations.Nullable;
 import org.vstu.meaningtree.nodes.Node;
 
+import java.util.Set;
+
 public interface FeatureSupport {
     String id();
     boolean matches(Node node, @Nullable FeatureContext context);
@@ -14,4 +16,17 @@ public interface FeatureSupport {
     default FeatureIssueLevel issueLevel() {
         return FeatureIssueLevel.CRITICAL;
     }
+
+    /**
+     * Типы узлов, к которым правило вообще может относиться. Проверка учитывает
+     * наследование: правило для {@code Loop} проверяется на всех циклах.
+     * <p>
+     * Viewer по этому набору строит индекс правил по классу узла и на остальных узлах
+     * {@link #matches} не зовёт вовсе. Поэтому набор обязан покрывать <b>все</b> типы, на
+     * которых {@code matches} может вернуть {@code true}; сузить его — значит молча
+     * отключить правило. По умолчанию правило проверяется на каждом узле.
+     */
+    default Set<Class<? extends Node>> appliesTo() {
+        return Set.of(Node.class);
+    }
 }
@@ -9,6 +9,8 @@ import org.vstu.meaningtree.nodes.declarations.components.DeclarationArgument;
 import org.vstu.meaningtree.nodes.types.builtin.PointerType;
 import org.vstu.meaningtree.nodes.types.builtin.ReferenceType;
 
+import java.util.Set;
+
 /**
  * Константный тип в сигнатуре функции: у аргумента (const int& a) или у возвращаемого значения (const int& f()).
  * В отличие от константного объявления переменной, такую константность нельзя выразить
@@ -20,6 +22,11 @@ public class ConstInFunctionSignatureFeature extends SemanticFeature {
         return "feature-const-in-function-signature";
     }
 
+    @Override
+    public Set<Class<? extends Node>> appliesTo() {
+        return Set.of(DeclarationArgument.class, FunctionDeclaration.class);
+    }
+
     @Override
     public boolean matches(Node node, FeatureContext featureContext) {
         return getConstType(node) != null;
@@ -5,12 +5,19 @@ import org.vstu.meaningtree.languages.support.SemanticFeature;
 import org.vstu.meaningtree.nodes.Node;
 import org.vstu.meaningtree.nodes.expressions.calls.ConstructorCall;
 
+import java.util.Set;
+
 public class ConstructorDelegationFeature extends SemanticFeature {
     @Override
     public String id() {
         return "feature-constructor-delegation";
     }
 
+    @Override
+    public Set<Class<? extends Node>> appliesTo() {
+        return Set.of(ConstructorCall.class);
+    }
+
     @Override
     public boolean matches(Node node, FeatureContext context) {
         return node instanceof ConstructorCall call && !call.isBaseClassCall();
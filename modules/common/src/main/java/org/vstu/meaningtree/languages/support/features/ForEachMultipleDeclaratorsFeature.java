@@ -6,6 +6,7 @@ import org.vstu.meaningtree.nodes.Node;
 import org.vstu.meaningtree.nodes.statements.loops.ForEachLoop;
 
 import java.util.Optional;
+import java.util.Set;
 
 public class ForEachMultipleDeclaratorsFeature extends SemanticFeature {
     @Override
@@ -13,6 +14,11 @@ public class ForEachMultipleDeclaratorsFeature extends SemanticFeature {
         return "feature-foreach-multiple-declarators";
     }
 
+    @Override
+    public Set<Class<? extends Node>> appliesTo() {
+        return Set.of(ForEachLoop.class);
+    }
+
     @Override
     public boolean matches(Node node, FeatureContext featureContext) {
         return node instanceof ForEachLoop loop && loop.getItem().getDeclarators().length > 1;
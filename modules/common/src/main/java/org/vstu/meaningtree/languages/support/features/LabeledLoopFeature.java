@@ -8,12 +8,19 @@ import org.vstu.meaningtree.nodes.statements.Loop;
 import org.vstu.meaningtree.nodes.statements.loops.control.BreakStatement;
 import org.vstu.meaningtree.nodes.statements.loops.control.ContinueStatement;
 
+import java.util.Set;
+
 public class LabeledLoopFeature extends SemanticFeature {
     @Override
     public String id() {
         return "labeled-loop";
     }
 
+    @Override
+    public Set<Class<? extends Node>> appliesTo() {
+        return Set.of(Loop.class, ContinueStatement.class, BreakStatement.class);
+    }
+
     @Override
     public boolean matches(Node node, @Nullable FeatureContext context) {
         return node instanceof Loop loop && loop.getJumpLabel() != null
@@ -6,12 +6,19 @@ import org.vstu.meaningtree.nodes.Node;
 import org.vstu.meaningtree.nodes.expressions.other.Range;
 import org.vstu.meaningtree.nodes.statements.loops.RangeForLoop;
 
+import java.util.Set;
+
 public class NonDirectionalRangeForFeature extends SemanticFeature {
     @Override
     public String id() {
         return "feature-range-for-nondirectional";
     }
 
+    @Override
+    public Set<Class<? extends Node>> appliesTo() {
+        return Set.of(RangeForLoop.class);
+    }
+
     @Override
     public boolean matches(Node node, FeatureContext featureContext) {
         return node instanceof RangeForLoop loop
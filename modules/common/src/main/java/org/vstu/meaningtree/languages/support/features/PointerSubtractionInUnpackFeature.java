@@ -7,6 +7,7 @@ import org.vstu.meaningtree.nodes.expressions.math.SubOp;
 import org.vstu.meaningtree.nodes.expressions.pointers.PointerUnpackOp;
 
 import java.util.Optional;
+import java.util.Set;
 
 public class PointerSubtractionInUnpackFeature extends SemanticFeature {
     @Override
@@ -14,6 +15,11 @@ public class PointerSubtractionInUnpackFeature extends SemanticFeature {
         return "feature-pointer-subtraction-in-unpack";
     }
 
+    @Override
+    public Set<Class<? extends Node>> appliesTo() {
+        return Set.of(PointerUnpackOp.class);
+    }
+
     @Override
     public boolean matches(Node node, FeatureContext featureContext) {
         return node instanceof PointerUnpackOp op && op.getArgument() instanceof SubOp;
@@ -5,12 +5,19 @@ import org.vstu.meaningtree.languages.support.SemanticFeature;
 import org.vstu.meaningtree.nodes.Node;
 import org.vstu.meaningtree.nodes.expressions.pointers.PointerToMemberAccess;
 
+import java.util.Set;
+
 public class PointerToMemberOperatorFeature extends SemanticFeature {
     @Override
     public String id() {
         return "feature-pointer-to-member-operator";
     }
 
+    @Override
+    public Set<Class<? extends Node>> appliesTo() {
+        return Set.of(PointerToMemberAccess.class);
+    }
+
     @Override
     public boolean matches(Node node, FeatureContext featureContext) {
         return node instanceof PointerToMemberAccess;
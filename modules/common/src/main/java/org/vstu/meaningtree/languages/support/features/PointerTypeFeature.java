@@ -5,6 +5,8 @@ import org.vstu.meaningtree.languages.support.SemanticFeature;
 import org.vstu.meaningtree.nodes.Node;
 import org.vstu.meaningtree.nodes.types.builtin.PointerType;
 
+import java.util.Set;
+
 /**
  * Тип-указатель в любом объявлении: переменной, аргумента функции или возвращаемого значения.
  * Языки без указателей не могут выразить его семантику, поэтому конвертация должна падать.
@@ -15,6 +17,11 @@ public class PointerTypeFeature extends SemanticFeature {
         return "feature-pointer-type";
     }
 
+    @Override
+    public Set<Class<? extends Node>> appliesTo() {
+        return Set.of(PointerType.class);
+    }
+
     @Override
     public boolean matches(Node node, FeatureContext featureContext) {
         return node instanceof PointerType;
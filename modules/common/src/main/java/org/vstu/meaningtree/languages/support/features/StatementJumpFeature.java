@@ -7,12 +7,19 @@ import org.vstu.meaningtree.nodes.Node;
 import org.vstu.meaningtree.nodes.Statement;
 import org.vstu.meaningtree.nodes.statements.loops.control.GotoStatement;
 
+import java.util.Set;
+
 public class StatementJumpFeature extends SemanticFeature {
     @Override
     public String id() {
         return "statement-jump";
     }
 
+    @Override
+    public Set<Class<? extends Node>> appliesTo() {
+        return Set.of(Statement.class);
+    }
+
     @Override
     public boolean matches(Node node, @Nullable FeatureContext context) {
         return node instanceof Statement stmt && stmt.getJumpLabel() != null || node instanceof GotoStatement;
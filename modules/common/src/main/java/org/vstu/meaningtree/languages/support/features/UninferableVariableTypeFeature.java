@@ -8,6 +8,7 @@ import org.vstu.meaningtree.nodes.statements.loops.ForEachLoop;
 import org.vstu.meaningtree.nodes.types.UnknownType;
 
 import java.util.Arrays;
+import java.util.Set;
 
 public class UninferableVariableTypeFeature extends SemanticFeature {
     @Override
@@ -15,6 +16,11 @@ public class UninferableVariableTypeFeature extends SemanticFeature {
         return "feature-uninferable-variable-type";
     }
 
+    @Override
+    public Set<Class<? extends Node>> appliesTo() {
+        return Set.of(VariableDeclaration.class);
+    }
+
     @Override
     public boolean matches(Node node, FeatureContext featureContext) {
         if (!(node instanceof VariableDeclaration declaration)
@@ -18,6 +18,9 @@ abstract public class Expression extends Node {
     }
 
     public Optional<ExpressionValueEstimate<?>> getValueEstimate() {
+        if (valueEstimate == null && analyzedNode() instanceof Expression holder) {
+            return Optional.ofNullable(holder.valueEstimate);
+        }
         return Optional.ofNullable(valueEstimate);
     }
 
@@ -8,6 +8,7 @@ import org.vstu.meaningtree.utils.Label;
 import org.vstu.meaningtree.utils.LabelAttachable;
 import org.vstu.meaningtree.utils.ReplaceResult;
 import org.vstu.meaningtree.utils.ReplaceStatus;
+import org.vstu.meaningtree.utils.analysis.DeferredAnalysis;
 
 import java.io.Serializable;
 import java.lang.reflect.Field;
@@ -21,6 +22,13 @@ abstract public class Node implements Serializable, Cloneable, LabelAttachable,
     protected static AtomicLong _id_generator = new AtomicLong();
     protected long _id = _id_generator.incrementAndGet();
 
+    /**
+     * Число успешных замен через {@code replace*} во всех деревьях процесса. Кэши, которые
+     * опираются на содержимое узлов (например, кэш вывода типов), сверяются с ним, а не
+     * следят за каждым деревом.
+     */
+    private static final AtomicLong _replace_epoch = new AtomicLong();
+
     /**
      * Внимание! После вызова этого метода, все новые узлы дерева начнут нумерацию своего id с нуля.
      * Это может привести к конфликтам. Убедитесь, что новые узлы не будут сравниваться по id с предыдущими узлами
@@ -34,6 +42,22 @@ abstract public class Node implements Serializable, Cloneable, LabelAttachable,
         _id_generator = new AtomicLong(startId);
     }
 
+    /**
+     * Сдвинуть счётчик так, чтобы новые узлы получали id больше {@code id}. Нужно после
+     * загрузки дерева, построенного в другом процессе: иначе узлы, созданные при его
+     * обработке, могут получить id уже существующих в нём узлов. Счётчик не уменьшается.
+     */
+    public static void reserveIdsUpTo(long id) {
+        _id_generator.accumulateAndGet(id, Math::max);
+    }
+
+    /**
+     * Текущее значение счётчика замен: меняется после каждой успешной замены узла в любом дереве.
+     */
+    public static long replaceEpoch() {
+        return _replace_epoch.get();
+    }
+
     @Override
     public @NotNull Iterator<NodeInfo> iterator() {
         return new DFSNodeIterator(this, false);
@@ -50,6 +74,13 @@ abstract public class Node implements Serializable, Cloneable, LabelAttachable,
 
     private Set<Label> _labels = new HashSet<>();
 
+    /**
+     * Отложенный анализ дерева, результаты которого читаются с этого узла (оценки значений и
+     * итераций). Копия узла наследует привязку вместе с id.
+     */
+    @Nullable
+    private transient DeferredAnalysis _deferredAnalysis = null;
+
     /**
      * Проверяет значение узлов по значению
      * @param o другой объект
@@ -57,9 +88,7 @@ abstract public class Node implements Serializable, Cloneable, LabelAttachable,
      */
     @Override
     public boolean equals(Object o) {
-        if (o == null || getClass() != o.getClass()) return false;
-        Node node = (Node) o;
-        return Objects.equals(_labels, node._labels);
+        return o instanceof Node node && shallowEquals(node);
     }
 
     /**
@@ -68,6 +97,22 @@ abstract public class Node implements Serializable, Cloneable, LabelAttachable,
      */
     @Override
     public int hashCode() {
+        return shallowHashCode();
+    }
+
+    /**
+     * Сравнение только самих узлов, без дочерних, — та часть {@link #equals}, которую
+     * наследники получают через {@code super.equals}. Нужна тем, кто сравнивает поддеревья
+     * без рекурсии и не может позвать {@code super.equals} у чужого узла.
+     */
+    protected final boolean shallowEquals(Node other) {
+        return other != null && getClass() == other.getClass() && Objects.equals(_labels, other._labels);
+    }
+
+    /**
+     * Хэш самого узла без дочерних, см. {@link #shallowEquals}.
+     */
+    protected final int shallowHashCode() {
         List<Object> toHash = new ArrayList<>();
         toHash.add(getClass().getSimpleName());
         // toHash.addAll(_labels); WARNING: don't enable this! it may cause bugs with finding node in hash maps
@@ -76,11 +121,21 @@ abstract public class Node implements Serializable, Cloneable, LabelAttachable,
 
     @Override
     public Node clone() {
+        return shallowClone();
+    }
+
+    /**
+     * Копия только самого узла: дочерние узлы и коллекции остаются общими с оригиналом.
+     * Подходит, когда у копии сразу заменяются отдельные поля-узлы, а поддерево не меняется:
+     * глубокое копирование через {@link #clone()} здесь стоит столько же, сколько всё поддерево.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Node> T shallowClone() {
         try {
             Node clone = (Node) super.clone();
             clone._id = getId();
             clone._labels = new HashSet<>(_labels);
-            return clone;
+            return (T) clone;
         } catch (CloneNotSupportedException e) {
             throw new AssertionError();
         }
@@ -107,6 +162,19 @@ abstract public class Node implements Serializable, Cloneable, LabelAttachable,
         return _id;
     }
 
+    public void attachDeferredAnalysis(@Nullable DeferredAnalysis analysis) {
+        _deferredAnalysis = analysis;
+    }
+
+    /**
+     * Узел, на котором лежат результаты анализа дерева для этого узла: при отложенном анализе
+     * он сначала выполняется (см. {@link DeferredAnalysis#resultHolder}), без него — сам узел.
+     */
+    protected final Node analyzedNode() {
+        DeferredAnalysis analysis = _deferredAnalysis;
+        return analysis == null ? this : analysis.resultHolder(this);
+    }
+
     public boolean uniquenessEquals(Node other) {
         return this.getId() == other.getId();
     }
@@ -236,7 +304,11 @@ abstract public class Node implements Serializable, Cloneable, LabelAttachable,
      * самостоятельно инвалидировать их через MeaningTree.invalidateCache().
      */
     public ReplaceResult replace(FieldDescriptor slot, Node newNode) {
-        return doReplace(slot, newNode);
+        ReplaceResult result = doReplace(slot, newNode);
+        if (result.isSuccess()) {
+            _replace_epoch.incrementAndGet();
+        }
+        return result;
     }
 
     /**
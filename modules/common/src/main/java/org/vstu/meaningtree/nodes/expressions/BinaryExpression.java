@@ -4,10 +4,9 @@ import org.vstu.meaningtree.exceptions.MeaningTreeException;
 import org.vstu.meaningtree.iterators.utils.TreeNode;
 import org.vstu.meaningtree.nodes.Expression;
 
+import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
 
 abstract public class BinaryExpression extends Expression {
     @TreeNode protected Expression left;
@@ -26,6 +25,11 @@ abstract public class BinaryExpression extends Expression {
         return right;
     }
 
+    /**
+     * Правоассоциативная цепочка {@code a op (b op (c op ...))} из операндов начиная со
+     * {@code startIndex}. Строится с конца, без рекурсии, так что длина цепочки ничем не
+     * ограничена.
+     */
     public static Expression fromManyOperands(Expression[] array, int startIndex, Class<? extends BinaryExpression> whatClassNeeded){
         if (array.length == 0) {
             throw new ArrayIndexOutOfBoundsException("Empty array has been passed");
@@ -34,8 +38,14 @@ abstract public class BinaryExpression extends Expression {
         if (startIndex >= array.length - 1) {
             return array[startIndex];
         }
+        Expression result = array[array.length - 1];
         try {
-            return whatClassNeeded.getConstructor(Expression.class, Expression.class).newInstance(array[startIndex], fromManyOperands(array, startIndex + 1, whatClassNeeded));
+            Constructor<? extends BinaryExpression> constructor =
+                    whatClassNeeded.getConstructor(Expression.class, Expression.class);
+            for (int i = array.length - 2; i >= startIndex; i--) {
+                result = constructor.newInstance(array[i], result);
+            }
+            return result;
         } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
             throw new MeaningTreeException(e);
         }
@@ -69,24 +79,112 @@ abstract public class BinaryExpression extends Expression {
         return expr;
     }
 
+    /*
+     * Сравнение, хэш и копирование идут по цепочкам операндов с явным стеком, а не рекурсией:
+     * цепочка из сотни тысяч операций иначе переполняет стек потока. Наследники, которые
+     * переопределяют эти методы ради своих полей, обрабатываются как обычные узлы — их
+     * методы и вызываются.
+     */
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) return false;
         if (!super.equals(o)) return false;
         BinaryExpression that = (BinaryExpression) o;
-        return Objects.equals(left, that.left) && Objects.equals(right, that.right);
+        Deque<Expression> pending = new ArrayDeque<>();
+        pending.push(left);
+        pending.push(that.left);
+        pending.push(right);
+        pending.push(that.right);
+        while (!pending.isEmpty()) {
+            Expression second = pending.pop();
+            Expression first = pending.pop();
+            if (first == second) {
+                continue;
+            }
+            if (first instanceof BinaryExpression a && second instanceof BinaryExpression b
+                    && PLAIN.get(a.getClass())) {
+                if (!a.shallowEquals(b)) {
+                    return false;
+                }
+                pending.push(a.left);
+                pending.push(b.left);
+                pending.push(a.right);
+                pending.push(b.right);
+            } else if (!Objects.equals(first, second)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), left, right);
+        // Обратная польская запись: операнды кладут хэши в стек значений, «сборщик» узла забирает два
+        Deque<Object> pending = new ArrayDeque<>();
+        Deque<Integer> values = new ArrayDeque<>();
+        pushOperands(pending, this);
+        while (!pending.isEmpty()) {
+            Object item = pending.pop();
+            if (item instanceof Combine combine) {
+                int rightHash = values.pop();
+                int leftHash = values.pop();
+                values.push(31 * (31 * (31 + combine.node().shallowHashCode()) + leftHash) + rightHash);
+            } else if (item instanceof BinaryExpression binary && PLAIN.get(binary.getClass())) {
+                pushOperands(pending, binary);
+            } else {
+                values.push(item == NO_OPERAND ? 0 : item.hashCode());
+            }
+        }
+        return values.pop();
+    }
+
+    private static void pushOperands(Deque<Object> pending, BinaryExpression node) {
+        pending.push(new Combine(node));
+        pending.push(node.right == null ? NO_OPERAND : node.right);
+        pending.push(node.left == null ? NO_OPERAND : node.left);
     }
 
     @Override
     public BinaryExpression clone() {
         BinaryExpression obj = (BinaryExpression) super.clone();
-        obj.left = left.clone();
-        obj.right = right.clone();
+        Deque<BinaryExpression> pending = new ArrayDeque<>();
+        pending.push(obj);
+        while (!pending.isEmpty()) {
+            BinaryExpression copy = pending.pop();
+            copy.left = copyOperand(copy.left, pending);
+            copy.right = copyOperand(copy.right, pending);
+        }
         return obj;
     }
+
+    private static Expression copyOperand(Expression operand, Deque<BinaryExpression> pending) {
+        if (operand instanceof BinaryExpression binary && PLAIN.get(binary.getClass())) {
+            BinaryExpression copy = binary.shallowClone();
+            pending.push(copy);
+            return copy;
+        }
+        return operand == null ? null : operand.clone();
+    }
+
+    private record Combine(BinaryExpression node) {}
+
+    private static final Object NO_OPERAND = new Object();
+
+    /**
+     * Класс не переопределяет {@code equals}, {@code hashCode} и {@code clone}: его узлы можно
+     * сравнивать, хэшировать и копировать вместе с цепочкой, не вызывая их методов.
+     */
+    private static final ClassValue<Boolean> PLAIN = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("equals", Object.class).getDeclaringClass() == BinaryExpression.class
+                        && type.getMethod("hashCode").getDeclaringClass() == BinaryExpression.class
+                        && type.getMethod("clone").getDeclaringClass() == BinaryExpression.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
 }
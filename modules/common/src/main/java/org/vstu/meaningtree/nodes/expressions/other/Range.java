@@ -82,6 +82,10 @@ public class Range extends Expression {
         if (rangeDirection != Direction.UNKNOWN) {
             return rangeDirection;
         }
+        // Направление может уточнить анализ циклов
+        if (analyzedNode() instanceof Range holder && holder.rangeDirection != Direction.UNKNOWN) {
+            return holder.rangeDirection;
+        }
 
         try {
             long start = getStartValueAsLong();
@@ -117,6 +121,9 @@ public class Range extends Expression {
     }
 
     public Optional<LoopIterationEstimate> getIterationEstimate() {
+        if (iterationEstimate == null && analyzedNode() instanceof Range holder) {
+            return Optional.ofNullable(holder.iterationEstimate);
+        }
         return Optional.ofNullable(iterationEstimate);
     }
 
@@ -23,6 +23,9 @@ public abstract class Loop extends Statement implements HasBodyStatement {
     }
 
     public Optional<LoopIterationEstimate> getIterationEstimate() {
+        if (iterationEstimate == null && analyzedNode() instanceof Loop holder) {
+            return Optional.ofNullable(holder.iterationEstimate);
+        }
         return Optional.ofNullable(iterationEstimate);
     }
 
@@ -48,6 +48,22 @@ public record LoopIterationEstimate(
         return new LoopIterationEstimate(kind, OptionalLong.empty(), reliable, direction);
     }
 
+    /**
+     * {@link OptionalLong} не сериализуется, поэтому оценка пишется через {@link SerialForm}
+     * (деревья с оценками хранит, например, кэш разбора).
+     */
+    private Object writeReplace() {
+        return new SerialForm(kind, exactIterations.isPresent(), exactIterations.orElse(0), reliable, direction);
+    }
+
+    private record SerialForm(LoopIterationCount kind, boolean exact, long exactIterations, boolean reliable,
+                              Range.Direction direction) implements Serializable {
+        private Object readResolve() {
+            return new LoopIterationEstimate(kind, exact ? OptionalLong.of(exactIterations) : OptionalLong.empty(),
+                    reliable, direction);
+        }
+    }
+
     private static LoopIterationCount classifyExact(long exactIterations) {
         if (exactIterations <= 0) {
             return LoopIterationCount.ZERO;
@@ -4,7 +4,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.tuple.Pair;
 import org.vstu.meaningtree.MeaningTree;
 import org.vstu.meaningtree.exceptions.MeaningTreeSerializationException;
 import org.vstu.meaningtree.iterators.utils.NodeIterable;
@@ -129,15 +128,12 @@ public class JsonDeserializer implements Deserializer<JsonObject> {
                 : deserialize(origin);
 
         // 3. Byte Positions
-        Map<Long, Pair<Integer, Integer>> bytePositions = new HashMap<>();
+        NodePositions.Builder bytePositions = NodePositions.builder();
         if (serialized.has("byte_positions")) {
             JsonObject map = serialized.getAsJsonObject("byte_positions");
-            for (String key : map.keySet()) {
-                JsonArray posArr = map.getAsJsonArray(key);
-                bytePositions.put(
-                        Long.parseLong(key),
-                        Pair.of(posArr.get(0).getAsInt(), posArr.get(1).getAsInt())
-                );
+            for (var entry : map.entrySet()) {
+                JsonArray posArr = entry.getValue().getAsJsonArray();
+                bytePositions.put(Long.parseLong(entry.getKey()), posArr.get(0).getAsInt(), posArr.get(1).getAsInt());
             }
         }
 
@@ -164,7 +160,7 @@ public class JsonDeserializer implements Deserializer<JsonObject> {
                 ? serialized.get("project_file_rel_path").getAsString()
                 : null;
 
-        return new SourceMap(sourceCode, rootNode, bytePositions, scopeTable, language, metrics,
+        return new SourceMap(sourceCode, rootNode, bytePositions.build(), scopeTable, language, metrics,
                 projectRootPath, projectFileRelPath);
     }
 
@@ -54,8 +54,10 @@ import org.vstu.meaningtree.nodes.types.user.GenericStructure;
 import org.vstu.meaningtree.nodes.types.user.Structure;
 import org.vstu.meaningtree.utils.TransliterationUtils;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 public class JsonNodeTypeClassMapper {
     private static final Map<String, Class<? extends Node>> TYPE_TO_CLASS = new HashMap<>();
@@ -326,6 +328,14 @@ public class JsonNodeTypeClassMapper {
         return TYPE_TO_CLASS.containsKey(type);
     }
 
+    /**
+     * Get all registered Node classes
+     * @return unmodifiable set of registered classes
+     */
+    public static Set<Class<? extends Node>> getRegisteredClasses() {
+        return Collections.unmodifiableSet(CLASS_TO_TYPE.keySet());
+    }
+
     /**
      * Check if a Node class is registered
      * @param clazz Node class
@@ -62,6 +62,7 @@ import org.vstu.meaningtree.nodes.types.containers.components.Shape;
 import org.vstu.meaningtree.serializers.model.Serializer;
 import org.vstu.meaningtree.utils.BytePosition;
 import org.vstu.meaningtree.utils.Label;
+import org.vstu.meaningtree.utils.NodePositions;
 import org.vstu.meaningtree.utils.SourceMap;
 import org.vstu.meaningtree.utils.TransliterationUtils;
 import org.vstu.meaningtree.utils.analysis.expressions.ExpressionValueEstimate;
@@ -98,11 +99,12 @@ public class JsonSerializer implements Serializer<JsonObject> {
         root.addProperty("source_code", sourceMap.code());
         root.addProperty("language", sourceMap.language());
         JsonObject map = new JsonObject();
-        for (var entry : sourceMap.bytePositions().entrySet()) {
-            var pair = new JsonArray();
-            pair.add(entry.getValue().getLeft());
-            pair.add(entry.getValue().getRight());
-            map.add(entry.getKey().toString(), pair);
+        NodePositions positions = sourceMap.positions();
+        for (int i = 0; i < positions.size(); i++) {
+            var pair = new JsonArray(2);
+            pair.add(positions.start(i));
+            pair.add(positions.length(i));
+            map.add(Long.toString(positions.id(i)), pair);
         }
         root.add("byte_positions", map);
         root.add("scope_table", serialize(sourceMap.scopeTable()));
@@ -368,6 +370,57 @@ public class JsonSerializer implements Serializer<JsonObject> {
         return root;
     }
 
+    /**
+     * То же, что {@link #serialize(TokenList)}, но простые токены читаются прямо из столбцов
+     * хранилища, без сборки объектов. Результат совпадает с сериализацией тех же токенов в
+     * {@link TokenList}.
+     */
+    public JsonObject serialize(CompactTokenList tokenList) {
+        String tokenKind = TransliterationUtils.camelToSnake(Token.class.getSimpleName());
+        String operandKind = TransliterationUtils.camelToSnake(OperandToken.class.getSimpleName());
+        String noLabel = gson.toJson(null);
+        TokenType[] types = TokenType.values();
+        String[] typeNames = new String[types.length];
+        for (TokenType type : types) {
+            typeNames[type.ordinal()] = enumToValue(type);
+        }
+
+        JsonObject root = new JsonObject();
+        root.addProperty("type", "tokens");
+        JsonArray array = new JsonArray();
+        for (int i = 0; i < tokenList.size(); i++) {
+            if (tokenList.isStoredAsObject(i)) {
+                array.add(serialize(tokenList.get(i)));
+                continue;
+            }
+            JsonObject item = new JsonObject();
+            boolean operand = tokenList.isOperand(i);
+            item.addProperty("type", operand ? operandKind : tokenKind);
+            item.addProperty("is_pseudo", false);
+            if (operand) {
+                OperatorToken operator = tokenList.operandOf(i);
+                item.addProperty("operand_of", operator != null ? operator.getId() : null);
+                item.addProperty("operand_pos", enumToValue(tokenList.operandPosition(i)));
+            }
+            item.addProperty("token_type", typeNames[tokenList.type(i).ordinal()]);
+            item.addProperty("value", tokenList.value(i));
+            item.addProperty("id", tokenList.id(i));
+            item.addProperty("assigned_label", noLabel);
+            item.add("belongs_to", JsonNull.INSTANCE);
+            if (tokenList.hasBytePosition(i)) {
+                JsonArray pos = new JsonArray();
+                pos.add(tokenList.byteStart(i));
+                pos.add(tokenList.byteLength(i));
+                item.add("byte_pos", pos);
+            } else {
+                item.add("byte_pos", null);
+            }
+            array.add(item);
+        }
+        root.add("items", array);
+        return root;
+    }
+
     @Override
     public JsonObject serialize(Token token) {
         if (token == null) {
@@ -0,0 +1,158 @@
+package org.vstu.meaningtree.serializers.rdf;
+
+import org.apache.jena.datatypes.RDFDatatype;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.jena.vocabulary.RDF;
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.exceptions.MeaningTreeSerializationException;
+import org.vstu.meaningtree.nodes.Node;
+import org.vstu.meaningtree.serializers.model.*;
+
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * Потоковое чтение того, что пишет {@link StreamingRDFSerializer} (и {@link RDFSerializer}):
+ * тройки разбираются парсером RIOT по одной, без модели Jena, и складываются в компактные
+ * записи по субъектам, из которых затем собирается дерево. По умолчанию читается N-Triples,
+ * но подойдёт любой язык, который RIOT умеет разбирать потоково.
+ */
+public class StreamingRDFDeserializer {
+    private final String base;
+    private final Lang lang;
+
+    /**
+     * Всё, что нужно знать об одном субъекте: узле дерева или ячейке списка RDF.
+     */
+    private static final class Subject {
+        boolean listNode;
+        String nodeType;
+        final Map<String, Object> values = new HashMap<>();
+        final List<org.apache.jena.graph.Node> fields = new ArrayList<>();
+        String fieldName;
+        org.apache.jena.graph.Node fieldList;
+        org.apache.jena.graph.Node first;
+        org.apache.jena.graph.Node rest;
+    }
+
+    public StreamingRDFDeserializer() {
+        this(RDFSerializer.NS, Lang.NTRIPLES);
+    }
+
+    /**
+     * @param base префикс IRI корня и узлов, как у {@link StreamingRDFSerializer#StreamingRDFSerializer(String)}
+     * @param lang язык входа
+     */
+    public StreamingRDFDeserializer(String base, Lang lang) {
+        this.base = base;
+        this.lang = lang;
+    }
+
+    public Node deserialize(InputStream in) {
+        return new UniversalDeserializer().deserialize(read(in));
+    }
+
+    public MeaningTree deserializeTree(InputStream in) {
+        return new UniversalDeserializer().deserializeTree(read(in));
+    }
+
+    /**
+     * Прочитать поток и собрать промежуточное представление корневого узла.
+     */
+    public AbstractSerializedNode read(InputStream in) {
+        Map<org.apache.jena.graph.Node, Subject> subjects = new HashMap<>();
+        RDFParser.source(in).lang(lang).parse(new StreamRDFBase() {
+            @Override
+            public void triple(Triple triple) {
+                collect(subjects.computeIfAbsent(triple.getSubject(), key -> new Subject()), triple);
+            }
+        });
+
+        Subject tree = subjects.get(NodeFactory.createURI(base + "MeaningTree"));
+        if (tree == null || tree.fields.isEmpty()) {
+            throw new MeaningTreeSerializationException("RDF input has no " + base + "MeaningTree resource");
+        }
+        return assemble(subjects, tree.fields.getFirst());
+    }
+
+    private static void collect(Subject subject, Triple triple) {
+        org.apache.jena.graph.Node predicate = triple.getPredicate();
+        org.apache.jena.graph.Node object = triple.getObject();
+        if (object.isLiteral()) {
+            subject.values.put(localName(predicate), recognizeLiteral(object));
+        } else if (predicate.equals(RDF.type.asNode())) {
+            subject.listNode |= object.getURI().equals(RDFSerializer.NS + "ListNode");
+        } else if (predicate.equals(RDF.first.asNode())) {
+            subject.first = object;
+        } else if (predicate.equals(RDF.rest.asNode())) {
+            subject.rest = object;
+        } else if (predicate.isURI() && predicate.getURI().startsWith(RDFSerializer.NS)) {
+            switch (predicate.getLocalName()) {
+                case "nodeType" -> subject.nodeType = localName(object);
+                case "fieldName" -> subject.fieldName = localName(object);
+                case "hasField" -> subject.fields.add(object);
+                case "hasFieldList" -> subject.fieldList = object;
+                default -> {
+                }
+            }
+        }
+    }
+
+    private static AbstractSerializedNode assemble(Map<org.apache.jena.graph.Node, Subject> subjects,
+                                                   org.apache.jena.graph.Node resource) {
+        Subject subject = subjects.get(resource);
+        if (subject == null) {
+            throw new MeaningTreeSerializationException("RDF input has no triples for " + resource);
+        }
+        if (subject.listNode) {
+            List<AbstractSerializedNode> nodes = new ArrayList<>();
+            org.apache.jena.graph.Node cell = subject.fieldList;
+            while (cell != null && !cell.equals(RDF.nil.asNode())) {
+                Subject item = subjects.get(cell);
+                if (item == null) {
+                    throw new MeaningTreeSerializationException("Broken RDF list at " + cell);
+                }
+                nodes.add(assemble(subjects, item.first));
+                cell = item.rest;
+            }
+            return new SerializedListNode(nodes);
+        }
+        if ("MeaningTreeLabel".equals(subject.nodeType)) {
+            return new SerializedLabel(subject.values);
+        }
+        Map<String, AbstractSerializedNode> fields = new HashMap<>();
+        for (org.apache.jena.graph.Node field : subject.fields) {
+            fields.put(subjects.get(field).fieldName, assemble(subjects, field));
+        }
+        return new SerializedNode(subject.nodeType, fields, subject.values);
+    }
+
+    /**
+     * То же соответствие типов XSD и Java, что в {@link RDFDeserializer}.
+     */
+    private static Object recognizeLiteral(org.apache.jena.graph.Node literal) {
+        RDFDatatype datatype = literal.getLiteralDatatype();
+        String lexical = literal.getLiteralLexicalForm();
+        if (datatype.equals(XSDDatatype.XSDinteger) || datatype.equals(XSDDatatype.XSDint)) {
+            return Integer.parseInt(lexical);
+        } else if (datatype.equals(XSDDatatype.XSDlong)) {
+            return Long.parseLong(lexical);
+        } else if (datatype.equals(XSDDatatype.XSDboolean)) {
+            return ((Boolean) literal.getLiteralValue());
+        } else if (datatype.equals(XSDDatatype.XSDdouble)) {
+            return ((Number) literal.getLiteralValue()).doubleValue();
+        } else if (datatype.equals(XSDDatatype.XSDfloat)) {
+            return ((Number) literal.getLiteralValue()).floatValue();
+        }
+        return lexical;
+    }
+
+    private static String localName(org.apache.jena.graph.Node node) {
+        return node.isURI() ? node.getLocalName() : node.toString();
+    }
+}
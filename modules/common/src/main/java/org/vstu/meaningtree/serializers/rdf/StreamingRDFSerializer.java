@@ -0,0 +1,164 @@
+package org.vstu.meaningtree.serializers.rdf;
+
+import org.apache.commons.lang3.NotImplementedException;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFWriter;
+import org.apache.jena.sys.JenaSystem;
+import org.apache.jena.vocabulary.RDF;
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.nodes.Node;
+import org.vstu.meaningtree.serializers.model.*;
+
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * Потоковый вариант {@link RDFSerializer}: те же тройки, но без модели Jena в памяти — они
+ * сразу уходят в {@link StreamRDF}, например в писатель N-Triples или Turtle поверх
+ * {@link OutputStream}.
+ * <p>
+ * Каждый узел выводится один раз, поэтому проверки наличия свойств, которые делал
+ * {@link RDFSerializer}, не нужны. IRI узлов — {@code <база>mt_node_<N>}, где N — номер узла
+ * при обходе в прямом порядке, а метки пустых узлов списков нумеруются так же: для одного
+ * и того же дерева вывод одинаков от запуска к запуску. Корень — {@code <база>MeaningTree}. Чтобы несколько деревьев можно было
+ * сложить в один граф, база задаётся в конструкторе; по умолчанию это {@link RDFSerializer#NS}.
+ */
+public class StreamingRDFSerializer {
+    private final String base;
+    private int ptr;
+    private int cells;
+
+    static {
+        // Словарь RDF читается до первого обращения к остальной Jena: без явной инициализации
+        // её подсистем константы вроде RDF.type ещё null, если CLI начинает с этого класса
+        JenaSystem.init();
+    }
+
+    private static final org.apache.jena.graph.Node TYPE = RDF.type.asNode();
+    private static final org.apache.jena.graph.Node NODE = vocabulary("Node");
+    private static final org.apache.jena.graph.Node LIST_NODE = vocabulary("ListNode");
+    private static final org.apache.jena.graph.Node FIELD_NAME = vocabulary("fieldName");
+    private static final org.apache.jena.graph.Node NODE_TYPE = vocabulary("nodeType");
+    private static final org.apache.jena.graph.Node HAS_FIELD = vocabulary("hasField");
+    private static final org.apache.jena.graph.Node HAS_FIELD_LIST = vocabulary("hasFieldList");
+    private static final org.apache.jena.graph.Node LABEL = vocabulary("MeaningTreeLabel");
+
+    public StreamingRDFSerializer() {
+        this(RDFSerializer.NS);
+    }
+
+    /**
+     * @param base префикс IRI корня и узлов дерева
+     */
+    public StreamingRDFSerializer(String base) {
+        this.base = base;
+    }
+
+    public void serialize(Node node, StreamRDF sink) {
+        serialize(new UniversalSerializer().serialize(node), sink);
+    }
+
+    public void serialize(MeaningTree mt, StreamRDF sink) {
+        serialize(new UniversalSerializer().serialize(mt), sink);
+    }
+
+    public void serialize(Serializable serializable, StreamRDF sink) {
+        if (serializable instanceof Node node) {
+            serialize(node, sink);
+        } else if (serializable instanceof MeaningTree mt) {
+            serialize(mt, sink);
+        } else {
+            throw new NotImplementedException();
+        }
+    }
+
+    /**
+     * Записать дерево или узел в поток в одном из потоковых форматов Jena
+     * ({@link RDFFormat#NTRIPLES}, {@link RDFFormat#TURTLE_BLOCKS} и т. п.).
+     */
+    public void write(Serializable serializable, OutputStream out, RDFFormat format) {
+        serialize(serializable, StreamRDFWriter.getWriterStream(out, format));
+    }
+
+    /**
+     * Вывести тройки дерева в {@code sink}, обрамив их {@code start()}/{@code finish()}.
+     */
+    public void serialize(AbstractSerializedNode node, StreamRDF sink) {
+        ptr = 0;
+        cells = 0;
+        sink.start();
+        sink.prefix("", RDFSerializer.NS);
+        sink.prefix("rdf", RDF.getURI());
+        sink.prefix("xsd", XSDDatatype.XSD + "#");
+        org.apache.jena.graph.Node root = NodeFactory.createURI(base + "MeaningTree");
+        sink.triple(Triple.create(root, HAS_FIELD, serializeNode(node, sink, "root")));
+        sink.finish();
+    }
+
+    private org.apache.jena.graph.Node serializeNode(AbstractSerializedNode node, StreamRDF sink, String uniqueName) {
+        org.apache.jena.graph.Node subject = NodeFactory.createURI(base + "mt_node_" + ptr++);
+        sink.triple(Triple.create(subject, TYPE, node instanceof SerializedListNode ? LIST_NODE : NODE));
+        sink.triple(Triple.create(subject, FIELD_NAME, vocabulary(uniqueName)));
+        for (Map.Entry<String, Object> value : node.values.entrySet()) {
+            sink.triple(Triple.create(subject, vocabulary(value.getKey()), createValue(value.getValue())));
+        }
+
+        switch (node) {
+            case SerializedNode serializedNode -> {
+                sink.triple(Triple.create(subject, NODE_TYPE, vocabulary(serializedNode.nodeName)));
+                for (Map.Entry<String, AbstractSerializedNode> field : serializedNode.fields.entrySet()) {
+                    org.apache.jena.graph.Node child = serializeNode(field.getValue(), sink, field.getKey());
+                    sink.triple(Triple.create(subject, HAS_FIELD, child));
+                }
+            }
+            case SerializedListNode listNode -> {
+                // Список RDF из пустых узлов, как его строит RDFList.with: хвост — rdf:nil
+                org.apache.jena.graph.Node cell = listNode.nodes.isEmpty() ? RDF.nil.asNode() : listCell();
+                sink.triple(Triple.create(subject, HAS_FIELD_LIST, cell));
+                for (int i = 0; i < listNode.nodes.size(); i++) {
+                    org.apache.jena.graph.Node item = serializeNode(listNode.nodes.get(i), sink, uniqueName);
+                    sink.triple(Triple.create(cell, RDF.first.asNode(), item));
+                    org.apache.jena.graph.Node next = i + 1 < listNode.nodes.size()
+                            ? listCell() : RDF.nil.asNode();
+                    sink.triple(Triple.create(cell, RDF.rest.asNode(), next));
+                    cell = next;
+                }
+            }
+            case SerializedLabel ignored -> sink.triple(Triple.create(subject, NODE_TYPE, LABEL));
+            default -> {
+            }
+        }
+        return subject;
+    }
+
+    /**
+     * Пустой узел ячейки списка. Метки нумеруются по порядку, а не случайны, как по умолчанию
+     * в Jena, — иначе вывод одного и того же дерева отличался бы от запуска к запуску.
+     */
+    private org.apache.jena.graph.Node listCell() {
+        return NodeFactory.createBlankNode("mt_list_" + cells++);
+    }
+
+    private static org.apache.jena.graph.Node createValue(Object obj) {
+        return switch (obj) {
+            case String v -> NodeFactory.createLiteralByValue(v, XSDDatatype.XSDstring);
+            case Byte v -> NodeFactory.createLiteralByValue(v, XSDDatatype.XSDinteger);
+            case Short v -> NodeFactory.createLiteralByValue(v, XSDDatatype.XSDinteger);
+            case Integer v -> NodeFactory.createLiteralByValue(v, XSDDatatype.XSDinteger);
+            case Long v -> NodeFactory.createLiteralByValue(v, XSDDatatype.XSDlong);
+            case Boolean v -> NodeFactory.createLiteralByValue(v, XSDDatatype.XSDboolean);
+            case Double v -> NodeFactory.createLiteralByValue(v, XSDDatatype.XSDdouble);
+            case Float v -> NodeFactory.createLiteralByValue(v, XSDDatatype.XSDfloat);
+            default -> NodeFactory.createLiteralByValue(obj.toString(), XSDDatatype.XSDstring);
+        };
+    }
+
+    private static org.apache.jena.graph.Node vocabulary(String localName) {
+        return NodeFactory.createURI(RDFSerializer.NS + localName);
+    }
+}
@@ -22,11 +22,14 @@ import java.util.Map;
  * Двунаправленный конвертер между JSON и XML для MeaningTree.
  * Сохраняет структуру массивов (включая пустые) и использует поле "type" для именования элементов.
  * Конвертирует имена между snake_case (JSON) и CamelCase (XML).
+ * Если по имени элемента поле не восстановить (элемент назван по типу или имя поля
+ * не годится для тега), исходное имя хранится в служебном атрибуте {@code field}.
  */
 public class JsonXmlConverter {
     private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
     private static final String ARRAY_WRAPPER = "array";
     private static final String ARRAY_ITEM = "item";
+    static final String FIELD_ATTRIBUTE = "field";
 
     // ==================== JSON → XML ====================
 
@@ -90,6 +93,7 @@ public class JsonXmlConverter {
                 // Имя массива конвертируем в CamelCase
                 Element arrayWrapper = doc.createElement(sanitizeTagName(snakeToCamel(key)));
                 arrayWrapper.setAttribute("is_array", "true");
+                setField(arrayWrapper, key);
 
                 JsonArray array = value.getAsJsonArray();
                 for (JsonElement item : array) {
@@ -99,6 +103,7 @@ public class JsonXmlConverter {
                 element.appendChild(arrayWrapper);
             } else if (value.isJsonObject()) {
                 Element child = jsonElementToXml(doc, value, sanitizeTagName(snakeToCamel(key)));
+                setField(child, key);
                 element.appendChild(child);
             } else if (value.isJsonPrimitive()) {
                 // Атрибуты оставляем в snake_case для сохранения совместимости
@@ -117,6 +122,15 @@ public class JsonXmlConverter {
         return element;
     }
 
+    /**
+     * Запоминает имя поля, если из имени тега оно не получается
+     */
+    private static void setField(Element element, String key) {
+        if (!camelToSnake(element.getTagName()).equals(key)) {
+            element.setAttribute(FIELD_ATTRIBUTE, key);
+        }
+    }
+
     /**
      * Преобразование JsonArray в XML Element
      */
@@ -177,10 +191,9 @@ public class JsonXmlConverter {
 
         JsonObject obj = new JsonObject();
 
-        // Добавляем тип из имени элемента (если не root)
-        if (!element.getTagName().equals("root") && !element.getTagName().equals(ARRAY_ITEM)) {
-            // Конвертируем имя элемента обратно в snake_case
-            obj.addProperty("type", camelToSnake(element.getTagName()));
+        // Тип берём только из атрибута: у объектов без типа имя элемента — это имя поля
+        if (element.hasAttribute("type")) {
+            obj.addProperty("type", element.getAttribute("type"));
         }
 
         // Добавляем атрибуты (кроме служебных)
@@ -190,22 +203,9 @@ public class JsonXmlConverter {
             String attrName = attr.getNodeName();
             String attrValue = attr.getNodeValue();
 
-            if (!attrName.equals("is_array") && !attrName.equals("null")) {
-                if (attrName.equals("type")) {
-                    // type берём напрямую (уже в snake_case)
-                    obj.addProperty("type", attrValue);
-                } else if (attrValue.equals("null")) {
-                    obj.add(attrName, JsonNull.INSTANCE);
-                } else if (attrValue.equals("true") || attrValue.equals("false")) {
-                    obj.addProperty(attrName, Boolean.parseBoolean(attrValue));
-                } else if (isNumeric(attrValue)) {
-                    if (attrValue.contains(".")) {
-                        obj.addProperty(attrName, Double.parseDouble(attrValue));
-                    } else {
-                        obj.addProperty(attrName, Long.parseLong(attrValue));
-                    }
-                } else {
-                    obj.addProperty(attrName, attrValue);
+            if (!attrName.equals("is_array") && !attrName.equals("null") && !attrName.equals(FIELD_ATTRIBUTE)) {
+                if (!attrName.equals("type")) {
+                    obj.add(attrName, attributeValue(attrValue));
                 }
             }
         }
@@ -219,8 +219,10 @@ public class JsonXmlConverter {
                 Element childElement = (Element) child;
                 String childName = childElement.getTagName();
 
-                // Конвертируем имя обратно в snake_case
-                String jsonKey = camelToSnake(childName);
+                // Конвертируем имя обратно в snake_case, если исходное не сохранено
+                String jsonKey = childElement.hasAttribute(FIELD_ATTRIBUTE)
+                        ? childElement.getAttribute(FIELD_ATTRIBUTE)
+                        : camelToSnake(childName);
 
                 // Проверяем, является ли дочерний элемент массивом
                 if ("true".equals(childElement.getAttribute("is_array"))) {
@@ -236,9 +238,52 @@ public class JsonXmlConverter {
             }
         }
 
+        // Элемент массива только с текстом — примитив
+        if (isScalarItem(element) && obj.has("value") && !hasChildElements(element)) {
+            return attributeValue(obj.get("value").getAsString());
+        }
         return obj;
     }
 
+    /**
+     * Элемент массива без атрибутов: так пишутся примитивы внутри массивов
+     */
+    static boolean isScalarItem(String tagName, int attributeCount) {
+        return tagName.equals(ARRAY_ITEM) && attributeCount == 0;
+    }
+
+    private static boolean isScalarItem(Element element) {
+        return element.getParentNode() instanceof Element parent && "true".equals(parent.getAttribute("is_array"))
+                && isScalarItem(element.getTagName(), element.getAttributes().getLength());
+    }
+
+    private static boolean hasChildElements(Element element) {
+        NodeList children = element.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            if (children.item(i).getNodeType() == Node.ELEMENT_NODE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Значение атрибута в JSON: {@code null}, логическое, число или строка
+     */
+    static JsonElement attributeValue(String value) {
+        if (value.equals("null")) {
+            return JsonNull.INSTANCE;
+        } else if (value.equals("true") || value.equals("false")) {
+            return new JsonPrimitive(Boolean.parseBoolean(value));
+        } else if (isNumeric(value)) {
+            if (value.contains(".")) {
+                return new JsonPrimitive(Double.parseDouble(value));
+            }
+            return new JsonPrimitive(Long.parseLong(value));
+        }
+        return new JsonPrimitive(value);
+    }
+
     /**
      * Преобразование XML массива в JsonArray
      */
@@ -266,7 +311,7 @@ public class JsonXmlConverter {
      * - "variable_declaration" -> "VariableDeclaration"
      * - "some_long_name" -> "SomeLongName"
      */
-    private static String snakeToCamel(String snakeCase) {
+    static String snakeToCamel(String snakeCase) {
         if (snakeCase == null || snakeCase.isEmpty()) {
             return snakeCase;
         }
@@ -297,7 +342,7 @@ public class JsonXmlConverter {
      * - "VariableDeclaration" -> "variable_declaration"
      * - "SomeLongName" -> "some_long_name"
      */
-    private static String camelToSnake(String camelCase) {
+    static String camelToSnake(String camelCase) {
         if (camelCase == null || camelCase.isEmpty()) {
             return camelCase;
         }
@@ -354,7 +399,7 @@ public class JsonXmlConverter {
     /**
      * Очищает имя тега от недопустимых символов
      */
-    private static String sanitizeTagName(String name) {
+    static String sanitizeTagName(String name) {
         // XML теги не могут начинаться с цифры
         if (name.matches("^[0-9].*")) {
             name = "_" + name;
@@ -0,0 +1,203 @@
+package org.vstu.meaningtree.serializers.xml;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Reader;
+import java.util.*;
+
+/**
+ * Чтение XML через {@link XMLStreamReader} прямо в JSON-представление дерева: результат тот
+ * же, что у {@link JsonXmlConverter#xmlToJsonObject(String)}, но без W3C DOM.
+ * <p>
+ * Обход нерекурсивный, поэтому глубина документа ограничена только памятью. Правила те же,
+ * что у конвертера:
+ * <ul>
+ *     <li>элемент с {@code is_array="true"} — массив из его дочерних элементов;</li>
+ *     <li>элемент с {@code null="true"} — {@code null}, содержимое не читается;</li>
+ *     <li>{@code item} в массиве без атрибутов и дочерних элементов, но с текстом — примитив;</li>
+ *     <li>остальные — объект: тип из атрибута {@code type}, остальные атрибуты в порядке имён,
+ *         дочерние элементы полями, непустой текст полем {@code value}.</li>
+ * </ul>
+ * Имя поля берётся из атрибута {@code field}, если он есть, иначе из имени элемента.
+ * Внешние сущности и DTD не загружаются: сериализатор их не пишет.
+ */
+final class StreamingXmlReader {
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    /**
+     * Открытый элемент документа.
+     *
+     * @param value объект или массив, в который складываются дочерние элементы
+     * @param text  текст, накопленный с последней границы (тега, комментария); {@code null} для массива
+     * @param scalar элемент массива без атрибутов: если в нём окажется только текст, это примитив
+     */
+    private record Frame(JsonElement value, StringBuilder text, boolean scalar) {}
+
+    private final Map<String, String> keys = new HashMap<>();
+
+    JsonObject readObject(Reader in) throws XMLStreamException {
+        XMLStreamReader reader = FACTORY.createXMLStreamReader(in);
+        try {
+            return read(reader).getAsJsonObject();
+        } finally {
+            reader.close();
+        }
+    }
+
+    private JsonElement read(XMLStreamReader reader) throws XMLStreamException {
+        Deque<Frame> stack = new ArrayDeque<>();
+        JsonElement root = null;
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT -> {
+                    Frame parent = stack.peek();
+                    if (parent != null) {
+                        flushText(parent);
+                    }
+                    JsonElement value = open(reader);
+                    if (parent == null) {
+                        root = value;
+                    } else {
+                        String field = reader.getAttributeValue(null, JsonXmlConverter.FIELD_ATTRIBUTE);
+                        addChild(parent, field != null ? field : key(reader.getLocalName()), value);
+                    }
+                    if (value.isJsonNull()) {
+                        skipElement(reader);
+                    } else {
+                        boolean scalar = JsonXmlConverter.isScalarItem(reader.getLocalName(), reader.getAttributeCount());
+                        stack.push(new Frame(value, value.isJsonObject() ? new StringBuilder() : null, scalar));
+                    }
+                }
+                case XMLStreamConstants.END_ELEMENT -> {
+                    Frame frame = stack.pop();
+                    flushText(frame);
+                    if (frame.scalar() && !stack.isEmpty() && stack.peek().value() instanceof JsonArray parent) {
+                        unwrapScalar(frame.value().getAsJsonObject(), parent);
+                    }
+                }
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.SPACE -> {
+                    Frame current = stack.peek();
+                    if (current != null && current.text() != null) {
+                        current.text().append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                }
+                // В DOM конвертера комментарии, инструкции и CDATA — отдельные узлы: они
+                // разрывают текст, а CDATA в значение не попадает
+                case XMLStreamConstants.COMMENT, XMLStreamConstants.PROCESSING_INSTRUCTION,
+                     XMLStreamConstants.CDATA -> {
+                    Frame current = stack.peek();
+                    if (current != null) {
+                        flushText(current);
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        if (root == null) {
+            throw new XMLStreamException("Document has no root element");
+        }
+        return root;
+    }
+
+    /**
+     * Значение для только что открытого элемента: массив, {@code null} или объект с атрибутами.
+     */
+    private JsonElement open(XMLStreamReader reader) {
+        if ("true".equals(reader.getAttributeValue(null, "is_array"))) {
+            return new JsonArray();
+        }
+        if ("true".equals(reader.getAttributeValue(null, "null"))) {
+            return JsonNull.INSTANCE;
+        }
+
+        JsonObject obj = new JsonObject();
+        String type = reader.getAttributeValue(null, "type");
+        if (type != null) {
+            obj.addProperty("type", type);
+        }
+
+        int count = reader.getAttributeCount();
+        String[][] attributes = new String[count][];
+        for (int i = 0; i < count; i++) {
+            attributes[i] = new String[]{reader.getAttributeLocalName(i), reader.getAttributeValue(i)};
+        }
+        Arrays.sort(attributes, Comparator.comparing(attribute -> attribute[0]));
+        for (String[] attribute : attributes) {
+            String name = attribute[0];
+            if (name.equals("is_array") || name.equals("null") || name.equals(JsonXmlConverter.FIELD_ATTRIBUTE)) {
+                continue;
+            }
+            if (!name.equals("type")) {
+                obj.add(name, JsonXmlConverter.attributeValue(attribute[1]));
+            }
+        }
+        return obj;
+    }
+
+    private static void addChild(Frame parent, String key, JsonElement value) {
+        if (parent.value() instanceof JsonArray array) {
+            array.add(value);
+        } else {
+            parent.value().getAsJsonObject().add(key, value);
+        }
+    }
+
+    private static void flushText(Frame frame) {
+        if (frame.text() == null || frame.text().isEmpty()) {
+            return;
+        }
+        String text = frame.text().toString().trim();
+        frame.text().setLength(0);
+        if (!text.isEmpty()) {
+            frame.value().getAsJsonObject().addProperty("value", text);
+        }
+    }
+
+    /**
+     * Заменить последний элемент массива его текстом, если кроме текста в нём ничего нет.
+     * Дочерние элементы объекта — объекты и массивы, так что строка в {@code value} — это текст.
+     */
+    private static void unwrapScalar(JsonObject item, JsonArray parent) {
+        JsonElement text = item.get("value");
+        if (item.size() == 1 && text.isJsonPrimitive() && text.getAsJsonPrimitive().isString()) {
+            parent.set(parent.size() - 1, JsonXmlConverter.attributeValue(text.getAsString()));
+        }
+    }
+
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private String key(String tagName) {
+        return keys.computeIfAbsent(tagName, JsonXmlConverter::camelToSnake);
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        String reportCdata = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+        if (factory.isPropertySupported(reportCdata)) {
+            factory.setProperty(reportCdata, true);
+        }
+        return factory;
+    }
+}
@@ -0,0 +1,235 @@
+package org.vstu.meaningtree.serializers.xml;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Потоковая запись JSON-представления дерева в XML того же вида, что даёт
+ * {@link JsonXmlConverter#jsonToXml(JsonObject, boolean)}, — байт в байт, но без промежуточной
+ * JSON-строки, её повторного разбора и W3C DOM.
+ * <p>
+ * Разметку класс пишет сам, а не через {@code XMLStreamWriter}: тот оставляет табуляции и
+ * переводы строк в атрибутах как есть (при чтении они превращаются в пробелы) и иначе
+ * экранирует символы вне BMP. Правила экранирования повторяют сериализатор JDK, которым
+ * пользуется конвертер:
+ * <ul>
+ *     <li>атрибуты — {@code & < > "} сущностями, табуляция и переводы строк ссылками на символ;</li>
+ *     <li>текст — {@code & < >} сущностями, {@code \r} и символы 0x7F–0x9F ссылками на символ;</li>
+ *     <li>символы вне BMP — ссылками на символ везде;</li>
+ *     <li>управляющие символы, недопустимые в XML 1.0, и одиночные суррогаты — ошибка;
+ *         старший суррогат в самом конце строки отбрасывается.</li>
+ * </ul>
+ * Как и в конвертере, {@code null}-поля объектов пропускаются (их выбрасывал
+ * {@code gson.toJson}), а {@code null} в массивах остаётся элементом {@code null="true"};
+ * имя поля, которое не восстановить по тегу, пишется в атрибут {@code field}.
+ */
+final class StreamingXmlWriter {
+    private static final String DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>";
+    private static final String INDENT = "    ";
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final Writer out;
+    private final boolean pretty;
+
+    /**
+     * Имена тегов по типу узла или имени поля: одних и тех же типов в дереве много, а
+     * преобразование имени идёт через регулярные выражения.
+     */
+    private final Map<String, String> tagNames = new HashMap<>();
+    private final Map<String, String> keys = new HashMap<>();
+
+    StreamingXmlWriter(Writer out, boolean pretty) {
+        this.out = out;
+        this.pretty = pretty;
+    }
+
+    void writeDocument(JsonElement root) throws IOException {
+        out.write(DECLARATION);
+        if (pretty) {
+            out.write(LINE_SEPARATOR);
+        }
+        writeElement(root, "root", null, 0);
+        if (pretty) {
+            out.write(LINE_SEPARATOR);
+        }
+        out.flush();
+    }
+
+    private void writeElement(JsonElement element, String tagName, String field, int depth) throws IOException {
+        if (element.isJsonObject()) {
+            writeObject(element.getAsJsonObject(), tagName, field, depth);
+        } else if (element.isJsonArray()) {
+            writeArray(element.getAsJsonArray(), tagName, field, depth);
+        } else if (element.isJsonPrimitive()) {
+            String text = element.getAsString();
+            startTag(tagName, depth);
+            if (text.isEmpty()) {
+                out.write("/>");
+                return;
+            }
+            out.write('>');
+            writeEscaped(text, false);
+            endTag(tagName, depth, false);
+        } else {
+            startTag(tagName, depth);
+            out.write(" null=\"true\"/>");
+        }
+    }
+
+    /**
+     * @param field имя поля в родительском объекте или {@code null} для корня и элементов массива
+     */
+    private void writeObject(JsonObject obj, String tagName, String field, int depth) throws IOException {
+        JsonElement type = obj.get("type");
+        String elementName = type != null && !type.isJsonNull() ? tagName(type.getAsString()) : tagName;
+
+        List<Map.Entry<String, String>> attributes = new ArrayList<>();
+        if (needsField(elementName, field)) {
+            attributes.add(Map.entry(JsonXmlConverter.FIELD_ATTRIBUTE, field));
+        }
+        boolean hasChildren = false;
+        for (Map.Entry<String, JsonElement> entry : obj.entrySet()) {
+            JsonElement value = entry.getValue();
+            if (entry.getKey().equals("type") || value.isJsonPrimitive()) {
+                if (!value.isJsonNull()) {
+                    attributes.add(Map.entry(entry.getKey(), value.getAsString()));
+                }
+            } else if (!value.isJsonNull()) {
+                hasChildren = true;
+            }
+        }
+        // DOM конвертера хранит атрибуты упорядоченными по имени, в том же порядке они и выводились
+        attributes.sort(Map.Entry.comparingByKey());
+
+        startTag(elementName, depth);
+        for (Map.Entry<String, String> attribute : attributes) {
+            writeAttribute(attribute.getKey(), attribute.getValue());
+        }
+        if (!hasChildren) {
+            out.write("/>");
+            return;
+        }
+        out.write('>');
+        for (Map.Entry<String, JsonElement> entry : obj.entrySet()) {
+            JsonElement value = entry.getValue();
+            if (entry.getKey().equals("type")) {
+                continue;
+            }
+            if (value.isJsonArray()) {
+                writeArray(value.getAsJsonArray(), tagName(entry.getKey()), entry.getKey(), depth + 1);
+            } else if (value.isJsonObject()) {
+                writeObject(value.getAsJsonObject(), tagName(entry.getKey()), entry.getKey(), depth + 1);
+            }
+        }
+        endTag(elementName, depth, true);
+    }
+
+    private void writeArray(JsonArray array, String tagName, String field, int depth) throws IOException {
+        startTag(tagName, depth);
+        if (needsField(tagName, field)) {
+            writeAttribute(JsonXmlConverter.FIELD_ATTRIBUTE, field);
+        }
+        out.write(" is_array=\"true\"");
+        if (array.isEmpty()) {
+            out.write("/>");
+            return;
+        }
+        out.write('>');
+        for (JsonElement item : array) {
+            writeElement(item, "item", null, depth + 1);
+        }
+        endTag(tagName, depth, true);
+    }
+
+    private void startTag(String name, int depth) throws IOException {
+        if (pretty && depth > 0) {
+            out.write(LINE_SEPARATOR);
+            for (int i = 0; i < depth; i++) {
+                out.write(INDENT);
+            }
+        }
+        out.write('<');
+        out.write(name);
+    }
+
+    private void endTag(String name, int depth, boolean afterChildren) throws IOException {
+        if (pretty && afterChildren) {
+            out.write(LINE_SEPARATOR);
+            for (int i = 0; i < depth; i++) {
+                out.write(INDENT);
+            }
+        }
+        out.write("</");
+        out.write(name);
+        out.write('>');
+    }
+
+    private void writeAttribute(String name, String value) throws IOException {
+        out.write(' ');
+        out.write(name);
+        out.write("=\"");
+        writeEscaped(value, true);
+        out.write('"');
+    }
+
+    private void writeEscaped(String value, boolean attribute) throws IOException {
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement = switch (c) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> attribute ? "&quot;" : null;
+                case '\t' -> attribute ? "&#9;" : null;
+                case '\n' -> attribute ? "&#10;" : LINE_SEPARATOR;
+                case '\r' -> "&#13;";
+                default -> !attribute && c >= 0x7F && c <= 0x9F ? "&#" + (int) c + ";" : null;
+            };
+            if (replacement != null) {
+                out.write(value, start, i - start);
+                out.write(replacement);
+                start = i + 1;
+            } else if (c < 0x20 && c != '\t' && c != '\n' && c != '\r') {
+                throw new IOException("An invalid XML character (Unicode: 0x%s) was found in the node's character data content."
+                        .formatted(Integer.toHexString(c)));
+            } else if (Character.isSurrogate(c)) {
+                out.write(value, start, i - start);
+                if (Character.isHighSurrogate(c) && i + 1 == value.length()) {
+                    // Сериализатор JDK молча отбрасывает оборванную пару в конце строки
+                    return;
+                }
+                if (!Character.isHighSurrogate(c) || !Character.isLowSurrogate(value.charAt(i + 1))) {
+                    throw new IOException("Invalid UTF-16 surrogate detected: " + Integer.toHexString(c));
+                }
+                writeCharacterReference(value.codePointAt(i));
+                i++;
+                start = i + 1;
+            }
+        }
+        out.write(value, start, value.length() - start);
+    }
+
+    private void writeCharacterReference(int codePoint) throws IOException {
+        out.write("&#");
+        out.write(Integer.toString(codePoint));
+        out.write(';');
+    }
+
+    private boolean needsField(String tagName, String field) {
+        return field != null && !keys.computeIfAbsent(tagName, JsonXmlConverter::camelToSnake).equals(field);
+    }
+
+    private String tagName(String jsonName) {
+        return tagNames.computeIfAbsent(jsonName,
+                name -> JsonXmlConverter.sanitizeTagName(JsonXmlConverter.snakeToCamel(name)));
+    }
+}
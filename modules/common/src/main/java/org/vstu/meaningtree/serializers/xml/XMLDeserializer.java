@@ -1,5 +1,6 @@
 package org.vstu.meaningtree.serializers.xml;
 
+import com.google.gson.JsonObject;
 import org.vstu.meaningtree.MeaningTree;
 import org.vstu.meaningtree.exceptions.MeaningTreeSerializationException;
 import org.vstu.meaningtree.nodes.Node;
@@ -9,6 +10,15 @@ import org.vstu.meaningtree.utils.SourceMap;
 import org.vstu.meaningtree.utils.tokens.Token;
 import org.vstu.meaningtree.utils.tokens.TokenList;
 
+import javax.xml.stream.XMLStreamException;
+import java.io.Reader;
+import java.io.StringReader;
+
+/**
+ * Десериализация из XML. Документ читается через StAX прямо в JSON-представление, которое
+ * восстанавливает {@link JsonDeserializer}; результат совпадает с
+ * {@link JsonXmlConverter#xmlToJsonObject(String)}.
+ */
 public class XMLDeserializer implements Deserializer<String> {
 
     private JsonDeserializer jsonDeserializer;
@@ -21,7 +31,7 @@ public class XMLDeserializer implements Deserializer<String> {
     @Override
     public Node deserialize(String serialized) {
         try {
-            return jsonDeserializer.deserialize(JsonXmlConverter.xmlToJsonObject(serialized));
+            return jsonDeserializer.deserialize(toJson(serialized));
         } catch (Exception e) {
             throw new MeaningTreeSerializationException(e);
         }
@@ -30,7 +40,7 @@ public class XMLDeserializer implements Deserializer<String> {
     @Override
     public MeaningTree deserializeTree(String serialized) {
         try {
-            return jsonDeserializer.deserializeTree(JsonXmlConverter.xmlToJsonObject(serialized));
+            return jsonDeserializer.deserializeTree(toJson(serialized));
         } catch (Exception e) {
             throw new MeaningTreeSerializationException(e);
         }
@@ -39,7 +49,7 @@ public class XMLDeserializer implements Deserializer<String> {
     @Override
     public SourceMap deserializeSourceMap(String serialized) {
         try {
-            return jsonDeserializer.deserializeSourceMap(JsonXmlConverter.xmlToJsonObject(serialized));
+            return jsonDeserializer.deserializeSourceMap(toJson(serialized));
         } catch (Exception e) {
             throw new MeaningTreeSerializationException(e);
         }
@@ -48,7 +58,7 @@ public class XMLDeserializer implements Deserializer<String> {
     @Override
     public TokenList deserializeTokens(String serialized) {
         try {
-            return jsonDeserializer.deserializeTokens(JsonXmlConverter.xmlToJsonObject(serialized));
+            return jsonDeserializer.deserializeTokens(toJson(serialized));
         } catch (Exception e) {
             throw new MeaningTreeSerializationException(e);
         }
@@ -57,9 +67,24 @@ public class XMLDeserializer implements Deserializer<String> {
     @Override
     public Token deserializeToken(String token) {
         try {
-            return jsonDeserializer.deserializeToken(JsonXmlConverter.xmlToJsonObject(token));
+            return jsonDeserializer.deserializeToken(toJson(token));
         } catch (Exception e) {
             throw new MeaningTreeSerializationException(e);
         }
     }
+
+    /**
+     * Прочитать дерево из потока, не собирая XML в строку.
+     */
+    public MeaningTree deserializeTree(Reader in) {
+        try {
+            return jsonDeserializer.deserializeTree(new StreamingXmlReader().readObject(in));
+        } catch (Exception e) {
+            throw new MeaningTreeSerializationException(e);
+        }
+    }
+
+    private static JsonObject toJson(String serialized) throws XMLStreamException {
+        return new StreamingXmlReader().readObject(new StringReader(serialized));
+    }
 }
@@ -1,5 +1,6 @@
 package org.vstu.meaningtree.serializers.xml;
 
+import com.google.gson.JsonElement;
 import org.vstu.meaningtree.MeaningTree;
 import org.vstu.meaningtree.exceptions.MeaningTreeSerializationException;
 import org.vstu.meaningtree.nodes.Node;
@@ -9,6 +10,15 @@ import org.vstu.meaningtree.utils.SourceMap;
 import org.vstu.meaningtree.utils.tokens.Token;
 import org.vstu.meaningtree.utils.tokens.TokenList;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+/**
+ * Сериализация в XML. Дерево переводится в JSON-представление {@link JsonSerializer}, а оно
+ * пишется в XML потоково, без промежуточной строки и DOM; результат совпадает с
+ * {@link JsonXmlConverter#jsonToXml(com.google.gson.JsonObject, boolean)}.
+ */
 public class XMLSerializer implements Serializer<String> {
 
     private JsonSerializer jsonSerializer;
@@ -22,7 +32,7 @@ public class XMLSerializer implements Serializer<String> {
     @Override
     public String serialize(Node node) {
         try {
-            return JsonXmlConverter.jsonToXml(jsonSerializer.serialize(node), prettyPrint);
+            return toXml(jsonSerializer.serialize(node));
         } catch (Exception e) {
             throw new MeaningTreeSerializationException(e);
         }
@@ -31,7 +41,7 @@ public class XMLSerializer implements Serializer<String> {
     @Override
     public String serialize(MeaningTree mt) {
         try {
-            return JsonXmlConverter.jsonToXml(jsonSerializer.serialize(mt), prettyPrint);
+            return toXml(jsonSerializer.serialize(mt));
         } catch (Exception e) {
             throw new MeaningTreeSerializationException(e);
         }
@@ -40,7 +50,7 @@ public class XMLSerializer implements Serializer<String> {
     @Override
     public String serialize(SourceMap map) {
         try {
-            return JsonXmlConverter.jsonToXml(jsonSerializer.serialize(map), prettyPrint);
+            return toXml(jsonSerializer.serialize(map));
         } catch (Exception e) {
             throw new MeaningTreeSerializationException(e);
         }
@@ -49,7 +59,7 @@ public class XMLSerializer implements Serializer<String> {
     @Override
     public String serialize(TokenList tokenList) {
         try {
-            return JsonXmlConverter.jsonToXml(jsonSerializer.serialize(tokenList), prettyPrint);
+            return toXml(jsonSerializer.serialize(tokenList));
         } catch (Exception e) {
             throw new MeaningTreeSerializationException(e);
         }
@@ -58,9 +68,26 @@ public class XMLSerializer implements Serializer<String> {
     @Override
     public String serialize(Token token) {
         try {
-            return JsonXmlConverter.jsonToXml(jsonSerializer.serialize(token), prettyPrint);
+            return toXml(jsonSerializer.serialize(token));
         } catch (Exception e) {
             throw new MeaningTreeSerializationException(e);
         }
     }
+
+    /**
+     * Записать дерево в поток, не собирая XML в строку.
+     */
+    public void serialize(MeaningTree mt, Writer out) {
+        try {
+            new StreamingXmlWriter(out, prettyPrint).writeDocument(jsonSerializer.serialize(mt));
+        } catch (Exception e) {
+            throw new MeaningTreeSerializationException(e);
+        }
+    }
+
+    private String toXml(JsonElement json) throws IOException {
+        StringWriter out = new StringWriter();
+        new StreamingXmlWriter(out, prettyPrint).writeDocument(json);
+        return out.toString();
+    }
 }
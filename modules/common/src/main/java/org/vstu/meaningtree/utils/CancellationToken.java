@@ -0,0 +1,94 @@
+package org.vstu.meaningtree.utils;
+
+import org.vstu.meaningtree.exceptions.TranslationCancelledException;
+
+import java.time.Duration;
+
+/**
+ * Кооперативная отмена трансляции: явная ({@link #cancel()}) и по сроку.
+ * <p>
+ * Трансляция сама проверяет маркер в своих точках диспетчеризации — на каждом узле разбора
+ * и рендеринга, при каждом прогоне хуков и в циклах проходов анализа — и, обнаружив отмену,
+ * бросает {@link TranslationCancelledException}. Проверка — чтение volatile-поля и, если
+ * задан срок, {@link System#nanoTime()}, поэтому на скорости трансляции она не сказывается.
+ * <p>
+ * Маркер можно отменять из любого потока. Отменённый маркер остаётся отменённым: для
+ * следующего запроса нужен новый.
+ */
+public final class CancellationToken {
+    private final long deadlineNanos;
+    private final boolean hasDeadline;
+    private final long timeoutMillis;
+    private volatile boolean cancelled = false;
+
+    private CancellationToken(long deadlineNanos, boolean hasDeadline, long timeoutMillis) {
+        this.deadlineNanos = deadlineNanos;
+        this.hasDeadline = hasDeadline;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Маркер без срока: трансляция прерывается только вызовом {@link #cancel()}.
+     */
+    public static CancellationToken create() {
+        return new CancellationToken(0, false, 0);
+    }
+
+    /**
+     * Маркер со сроком, отсчитываемым от момента создания.
+     */
+    public static CancellationToken withTimeout(Duration timeout) {
+        if (timeout.isNegative()) {
+            throw new IllegalArgumentException("timeout must not be negative");
+        }
+        long nanos = saturatedNanos(timeout);
+        return new CancellationToken(System.nanoTime() + nanos, true, timeout.toMillis());
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled || isDeadlineExceeded();
+    }
+
+    public boolean isDeadlineExceeded() {
+        return hasDeadline && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    /**
+     * Точка проверки: бросает исключение, если маркер отменён или срок вышел.
+     *
+     * @throws TranslationCancelledException если трансляцию пора прервать
+     */
+    public void throwIfCancelled() {
+        if (cancelled) {
+            throw new TranslationCancelledException("Translation was cancelled", false);
+        }
+        if (isDeadlineExceeded()) {
+            throw new TranslationCancelledException(
+                    "Translation deadline of %d ms exceeded".formatted(timeoutMillis), true);
+        }
+    }
+
+    /**
+     * Сколько микросекунд можно работать без проверки: не больше {@code maxMicros} и не
+     * больше остатка срока, но хотя бы одна — ноль для tree-sitter означает «без предела».
+     */
+    public long sliceMicros(long maxMicros) {
+        if (!hasDeadline) {
+            return maxMicros;
+        }
+        long remaining = (deadlineNanos - System.nanoTime()) / 1000;
+        return Math.max(1, Math.min(maxMicros, remaining));
+    }
+
+    private static long saturatedNanos(Duration duration) {
+        try {
+            return duration.toNanos();
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE / 2;
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package org.vstu.meaningtree.utils;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Байтовые позиции узлов в сгенерированном коде — {@code id → (начало, длина)} — в примитивных
+ * массивах, упорядоченных по началу (при равном — сначала более длинные).
+ * <p>
+ * Кроме поиска позиции по id отвечает на обратный вопрос — какие узлы покрывают смещение.
+ * Для этого при построении каждой позиции находится ближайшая объемлющая. Разметка
+ * {@code SourceMapGenerator} правильно вложена: два отрезка либо не пересекаются, либо один
+ * содержит другой. Для пересекающихся отрезков (их можно прочитать только из чужого JSON)
+ * запросы по смещению возвращают лишь те, что лежат на одной цепочке вложенности.
+ * <p>
+ * Отрезок узла — {@code [начало, начало + длина)}; узлы нулевой длины не покрывают ни одного
+ * смещения. Для совместимости класс остаётся неизменяемым {@link Map}, каким раньше была
+ * {@link SourceMap#bytePositions()}.
+ */
+public final class NodePositions extends AbstractMap<Long, Pair<Integer, Integer>> implements Serializable {
+    private static final NodePositions EMPTY = new NodePositions(new long[0], new int[0], new int[0]);
+
+    private final long[] ids;
+    private final int[] starts;
+    private final int[] lengths;
+    /** Индекс ближайшей объемлющей позиции или -1 */
+    private final int[] parents;
+    /** Id по возрастанию и индексы их позиций — для поиска по id */
+    private final long[] sortedIds;
+    private final int[] idOrder;
+
+    private NodePositions(long[] ids, int[] starts, int[] lengths) {
+        this.ids = ids;
+        this.starts = starts;
+        this.lengths = lengths;
+        this.parents = nesting(starts, lengths);
+
+        Integer[] order = new Integer[ids.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> ids[i]));
+        this.sortedIds = new long[ids.length];
+        this.idOrder = new int[ids.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedIds[i] = ids[order[i]];
+            idOrder[i] = order[i];
+        }
+    }
+
+    public static NodePositions empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Позиции из отображения {@code id → (начало, длина)}; экземпляр {@link NodePositions}
+     * возвращается как есть.
+     */
+    public static NodePositions of(Map<Long, Pair<Integer, Integer>> positions) {
+        if (positions instanceof NodePositions nodePositions) {
+            return nodePositions;
+        }
+        Builder builder = new Builder(positions.size());
+        positions.forEach((id, position) -> builder.put(id, position.getLeft(), position.getRight()));
+        return builder.build();
+    }
+
+    public static Builder builder() {
+        return new Builder(16);
+    }
+
+    /* -----------------------------
+    |       Доступ по индексу       |
+    ------------------------------ */
+
+    @Override
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Id узла i-й позиции в порядке начала.
+     */
+    public long id(int index) {
+        return ids[index];
+    }
+
+    public int start(int index) {
+        return starts[index];
+    }
+
+    public int length(int index) {
+        return lengths[index];
+    }
+
+    public int end(int index) {
+        return starts[index] + lengths[index];
+    }
+
+    /**
+     * Индекс позиции узла или -1, если узел не размечен.
+     */
+    public int indexOf(long id) {
+        int found = Arrays.binarySearch(sortedIds, id);
+        return found < 0 ? -1 : idOrder[found];
+    }
+
+    /* -----------------------------
+    |     Запросы по смещению       |
+    ------------------------------ */
+
+    /**
+     * Самый глубокий узел, покрывающий байтовое смещение.
+     */
+    public OptionalLong nodeAt(int offset) {
+        int index = innermost(offset);
+        return index < 0 ? OptionalLong.empty() : OptionalLong.of(ids[index]);
+    }
+
+    /**
+     * Узлы, покрывающие смещение, от самого глубокого к самому внешнему.
+     */
+    public long[] enclosingChain(int offset) {
+        int depth = 0;
+        for (int i = innermost(offset); i >= 0; i = parents[i]) {
+            depth++;
+        }
+        long[] chain = new long[depth];
+        int next = 0;
+        for (int i = innermost(offset); i >= 0; i = parents[i]) {
+            chain[next++] = ids[i];
+        }
+        return chain;
+    }
+
+    /**
+     * Узлы ненулевой длины, пересекающиеся с отрезком {@code [startByte, endByte)}: сначала
+     * объемлющие его начало (от внешнего к глубокому), затем начинающиеся внутри, в порядке
+     * начала. С пустым отрезком не пересекается ничего.
+     */
+    public long[] nodesOverlapping(ByteRange range) {
+        if (range.startByte() == range.endByte()) {
+            return new long[0];
+        }
+        int from = lowerBound(range.startByte());
+        int to = lowerBound(range.endByte());
+
+        // Объемлющие, начавшиеся раньше отрезка; начинающиеся ровно в startByte войдут во вторую часть
+        int enclosing = 0;
+        for (int i = innermost(range.startByte()); i >= 0; i = parents[i]) {
+            if (starts[i] < range.startByte()) {
+                enclosing++;
+            }
+        }
+        long[] result = new long[enclosing + (to - from)];
+        int next = enclosing;
+        for (int i = innermost(range.startByte()); i >= 0; i = parents[i]) {
+            if (starts[i] < range.startByte()) {
+                result[--next] = ids[i];
+            }
+        }
+        next = enclosing;
+        for (int i = from; i < to; i++) {
+            if (lengths[i] > 0) {
+                result[next++] = ids[i];
+            }
+        }
+        return next == result.length ? result : Arrays.copyOf(result, next);
+    }
+
+    /**
+     * Индекс самой глубокой позиции, покрывающей смещение, или -1.
+     * <p>
+     * Покрывающий отрезок начинается не позже смещения, а при правильной вложенности все
+     * такие отрезки лежат на цепочке объемлющих у последнего начавшегося — по ней и поднимаемся.
+     */
+    private int innermost(int offset) {
+        int index = lowerBound(offset + 1) - 1;
+        while (index >= 0 && starts[index] + lengths[index] <= offset) {
+            index = parents[index];
+        }
+        return index;
+    }
+
+    /**
+     * Первый индекс с началом не меньше {@code offset}.
+     */
+    private int lowerBound(int offset) {
+        int low = 0;
+        int high = starts.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (starts[middle] < offset) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Ближайшая объемлющая позиция для каждой: проход по порядку начала со стеком открытых.
+     */
+    private static int[] nesting(int[] starts, int[] lengths) {
+        int[] parents = new int[starts.length];
+        int[] stack = new int[starts.length];
+        int top = 0;
+        for (int i = 0; i < starts.length; i++) {
+            int end = starts[i] + lengths[i];
+            while (top > 0 && starts[stack[top - 1]] + lengths[stack[top - 1]] < end) {
+                top--;
+            }
+            parents[i] = top > 0 ? stack[top - 1] : -1;
+            stack[top++] = i;
+        }
+        return parents;
+    }
+
+    /* -----------------------------
+    |         Представление Map     |
+    ------------------------------ */
+
+    @Override
+    public Pair<Integer, Integer> get(Object key) {
+        if (!(key instanceof Long id)) {
+            return null;
+        }
+        int index = indexOf(id);
+        return index < 0 ? null : Pair.of(starts[index], lengths[index]);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Long id && indexOf(id) >= 0;
+    }
+
+    @Override
+    public @NotNull Set<Entry<Long, Pair<Integer, Integer>>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public @NotNull Iterator<Entry<Long, Pair<Integer, Integer>>> iterator() {
+                return new Iterator<>() {
+                    private int next = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < ids.length;
+                    }
+
+                    @Override
+                    public Entry<Long, Pair<Integer, Integer>> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        int index = next++;
+                        return Map.entry(ids[index], Pair.of(starts[index], lengths[index]));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return ids.length;
+            }
+        };
+    }
+
+    /**
+     * Накопление позиций без упаковки. Повторная позиция того же узла заменяет прежнюю, как
+     * {@link Map#put}.
+     */
+    public static final class Builder {
+        private long[] ids;
+        private int[] starts;
+        private int[] lengths;
+        private int size;
+
+        private Builder(int capacity) {
+            capacity = Math.max(capacity, 1);
+            ids = new long[capacity];
+            starts = new int[capacity];
+            lengths = new int[capacity];
+        }
+
+        public Builder put(long id, int start, int length) {
+            if (start < 0 || length < 0) {
+                throw new IllegalArgumentException("Invalid position of node %d: %d+%d".formatted(id, start, length));
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                starts = Arrays.copyOf(starts, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+            }
+            ids[size] = id;
+            starts[size] = start;
+            lengths[size] = length;
+            size++;
+            return this;
+        }
+
+        public Builder putAll(NodePositions positions) {
+            for (int i = 0; i < positions.size(); i++) {
+                put(positions.ids[i], positions.starts[i], positions.lengths[i]);
+            }
+            return this;
+        }
+
+        public NodePositions build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            // Последняя запись каждого id побеждает: порядок по id, затем обратный порядку добавления
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.<Integer>comparingLong(i -> ids[i]).thenComparing(Comparator.reverseOrder()));
+            List<Integer> kept = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                if (i == 0 || ids[order[i]] != ids[order[i - 1]]) {
+                    kept.add(order[i]);
+                }
+            }
+            kept.sort(Comparator.<Integer>comparingInt(i -> starts[i])
+                    .thenComparing(i -> lengths[i], Comparator.reverseOrder())
+                    .thenComparingLong(i -> ids[i]));
+
+            long[] keptIds = new long[kept.size()];
+            int[] keptStarts = new int[kept.size()];
+            int[] keptLengths = new int[kept.size()];
+            for (int i = 0; i < kept.size(); i++) {
+                int index = kept.get(i);
+                keptIds[i] = ids[index];
+                keptStarts[i] = starts[index];
+                keptLengths[i] = lengths[index];
+            }
+            return new NodePositions(keptIds, keptStarts, keptLengths);
+        }
+    }
+}
@@ -18,6 +18,9 @@ public class ObservableArrayList<T> extends ArrayList<T> {
     }
 
     protected void triggerHook(int index, T element, ListModificationType modificationType) {
+        if (modificationHooks.isEmpty()) {
+            return;
+        }
         for (var hook : modificationHooks) {
             var triplet = Triple.of(index, element, modificationType);
             if (hook.isTriggered(triplet)) {
@@ -74,6 +77,9 @@ public class ObservableArrayList<T> extends ArrayList<T> {
     @Override
     public boolean addAll(Collection<? extends T> c) {
         boolean val = super.addAll(c);
+        if (modificationHooks.isEmpty()) {
+            return val;
+        }
         int i = 0;
         for (var element : c) {
             triggerHook(size() + i, element, ListModificationType.ADD);
@@ -85,6 +91,9 @@ public class ObservableArrayList<T> extends ArrayList<T> {
     @Override
     public boolean addAll(int index, Collection<? extends T> c) {
         boolean val = super.addAll(index, c);
+        if (modificationHooks.isEmpty()) {
+            return val;
+        }
         int i = 0;
         for (var element : c) {
             triggerHook(size() + i, element, ListModificationType.ADD);
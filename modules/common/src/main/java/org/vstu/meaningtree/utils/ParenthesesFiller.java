@@ -20,6 +20,13 @@ import org.vstu.meaningtree.utils.tokens.OperatorTokenPosition;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
+/**
+ * Расстановка скобок вокруг операндов по приоритету и ассоциативности операторов.
+ * <p>
+ * Узел, которому нужны скобки, копируется поверхностно ({@link org.vstu.meaningtree.nodes.Node#shallowClone()}):
+ * заменяется только поле операнда, а поддерево остаётся общим. Глубокая копия на каждом
+ * уровне делала подготовку цепочки операторов квадратичной.
+ */
 public class ParenthesesFiller {
     // Warning: Приоритет в токенах от высшего (1) к низшему!!
 
@@ -44,7 +51,7 @@ public class ParenthesesFiller {
         OperatorToken tok = _mapper.apply(expr);
         Expression arg = prepareOperand(tok, expr.getExpression());
         if (!arg.uniquenessEquals(expr.getExpression())) {
-            expr = expr.clone();
+            expr = expr.shallowClone();
             replaceOrThrow(expr, "expression", arg);
         }
         return expr;
@@ -54,7 +61,7 @@ public class ParenthesesFiller {
         OperatorToken tok = _mapper.apply(expr);
         Expression arg = prepareOperand(tok, expr.getValue());
         if (!arg.uniquenessEquals(expr.getValue())) {
-            expr = expr.clone();
+            expr = expr.shallowClone();
             replaceOrThrow(expr, "value", arg);
         }
         return expr;
@@ -64,7 +71,7 @@ public class ParenthesesFiller {
         OperatorToken tok = _mapper.apply(expr);
         Expression arg = prepareOperand(tok, expr.getExpression());
         if (!arg.uniquenessEquals(expr.getExpression())) {
-            expr = expr.clone();
+            expr = expr.shallowClone();
             replaceOrThrow(expr, "expression", arg);
         }
         return expr;
@@ -77,7 +84,7 @@ public class ParenthesesFiller {
         OperatorToken tok = _mapper.apply(expr);
         Expression arg = prepareOperand(tok, expr.getObject());
         if (!arg.uniquenessEquals(expr.getObject())) {
-            expr = expr.clone();
+            expr = expr.shallowClone();
             replaceOrThrow(expr, "object", arg);
         }
         return expr;
@@ -93,7 +100,7 @@ public class ParenthesesFiller {
         OperatorToken tok = _mapper.apply(expr);
         Expression arg = prepareOperand(tok, expr.getFunction());
         if (!arg.uniquenessEquals(expr.getFunction())) {
-            expr = expr.clone();
+            expr = expr.shallowClone();
             replaceOrThrow(expr, "function", arg);
         }
         return expr;
@@ -104,7 +111,7 @@ public class ParenthesesFiller {
         Expression cond = prepareOperand(tok, expr.getCondition());
         Expression then = prepareOperand(tok, expr.getThenExpr());
         Expression elseBranch = prepareOperand(tok, expr.getElseExpr());
-        expr = expr.clone();
+        expr = expr.shallowClone();
         if (!expr.getCondition().uniquenessEquals(cond)) replaceOrThrow(expr, "condition", cond);
         if (!expr.getThenExpr().uniquenessEquals(then)) replaceOrThrow(expr, "thenExpr", then);
         if (!expr.getElseExpr().uniquenessEquals(elseBranch)) replaceOrThrow(expr, "elseExpr", elseBranch);
@@ -119,7 +126,7 @@ public class ParenthesesFiller {
 
         Pair<Expression, Expression> pair = prepareBinary(tok, expr.getLeft(), expr.getRight());
         if (!pair.getLeft().uniquenessEquals(expr.getLeft()) || !pair.getRight().uniquenessEquals(expr.getRight())) {
-            expr = expr.clone();
+            expr = expr.shallowClone();
             replaceOrThrow(expr, "left", pair.getLeft());
             replaceOrThrow(expr, "right", pair.getRight());
         }
@@ -131,7 +138,7 @@ public class ParenthesesFiller {
         OperatorToken tok = _mapper.apply(expr);
         Expression arg = prepareOperand(tok, expr.getArgument());
         if (!arg.uniquenessEquals(expr.getArgument())) {
-            expr = expr.clone();
+            expr = expr.shallowClone();
             replaceOrThrow(expr, "argument", arg);
         }
         return expr;
@@ -141,7 +148,7 @@ public class ParenthesesFiller {
         OperatorToken tok = _mapper.apply(qual);
         Expression arg = prepareOperand(tok, qual.getScope());
         if (!arg.uniquenessEquals(qual.getScope())) {
-            qual = qual.clone();
+            qual = qual.shallowClone();
             replaceOrThrow(qual, "scope", arg);
         }
         return qual;
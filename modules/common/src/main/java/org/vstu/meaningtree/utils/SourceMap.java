@@ -10,6 +10,10 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
 
+/**
+ * Сгенерированный код с разметкой: байтовые позиции узлов хранятся в {@link NodePositions},
+ * которые отвечают и на обратные запросы — какой узел под смещением.
+ */
 public record SourceMap(String code, NodeIterable root,
                         Map<Long, Pair<Integer, Integer>> bytePositions,
                         ScopeTable scopeTable,
@@ -26,7 +30,14 @@ public record SourceMap(String code, NodeIterable root,
         Objects.requireNonNull(scopeTable, "scopeTable must not be null");
         Objects.requireNonNull(language, "language must not be null");
         metrics = metrics == null ? Map.of() : Map.copyOf(new LinkedHashMap<>(metrics));
-        bytePositions = Map.copyOf(bytePositions);
+        bytePositions = NodePositions.of(bytePositions);
+    }
+
+    /**
+     * Позиции узлов с запросами по смещению; то же, что {@link #bytePositions()}.
+     */
+    public NodePositions positions() {
+        return (NodePositions) bytePositions;
     }
 
     public SourceMap(String code, NodeIterable root,
@@ -0,0 +1,72 @@
+package org.vstu.meaningtree.utils.analysis;
+
+import org.vstu.meaningtree.MeaningTree;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Результаты анализов одного дерева по {@link AnalysisKey}. Недостающие результаты,
+ * запрошенные вместе, вычисляются одним {@link FusedTraversal}; готовые не пересчитываются,
+ * пока дерево не изменится ({@link MeaningTree#invalidateCache()} сбрасывает весь набор).
+ * <p>
+ * Получают через {@link MeaningTree#analyses()}. Вычисления синхронизированы: снимок
+ * только для чтения может запрашивать результаты из нескольких потоков.
+ */
+public final class AnalysisBundle {
+    private final MeaningTree tree;
+    private final Map<AnalysisKey<?>, Object> results = new HashMap<>();
+    private int traversals = 0;
+
+    public AnalysisBundle(MeaningTree tree) {
+        this.tree = tree;
+    }
+
+    public synchronized <R> R get(AnalysisKey<R> key) {
+        if (!results.containsKey(key)) {
+            compute(key);
+        }
+        return key.cast(results.get(key));
+    }
+
+    public synchronized boolean contains(AnalysisKey<?> key) {
+        return results.containsKey(key);
+    }
+
+    /**
+     * Вычислить недостающие результаты одним обходом.
+     */
+    public void compute(AnalysisKey<?>... keys) {
+        compute(new FusedTraversal(), keys);
+    }
+
+    /**
+     * Вычислить недостающие результаты тем же обходом, что и проходы {@code carrier}: их
+     * проходы добавляются в него, и он запускается по дереву, даже если все результаты уже
+     * есть.
+     */
+    public synchronized void compute(FusedTraversal carrier, AnalysisKey<?>... keys) {
+        Map<AnalysisKey<?>, AnalysisPass<?>> pending = new LinkedHashMap<>();
+        for (AnalysisKey<?> key : keys) {
+            if (!results.containsKey(key) && !pending.containsKey(key)) {
+                AnalysisPass<?> pass = key.newPass();
+                pending.put(key, pass);
+                carrier.add(pass);
+            }
+        }
+        if (carrier.isEmpty()) {
+            return;
+        }
+        carrier.run(tree);
+        traversals++;
+        pending.forEach((key, pass) -> results.put(key, pass.result()));
+    }
+
+    /**
+     * Сколько обходов дерева выполнил набор.
+     */
+    public synchronized int traversals() {
+        return traversals;
+    }
+}
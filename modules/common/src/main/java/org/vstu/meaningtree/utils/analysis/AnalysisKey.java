@@ -0,0 +1,41 @@
+package org.vstu.meaningtree.utils.analysis;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Ключ результата в {@link AnalysisBundle}: имя и способ создать проход, который его
+ * вычисляет. Ключи сравниваются по ссылке, поэтому объявляются константами рядом с
+ * анализом, например {@link CyclomaticComplexityAnalyzer#COMPLEXITY}.
+ */
+public final class AnalysisKey<R> {
+    private final String name;
+    private final Supplier<? extends AnalysisPass<R>> factory;
+
+    private AnalysisKey(String name, Supplier<? extends AnalysisPass<R>> factory) {
+        this.name = Objects.requireNonNull(name, "name must not be null");
+        this.factory = Objects.requireNonNull(factory, "factory must not be null");
+    }
+
+    public static <R> AnalysisKey<R> of(String name, Supplier<? extends AnalysisPass<R>> factory) {
+        return new AnalysisKey<>(name, factory);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    AnalysisPass<R> newPass() {
+        return factory.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    R cast(Object result) {
+        return (R) result;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,83 @@
+package org.vstu.meaningtree.utils.analysis;
+
+import org.vstu.meaningtree.iterators.utils.NodeInfo;
+import org.vstu.meaningtree.nodes.Node;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Анализ, которому достаточно один раз увидеть каждый узел нужных ему типов. Такие анализы
+ * не зависят друг от друга и выполняются вместе за один обход — см. {@link FusedTraversal}.
+ * <p>
+ * Экземпляр хранит состояние одного обхода и повторно не используется.
+ */
+public interface AnalysisPass<R> {
+    /**
+     * Типы узлов (включая наследников), которые нужно передавать в {@link #visit}.
+     */
+    Set<Class<? extends Node>> nodeTypes();
+
+    void visit(NodeInfo info);
+
+    /**
+     * Проходу больше не нужны узлы. Обход прекращается, когда закончили все его проходы.
+     */
+    default boolean isDone() {
+        return false;
+    }
+
+    /**
+     * Результат после обхода.
+     */
+    R result();
+
+    /**
+     * Проход без результата: вызывает {@code action} для каждого узла типа {@code type}.
+     */
+    static AnalysisPass<Void> forEach(Class<? extends Node> type, Consumer<NodeInfo> action) {
+        return new AnalysisPass<>() {
+            @Override
+            public Set<Class<? extends Node>> nodeTypes() {
+                return Set.of(type);
+            }
+
+            @Override
+            public void visit(NodeInfo info) {
+                action.accept(info);
+            }
+
+            @Override
+            public Void result() {
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Проход, собирающий узлы типа {@code type} в порядке обхода.
+     */
+    static <T extends Node> AnalysisPass<List<T>> collecting(Class<T> type) {
+        return new AnalysisPass<>() {
+            private final List<T> nodes = new ArrayList<>();
+
+            @Override
+            public Set<Class<? extends Node>> nodeTypes() {
+                return Set.of(type);
+            }
+
+            @Override
+            public void visit(NodeInfo info) {
+                nodes.add(type.cast(info.node()));
+            }
+
+            @Override
+            public List<T> result() {
+                return Collections.unmodifiableList(nodes);
+            }
+        };
+    }
+}
@@ -1,8 +1,9 @@
-
 package org.vstu.meaningtree.utils.analysis;
 
+import org.vstu.meaningtree.MeaningTree;
 import org.vstu.meaningtree.iterators.utils.NodeInfo;
 import org.vstu.meaningtree.iterators.utils.NodeIterable;
+import org.vstu.meaningtree.nodes.Node;
 import org.vstu.meaningtree.nodes.expressions.logical.LongCircuitAndOp;
 import org.vstu.meaningtree.nodes.expressions.logical.LongCircuitOrOp;
 import org.vstu.meaningtree.nodes.expressions.logical.ShortCircuitAndOp;
@@ -13,28 +14,50 @@ import org.vstu.meaningtree.nodes.statements.conditions.IfStatement;
 import org.vstu.meaningtree.nodes.statements.conditions.SwitchStatement;
 
 import java.util.Objects;
+import java.util.Set;
 
 public class CyclomaticComplexityAnalyzer {
+    public static final AnalysisKey<Integer> COMPLEXITY = AnalysisKey.of("cyclomatic", ComplexityPass::new);
+
+    /**
+     * Считает заново при каждом вызове: дерево могли изменить на месте, а кэш
+     * {@link MeaningTree#analyses()} об этом не узнает. Совместить подсчёт с другими
+     * анализами одним обходом можно через ключ {@link #COMPLEXITY}.
+     */
     public int analyze(NodeIterable root) {
         Objects.requireNonNull(root, "root must not be null");
+        ComplexityPass pass = new ComplexityPass();
+        new FusedTraversal().add(pass).walk(root);
+        return pass.result();
+    }
 
-        int complexity = 1;
-        for (NodeInfo info : root) {
+    private static final class ComplexityPass implements AnalysisPass<Integer> {
+        private static final Set<Class<? extends Node>> TYPES = Set.of(
+                IfStatement.class, SwitchStatement.class, Loop.class, TernaryOperator.class,
+                ShortCircuitAndOp.class, ShortCircuitOrOp.class, LongCircuitAndOp.class, LongCircuitOrOp.class
+        );
+
+        private int complexity = 1;
+
+        @Override
+        public Set<Class<? extends Node>> nodeTypes() {
+            return TYPES;
+        }
+
+        @Override
+        public void visit(NodeInfo info) {
             if (info.node() instanceof IfStatement ifStatement) {
                 complexity += ifStatement.getBranches().size();
             } else if (info.node() instanceof SwitchStatement switchStatement) {
                 complexity += switchStatement.getCases().size();
-            } else if (info.node() instanceof Loop) {
-                complexity += 1;
-            } else if (info.node() instanceof TernaryOperator) {
-                complexity += 1;
-            } else if (info.node() instanceof ShortCircuitAndOp
-                    || info.node() instanceof ShortCircuitOrOp
-                    || info.node() instanceof LongCircuitAndOp
-                    || info.node() instanceof LongCircuitOrOp) {
+            } else {
                 complexity += 1;
             }
         }
-        return complexity;
+
+        @Override
+        public Integer result() {
+            return complexity;
+        }
     }
 }
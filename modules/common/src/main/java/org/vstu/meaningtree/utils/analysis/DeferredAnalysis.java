@@ -0,0 +1,111 @@
+package org.vstu.meaningtree.utils.analysis;
+
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.iterators.utils.NodeInfo;
+import org.vstu.meaningtree.nodes.Expression;
+import org.vstu.meaningtree.nodes.Node;
+import org.vstu.meaningtree.nodes.statements.Loop;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Анализ дерева, отложенный до первого обращения к его результатам — оценкам значений
+ * выражений и числа итераций циклов. Выполняется один раз на всё дерево: при первом чтении
+ * оценки с любого привязанного узла или при {@link MeaningTree#ensureAnalyzed()}.
+ * <p>
+ * Запуск синхронизирован, а флаг завершения volatile: поток, увидевший анализ завершённым,
+ * видит и все записанные им оценки. Обращение к оценкам из самого анализа (на том же
+ * потоке) его повторно не запускает. Упавший анализ считается невыполненным и будет
+ * запущен снова при следующем обращении.
+ */
+public final class DeferredAnalysis {
+    private final MeaningTree tree;
+    private Consumer<MeaningTree> analysis;
+    private volatile boolean done = false;
+    private boolean running = false;
+
+    /**
+     * Узлы, привязанные {@link #attachingPass()}, — по ним ищутся результаты для копий.
+     * Индекс дерева по id для этого не годится: в дереве бывают клоны с общим id, на
+     * которых он падает.
+     */
+    private final Set<Node> attached = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<Long, Node> attachedById = new HashMap<>();
+
+    public DeferredAnalysis(MeaningTree tree, Consumer<MeaningTree> analysis) {
+        this.tree = Objects.requireNonNull(tree, "tree must not be null");
+        this.analysis = Objects.requireNonNull(analysis, "analysis must not be null");
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public void ensure() {
+        if (done) {
+            return;
+        }
+        synchronized (this) {
+            if (done || running) {
+                return;
+            }
+            running = true;
+            try {
+                analysis.accept(tree);
+                analysis = null;
+                done = true;
+            } finally {
+                running = false;
+            }
+        }
+    }
+
+    /**
+     * Узел, на котором анализ оставил результаты для {@code node}. Для привязанного узла
+     * это он сам, а для копии (копия сохраняет id, см. {@link Node#clone()}) — первый
+     * привязанный узел с тем же id: оценки появились на нём уже после копирования.
+     * Остальные узлы возвращаются как есть.
+     */
+    public Node resultHolder(Node node) {
+        ensure();
+        if (!done) {
+            // Обращение из самого анализа: результаты пишутся прямо на узлы дерева
+            return node;
+        }
+        synchronized (this) {
+            if (attached.contains(node)) {
+                return node;
+            }
+            return attachedById.getOrDefault(node.getId(), node);
+        }
+    }
+
+    /**
+     * Проход, привязывающий к анализу узлы с отложенными результатами — выражения и циклы.
+     * Рассчитан на то, чтобы идти вместе с уже нужным обходом, а не отдельным.
+     */
+    public AnalysisPass<Void> attachingPass() {
+        return new AnalysisPass<>() {
+            @Override
+            public Set<Class<? extends Node>> nodeTypes() {
+                return Set.of(Expression.class, Loop.class);
+            }
+
+            @Override
+            public void visit(NodeInfo info) {
+                Node node = info.node();
+                node.attachDeferredAnalysis(DeferredAnalysis.this);
+                synchronized (DeferredAnalysis.this) {
+                    attached.add(node);
+                    attachedById.putIfAbsent(node.getId(), node);
+                }
+            }
+
+            @Override
+            public Void result() {
+                return null;
+            }
+        };
+    }
+}
@@ -0,0 +1,112 @@
+package org.vstu.meaningtree.utils.analysis;
+
+import org.jetbrains.annotations.Nullable;
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.iterators.utils.NodeInfo;
+import org.vstu.meaningtree.iterators.utils.NodeIterable;
+import org.vstu.meaningtree.utils.CancellationToken;
+
+import java.util.*;
+
+/**
+ * Несколько независимых {@link AnalysisPass} за один обход в глубину. Каждый узел получают
+ * только проходы, объявившие интерес к его типу; список таких проходов вычисляется один раз
+ * на конкретный класс узла.
+ * <p>
+ * Проходы получают узлы в порядке добавления, но результатов друг друга не видят: проход,
+ * которому нужен <b>полный</b> результат другого, в одну с ним группу не годится и
+ * запускается отдельным обходом после него (см. {@code LanguageParser.runAnalysisPipeline}).
+ */
+public final class FusedTraversal {
+    private static final AnalysisPass<?>[] NONE = new AnalysisPass<?>[0];
+
+    private final List<AnalysisPass<?>> passes = new ArrayList<>();
+    private final Map<Class<?>, AnalysisPass<?>[]> dispatch = new HashMap<>();
+    private final Set<AnalysisPass<?>> finished = Collections.newSetFromMap(new IdentityHashMap<>());
+    @Nullable
+    private CancellationToken cancellation = null;
+
+    /**
+     * Проверять маркер на каждом узле. {@code null} — не прерывать.
+     */
+    public FusedTraversal withCancellation(@Nullable CancellationToken cancellation) {
+        this.cancellation = cancellation;
+        return this;
+    }
+
+    public FusedTraversal add(AnalysisPass<?> pass) {
+        passes.add(Objects.requireNonNull(pass, "pass must not be null"));
+        dispatch.clear();
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return passes.isEmpty();
+    }
+
+    /**
+     * Обход дерева итератором в глубину, а не по индексу id: в деревьях после понижения
+     * (флаг loop-else, включения) бывают клоны с общим id, на которых индекс падает.
+     */
+    public void run(MeaningTree tree) {
+        walk(tree);
+    }
+
+    /**
+     * Обход отдельного узла или дерева итератором в глубину.
+     */
+    public void walk(NodeIterable root) {
+        if (!hasPending()) {
+            return;
+        }
+        for (NodeInfo info : root) {
+            if (info != null && !dispatch(info)) {
+                return;
+            }
+        }
+    }
+
+    private boolean hasPending() {
+        return finished.size() < passes.size();
+    }
+
+    /**
+     * @return {@code false}, когда все проходы закончили
+     */
+    private boolean dispatch(NodeInfo info) {
+        if (cancellation != null) {
+            cancellation.throwIfCancelled();
+        }
+        for (AnalysisPass<?> pass : passesFor(info.node().getClass())) {
+            pass.visit(info);
+            if (pass.isDone() && finished.add(pass)) {
+                dispatch.clear();
+            }
+        }
+        return hasPending();
+    }
+
+    private AnalysisPass<?>[] passesFor(Class<?> type) {
+        AnalysisPass<?>[] interested = dispatch.get(type);
+        if (interested == null) {
+            List<AnalysisPass<?>> matching = new ArrayList<>();
+            for (AnalysisPass<?> pass : passes) {
+                if (!finished.contains(pass) && isInterested(pass, type)) {
+                    matching.add(pass);
+                }
+            }
+            interested = matching.isEmpty() ? NONE : matching.toArray(NONE);
+            dispatch.put(type, interested);
+        }
+        return interested;
+    }
+
+    private static boolean isInterested(AnalysisPass<?> pass, Class<?> type) {
+        for (Class<?> wanted : pass.nodeTypes()) {
+            if (wanted.isAssignableFrom(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
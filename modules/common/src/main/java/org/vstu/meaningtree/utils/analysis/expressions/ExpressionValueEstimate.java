@@ -37,4 +37,20 @@ public record ExpressionValueEstimate<T>(
                 reliable
         );
     }
+
+    /**
+     * {@link Optional} не сериализуется, поэтому оценка пишется через {@link SerialForm}
+     * (деревья с оценками хранит, например, кэш разбора).
+     */
+    private Object writeReplace() {
+        return new SerialForm(exactValue.isPresent(), exactValue.orElse(null), possibleValues, reliable);
+    }
+
+    private record SerialForm(boolean exact, Object exactValue, Set<?> possibleValues, boolean reliable)
+            implements Serializable {
+        private Object readResolve() {
+            return new ExpressionValueEstimate<>(exact ? Optional.of(exactValue) : Optional.empty(),
+                    new LinkedHashSet<>(possibleValues), reliable);
+        }
+    }
 }
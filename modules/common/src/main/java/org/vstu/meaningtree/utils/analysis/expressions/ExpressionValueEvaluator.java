@@ -7,6 +7,7 @@ import org.vstu.meaningtree.nodes.Expression;
 import org.vstu.meaningtree.nodes.Node;
 import org.vstu.meaningtree.nodes.declarations.VariableDeclaration;
 import org.vstu.meaningtree.nodes.declarations.components.VariableDeclarator;
+import org.vstu.meaningtree.nodes.expressions.BinaryExpression;
 import org.vstu.meaningtree.nodes.expressions.ParenthesizedExpression;
 import org.vstu.meaningtree.nodes.expressions.comparison.*;
 import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
@@ -19,23 +20,39 @@ import org.vstu.meaningtree.nodes.expressions.math.SubOp;
 import org.vstu.meaningtree.nodes.expressions.unary.UnaryMinusOp;
 import org.vstu.meaningtree.nodes.expressions.unary.UnaryPlusOp;
 import org.vstu.meaningtree.nodes.statements.CompoundStatement;
+import org.vstu.meaningtree.utils.CancellationToken;
+import org.vstu.meaningtree.utils.analysis.AnalysisPass;
+import org.vstu.meaningtree.utils.analysis.FusedTraversal;
 import org.vstu.meaningtree.utils.scopes.ScopeTable;
 import org.vstu.meaningtree.utils.scopes.ScopeTableElement;
 
-import java.util.Map;
-import java.util.Optional;
-import java.util.OptionalLong;
-import java.util.Set;
+import java.util.*;
+import java.util.function.Predicate;
 
 public class ExpressionValueEvaluator {
     private final MeaningTree tree;
     private final ScopeTable scopeTable;
+    private CancellationToken cancellation = null;
 
     public ExpressionValueEvaluator(MeaningTree tree, ScopeTable scopeTable) {
         this.tree = tree;
         this.scopeTable = scopeTable;
     }
 
+    /**
+     * Прерывать {@link #analyze()} и анализ циклов этим вычислителем, если маркер отменён.
+     * {@code null} — не прерывать.
+     */
+    public ExpressionValueEvaluator withCancellation(@Nullable CancellationToken cancellation) {
+        this.cancellation = cancellation;
+        return this;
+    }
+
+    @Nullable
+    public CancellationToken getCancellation() {
+        return cancellation;
+    }
+
     public MeaningTree getTree() {
         return tree;
     }
@@ -45,11 +62,38 @@ public class ExpressionValueEvaluator {
     }
 
     public void analyze() {
-        for (NodeInfo info : tree) {
-            if (info.node() instanceof Expression expression) {
+        new FusedTraversal().withCancellation(cancellation).add(pass()).run(tree);
+    }
+
+    /**
+     * Оценка всех выражений дерева как проход общего обхода — то же, что {@link #analyze()},
+     * но вместе с другими независимыми проходами.
+     */
+    public AnalysisPass<Void> pass() {
+        return AnalysisPass.forEach(Expression.class, info -> {
+            Expression expression = (Expression) info.node();
+            if (!isInnerChainLink(expression, info.parentNode())) {
                 estimate(expression, expression);
             }
-        }
+        });
+    }
+
+    /**
+     * Внутреннее звено цепочки {@code ((a + b) - c) + ...} или {@code (a && b) || c ...}:
+     * его оценку вычислит и запомнит оценка верхнего звена. Отдельная оценка каждого звена
+     * повторяла бы всю цепочку под ним, и длинная цепочка стоила бы квадрат своей длины.
+     */
+    private static boolean isInnerChainLink(Expression expression, @Nullable Node parent) {
+        return parent instanceof BinaryExpression operation && operation.getLeft() == expression
+                && (isSumLink(operation) && isSumLink(expression) || isLogicalLink(operation) && isLogicalLink(expression));
+    }
+
+    private static boolean isSumLink(@Nullable Node node) {
+        return node instanceof AddOp || node instanceof SubOp;
+    }
+
+    private static boolean isLogicalLink(@Nullable Node node) {
+        return node instanceof ShortCircuitAndOp || node instanceof ShortCircuitOrOp;
     }
 
     public Optional<Boolean> evaluateAsBoolean(@Nullable Expression expression,
@@ -194,21 +238,8 @@ public class ExpressionValueEvaluator {
             }
             return remember(expression, ExpressionValueEstimate.possible(Set.of(Boolean.TRUE, Boolean.FALSE), false), env);
         }
-        if (unwrapped instanceof ShortCircuitAndOp andOp) {
-            Optional<Boolean> left = evaluateAsBoolean(andOp.getLeft(), env, contextNode);
-            Optional<Boolean> right = evaluateAsBoolean(andOp.getRight(), env, contextNode);
-            if (left.isPresent() && right.isPresent()) {
-                return remember(expression, ExpressionValueEstimate.exact(left.get() && right.get()), env);
-            }
-            return remember(expression, ExpressionValueEstimate.possible(Set.of(Boolean.TRUE, Boolean.FALSE), false), env);
-        }
-        if (unwrapped instanceof ShortCircuitOrOp orOp) {
-            Optional<Boolean> left = evaluateAsBoolean(orOp.getLeft(), env, contextNode);
-            Optional<Boolean> right = evaluateAsBoolean(orOp.getRight(), env, contextNode);
-            if (left.isPresent() && right.isPresent()) {
-                return remember(expression, ExpressionValueEstimate.exact(left.get() || right.get()), env);
-            }
-            return remember(expression, ExpressionValueEstimate.possible(Set.of(Boolean.TRUE, Boolean.FALSE), false), env);
+        if (isLogicalLink(unwrapped)) {
+            return estimateLogicalChain(expression, env, contextNode);
         }
         ComparisonModel comparison = extractComparison(unwrapped, env, contextNode);
         if (comparison != null) {
@@ -259,23 +290,73 @@ public class ExpressionValueEvaluator {
             }
             return ExpressionValueEstimate.unknown();
         }
-        if (unwrapped instanceof AddOp addOp) {
-            OptionalLong left = evaluateAsLong(addOp.getLeft(), env, contextNode);
-            OptionalLong right = evaluateAsLong(addOp.getRight(), env, contextNode);
-            if (left.isPresent() && right.isPresent()) {
-                return remember(expression, ExpressionValueEstimate.exact(left.getAsLong() + right.getAsLong()), env);
+        if (isSumLink(unwrapped)) {
+            return estimateSumChain(expression, env, contextNode);
+        }
+        return ExpressionValueEstimate.unknown();
+    }
+
+    /**
+     * Левые звенья цепочки проходятся циклом, а не рекурсией: машинно сгенерированная цепочка
+     * из десятков тысяч операндов иначе переполняет стек. Порядок вычисления операндов и
+     * запоминаемые оценки звеньев — те же, что дал бы рекурсивный спуск.
+     */
+    private List<Expression> leftChainLinks(Expression expression, Predicate<Node> isLink) {
+        List<Expression> links = new ArrayList<>();
+        Expression current = expression;
+        while (isLink.test(unwrap(current))) {
+            links.add(current);
+            current = ((BinaryExpression) unwrap(current)).getLeft();
+        }
+        return links;
+    }
+
+    private ExpressionValueEstimate<Long> estimateSumChain(Expression expression,
+                                                           Map<String, Long> env,
+                                                           @Nullable Node contextNode) {
+        List<Expression> links = leftChainLinks(expression, ExpressionValueEvaluator::isSumLink);
+        BinaryExpression deepest = (BinaryExpression) unwrap(links.getLast());
+        OptionalLong accumulated = evaluateAsLong(deepest.getLeft(), env, contextNode);
+        ExpressionValueEstimate<Long> estimate = ExpressionValueEstimate.unknown();
+        for (Expression link : links.reversed()) {
+            BinaryExpression operation = (BinaryExpression) unwrap(link);
+            OptionalLong right = evaluateAsLong(operation.getRight(), env, contextNode);
+            if (accumulated.isPresent() && right.isPresent()) {
+                long value = operation instanceof AddOp
+                        ? accumulated.getAsLong() + right.getAsLong()
+                        : accumulated.getAsLong() - right.getAsLong();
+                estimate = remember(link, ExpressionValueEstimate.exact(value), env);
+                accumulated = OptionalLong.of(value);
+            } else {
+                estimate = ExpressionValueEstimate.unknown();
+                accumulated = OptionalLong.empty();
             }
-            return ExpressionValueEstimate.unknown();
         }
-        if (unwrapped instanceof SubOp subOp) {
-            OptionalLong left = evaluateAsLong(subOp.getLeft(), env, contextNode);
-            OptionalLong right = evaluateAsLong(subOp.getRight(), env, contextNode);
-            if (left.isPresent() && right.isPresent()) {
-                return remember(expression, ExpressionValueEstimate.exact(left.getAsLong() - right.getAsLong()), env);
+        return estimate;
+    }
+
+    private ExpressionValueEstimate<Boolean> estimateLogicalChain(Expression expression,
+                                                                  Map<String, Long> env,
+                                                                  @Nullable Node contextNode) {
+        List<Expression> links = leftChainLinks(expression, ExpressionValueEvaluator::isLogicalLink);
+        BinaryExpression deepest = (BinaryExpression) unwrap(links.getLast());
+        Optional<Boolean> accumulated = evaluateAsBoolean(deepest.getLeft(), env, contextNode);
+        ExpressionValueEstimate<Boolean> estimate = ExpressionValueEstimate.unknown();
+        for (Expression link : links.reversed()) {
+            BinaryExpression operation = (BinaryExpression) unwrap(link);
+            Optional<Boolean> right = evaluateAsBoolean(operation.getRight(), env, contextNode);
+            if (accumulated.isPresent() && right.isPresent()) {
+                boolean value = operation instanceof ShortCircuitAndOp
+                        ? accumulated.get() && right.get()
+                        : accumulated.get() || right.get();
+                estimate = remember(link, ExpressionValueEstimate.exact(value), env);
+                accumulated = Optional.of(value);
+            } else {
+                estimate = remember(link, ExpressionValueEstimate.possible(Set.of(Boolean.TRUE, Boolean.FALSE), false), env);
+                accumulated = Optional.empty();
             }
-            return ExpressionValueEstimate.unknown();
         }
-        return ExpressionValueEstimate.unknown();
+        return estimate;
     }
 
     private ExpressionValueEstimate<Long> estimateCollectionSize(@Nullable Expression expression,
@@ -31,12 +31,22 @@ import org.vstu.meaningtree.nodes.statements.loops.*;
 import org.vstu.meaningtree.nodes.statements.loops.control.BreakStatement;
 import org.vstu.meaningtree.nodes.statements.loops.control.ContinueStatement;
 import org.vstu.meaningtree.nodes.statements.loops.control.GotoStatement;
+import org.vstu.meaningtree.utils.CancellationToken;
+import org.vstu.meaningtree.utils.analysis.AnalysisKey;
+import org.vstu.meaningtree.utils.analysis.AnalysisPass;
+import org.vstu.meaningtree.utils.analysis.FusedTraversal;
 import org.vstu.meaningtree.utils.analysis.expressions.ExpressionValueEvaluator;
 import org.vstu.meaningtree.utils.scopes.ScopeTable;
 
 import java.util.*;
 
 public class LoopIterationAnalyzer {
+    /**
+     * Циклы дерева в порядке обхода (вложенные раньше объемлющих). Сбор не зависит от оценок
+     * выражений, поэтому может идти тем же обходом, что и {@link ExpressionValueEvaluator#analyze()}.
+     */
+    public static final AnalysisKey<List<Loop>> LOOPS = AnalysisKey.of("loops", () -> AnalysisPass.collecting(Loop.class));
+
     /**
      * Создаёт собственный вычислитель выражений. Подходит для изолированного вызова
      * (например, из тестов); в конвейере анализа следует передавать уже отработавший
@@ -47,11 +57,26 @@ public class LoopIterationAnalyzer {
         analyze(tree, new ExpressionValueEvaluator(tree, scopeTable));
     }
 
+    /**
+     * Циклы собираются заново, а не берутся из {@link MeaningTree#analyses()}: дерево могли
+     * изменить на месте после того, как набор анализов его обошёл.
+     */
     public void analyze(MeaningTree tree, ExpressionValueEvaluator evaluator) {
-        for (NodeInfo info : tree) {
-            if (info.node() instanceof Loop loop) {
-                loop.setIterationEstimate(analyzeLoop(loop, evaluator));
+        AnalysisPass<List<Loop>> loops = AnalysisPass.collecting(Loop.class);
+        new FusedTraversal().add(loops).run(tree);
+        analyze(loops.result(), evaluator);
+    }
+
+    /**
+     * Оценить уже собранные циклы; обхода дерева не требует.
+     */
+    public void analyze(List<Loop> loops, ExpressionValueEvaluator evaluator) {
+        CancellationToken cancellation = evaluator.getCancellation();
+        for (Loop loop : loops) {
+            if (cancellation != null) {
+                cancellation.throwIfCancelled();
             }
+            loop.setIterationEstimate(analyzeLoop(loop, evaluator));
         }
     }
 
@@ -1,6 +1,7 @@
 package org.vstu.meaningtree.utils.analysis.symbols;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.vstu.meaningtree.MeaningTree;
 import org.vstu.meaningtree.iterators.utils.NodeInfo;
 import org.vstu.meaningtree.nodes.Node;
@@ -17,6 +18,9 @@ import org.vstu.meaningtree.nodes.expressions.other.MemberAccess;
 import org.vstu.meaningtree.nodes.statements.CompoundStatement;
 import org.vstu.meaningtree.nodes.statements.assignments.AssignmentStatement;
 import org.vstu.meaningtree.nodes.types.UnknownType;
+import org.vstu.meaningtree.utils.CancellationToken;
+import org.vstu.meaningtree.utils.analysis.AnalysisPass;
+import org.vstu.meaningtree.utils.analysis.FusedTraversal;
 import org.vstu.meaningtree.utils.analysis.types.SimpleTypeInferrer;
 import org.vstu.meaningtree.utils.scopes.ScopeTable;
 
@@ -43,12 +47,31 @@ import java.util.*;
 public final class SymbolResolver {
     private final MeaningTree meaningTree;
     private final ScopeTable scopeTable;
+    private CancellationToken cancellation = null;
+    private final List<AnalysisPass<?>> alongside = new ArrayList<>();
 
     public SymbolResolver(@NotNull MeaningTree meaningTree, @NotNull ScopeTable scopeTable) {
         this.meaningTree = Objects.requireNonNull(meaningTree);
         this.scopeTable = Objects.requireNonNull(scopeTable);
     }
 
+    /**
+     * Прерывать обход дерева, если маркер отменён. {@code null} — не прерывать.
+     */
+    public SymbolResolver withCancellation(@Nullable CancellationToken cancellation) {
+        this.cancellation = cancellation;
+        return this;
+    }
+
+    /**
+     * Выполнить независимый проход тем же обходом всего дерева, которым ищутся классы, — чтобы
+     * ради него не обходить дерево ещё раз.
+     */
+    public SymbolResolver alongside(AnalysisPass<?> pass) {
+        alongside.add(Objects.requireNonNull(pass, "pass must not be null"));
+        return this;
+    }
+
     // Эвристики разрешения. Методы этого раздела могут изменять AST или области видимости.
 
     /** Запускает все эвристики разрешения символов после парсинга. */
@@ -120,13 +143,11 @@ public final class SymbolResolver {
     // Вспомогательные методы. Они не изменяют существующие AST и области видимости.
 
     List<ClassDefinition> findClassDefinitions() {
-        List<ClassDefinition> classes = new ArrayList<>();
-        for (NodeInfo nodeInfo : meaningTree) {
-            if (nodeInfo.node() instanceof ClassDefinition classDefinition) {
-                classes.add(classDefinition);
-            }
-        }
-        return classes;
+        AnalysisPass<List<ClassDefinition>> classes = AnalysisPass.collecting(ClassDefinition.class);
+        FusedTraversal traversal = new FusedTraversal().withCancellation(cancellation).add(classes);
+        alongside.forEach(traversal::add);
+        traversal.walk(meaningTree);
+        return classes.result();
     }
 
     Map<SimpleIdentifier, FieldDeclaration> collectDeclaredFields(ClassDefinition classDefinition) {
@@ -156,6 +177,7 @@ public final class SymbolResolver {
     List<NodeInfo> findAssignments(MethodDefinition method) {
         List<NodeInfo> assignments = new ArrayList<>();
         for (NodeInfo nodeInfo : method.getBody()) {
+            checkpoint();
             if (nodeInfo.node() instanceof AssignmentStatement) {
                 assignments.add(nodeInfo);
             }
@@ -226,4 +248,10 @@ public final class SymbolResolver {
         field.setParentDeclaration(owner.getDeclaration());
         return field;
     }
+
+    private void checkpoint() {
+        if (cancellation != null) {
+            cancellation.throwIfCancelled();
+        }
+    }
 }
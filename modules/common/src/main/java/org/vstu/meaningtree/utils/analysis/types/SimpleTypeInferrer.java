@@ -458,8 +458,30 @@ public class SimpleTypeInferrer {
         return new UnknownType();
     }
 
+    /**
+     * Выводит тип выражения. Вывод составных выражений запоминается в
+     * {@link ScopeTable#inferenceCache()}: повторный вывод того же узла в той же области
+     * при неизменных типах переменных берётся из кэша.
+     */
     @NotNull
     public static Type inference(@NotNull Expression expression, @NotNull ScopeTable scope) {
+        TypeInferenceCache cache = scope.inferenceCache();
+        if (!cache.isEnabled() || !TypeInferenceCache.isMemoizable(expression)) {
+            return dispatch(expression, scope);
+        }
+
+        Type cached = cache.lookup(expression, scope);
+        if (cached != null) {
+            return cached;
+        }
+        long versionBefore = scope.typeVersion();
+        Type inferred = dispatch(expression, scope);
+        cache.store(expression, scope, versionBefore, inferred);
+        return inferred;
+    }
+
+    @NotNull
+    private static Type dispatch(@NotNull Expression expression, @NotNull ScopeTable scope) {
         return switch (expression) {
             case Literal literal -> inference(literal);
             case SimpleIdentifier identifier -> inference(identifier, scope);
@@ -0,0 +1,139 @@
+package org.vstu.meaningtree.utils.analysis.types;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.vstu.meaningtree.nodes.Expression;
+import org.vstu.meaningtree.nodes.Node;
+import org.vstu.meaningtree.nodes.Type;
+import org.vstu.meaningtree.nodes.expressions.BinaryExpression;
+import org.vstu.meaningtree.nodes.expressions.ParenthesizedExpression;
+import org.vstu.meaningtree.nodes.expressions.UnaryExpression;
+import org.vstu.meaningtree.nodes.expressions.comparison.CompoundComparison;
+import org.vstu.meaningtree.nodes.expressions.other.TernaryOperator;
+import org.vstu.meaningtree.utils.scopes.ScopeTable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Кэш вывода типов составных выражений на время одной трансляции: принадлежит
+ * {@link ScopeTable} и пересоздаётся вместе с ней.
+ * <p>
+ * {@link SimpleTypeInferrer} выводит тип выражения заново в каждом предке: операнды цепочки
+ * {@code a + b + c + ...} выводятся столько раз, на какой глубине стоят. Запись кэша хранит
+ * тип узла, выведенный в определённой области, и остаётся верной, пока не изменились
+ * <ul>
+ *     <li>типы переменных таблицы — {@link ScopeTable#typeVersion()};</li>
+ *     <li>сами узлы — {@link Node#replaceEpoch()}.</li>
+ * </ul>
+ * Кэшируется только вывод без побочных эффектов: если во время вывода изменился тип
+ * какой-нибудь переменной, повторный вывод может дать другой результат, и запись не
+ * сохраняется. Поэтому пропуск повторного вывода ничего не меняет ни в таблице, ни в дереве.
+ */
+public final class TypeInferenceCache {
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private boolean enabled = true;
+
+    private long hits;
+    private long misses;
+    private long invalidated;
+    private long stored;
+
+    /**
+     * Счётчики кэша.
+     *
+     * @param hits        выводов, взятых из кэша
+     * @param misses      выводов, для которых подходящей записи не было
+     * @param invalidated из них — записей, устаревших из-за изменения типов, замены узла или смены области
+     * @param stored      сохранённых записей
+     */
+    public record Stats(long hits, long misses, long invalidated, long stored) {
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    private record Entry(Node node, long scopeId, long typeVersion, long replaceEpoch, Type type) {}
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Включить или выключить кэш. Выключение сбрасывает записи, но не счётчики.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            entries.clear();
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public Stats stats() {
+        return new Stats(hits, misses, invalidated, stored);
+    }
+
+    /**
+     * Выражения, вывод которых стоит кэшировать: литералы и идентификаторы и так выводятся
+     * за один поиск, а выражение присваивания выводится через временный узел и меняет тип
+     * своего узла.
+     */
+    static boolean isMemoizable(@NotNull Expression expression) {
+        return switch (expression) {
+            case BinaryExpression ignored -> true;
+            case UnaryExpression ignored -> true;
+            case ParenthesizedExpression ignored -> true;
+            case CompoundComparison ignored -> true;
+            case TernaryOperator ignored -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Тип выражения из кэша.
+     *
+     * @return копия сохранённого типа или {@code null}, если подходящей записи нет
+     */
+    @Nullable
+    Type lookup(@NotNull Expression expression, @NotNull ScopeTable scope) {
+        Entry entry = entries.get(expression.getId());
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (entry.node() != expression
+                || entry.scopeId() != scope.currentScopeId()
+                || entry.typeVersion() != scope.typeVersion()
+                || entry.replaceEpoch() != Node.replaceEpoch()) {
+            entries.remove(expression.getId());
+            invalidated++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return (Type) entry.type().freshClone();
+    }
+
+    /**
+     * Сохранить выведенный тип, если вывод не менял типов переменных.
+     *
+     * @param versionBefore {@link ScopeTable#typeVersion()} перед выводом
+     */
+    void store(@NotNull Expression expression, @NotNull ScopeTable scope, long versionBefore, @NotNull Type type) {
+        if (scope.typeVersion() != versionBefore) {
+            return;
+        }
+        entries.put(expression.getId(), new Entry(expression, scope.currentScopeId(), versionBefore,
+                Node.replaceEpoch(), (Type) type.freshClone()));
+        stored++;
+    }
+}
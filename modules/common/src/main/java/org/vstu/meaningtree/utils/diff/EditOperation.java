@@ -0,0 +1,65 @@
+package org.vstu.meaningtree.utils.diff;
+
+import org.jetbrains.annotations.Nullable;
+import org.vstu.meaningtree.iterators.utils.FieldDescriptor;
+import org.vstu.meaningtree.nodes.Node;
+
+import java.util.List;
+
+/**
+ * Одна операция сценария правки. {@code source} — узел исходного дерева, {@code target} —
+ * узел целевого; {@code slot} — место узла: для вставки и перемещения это поле в целевом
+ * дереве (владелец дескриптора — новый родитель), для удаления — поле в исходном. У корня
+ * места нет.
+ *
+ * @param kind    вид операции
+ * @param source  узел исходного дерева; нет у вставки
+ * @param target  узел целевого дерева; нет у удаления
+ * @param slot    поле, в котором узел оказывается (или из которого удаляется)
+ * @param changes изменённые собственные значения узла; непусто только у обновления
+ */
+public record EditOperation(Kind kind,
+                            @Nullable Node source,
+                            @Nullable Node target,
+                            @Nullable FieldDescriptor slot,
+                            List<ValueChange> changes) {
+
+    public enum Kind {
+        INSERT,
+        DELETE,
+        MOVE,
+        UPDATE
+    }
+
+    /**
+     * Изменение собственного (не дочернего) поля узла: имени идентификатора, значения
+     * литерала, вида оператора и т. п.
+     */
+    public record ValueChange(String field, @Nullable Object before, @Nullable Object after) {
+    }
+
+    public EditOperation {
+        changes = List.copyOf(changes);
+    }
+
+    /**
+     * Id узла исходного дерева или {@code -1} для вставки.
+     */
+    public long sourceId() {
+        return source == null ? -1 : source.getId();
+    }
+
+    /**
+     * Id узла целевого дерева или {@code -1} для удаления.
+     */
+    public long targetId() {
+        return target == null ? -1 : target.getId();
+    }
+
+    /**
+     * Id родителя, которому принадлежит {@link #slot()}, или {@code -1} для корня.
+     */
+    public long parentId() {
+        return slot == null ? -1 : slot.getOwner().getId();
+    }
+}
@@ -0,0 +1,140 @@
+package org.vstu.meaningtree.utils.diff;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import org.jetbrains.annotations.Nullable;
+import org.vstu.meaningtree.nodes.Node;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Результат {@link TreeDiff}: сопоставление узлов двух деревьев и сценарий правки, который
+ * превращает исходное дерево в целевое.
+ * <p>
+ * Операции идут в порядке применения: обновления, перемещения и вставки — от корня целевого
+ * дерева вниз (родитель раньше детей), затем удаления — от листьев исходного дерева вверх.
+ */
+public final class EditScript {
+    private final Node source;
+    private final Node target;
+    private final List<EditOperation> operations;
+    private final Map<Long, Long> matches;
+
+    EditScript(Node source, Node target, List<EditOperation> operations, Map<Long, Long> matches) {
+        this.source = source;
+        this.target = target;
+        this.operations = List.copyOf(operations);
+        this.matches = Collections.unmodifiableMap(matches);
+    }
+
+    public Node getSource() {
+        return source;
+    }
+
+    public Node getTarget() {
+        return target;
+    }
+
+    public List<EditOperation> operations() {
+        return operations;
+    }
+
+    public boolean isEmpty() {
+        return operations.isEmpty();
+    }
+
+    public int count(EditOperation.Kind kind) {
+        int count = 0;
+        for (EditOperation operation : operations) {
+            if (operation.kind() == kind) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Сопоставленные узлы: id в исходном дереве → id в целевом.
+     */
+    public Map<Long, Long> matches() {
+        return matches;
+    }
+
+    /**
+     * Сценарий в JSON:
+     * <pre>{@code
+     * {"type": "edit_script", "source": 1, "target": 101, "matched": 40, "operations": [
+     *   {"op": "update", "node": 7, "target": 107, "node_type": "SimpleIdentifier",
+     *    "changes": {"name": {"from": "x", "to": "y"}}},
+     *   {"op": "move", "node": 9, "target": 109, "parent": 103, "slot": "body", "index": 2},
+     *   {"op": "insert", "target": 120, "node_type": "AddOp", "parent": 110, "slot": "right"},
+     *   {"op": "delete", "node": 30, "node_type": "IntegerLiteral", "parent": 12, "slot": "left"}
+     * ]}
+     * }</pre>
+     * {@code node} — id в исходном дереве, {@code target} и {@code parent} у вставки и
+     * перемещения — id в целевом, {@code parent} у удаления — в исходном.
+     */
+    public JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("type", "edit_script");
+        json.addProperty("source", source.getId());
+        json.addProperty("target", target.getId());
+        json.addProperty("matched", matches.size());
+        JsonArray array = new JsonArray(operations.size());
+        for (EditOperation operation : operations) {
+            array.add(toJson(operation));
+        }
+        json.add("operations", array);
+        return json;
+    }
+
+    private static JsonObject toJson(EditOperation operation) {
+        JsonObject json = new JsonObject();
+        json.addProperty("op", operation.kind().name().toLowerCase());
+        if (operation.source() != null) {
+            json.addProperty("node", operation.sourceId());
+        }
+        if (operation.target() != null) {
+            json.addProperty("target", operation.targetId());
+        }
+        if (operation.kind() == EditOperation.Kind.INSERT || operation.kind() == EditOperation.Kind.DELETE
+                || operation.kind() == EditOperation.Kind.UPDATE) {
+            Node node = operation.source() != null ? operation.source() : operation.target();
+            json.addProperty("node_type", node.getClass().getSimpleName());
+        }
+        if (operation.slot() != null && operation.kind() != EditOperation.Kind.UPDATE) {
+            json.addProperty("parent", operation.parentId());
+            json.addProperty("slot", operation.slot().getName());
+            if (operation.slot().isIndexed()) {
+                json.addProperty("index", operation.slot().getIndex());
+            }
+        }
+        if (!operation.changes().isEmpty()) {
+            JsonObject changes = new JsonObject();
+            for (EditOperation.ValueChange change : operation.changes()) {
+                JsonObject value = new JsonObject();
+                value.add("from", toJsonValue(change.before()));
+                value.add("to", toJsonValue(change.after()));
+                changes.add(change.field(), value);
+            }
+            json.add("changes", changes);
+        }
+        return json;
+    }
+
+    private static JsonElement toJsonValue(@Nullable Object value) {
+        return switch (value) {
+            case null -> JsonNull.INSTANCE;
+            case Boolean bool -> new JsonPrimitive(bool);
+            case Number number -> new JsonPrimitive(number);
+            case Character character -> new JsonPrimitive(character);
+            case Enum<?> constant -> new JsonPrimitive(constant.name());
+            default -> new JsonPrimitive(value.toString());
+        };
+    }
+}
@@ -0,0 +1,636 @@
+package org.vstu.meaningtree.utils.diff;
+
+import org.jetbrains.annotations.Nullable;
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.iterators.utils.FieldDescriptor;
+import org.vstu.meaningtree.iterators.utils.TreeNode;
+import org.vstu.meaningtree.nodes.Node;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * Структурное сравнение двух деревьев со сценарием правки из вставок, удалений, перемещений
+ * и обновлений в терминах id узлов и полей ({@link FieldDescriptor}).
+ * <p>
+ * Сопоставление идёт в три прохода, каждый линейный по числу узлов:
+ * <ol>
+ *   <li>сверху вниз — одинаковые поддеревья. Хэш поддерева считается снизу вверх из типа
+ *       узла, его собственных значений и хэшей детей вместе с именами полей, поэтому
+ *       кандидаты находятся по хэш-таблице, а не попарным {@link Node#equals}. Совпадение
+ *       хэшей перепроверяется поузловым сравнением. Из нескольких одинаковых кандидатов
+ *       предпочитается тот, чей родитель уже сопоставлен с родителем узла;</li>
+ *   <li>снизу вверх — узлы того же типа, к которым ведёт большинство сопоставленных детей
+ *       (изменённые контейнеры);</li>
+ *   <li>сверху вниз — несопоставленные дети сопоставленных узлов с тем же типом в том же
+ *       поле: в списке — рядом с уже сопоставленным соседом, иначе на той же позиции
+ *       (изменённые листья и поддеревья без общих частей).</li>
+ * </ol>
+ * Собственные значения узла — его поля простых типов (строки, числа, перечисления), кроме
+ * полей {@link TreeNode}, меток и служебного состояния {@link Node}. Результаты анализа
+ * (оценки) и прочие ссылки на объекты в сравнение не входят.
+ * <p>
+ * Сопоставленный узел перемещается, если сменил родителя или поле; внутри одного
+ * поля-списка на месте остаются дети из наибольшей возрастающей подпоследовательности
+ * позиций, остальные перемещаются. Поэтому вставка в середину списка не превращает его
+ * хвост в перемещения.
+ */
+public final class TreeDiff {
+    /**
+     * Поддеревья меньше этого размера на первом проходе не сопоставляются: одинаковые
+     * листья (одно и то же имя, {@code 0}) встречаются по всему дереву, и их совпадение по
+     * хэшу ничего не говорит о месте. Листья сопоставляются третьим проходом — по месту.
+     */
+    public static final int DEFAULT_MIN_SUBTREE_SIZE = 2;
+
+    /**
+     * Сколько кандидатов с одинаковым хэшем перепроверять на один узел.
+     */
+    private static final int MAX_CANDIDATES = 16;
+
+    private int minSubtreeSize = DEFAULT_MIN_SUBTREE_SIZE;
+
+    public TreeDiff withMinSubtreeSize(int minSubtreeSize) {
+        if (minSubtreeSize < 1) {
+            throw new IllegalArgumentException("minSubtreeSize must be positive");
+        }
+        this.minSubtreeSize = minSubtreeSize;
+        return this;
+    }
+
+    public EditScript compute(MeaningTree source, MeaningTree target) {
+        return compute(source.getRootNode(), target.getRootNode());
+    }
+
+    public EditScript compute(Node source, Node target) {
+        Flat a = Flat.of(source);
+        Flat b = Flat.of(target);
+        int[] matchA = new int[a.size];
+        int[] matchB = new int[b.size];
+        Arrays.fill(matchA, -1);
+        Arrays.fill(matchB, -1);
+
+        matchIdenticalSubtrees(a, b, matchA, matchB);
+        matchContainers(a, b, matchA, matchB);
+        int rootA = a.size - 1;
+        int rootB = b.size - 1;
+        if (matchA[rootA] == -1 && matchB[rootB] == -1 && a.type(rootA) == b.type(rootB)) {
+            link(matchA, matchB, rootA, rootB);
+        }
+        matchBySlot(a, b, matchA, matchB);
+        return buildScript(a, b, matchA, matchB);
+    }
+
+    /* -----------------------------
+    |         Сопоставление         |
+    ------------------------------ */
+
+    private void matchIdenticalSubtrees(Flat a, Flat b, int[] matchA, int[] matchB) {
+        Map<Long, ArrayDeque<Integer>> candidates = new HashMap<>();
+        for (int j = b.size - 1; j >= 0; j--) {
+            if (b.subtreeSize[j] >= minSubtreeSize) {
+                candidates.computeIfAbsent(b.hash[j], h -> new ArrayDeque<>(1)).add(j);
+            }
+        }
+        // Обратный порядок обхода — родители раньше детей
+        for (int i = a.size - 1; i >= 0; i--) {
+            if (matchA[i] != -1 || a.subtreeSize[i] < minSubtreeSize) {
+                continue;
+            }
+            ArrayDeque<Integer> sameHash = candidates.get(a.hash[i]);
+            if (sameHash == null) {
+                continue;
+            }
+            while (!sameHash.isEmpty() && matchB[sameHash.peekFirst()] != -1) {
+                sameHash.pollFirst();
+            }
+            int expectedParent = a.parent[i] == -1 ? -1 : matchA[a.parent[i]];
+            int chosen = -1;
+            int scanned = 0;
+            for (int j : sameHash) {
+                if (matchB[j] != -1) {
+                    continue;
+                }
+                if (++scanned > MAX_CANDIDATES) {
+                    break;
+                }
+                boolean sameParent = expectedParent != -1 && b.parent[j] == expectedParent;
+                if (chosen != -1 && !sameParent) {
+                    continue;
+                }
+                if (!isomorphic(a, i, b, j, matchA, matchB)) {
+                    continue;
+                }
+                chosen = j;
+                if (sameParent || expectedParent == -1) {
+                    break;
+                }
+            }
+            if (chosen != -1) {
+                int size = a.subtreeSize[i];
+                for (int k = 0; k < size; k++) {
+                    link(matchA, matchB, i - size + 1 + k, chosen - size + 1 + k);
+                }
+            }
+        }
+    }
+
+    /**
+     * Поддеревья в обратном обходе занимают отрезок, оканчивающийся корнем, так что
+     * одинаковые поддеревья совпадают поузлово по смещению от начала отрезка.
+     */
+    private static boolean isomorphic(Flat a, int i, Flat b, int j, int[] matchA, int[] matchB) {
+        int size = a.subtreeSize[i];
+        if (b.subtreeSize[j] != size) {
+            return false;
+        }
+        int baseA = i - size + 1;
+        int baseB = j - size + 1;
+        for (int k = 0; k < size; k++) {
+            int x = baseA + k;
+            int y = baseB + k;
+            if (matchA[x] != -1 || matchB[y] != -1 || a.type(x) != b.type(y)
+                    || !Arrays.equals(a.values[x], b.values[y])) {
+                return false;
+            }
+            if (k < size - 1 && (a.parent[x] - baseA != b.parent[y] - baseB
+                    || !a.slotName(x).equals(b.slotName(y)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void matchContainers(Flat a, Flat b, int[] matchA, int[] matchB) {
+        for (int i = 0; i < a.size; i++) {
+            if (matchA[i] != -1 || a.childCount(i) == 0) {
+                continue;
+            }
+            // Голосование большинством: кандидат — родитель, к которому ведёт больше всего детей
+            int candidate = -1;
+            int votes = 0;
+            for (int c = a.childStart[i]; c < a.childStart[i + 1]; c++) {
+                int child = a.children[c];
+                if (matchA[child] == -1) {
+                    continue;
+                }
+                int parent = b.parent[matchA[child]];
+                if (parent == -1 || matchB[parent] != -1 || b.type(parent) != a.type(i)) {
+                    continue;
+                }
+                if (votes == 0) {
+                    candidate = parent;
+                    votes = 1;
+                } else if (candidate == parent) {
+                    votes++;
+                } else {
+                    votes--;
+                }
+            }
+            if (votes > 0) {
+                link(matchA, matchB, i, candidate);
+            }
+        }
+    }
+
+    private static void matchBySlot(Flat a, Flat b, int[] matchA, int[] matchB) {
+        for (int i = a.size - 1; i >= 0; i--) {
+            int j = matchA[i];
+            if (j == -1) {
+                continue;
+            }
+            Map<String, Integer> free = null;
+            for (int c = a.childStart[i]; c < a.childStart[i + 1]; c++) {
+                int child = a.children[c];
+                if (matchA[child] != -1) {
+                    continue;
+                }
+                int other = besideMatchedSibling(a, b, matchA, matchB, i, j, c);
+                if (other == -1) {
+                    if (free == null) {
+                        free = new HashMap<>();
+                        for (int d = b.childStart[j]; d < b.childStart[j + 1]; d++) {
+                            free.put(b.slotKey(b.children[d]), b.children[d]);
+                        }
+                    }
+                    Integer sameSlot = free.get(a.slotKey(child));
+                    if (sameSlot != null && fits(a, b, matchB, child, sameSlot)) {
+                        other = sameSlot;
+                    }
+                }
+                if (other != -1) {
+                    link(matchA, matchB, child, other);
+                }
+            }
+        }
+    }
+
+    /**
+     * Кандидат в списке по соседу: если сосед слева сопоставлен с ребёнком того же родителя,
+     * кандидат — следующий за ним, если справа — предыдущий. Так изменённый элемент находит
+     * пару, даже когда вставки и удаления сдвинули позиции в списке.
+     */
+    private static int besideMatchedSibling(Flat a, Flat b, int[] matchA, int[] matchB, int i, int j, int c) {
+        int child = a.children[c];
+        String slot = a.slotName(child);
+        if (c > a.childStart[i]) {
+            int left = a.children[c - 1];
+            if (matchA[left] != -1 && b.parent[matchA[left]] == j && a.slotName(left).equals(slot)) {
+                int position = b.childPosition[matchA[left]] + 1;
+                if (position < b.childStart[j + 1] && fits(a, b, matchB, child, b.children[position])) {
+                    return b.children[position];
+                }
+            }
+        }
+        if (c + 1 < a.childStart[i + 1]) {
+            int right = a.children[c + 1];
+            if (matchA[right] != -1 && b.parent[matchA[right]] == j && a.slotName(right).equals(slot)) {
+                int position = b.childPosition[matchA[right]] - 1;
+                if (position >= b.childStart[j] && fits(a, b, matchB, child, b.children[position])) {
+                    return b.children[position];
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static boolean fits(Flat a, Flat b, int[] matchB, int child, int other) {
+        return matchB[other] == -1 && b.type(other) == a.type(child) && b.slotName(other).equals(a.slotName(child));
+    }
+
+    private static void link(int[] matchA, int[] matchB, int i, int j) {
+        matchA[i] = j;
+        matchB[j] = i;
+    }
+
+    /* -----------------------------
+    |        Сценарий правки        |
+    ------------------------------ */
+
+    private static EditScript buildScript(Flat a, Flat b, int[] matchA, int[] matchB) {
+        boolean[] moved = findMoves(a, b, matchA, matchB);
+        List<EditOperation> operations = new ArrayList<>();
+        Map<Long, Long> matches = new LinkedHashMap<>();
+        for (int j = b.size - 1; j >= 0; j--) {
+            int i = matchB[j];
+            if (i == -1) {
+                operations.add(new EditOperation(EditOperation.Kind.INSERT, null, b.nodes[j], b.slot(j), List.of()));
+                continue;
+            }
+            matches.put(a.nodes[i].getId(), b.nodes[j].getId());
+            List<EditOperation.ValueChange> changes = valueChanges(a, i, b, j);
+            if (!changes.isEmpty()) {
+                operations.add(new EditOperation(EditOperation.Kind.UPDATE, a.nodes[i], b.nodes[j], b.slot(j), changes));
+            }
+            if (moved[j]) {
+                operations.add(new EditOperation(EditOperation.Kind.MOVE, a.nodes[i], b.nodes[j], b.slot(j), List.of()));
+            }
+        }
+        for (int i = 0; i < a.size; i++) {
+            if (matchA[i] == -1) {
+                operations.add(new EditOperation(EditOperation.Kind.DELETE, a.nodes[i], null, a.slot(i), List.of()));
+            }
+        }
+        return new EditScript(a.nodes[a.size - 1], b.nodes[b.size - 1], operations, matches);
+    }
+
+    private static boolean[] findMoves(Flat a, Flat b, int[] matchA, int[] matchB) {
+        boolean[] moved = new boolean[b.size];
+        for (int j = 0; j < b.size; j++) {
+            int i = matchB[j];
+            if (i == -1 || b.parent[j] == -1) {
+                continue;
+            }
+            int parentA = a.parent[i];
+            moved[j] = parentA == -1 || matchA[parentA] != b.parent[j] || !a.slotName(i).equals(b.slotName(j));
+        }
+        // Внутри поля-списка остаются на месте дети из наибольшей возрастающей подпоследовательности
+        for (int parent = 0; parent < b.size; parent++) {
+            int start = b.childStart[parent];
+            int end = b.childStart[parent + 1];
+            while (start < end) {
+                String slot = b.slotName(b.children[start]);
+                int runEnd = start;
+                while (runEnd < end && b.slotName(b.children[runEnd]).equals(slot)) {
+                    runEnd++;
+                }
+                if (b.slotIndex[b.children[start]] >= 0) {
+                    markOutOfOrder(a, b, matchB, moved, start, runEnd);
+                }
+                start = runEnd;
+            }
+        }
+        return moved;
+    }
+
+    private static void markOutOfOrder(Flat a, Flat b, int[] matchB, boolean[] moved, int start, int end) {
+        int[] members = new int[end - start];
+        int count = 0;
+        for (int c = start; c < end; c++) {
+            int child = b.children[c];
+            if (matchB[child] != -1 && !moved[child]) {
+                members[count++] = child;
+            }
+        }
+        if (count < 2) {
+            return;
+        }
+        // Наибольшая возрастающая подпоследовательность позиций в исходном списке, O(k log k)
+        int[] tails = new int[count];
+        int[] previous = new int[count];
+        int length = 0;
+        for (int k = 0; k < count; k++) {
+            int position = a.slotIndex[matchB[members[k]]];
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (a.slotIndex[matchB[members[tails[middle]]]] < position) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            previous[k] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = k;
+            if (low == length) {
+                length++;
+            }
+        }
+        boolean[] inOrder = new boolean[count];
+        for (int k = length == 0 ? -1 : tails[length - 1]; k != -1; k = previous[k]) {
+            inOrder[k] = true;
+        }
+        for (int k = 0; k < count; k++) {
+            if (!inOrder[k]) {
+                moved[members[k]] = true;
+            }
+        }
+    }
+
+    private static List<EditOperation.ValueChange> valueChanges(Flat a, int i, Flat b, int j) {
+        Object[] before = a.values[i];
+        Object[] after = b.values[j];
+        if (Arrays.equals(before, after)) {
+            return List.of();
+        }
+        Field[] fields = VALUE_FIELDS.get(a.type(i));
+        List<EditOperation.ValueChange> changes = new ArrayList<>();
+        for (int k = 0; k < fields.length; k++) {
+            if (!Objects.equals(before[k], after[k])) {
+                changes.add(new EditOperation.ValueChange(fields[k].getName(), before[k], after[k]));
+            }
+        }
+        return changes;
+    }
+
+    /* -----------------------------
+    |      Плоское представление     |
+    ------------------------------ */
+
+    /**
+     * Собственные значения узлов по классу: поля простых типов, объявленные ниже {@link Node}.
+     */
+    private static final ClassValue<Field[]> VALUE_FIELDS = new ClassValue<>() {
+        @Override
+        protected Field[] computeValue(Class<?> type) {
+            List<Field> result = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Node.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)
+                            || field.isAnnotationPresent(TreeNode.class) || !isPlainValue(field.getType())) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    result.add(field);
+                }
+            }
+            return result.toArray(new Field[0]);
+        }
+    };
+
+    private static boolean isPlainValue(Class<?> type) {
+        return type.isPrimitive() || type.isEnum() || type == String.class || type == Boolean.class
+                || type == Character.class || Number.class.isAssignableFrom(type);
+    }
+
+    /**
+     * Дочерние поля по классу: поля {@link TreeNode} и их имена (псевдоним, если задан) — те же
+     * правила, что у {@link Node#getFieldDescriptors()}, но без сканирования аннотаций на каждом узле.
+     */
+    private static final ClassValue<ChildFields> CHILD_FIELDS = new ClassValue<>() {
+        @Override
+        protected ChildFields computeValue(Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    TreeNode treeNode = field.getAnnotation(TreeNode.class);
+                    if (treeNode == null) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    fields.add(field);
+                    names.add(!treeNode.alias().isEmpty() ? treeNode.alias() : field.getName());
+                }
+            }
+            return new ChildFields(fields.toArray(new Field[0]), names.toArray(new String[0]));
+        }
+    };
+
+    private record ChildFields(Field[] fields, String[] names) {
+    }
+
+    /**
+     * Узел в прямом обходе: место у родителя, номер родителя в обходе и глубина.
+     */
+    private record Visit(Node node, String slot, int index, int parent, int depth) {
+    }
+
+    /**
+     * Дерево в обратном порядке обхода в глубину: дети раньше родителя, поддерево узла
+     * {@code i} — отрезок {@code [i - subtreeSize[i] + 1, i]}, корень — последний. Дети каждого
+     * узла лежат подряд в {@code children} по порядку.
+     * <p>
+     * Место узла хранится как имя поля и позиция в нём ({@code -1} у одиночного поля);
+     * {@link FieldDescriptor} создаётся только для попавших в сценарий узлов.
+     */
+    private static final class Flat {
+        final int size;
+        final Node[] nodes;
+        final String[] slotNames;
+        final int[] slotIndex;
+        final int[] parent;
+        final int[] subtreeSize;
+        final long[] hash;
+        final Object[][] values;
+        final int[] childStart;
+        final int[] children;
+        /** Позиция узла в {@code children} */
+        final int[] childPosition;
+
+        private Flat(int size) {
+            this.size = size;
+            nodes = new Node[size];
+            slotNames = new String[size];
+            slotIndex = new int[size];
+            parent = new int[size];
+            subtreeSize = new int[size];
+            hash = new long[size];
+            values = new Object[size][];
+            childStart = new int[size + 1];
+            children = new int[Math.max(0, size - 1)];
+            childPosition = new int[size];
+        }
+
+        static Flat of(Node root) {
+            // Прямой обход: дети кладутся в стек с конца, чтобы выходить по порядку
+            List<Visit> order = new ArrayList<>();
+            ArrayDeque<Visit> stack = new ArrayDeque<>();
+            List<Visit> pending = new ArrayList<>();
+            stack.push(new Visit(root, "", -1, -1, 0));
+            while (!stack.isEmpty()) {
+                Visit visit = stack.pop();
+                int position = order.size();
+                order.add(visit);
+                ChildFields childFields = CHILD_FIELDS.get(visit.node().getClass());
+                for (int f = 0; f < childFields.fields().length; f++) {
+                    String name = childFields.names()[f];
+                    Object value;
+                    try {
+                        value = childFields.fields()[f].get(visit.node());
+                    } catch (IllegalAccessException e) {
+                        continue;
+                    }
+                    if (value instanceof Optional<?> optional) {
+                        value = optional.orElse(null);
+                    }
+                    int depth = visit.depth() + 1;
+                    if (value instanceof Node child) {
+                        pending.add(new Visit(child, name, -1, position, depth));
+                    } else if (value instanceof Node[] array) {
+                        for (int k = 0; k < array.length; k++) {
+                            if (array[k] != null) {
+                                pending.add(new Visit(array[k], name, k, position, depth));
+                            }
+                        }
+                    } else if (value instanceof Collection<?> collection) {
+                        int k = 0;
+                        for (Object element : collection) {
+                            if (element instanceof Node child) {
+                                pending.add(new Visit(child, name, k, position, depth));
+                            }
+                            k++;
+                        }
+                    }
+                }
+                for (int k = pending.size() - 1; k >= 0; k--) {
+                    stack.push(pending.get(k));
+                }
+                pending.clear();
+            }
+
+            int size = order.size();
+            int[] preSize = new int[size];
+            for (int p = size - 1; p >= 0; p--) {
+                preSize[p]++;
+                if (order.get(p).parent() != -1) {
+                    preSize[order.get(p).parent()] += preSize[p];
+                }
+            }
+            // Номер в обратном порядке: предшественники в прямом минус предки плюс потомки
+            int[] post = new int[size];
+            for (int p = 0; p < size; p++) {
+                post[p] = p - order.get(p).depth() + preSize[p] - 1;
+            }
+            Flat flat = new Flat(size);
+            for (int p = 0; p < size; p++) {
+                Visit visit = order.get(p);
+                int i = post[p];
+                flat.nodes[i] = visit.node();
+                flat.slotNames[i] = visit.slot();
+                flat.slotIndex[i] = visit.index();
+                flat.parent[i] = visit.parent() == -1 ? -1 : post[visit.parent()];
+                flat.subtreeSize[i] = preSize[p];
+                flat.values[i] = readValues(visit.node());
+            }
+            flat.link();
+            return flat;
+        }
+
+        private void link() {
+            int[] fill = new int[size + 1];
+            for (int i = 0; i < size; i++) {
+                if (parent[i] != -1) {
+                    childStart[parent[i] + 1]++;
+                }
+            }
+            for (int i = 0; i < size; i++) {
+                childStart[i + 1] += childStart[i];
+                fill[i] = childStart[i];
+            }
+            for (int i = 0; i < size; i++) {
+                if (parent[i] != -1) {
+                    childPosition[i] = fill[parent[i]];
+                    children[fill[parent[i]]++] = i;
+                }
+            }
+            for (int i = 0; i < size; i++) {
+                long h = mix(nodes[i].getClass().getName().hashCode(), Arrays.hashCode(values[i]));
+                for (int c = childStart[i]; c < childStart[i + 1]; c++) {
+                    h = mix(h, slotNames[children[c]].hashCode());
+                    h = mix(h, hash[children[c]]);
+                }
+                hash[i] = h;
+            }
+        }
+
+        Class<?> type(int i) {
+            return nodes[i].getClass();
+        }
+
+        int childCount(int i) {
+            return childStart[i + 1] - childStart[i];
+        }
+
+        String slotName(int i) {
+            return slotNames[i];
+        }
+
+        String slotKey(int i) {
+            return slotNames[i] + "#" + slotIndex[i];
+        }
+
+        /**
+         * Дескриптор места узла у его родителя; у корня — {@code null}.
+         */
+        @Nullable
+        FieldDescriptor slot(int i) {
+            if (parent[i] == -1) {
+                return null;
+            }
+            FieldDescriptor descriptor = nodes[parent[i]].getFieldDescriptor(slotNames[i]);
+            return descriptor != null && slotIndex[i] >= 0 ? descriptor.withIndex(slotIndex[i]) : descriptor;
+        }
+
+        private static Object[] readValues(Node node) {
+            Field[] fields = VALUE_FIELDS.get(node.getClass());
+            Object[] result = new Object[fields.length];
+            for (int k = 0; k < fields.length; k++) {
+                try {
+                    result[k] = fields[k].get(node);
+                } catch (IllegalAccessException e) {
+                    result[k] = null;
+                }
+            }
+            return result;
+        }
+
+        private static long mix(long h, long value) {
+            h = (h ^ value) * 0x9E3779B97F4A7C15L;
+            return h ^ (h >>> 32);
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package org.vstu.meaningtree.utils.hooks;
 
+import org.jetbrains.annotations.Nullable;
+import org.vstu.meaningtree.utils.CancellationToken;
 import org.vstu.meaningtree.utils.frames.FrameStack;
+import org.vstu.meaningtree.utils.metrics.MetricsRecorder;
 import org.vstu.meaningtree.utils.scopes.ScopeTable;
 
 /**
@@ -12,7 +15,7 @@ import org.vstu.meaningtree.utils.scopes.ScopeTable;
  * областей видимости и где он сейчас находится в дереве.
  * <p>
  * Типы в сигнатурах поэтому только из нейтральных пакетов ({@code utils.scopes},
- * {@code utils.frames}). Расширять интерфейс типами из {@code languages} нельзя — это и
+ * {@code utils.frames}, {@code utils.metrics}, {@code utils}). Расширять интерфейс типами из {@code languages} нельзя — это и
  * есть тот самый цикл.
  * <p>
  * Хук, которому нужен доступ к чему-то более специфичному (конфигурации, токенизатору,
@@ -36,4 +39,20 @@ public interface HookHost {
      * Имя языка владельца — для диагностических сообщений.
      */
     String hookLanguageName();
+
+    /**
+     * Рекордер метрик текущего вызова или {@code null}, если метрики не собираются.
+     */
+    @Nullable
+    default MetricsRecorder hookMetrics() {
+        return null;
+    }
+
+    /**
+     * Маркер отмены текущей трансляции или {@code null}, если она не прерывается.
+     */
+    @Nullable
+    default CancellationToken hookCancellation() {
+        return null;
+    }
 }
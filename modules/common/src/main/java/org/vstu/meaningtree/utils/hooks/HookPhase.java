@@ -81,7 +81,8 @@ public final class HookPhase<S, V> {
      * Единственное окно, в котором доступен результат разбора вместе с областями
      * видимости: сразу после этой фазы {@code rollbackContext()} уничтожает контекст
      * парсера. Здесь работают анализаторы — {@code SymbolResolver},
-     * {@code ExpressionValueEvaluator}, {@code LoopIterationAnalyzer}.
+     * {@code ExpressionValueEvaluator}, {@code LoopIterationAnalyzer}; два последних при
+     * {@code lazyAnalysis} только запоминают таблицу и выполняются позже, по запросу оценок.
      */
     public static final HookPhase<MeaningTree, MeaningTree> AFTER_TREE_PARSE = selfUpdating("AFTER_TREE_PARSE");
 
@@ -89,7 +90,8 @@ public final class HookPhase<S, V> {
 
     /**
      * Дерево получено на рендеринг, но ещё не проверялось на поддержку целевым языком.
-     * Перехватчик может подменить дерево целиком.
+     * Перехватчик может подменить дерево целиком. Значение фазы — всегда собственная копия
+     * рендеринга, а не дерево вызывающего (субъект фазы), так что его можно менять на месте.
      */
     public static final HookPhase<MeaningTree, MeaningTree> BEFORE_TREE_RENDER = selfUpdating("BEFORE_TREE_RENDER");
 
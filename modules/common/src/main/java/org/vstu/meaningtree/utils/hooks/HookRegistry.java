@@ -1,6 +1,8 @@
 package org.vstu.meaningtree.utils.hooks;
 
 import org.jetbrains.annotations.Nullable;
+import org.vstu.meaningtree.utils.CancellationToken;
+import org.vstu.meaningtree.utils.metrics.MetricsRecorder;
 
 import java.util.*;
 
@@ -122,18 +124,24 @@ public final class HookRegistry {
         if (phaseInterceptors == null && phaseListeners == null) {
             return value;
         }
+        CancellationToken cancellation = host.hookCancellation();
+        if (cancellation != null) {
+            cancellation.throwIfCancelled();
+        }
 
         // Фазы без дополнительного значения (все, кроме AFTER_NODE_PARSE) обходятся общим
         // экземпляром: он неизменяем и ничего не кэширует, поэтому разделять его безопасно.
         HookContext context = source == null ? sharedContext : new HookContext(host, source);
         V current = value;
         S currentSubject = subject;
+        int invoked = 0;
 
         if (phaseInterceptors != null) {
             for (Registration registration : phaseInterceptors) {
                 if (!registration.matches(currentSubject)) {
                     continue;
                 }
+                invoked++;
                 V produced = ((Interceptor<S, V>) registration.hook).intercept(currentSubject, current, context);
                 current = Objects.requireNonNull(
                         produced,
@@ -153,10 +161,15 @@ public final class HookRegistry {
                 if (!registration.matches(currentSubject)) {
                     continue;
                 }
+                invoked++;
                 ((Listener<S, V>) registration.hook).observe(currentSubject, current, context);
             }
         }
 
+        MetricsRecorder metrics = host.hookMetrics();
+        if (metrics != null) {
+            metrics.hooksInvoked(invoked);
+        }
         return current;
     }
 
@@ -0,0 +1,190 @@
+package org.vstu.meaningtree.utils.metrics;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Сбор метрик одного вызова транслятора.
+ * <p>
+ * Экземпляр существует, только если метрики кому-то нужны: либо включён
+ * {@code collectMetrics}, либо идёт запись JFR с событиями {@code org.vstu.meaningtree.*}.
+ * Иначе {@link #start} возвращает {@code null}, и все точки замера сводятся к проверке поля на
+ * {@code null} — поэтому вызывающий код держит рекордер в поле и проверяет его сам, а не
+ * получает объект-заглушку.
+ * <p>
+ * Не потокобезопасен: рекордер принадлежит вызову транслятора, а тот — одному потоку.
+ */
+public final class MetricsRecorder {
+    private static final TranslationPhase[] PHASES = TranslationPhase.values();
+
+    private final String operation;
+    private final String language;
+    private final boolean inProcess;
+    @Nullable
+    private final TranslationEvent event;
+    private final boolean phaseEvents;
+    private final long startedAt;
+
+    private final long[] phaseNanos = new long[PHASES.length];
+    private int[] stack = new int[8];
+    private PhaseEvent[] openEvents = new PhaseEvent[8];
+    private int top = 0;
+    private long lastSwitch;
+
+    private long nodesParsed;
+    private long nodesRendered;
+    private long hookInvocations;
+    private long bytesProduced;
+
+    private MetricsRecorder(String operation, String language, boolean inProcess,
+                            @Nullable TranslationEvent event, boolean phaseEvents) {
+        this.operation = operation;
+        this.language = language;
+        this.inProcess = inProcess;
+        this.event = event;
+        this.phaseEvents = phaseEvents;
+        this.startedAt = System.nanoTime();
+        this.lastSwitch = startedAt;
+        if (event != null) {
+            event.begin();
+        }
+    }
+
+    /**
+     * @param inProcess собирать сводку {@link TranslationMetrics}
+     * @return рекордер или {@code null}, если метрики не нужны ни процессу, ни JFR
+     */
+    @Nullable
+    public static MetricsRecorder start(String operation, String language, boolean inProcess) {
+        TranslationEvent event = new TranslationEvent();
+        boolean jfr = event.isEnabled();
+        if (!inProcess && !jfr) {
+            return null;
+        }
+        return new MetricsRecorder(operation, language, inProcess, jfr ? event : null,
+                jfr && new PhaseEvent().isEnabled());
+    }
+
+    public void enter(TranslationPhase phase) {
+        long now = System.nanoTime();
+        if (top > 0) {
+            phaseNanos[stack[top - 1]] += now - lastSwitch;
+        }
+        lastSwitch = now;
+        if (top == stack.length) {
+            stack = Arrays.copyOf(stack, top * 2);
+            openEvents = Arrays.copyOf(openEvents, top * 2);
+        }
+        stack[top] = phase.ordinal();
+        if (phaseEvents) {
+            PhaseEvent phaseEvent = new PhaseEvent();
+            phaseEvent.phase = phase.name();
+            phaseEvent.language = language;
+            phaseEvent.begin();
+            openEvents[top] = phaseEvent;
+        }
+        top++;
+    }
+
+    public void exit() {
+        if (top == 0) {
+            throw new IllegalStateException("No translation phase to exit");
+        }
+        long now = System.nanoTime();
+        top--;
+        phaseNanos[stack[top]] += now - lastSwitch;
+        lastSwitch = now;
+        if (phaseEvents) {
+            openEvents[top].commit();
+            openEvents[top] = null;
+        }
+    }
+
+    public <T> T measure(TranslationPhase phase, Supplier<T> body) {
+        enter(phase);
+        try {
+            return body.get();
+        } finally {
+            exit();
+        }
+    }
+
+    public void measure(TranslationPhase phase, Runnable body) {
+        enter(phase);
+        try {
+            body.run();
+        } finally {
+            exit();
+        }
+    }
+
+    public void nodeParsed() {
+        nodesParsed++;
+    }
+
+    public void nodeRendered() {
+        nodesRendered++;
+    }
+
+    public void hooksInvoked(int count) {
+        hookInvocations += count;
+    }
+
+    public void produced(CharSequence text) {
+        bytesProduced += utf8Length(text);
+    }
+
+    /**
+     * Завершить вызов: закрыть незакрытые фазы (вызов мог оборваться исключением), отправить
+     * событие JFR.
+     * @return сводка или {@code null}, если рекордер работал только на JFR
+     */
+    @Nullable
+    public TranslationMetrics finish() {
+        while (top > 0) {
+            exit();
+        }
+        if (event != null) {
+            event.operation = operation;
+            event.language = language;
+            event.nodesParsed = nodesParsed;
+            event.nodesRendered = nodesRendered;
+            event.hookInvocations = hookInvocations;
+            event.bytesProduced = bytesProduced;
+            event.commit();
+        }
+        if (!inProcess) {
+            return null;
+        }
+        Map<TranslationPhase, Long> phases = new EnumMap<>(TranslationPhase.class);
+        for (TranslationPhase phase : PHASES) {
+            if (phaseNanos[phase.ordinal()] > 0) {
+                phases.put(phase, phaseNanos[phase.ordinal()]);
+            }
+        }
+        return new TranslationMetrics(operation, language, System.nanoTime() - startedAt, phases,
+                nodesParsed, nodesRendered, hookInvocations, bytesProduced);
+    }
+
+    private static long utf8Length(CharSequence text) {
+        long length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,19 @@
+package org.vstu.meaningtree.utils.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * Событие JFR на одну фазу трансляции. Длительность включающая — как и у любого события JFR,
+ * вложенные фазы видны отдельными событиями внутри.
+ */
+@Name("org.vstu.meaningtree.Phase")
+@Label("Translation Phase")
+@Category("MeaningTree")
+@StackTrace(false)
+final class PhaseEvent extends Event {
+    @Label("Phase")
+    String phase;
+
+    @Label("Language")
+    String language;
+}
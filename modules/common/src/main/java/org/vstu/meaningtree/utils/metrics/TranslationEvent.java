@@ -0,0 +1,32 @@
+package org.vstu.meaningtree.utils.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * Событие JFR на один вызов транслятора целиком.
+ */
+@Name("org.vstu.meaningtree.Translation")
+@Label("Translation")
+@Category("MeaningTree")
+@Description("One LanguageTranslator call")
+@StackTrace(false)
+final class TranslationEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Language")
+    String language;
+
+    @Label("Nodes Parsed")
+    long nodesParsed;
+
+    @Label("Nodes Rendered")
+    long nodesRendered;
+
+    @Label("Hook Invocations")
+    long hookInvocations;
+
+    @Label("Bytes Produced")
+    @DataAmount
+    long bytesProduced;
+}
@@ -0,0 +1,67 @@
+package org.vstu.meaningtree.utils.metrics;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Сводка одного вызова транслятора: исключающее время по фазам и счётчики.
+ *
+ * @param operation       вызванная операция транслятора, например {@code getCode(MeaningTree)}
+ * @param language        язык транслятора
+ * @param totalNanos      время вызова целиком
+ * @param phaseNanos      исключающее время фаз; фаз, в которые вызов не заходил, нет
+ * @param nodesParsed     узлов, прошедших через диспетчеризацию разбора
+ * @param nodesRendered   узлов, прошедших через диспетчеризацию рендеринга
+ * @param hookInvocations срабатываний перехватчиков и наблюдателей
+ * @param bytesProduced   размер полученного кода (или сериализации) в UTF-8
+ */
+public record TranslationMetrics(String operation, String language, long totalNanos,
+                                 Map<TranslationPhase, Long> phaseNanos,
+                                 long nodesParsed, long nodesRendered, long hookInvocations,
+                                 long bytesProduced) {
+    public TranslationMetrics {
+        EnumMap<TranslationPhase, Long> copy = new EnumMap<>(TranslationPhase.class);
+        copy.putAll(phaseNanos);
+        phaseNanos = Collections.unmodifiableMap(copy);
+    }
+
+    public long phaseNanos(TranslationPhase phase) {
+        return phaseNanos.getOrDefault(phase, 0L);
+    }
+
+    /**
+     * Время вне всех фаз: диспетчеризация самого транслятора, хуки между фазами.
+     */
+    public long otherNanos() {
+        long phases = 0;
+        for (long nanos : phaseNanos.values()) {
+            phases += nanos;
+        }
+        return Math.max(0, totalNanos - phases);
+    }
+
+    /**
+     * Таблица для человека: по строке на фазу и итог.
+     */
+    public String format() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("%s [%s]: %.3f ms%n".formatted(operation, language, millis(totalNanos)));
+        for (Map.Entry<TranslationPhase, Long> entry : phaseNanos.entrySet()) {
+            builder.append("  %-30s %10.3f ms  %5.1f%%%n".formatted(
+                    entry.getKey().getDescription(), millis(entry.getValue()), percent(entry.getValue())));
+        }
+        builder.append("  %-30s %10.3f ms  %5.1f%%%n".formatted("other", millis(otherNanos()), percent(otherNanos())));
+        builder.append("  nodes parsed: %d, nodes rendered: %d, hook invocations: %d, bytes produced: %d%n"
+                .formatted(nodesParsed, nodesRendered, hookInvocations, bytesProduced));
+        return builder.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private double percent(long nanos) {
+        return totalNanos == 0 ? 0 : nanos * 100.0 / totalNanos;
+    }
+}
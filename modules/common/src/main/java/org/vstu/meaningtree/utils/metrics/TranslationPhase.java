@@ -0,0 +1,28 @@
+package org.vstu.meaningtree.utils.metrics;
+
+/**
+ * Фазы трансляции, по которым раскладывается время вызова. Время фаз исключающее: вложенная
+ * фаза (например, разбор tree-sitter внутри построения дерева) вычитается из объемлющей.
+ */
+public enum TranslationPhase {
+    TREE_SITTER("tree-sitter parsing"),
+    PARSE("meaning tree building"),
+    SYMBOL_RESOLUTION("symbol resolution"),
+    VALUE_EVALUATION("expression value evaluation"),
+    LOOP_ANALYSIS("loop iteration analysis"),
+    PREPROCESS("tree preprocessing"),
+    SUPPORT_ANALYSIS("support analysis"),
+    RENDER("rendering"),
+    TOKENIZE("tokenization"),
+    SERIALIZATION("serialization");
+
+    private final String description;
+
+    TranslationPhase(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
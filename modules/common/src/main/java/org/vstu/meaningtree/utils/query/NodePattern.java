@@ -0,0 +1,88 @@
+package org.vstu.meaningtree.utils.query;
+
+import org.vstu.meaningtree.exceptions.IllegalUsageException;
+import org.vstu.meaningtree.nodes.Node;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Построитель структурного шаблона: тип узла, шаблоны для его полей (по псевдонимам
+ * {@link org.vstu.meaningtree.iterators.utils.TreeNode}), произвольные предикаты и
+ * ограничения на предков.
+ * <p>
+ * Пример: цикл {@code while}, условие которого сравнивает идентификатор с литералом.
+ * <pre>{@code
+ * NodeQuery query = NodePattern.of(WhileLoop.class)
+ *         .field("condition", NodePattern.of(BinaryComparison.class)
+ *                 .field("left", NodePattern.of(SimpleIdentifier.class))
+ *                 .field("right", NodePattern.of(Literal.class)))
+ *         .compile();
+ * }</pre>
+ * Тот же запрос в текстовом виде — см. {@link NodeQuery#parse(String)}.
+ *
+ * @param <T> тип узла, которому соответствует шаблон
+ */
+public final class NodePattern<T extends Node> {
+    final Class<T> type;
+    final List<Predicate<? super T>> predicates = new ArrayList<>();
+    final List<FieldClause> fields = new ArrayList<>();
+    final List<NodePattern<?>> ancestors = new ArrayList<>();
+
+    record FieldClause(String name, int index, NodePattern<?> pattern) {}
+
+    private NodePattern(Class<T> type) {
+        this.type = Objects.requireNonNull(type, "type must not be null");
+    }
+
+    public static <T extends Node> NodePattern<T> of(Class<T> type) {
+        return new NodePattern<>(type);
+    }
+
+    public static NodePattern<Node> any() {
+        return new NodePattern<>(Node.class);
+    }
+
+    /**
+     * Поле должно содержать узел, подходящий под шаблон; для полей-списков достаточно
+     * одного подходящего элемента.
+     */
+    public NodePattern<T> field(String name, NodePattern<?> pattern) {
+        return field(name, -1, pattern);
+    }
+
+    /**
+     * Элемент поля-списка с заданной позицией должен подходить под шаблон. Одиночное поле
+     * считается списком из одного элемента.
+     */
+    public NodePattern<T> field(String name, int index, NodePattern<?> pattern) {
+        Objects.requireNonNull(name, "field name must not be null");
+        Objects.requireNonNull(pattern, "pattern must not be null");
+        if (pattern == this) {
+            throw new IllegalUsageException("Pattern cannot reference itself");
+        }
+        fields.add(new FieldClause(name, index, pattern));
+        return this;
+    }
+
+    public NodePattern<T> where(Predicate<? super T> predicate) {
+        predicates.add(Objects.requireNonNull(predicate, "predicate must not be null"));
+        return this;
+    }
+
+    /**
+     * Узел должен находиться внутри узла, подходящего под шаблон. Несколько вызовов задают
+     * цепочку снаружи внутрь: {@code inside(a).inside(b)} — внутри {@code b}, который сам внутри {@code a}.
+     * Ограничение проверяется только для верхнего шаблона запроса.
+     */
+    public NodePattern<T> inside(NodePattern<?> ancestor) {
+        ancestors.add(Objects.requireNonNull(ancestor, "ancestor must not be null"));
+        return this;
+    }
+
+    public NodeQuery compile() {
+        return new NodeQuery(this, null);
+    }
+}
@@ -0,0 +1,194 @@
+package org.vstu.meaningtree.utils.query;
+
+import org.jetbrains.annotations.Nullable;
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.exceptions.IllegalUsageException;
+import org.vstu.meaningtree.iterators.utils.NodeInfo;
+import org.vstu.meaningtree.nodes.Node;
+
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Скомпилированный структурный запрос.
+ * <p>
+ * При компиляции типы и поля шаблона проверяются один раз, а сам шаблон превращается в
+ * дерево сопоставителей с заранее разрешённым доступом к полям. Поиск по дереву идёт через
+ * {@link NodeTypeIndex}: проверяются только узлы подходящего типа, остальная часть дерева
+ * не просматривается. Несколько запросов к одному дереву удобнее выполнять через
+ * {@link QueryBatch} — за один обход.
+ */
+public final class NodeQuery {
+    private final Matcher matcher;
+    /** Ограничения на предков, от ближайшего к корню */
+    private final Matcher[] ancestors;
+    @Nullable
+    private final String source;
+
+    NodeQuery(NodePattern<?> pattern, @Nullable String source) {
+        Set<NodePattern<?>> inProgress = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.matcher = compile(pattern, inProgress, true);
+        List<Matcher> ancestorMatchers = new ArrayList<>();
+        collectAncestors(pattern, ancestorMatchers);
+        this.ancestors = ancestorMatchers.toArray(new Matcher[0]);
+        this.source = source;
+    }
+
+    /**
+     * Разобрать текстовый запрос. Синтаксис:
+     * <pre>
+     * query  := step ('//' step)*
+     * step   := type ('(' clause (',' clause)* ')')?
+     * clause := field ('[' index ']')? ':' step
+     * type   := имя класса узла | тип из JSON-сериализации | '*'
+     * </pre>
+     * {@code A // B} — узел {@code B} внутри узла {@code A}; результатом запроса являются узлы
+     * последнего шага. Имена классов могут быть и абстрактными ({@code Loop}, {@code Literal}).
+     * Например: {@code WhileLoop(condition: BinaryComparison(left: SimpleIdentifier, right: Literal))}.
+     * Предикаты в тексте не поддерживаются — для них есть {@link NodePattern#where}.
+     */
+    public static NodeQuery parse(String query) {
+        return new NodeQuery(new NodeQueryParser(query).parse(), query);
+    }
+
+    public Class<? extends Node> targetType() {
+        return matcher.type;
+    }
+
+    /**
+     * Проверка узла без учёта ограничений на предков.
+     */
+    public boolean matchesNode(Node node) {
+        return node != null && matcher.test(node);
+    }
+
+    public boolean matches(NodeInfo info) {
+        return info != null && matcher.test(info.node()) && matchesAncestors(info.parent());
+    }
+
+    /**
+     * Поиск ближайших подходящих предков жадный: выбор самого нижнего подходящего предка
+     * оставляет выше него наибольший запас для остальных ограничений.
+     */
+    private boolean matchesAncestors(@Nullable NodeInfo parent) {
+        int matched = 0;
+        for (NodeInfo current = parent; current != null && matched < ancestors.length; current = current.parent()) {
+            if (ancestors[matched].test(current.node())) {
+                matched++;
+            }
+        }
+        return matched == ancestors.length;
+    }
+
+    public List<NodeInfo> findAll(MeaningTree tree) {
+        return findAll(tree.getTypeIndex());
+    }
+
+    public List<NodeInfo> findAll(NodeTypeIndex index) {
+        for (Matcher ancestor : ancestors) {
+            if (!index.contains(ancestor.type)) {
+                return List.of();
+            }
+        }
+        List<NodeInfo> result = new ArrayList<>();
+        for (NodeInfo candidate : index.nodesOf(matcher.type)) {
+            if (matcher.test(candidate.node()) && matchesAncestors(candidate.parent())) {
+                result.add(candidate);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return source != null ? source : "NodeQuery[" + matcher.type.getSimpleName() + "]";
+    }
+
+    /* -----------------------------
+    |          Компиляция           |
+    ------------------------------ */
+
+    @SuppressWarnings("unchecked")
+    private static Matcher compile(NodePattern<?> pattern, Set<NodePattern<?>> inProgress, boolean topLevel) {
+        if (!inProgress.add(pattern)) {
+            throw new IllegalUsageException("Recursive pattern for `%s`".formatted(pattern.type.getSimpleName()));
+        }
+        if (!topLevel && !pattern.ancestors.isEmpty()) {
+            throw new IllegalUsageException("Ancestor constraints are allowed only on the query target");
+        }
+        int size = pattern.fields.size();
+        String[] names = new String[size];
+        int[] indices = new int[size];
+        Matcher[] children = new Matcher[size];
+        for (int i = 0; i < size; i++) {
+            NodePattern.FieldClause clause = pattern.fields.get(i);
+            if (!TreeFields.isKnown(pattern.type, clause.name())) {
+                throw new IllegalUsageException("Unknown field `%s` for `%s`"
+                        .formatted(clause.name(), pattern.type.getSimpleName()));
+            }
+            names[i] = clause.name();
+            indices[i] = clause.index();
+            children[i] = compile(clause.pattern(), inProgress, false);
+        }
+        inProgress.remove(pattern);
+        return new Matcher(pattern.type, pattern.predicates.toArray(new Predicate[0]), names, indices, children);
+    }
+
+    private static void collectAncestors(NodePattern<?> pattern, List<Matcher> result) {
+        for (NodePattern<?> ancestor : pattern.ancestors.reversed()) {
+            result.add(compile(ancestor, Collections.newSetFromMap(new IdentityHashMap<>()), false));
+        }
+    }
+
+    /**
+     * Сопоставитель одного шаблона. Поля узла разрешаются по его фактическому классу,
+     * таблица полей класса кешируется в {@link TreeFields}.
+     */
+    static final class Matcher {
+        final Class<? extends Node> type;
+        private final Predicate<Node>[] predicates;
+        private final String[] fieldNames;
+        private final int[] fieldIndices;
+        private final Matcher[] fieldMatchers;
+
+        private Matcher(Class<? extends Node> type, Predicate<Node>[] predicates,
+                        String[] fieldNames, int[] fieldIndices, Matcher[] fieldMatchers) {
+            this.type = type;
+            this.predicates = predicates;
+            this.fieldNames = fieldNames;
+            this.fieldIndices = fieldIndices;
+            this.fieldMatchers = fieldMatchers;
+        }
+
+        boolean test(Node node) {
+            if (!type.isInstance(node)) {
+                return false;
+            }
+            for (int i = 0; i < fieldNames.length; i++) {
+                Field field = TreeFields.get(node.getClass(), fieldNames[i]);
+                if (field == null || !testField(node, field, fieldIndices[i], fieldMatchers[i])) {
+                    return false;
+                }
+            }
+            for (Predicate<Node> predicate : predicates) {
+                if (!predicate.test(node)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean testField(Node owner, Field field, int index, Matcher child) {
+            boolean[] found = {false};
+            TreeFields.forEachChild(owner, field, (node, position) -> {
+                if (index != -1 && position != index) {
+                    return position < index;
+                }
+                found[0] = child.test(node);
+                return !found[0] && index == -1;
+            });
+            return found[0];
+        }
+    }
+}
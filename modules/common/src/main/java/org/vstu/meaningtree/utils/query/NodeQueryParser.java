@@ -0,0 +1,148 @@
+package org.vstu.meaningtree.utils.query;
+
+import org.vstu.meaningtree.exceptions.IllegalUsageException;
+import org.vstu.meaningtree.nodes.Node;
+import org.vstu.meaningtree.serializers.json.JsonNodeTypeClassMapper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Рекурсивный спуск по текстовому запросу, грамматика описана в {@link NodeQuery#parse(String)}.
+ */
+final class NodeQueryParser {
+    private static volatile Map<String, Class<? extends Node>> simpleNames;
+
+    private final String text;
+    private int pos = 0;
+
+    NodeQueryParser(String text) {
+        this.text = text;
+    }
+
+    NodePattern<?> parse() {
+        List<NodePattern<?>> steps = new ArrayList<>();
+        steps.add(step());
+        skipSpaces();
+        while (text.startsWith("//", pos)) {
+            pos += 2;
+            steps.add(step());
+            skipSpaces();
+        }
+        if (pos != text.length()) {
+            throw error("Unexpected `" + text.charAt(pos) + "`");
+        }
+        NodePattern<?> target = steps.getLast();
+        for (NodePattern<?> ancestor : steps.subList(0, steps.size() - 1)) {
+            target.inside(ancestor);
+        }
+        return target;
+    }
+
+    private NodePattern<?> step() {
+        skipSpaces();
+        NodePattern<?> pattern;
+        if (accept('*')) {
+            pattern = NodePattern.any();
+        } else {
+            pattern = NodePattern.of(resolveType(name()));
+        }
+        if (!accept('(')) {
+            return pattern;
+        }
+        do {
+            String field = name();
+            int index = -1;
+            if (accept('[')) {
+                int start = pos;
+                while (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+                    pos++;
+                }
+                if (start == pos) {
+                    throw error("Expected field index");
+                }
+                index = Integer.parseInt(text.substring(start, pos));
+                expect(']');
+            }
+            expect(':');
+            pattern.field(field, index, step());
+        } while (accept(','));
+        expect(')');
+        return pattern;
+    }
+
+    private String name() {
+        skipSpaces();
+        int start = pos;
+        while (pos < text.length() && (Character.isLetterOrDigit(text.charAt(pos)) || text.charAt(pos) == '_')) {
+            pos++;
+        }
+        if (start == pos) {
+            throw error("Expected name");
+        }
+        return text.substring(start, pos);
+    }
+
+    private boolean accept(char c) {
+        skipSpaces();
+        if (pos < text.length() && text.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        if (!accept(c)) {
+            throw error("Expected `" + c + "`");
+        }
+    }
+
+    private void skipSpaces() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private IllegalUsageException error(String message) {
+        return new IllegalUsageException("%s at position %d in query `%s`".formatted(message, pos, text));
+    }
+
+    private Class<? extends Node> resolveType(String name) {
+        Class<? extends Node> type = JsonNodeTypeClassMapper.getClassForType(name);
+        if (type == null) {
+            type = simpleNames().get(name);
+        }
+        if (type == null) {
+            throw error("Unknown node type `" + name + "`");
+        }
+        return type;
+    }
+
+    /**
+     * Простые имена зарегистрированных классов узлов и всех их предков, включая абстрактные.
+     * Имена, встречающиеся в нескольких пакетах, исключаются — их можно задать типом из сериализации.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Class<? extends Node>> simpleNames() {
+        Map<String, Class<? extends Node>> result = simpleNames;
+        if (result != null) {
+            return result;
+        }
+        result = new HashMap<>();
+        List<String> ambiguous = new ArrayList<>();
+        for (Class<? extends Node> registered : JsonNodeTypeClassMapper.getRegisteredClasses()) {
+            for (Class<?> c = registered; c != null && Node.class.isAssignableFrom(c); c = c.getSuperclass()) {
+                Class<? extends Node> previous = result.putIfAbsent(c.getSimpleName(), (Class<? extends Node>) c);
+                if (previous != null && previous != c) {
+                    ambiguous.add(c.getSimpleName());
+                }
+            }
+        }
+        ambiguous.forEach(result::remove);
+        simpleNames = Map.copyOf(result);
+        return simpleNames;
+    }
+}
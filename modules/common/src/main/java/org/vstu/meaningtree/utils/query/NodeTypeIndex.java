@@ -0,0 +1,90 @@
+package org.vstu.meaningtree.utils.query;
+
+import org.vstu.meaningtree.iterators.utils.NodeInfo;
+import org.vstu.meaningtree.nodes.Node;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Индекс узлов дерева по классу. Строится за один обход и сохраняет порядок этого обхода;
+ * выборка по абстрактному типу (например, {@code Loop}) собирается из списков подходящих
+ * конкретных классов и кешируется.
+ * <p>
+ * Индекс отражает дерево на момент построения: после изменения дерева его нужно построить
+ * заново. Для {@link org.vstu.meaningtree.MeaningTree} это делается автоматически через
+ * {@code invalidateCache()}.
+ */
+public final class NodeTypeIndex {
+    private final NodeInfo[] nodes;
+    private final Map<Class<? extends Node>, int[]> positionsByClass;
+    private final Map<Class<?>, List<NodeInfo>> byType = new ConcurrentHashMap<>();
+
+    private NodeTypeIndex(NodeInfo[] nodes, Map<Class<? extends Node>, int[]> positionsByClass) {
+        this.nodes = nodes;
+        this.positionsByClass = positionsByClass;
+    }
+
+    public static NodeTypeIndex of(Iterable<NodeInfo> nodes) {
+        List<NodeInfo> ordered = new ArrayList<>();
+        Map<Class<? extends Node>, List<Integer>> positions = new HashMap<>();
+        for (NodeInfo info : nodes) {
+            if (info == null) {
+                continue;
+            }
+            positions.computeIfAbsent(info.node().getClass(), k -> new ArrayList<>()).add(ordered.size());
+            ordered.add(info);
+        }
+        Map<Class<? extends Node>, int[]> packed = new HashMap<>();
+        positions.forEach((type, list) -> packed.put(type, list.stream().mapToInt(Integer::intValue).toArray()));
+        return new NodeTypeIndex(ordered.toArray(new NodeInfo[0]), packed);
+    }
+
+    public int size() {
+        return nodes.length;
+    }
+
+    public boolean contains(Class<? extends Node> type) {
+        if (positionsByClass.containsKey(type)) {
+            return true;
+        }
+        for (Class<? extends Node> actual : positionsByClass.keySet()) {
+            if (type.isAssignableFrom(actual)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Узлы заданного типа (включая наследников) в порядке обхода, по которому построен индекс.
+     */
+    public List<NodeInfo> nodesOf(Class<? extends Node> type) {
+        return byType.computeIfAbsent(type, this::collect);
+    }
+
+    private List<NodeInfo> collect(Class<?> type) {
+        List<int[]> matching = new ArrayList<>();
+        int total = 0;
+        for (Map.Entry<Class<? extends Node>, int[]> entry : positionsByClass.entrySet()) {
+            if (type.isAssignableFrom(entry.getKey())) {
+                matching.add(entry.getValue());
+                total += entry.getValue().length;
+            }
+        }
+        int[] merged = new int[total];
+        int offset = 0;
+        for (int[] positions : matching) {
+            System.arraycopy(positions, 0, merged, offset, positions.length);
+            offset += positions.length;
+        }
+        if (matching.size() > 1) {
+            Arrays.sort(merged);
+        }
+        NodeInfo[] result = new NodeInfo[total];
+        for (int i = 0; i < total; i++) {
+            result[i] = nodes[merged[i]];
+        }
+        return List.of(result);
+    }
+}
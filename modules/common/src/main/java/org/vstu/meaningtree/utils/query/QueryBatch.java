@@ -0,0 +1,73 @@
+package org.vstu.meaningtree.utils.query;
+
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.iterators.utils.NodeInfo;
+
+import java.util.*;
+
+/**
+ * Набор запросов, выполняемых за один обход дерева. Каждый узел передаётся только тем
+ * запросам, чей целевой тип ему подходит; таблица диспетчеризации строится один раз на класс узла.
+ */
+public final class QueryBatch {
+    private final NodeQuery[] queries;
+    private final ClassValue<int[]> dispatch = new ClassValue<>() {
+        @Override
+        protected int[] computeValue(Class<?> nodeClass) {
+            int[] matching = new int[queries.length];
+            int count = 0;
+            for (int i = 0; i < queries.length; i++) {
+                if (queries[i].targetType().isAssignableFrom(nodeClass)) {
+                    matching[count++] = i;
+                }
+            }
+            return Arrays.copyOf(matching, count);
+        }
+    };
+
+    private QueryBatch(NodeQuery[] queries) {
+        this.queries = queries;
+    }
+
+    public static QueryBatch of(NodeQuery... queries) {
+        return new QueryBatch(queries.clone());
+    }
+
+    public static QueryBatch of(Collection<NodeQuery> queries) {
+        return new QueryBatch(queries.toArray(new NodeQuery[0]));
+    }
+
+    public List<NodeQuery> queries() {
+        return List.of(queries);
+    }
+
+    public Map<NodeQuery, List<NodeInfo>> run(MeaningTree tree) {
+        return run((Iterable<NodeInfo>) tree);
+    }
+
+    /**
+     * Выполнить все запросы за один проход по узлам.
+     * @return результаты в порядке запросов; для каждого запроса — узлы в порядке обхода
+     */
+    public Map<NodeQuery, List<NodeInfo>> run(Iterable<NodeInfo> nodes) {
+        List<List<NodeInfo>> results = new ArrayList<>(queries.length);
+        for (int i = 0; i < queries.length; i++) {
+            results.add(new ArrayList<>());
+        }
+        for (NodeInfo info : nodes) {
+            if (info == null) {
+                continue;
+            }
+            for (int query : dispatch.get(info.node().getClass())) {
+                if (queries[query].matches(info)) {
+                    results.get(query).add(info);
+                }
+            }
+        }
+        Map<NodeQuery, List<NodeInfo>> result = new LinkedHashMap<>();
+        for (int i = 0; i < queries.length; i++) {
+            result.put(queries[i], results.get(i));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,99 @@
+package org.vstu.meaningtree.utils.query;
+
+import org.jetbrains.annotations.Nullable;
+import org.vstu.meaningtree.iterators.utils.TreeNode;
+import org.vstu.meaningtree.nodes.Node;
+import org.vstu.meaningtree.serializers.json.JsonNodeTypeClassMapper;
+
+import java.lang.reflect.Field;
+import java.util.*;
+
+/**
+ * Доступ к полям {@link TreeNode} без построения дескрипторов.
+ * <p>
+ * {@link Node#getFieldDescriptors()} на каждый вызов заново сканирует аннотации и создаёт
+ * объекты-дескрипторы, что для сопоставления шаблонов на каждом узле слишком дорого. Здесь
+ * таблица «псевдоним → поле» строится один раз на класс; правила именования те же.
+ */
+final class TreeFields {
+    private static final ClassValue<Map<String, Field>> FIELDS = new ClassValue<>() {
+        @Override
+        protected Map<String, Field> computeValue(Class<?> type) {
+            Map<String, Field> result = new HashMap<>();
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    TreeNode treeNode = field.getAnnotation(TreeNode.class);
+                    if (treeNode == null) {
+                        continue;
+                    }
+                    String name = !treeNode.alias().isEmpty() ? treeNode.alias() : field.getName();
+                    field.setAccessible(true);
+                    result.put(name, field);
+                }
+            }
+            return Map.copyOf(result);
+        }
+    };
+
+    private TreeFields() {}
+
+    @Nullable
+    static Field get(Class<?> nodeClass, String alias) {
+        return FIELDS.get(nodeClass).get(alias);
+    }
+
+    /**
+     * Есть ли поле с таким псевдонимом у самого типа или хотя бы у одного известного его
+     * наследника: шаблон по абстрактному типу может ссылаться на поля подклассов.
+     */
+    static boolean isKnown(Class<? extends Node> type, String alias) {
+        if (get(type, alias) != null) {
+            return true;
+        }
+        for (Class<? extends Node> registered : JsonNodeTypeClassMapper.getRegisteredClasses()) {
+            if (type.isAssignableFrom(registered) && get(registered, alias) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Передаёт узлы из значения поля по порядку вместе с позицией; одиночный узел имеет позицию 0.
+     * Возвращает {@code false}, если обработчик попросил остановиться.
+     */
+    static boolean forEachChild(Node owner, Field field, ChildVisitor visitor) {
+        Object value;
+        try {
+            value = field.get(owner);
+        } catch (IllegalAccessException e) {
+            return true;
+        }
+        if (value instanceof Optional<?> optional) {
+            value = optional.orElse(null);
+        }
+        if (value instanceof Node node) {
+            return visitor.visit(node, 0);
+        }
+        if (value instanceof Node[] array) {
+            for (int i = 0; i < array.length; i++) {
+                if (array[i] != null && !visitor.visit(array[i], i)) {
+                    return false;
+                }
+            }
+        } else if (value instanceof Collection<?> collection) {
+            int i = 0;
+            for (Object item : collection) {
+                if (item instanceof Node node && !visitor.visit(node, i)) {
+                    return false;
+                }
+                i++;
+            }
+        }
+        return true;
+    }
+
+    interface ChildVisitor {
+        boolean visit(Node child, int index);
+    }
+}
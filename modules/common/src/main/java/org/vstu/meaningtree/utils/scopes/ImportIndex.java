@@ -11,6 +11,13 @@ class ImportIndex implements Serializable {
     @NotNull
     private final Set<Import> imports = new HashSet<>();
 
+    ImportIndex() {
+    }
+
+    ImportIndex(@NotNull ImportIndex source) {
+        imports.addAll(source.imports);
+    }
+
     public void registerImport(@NotNull Import importDeclaration) {
         imports.add(importDeclaration);
     }
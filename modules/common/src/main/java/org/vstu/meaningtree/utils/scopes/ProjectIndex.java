@@ -0,0 +1,225 @@
+package org.vstu.meaningtree.utils.scopes;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.vstu.meaningtree.iterators.utils.NodeInfo;
+import org.vstu.meaningtree.nodes.Declaration;
+import org.vstu.meaningtree.nodes.Node;
+import org.vstu.meaningtree.nodes.Type;
+import org.vstu.meaningtree.nodes.expressions.Identifier;
+import org.vstu.meaningtree.nodes.modules.Import;
+import org.vstu.meaningtree.nodes.types.builtin.IntType;
+import org.vstu.meaningtree.nodes.types.builtin.NumericType;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Общий для всех файлов проекта индекс глобальных символов: объявления и типы верхнего уровня
+ * и импорты каждого файла. Строится один раз из сводок {@link FileSymbols} и после этого не
+ * меняется, поэтому читается из любого числа потоков без синхронизации.
+ * <p>
+ * Если одно имя объявлено в нескольких файлах, поиск возвращает объявление из файла,
+ * идущего первым по пути; все такие файлы доступны через {@link #declaringFiles(Identifier)}.
+ * <p>
+ * Определения (тела функций и классов) в индекс не попадают: индекс живёт всё время
+ * трансляции проекта, и держать в нём тела всех файлов значило бы держать все деревья.
+ */
+public final class ProjectIndex {
+
+    /**
+     * Глобальные символы одного файла.
+     *
+     * @param file путь относительно корня проекта
+     */
+    public record FileSymbols(@NotNull Path file,
+                              @NotNull Map<Identifier, Declaration> declarations,
+                              @NotNull Map<Identifier, Type> types,
+                              @NotNull Set<Import> imports) {
+        public FileSymbols {
+            Objects.requireNonNull(file, "file must not be null");
+            declarations = Map.copyOf(declarations);
+            types = Map.copyOf(types);
+            imports = Set.copyOf(imports);
+        }
+
+        /**
+         * Сводка по таблице областей видимости, построенной при разборе файла.
+         */
+        public static FileSymbols of(@NotNull Path file, @NotNull ScopeTable table) {
+            return new FileSymbols(file, table.allDeclarations(), table.allTypes(), table.allImports());
+        }
+    }
+
+    private static final ProjectIndex EMPTY = new ProjectIndex(List.of());
+
+    @NotNull
+    private final Map<Path, FileSymbols> files;
+
+    @NotNull
+    private final Map<Identifier, List<Path>> declaringFiles;
+
+    @NotNull
+    private final Map<Identifier, Type> types;
+
+    @NotNull
+    private final Map<Type, Declaration> typeDeclarations;
+
+    private volatile String fingerprint = null;
+
+    private ProjectIndex(@NotNull List<FileSymbols> symbols) {
+        List<FileSymbols> sorted = new ArrayList<>(symbols);
+        sorted.sort(Comparator.comparing(FileSymbols::file));
+
+        Map<Path, FileSymbols> files = new LinkedHashMap<>();
+        Map<Identifier, List<Path>> declaringFiles = new HashMap<>();
+        Map<Identifier, Type> types = new HashMap<>();
+        Map<Type, Declaration> typeDeclarations = new HashMap<>();
+        for (FileSymbols file : sorted) {
+            if (files.putIfAbsent(file.file(), file) != null) {
+                throw new IllegalArgumentException("File %s is indexed twice".formatted(file.file()));
+            }
+            for (var declaration : file.declarations().entrySet()) {
+                declaringFiles.computeIfAbsent(declaration.getKey(), key -> new ArrayList<>()).add(file.file());
+                Type declared = ScopeTable.declaredTypeOf(declaration.getValue());
+                if (declared != null) {
+                    typeDeclarations.putIfAbsent(declared, declaration.getValue());
+                }
+            }
+            for (var type : file.types().entrySet()) {
+                types.putIfAbsent(type.getKey(), type.getValue());
+            }
+        }
+        declaringFiles.replaceAll((name, paths) -> List.copyOf(paths));
+
+        this.files = Collections.unmodifiableMap(files);
+        this.declaringFiles = Map.copyOf(declaringFiles);
+        this.types = Map.copyOf(types);
+        this.typeDeclarations = Map.copyOf(typeDeclarations);
+    }
+
+    public static ProjectIndex of(@NotNull Collection<FileSymbols> symbols) {
+        return new ProjectIndex(List.copyOf(symbols));
+    }
+
+    public static ProjectIndex empty() {
+        return EMPTY;
+    }
+
+    /** Проиндексированные файлы в порядке путей. */
+    public Set<Path> files() {
+        return files.keySet();
+    }
+
+    public Optional<FileSymbols> file(@NotNull Path file) {
+        return Optional.ofNullable(files.get(file));
+    }
+
+    public int size() {
+        return files.size();
+    }
+
+    public Optional<Declaration> findDeclaration(@NotNull Identifier name,
+                                                 @Nullable Class<? extends Declaration> clazz) {
+        for (Path file : declaringFiles.getOrDefault(name, List.of())) {
+            Declaration declaration = files.get(file).declarations().get(name);
+            if (clazz == null || clazz.isAssignableFrom(declaration.getClass())) {
+                return Optional.of(declaration);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /** Файлы, объявляющие имя на верхнем уровне, в порядке путей. */
+    public List<Path> declaringFiles(@NotNull Identifier name) {
+        return declaringFiles.getOrDefault(name, List.of());
+    }
+
+    public Optional<Type> findType(@NotNull Identifier name) {
+        return Optional.ofNullable(types.get(name));
+    }
+
+    public Optional<Declaration> findTypeDeclaration(@NotNull Type type) {
+        return Optional.ofNullable(typeDeclarations.get(type));
+    }
+
+    /**
+     * Отпечаток того, что индекс даёт разбору: какие имена и типы объявлены, где и с какой
+     * сигнатурой (тип переменной, типы параметров и результата функции). Меняется,
+     * только когда меняются глобальные объявления проекта, а не тела функций, — поэтому
+     * годится в ключ кэша разбора файлов, разобранных с этим индексом.
+     */
+    public String fingerprint() {
+        String result = fingerprint;
+        if (result == null) {
+            result = computeFingerprint();
+            fingerprint = result;
+        }
+        return result;
+    }
+
+    private String computeFingerprint() {
+        List<String> lines = new ArrayList<>();
+        for (var entry : declaringFiles.entrySet()) {
+            Declaration declaration = findDeclaration(entry.getKey(), null).orElseThrow();
+            lines.add("d " + entry.getKey().internalRepresentation() + " "
+                    + declaration.getClass().getName() + " " + entry.getValue() + " " + structureOf(declaration));
+        }
+        for (var entry : types.entrySet()) {
+            lines.add("t " + entry.getKey().internalRepresentation() + " "
+                    + entry.getValue().getClass().getName() + " " + entry.getValue().internalRepresentation());
+        }
+        Collections.sort(lines);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String line : lines) {
+                digest.update(line.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Устройство поддерева объявления без id узлов: поля, классы узлов, имена и параметры
+     * типов. Не зависит от запуска, в отличие от {@code hashCode} узлов с перечислениями.
+     */
+    private static String structureOf(@NotNull Node declaration) {
+        StringBuilder out = new StringBuilder();
+        for (NodeInfo info : declaration.iterate(true)) {
+            out.append(info.depth());
+            if (info.field() != null) {
+                out.append(' ').append(info.field().getName());
+                if (info.field().isIndexed()) {
+                    out.append('[').append(info.field().getIndex()).append(']');
+                }
+            }
+            Node node = info.node();
+            out.append(' ').append(node.getClass().getSimpleName());
+            if (node instanceof Identifier identifier) {
+                out.append(' ').append(identifier.internalRepresentation());
+            }
+            if (node instanceof Type type && type.isConst()) {
+                out.append(" const");
+            }
+            if (node instanceof NumericType numeric) {
+                out.append(' ').append(numeric.getBitsize());
+            }
+            if (node instanceof IntType integer && integer.isUnsigned) {
+                out.append(" unsigned");
+            }
+            out.append(';');
+        }
+        return out.toString();
+    }
+
+    public Set<Import> imports(@NotNull Path file) {
+        FileSymbols symbols = files.get(file);
+        return symbols == null ? Set.of() : symbols.imports();
+    }
+}
@@ -15,6 +15,7 @@ import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
 import org.vstu.meaningtree.nodes.modules.Import;
 import org.vstu.meaningtree.nodes.statements.CompoundStatement;
 import org.vstu.meaningtree.nodes.types.UserType;
+import org.vstu.meaningtree.utils.analysis.types.TypeInferenceCache;
 
 import java.io.Serializable;
 import java.util.*;
@@ -53,6 +54,19 @@ public class ScopeTable implements Serializable {
     @NotNull
     private ScopeTableElement current;
 
+    /**
+     * Общий для всех областей таблицы счётчик изменений типов переменных.
+     */
+    @NotNull
+    private final TypeVersion typeVersion = new TypeVersion();
+
+    /**
+     * Кэш вывода типов выражений. Живёт ровно столько, сколько таблица, то есть одну
+     * трансляцию; копия таблицы и десериализованная таблица начинают с пустого кэша.
+     */
+    @Nullable
+    private transient TypeInferenceCache inferenceCache;
+
     /**
      * Создаёт менеджер областей видимости с корневой областью.
      */
@@ -65,6 +79,35 @@ public class ScopeTable implements Serializable {
         this.current = createScope(null, null);
     }
 
+    private ScopeTable(@NotNull ScopeTable source) {
+        this.symbols = new SymbolIndex(source.symbols);
+        this.types = new TypeIndex(source.types);
+        this.imports = new ImportIndex(source.imports);
+        this.scopes = new LinkedHashMap<>();
+        this.nextScopeId = source.nextScopeId;
+        // Родитель всегда создаётся раньше потомков, поэтому к моменту копирования области
+        // копия её родителя уже есть
+        for (ScopeTableElement scope : source.scopes.values()) {
+            ScopeTableElement parent = scope.getParent() == null ? null : scopes.get(scope.getParent().getId());
+            ScopeTableElement copy = ScopeTableElement.copyOf(scope, parent);
+            copy.shareTypeVersion(typeVersion);
+            scopes.put(scope.getId(), copy);
+        }
+        this.current = scopes.get(source.current.getId());
+    }
+
+    /**
+     * Независимая копия таблицы: те же области с теми же id, изменения копии не видны
+     * исходной таблице и наоборот. Узлы дерева (объявления, типы) не копируются.
+     * <p>
+     * Составные инструкции дерева остаются привязанными к областям исходной таблицы; вывод
+     * типов находит область по id ({@link CompoundStatement#getScopeId()}), поэтому с копией
+     * работает так же, как с оригиналом.
+     */
+    public ScopeTable copy() {
+        return new ScopeTable(this);
+    }
+
     /**
      * Входит в новую область видимости.
      */
@@ -124,6 +167,24 @@ public class ScopeTable implements Serializable {
         return current.getId();
     }
 
+    /**
+     * Версия типов переменных: растёт при каждом изменении типа или набора переменных в
+     * любой области таблицы — через саму таблицу или напрямую через её области.
+     */
+    public long typeVersion() {
+        return typeVersion.value;
+    }
+
+    /**
+     * Кэш вывода типов выражений этой таблицы, см. {@link TypeInferenceCache}.
+     */
+    public TypeInferenceCache inferenceCache() {
+        if (inferenceCache == null) {
+            inferenceCache = new TypeInferenceCache();
+        }
+        return inferenceCache;
+    }
+
     public ScopeTableElement restoreScope(long id, @Nullable Long parentId, @Nullable Node owner) {
         ScopeTableElement existing = scopes.get(id);
         if (existing != null) {
@@ -133,6 +194,7 @@ public class ScopeTable implements Serializable {
 
         ScopeTableElement parent = parentId == null ? null : scopes.get(parentId);
         ScopeTableElement restored = new ScopeTableElement(id, parent, owner);
+        restored.shareTypeVersion(typeVersion);
         scopes.put(id, restored);
         nextScopeId = Math.max(nextScopeId, id + 1);
         return restored;
@@ -361,10 +423,19 @@ public class ScopeTable implements Serializable {
 
     private ScopeTableElement createScope(@Nullable ScopeTableElement parent, @Nullable Node owner) {
         ScopeTableElement scope = new ScopeTableElement(nextScopeId++, parent, owner);
+        scope.shareTypeVersion(typeVersion);
         scopes.put(scope.getId(), scope);
         if (owner instanceof CompoundStatement compoundStatement) {
             compoundStatement.bindScope(scope);
         }
         return scope;
     }
+
+    static final class TypeVersion implements Serializable {
+        private long value;
+
+        void bump() {
+            value++;
+        }
+    }
 }
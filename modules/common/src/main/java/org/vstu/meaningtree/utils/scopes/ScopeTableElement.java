@@ -50,6 +50,13 @@ public class ScopeTableElement implements Serializable {
     @NotNull
     private final Map<Type, Declaration> typeDeclarations;
 
+    /**
+     * Счётчик изменений типов переменных. Области одной таблицы делят один счётчик
+     * ({@link ScopeTable#typeVersion()}); у отдельной области он свой.
+     */
+    @NotNull
+    private ScopeTable.TypeVersion typeVersion = new ScopeTable.TypeVersion();
+
     public ScopeTableElement(long id, @Nullable ScopeTableElement parent, @Nullable Node owner) {
         this.id = id;
         ID_GENERATOR.updateAndGet(current -> Math.max(current, id));
@@ -62,6 +69,26 @@ public class ScopeTableElement implements Serializable {
         setOwner(owner);
     }
 
+    /**
+     * Копия области с другим родителем. Владелец переносится как есть, но составная
+     * инструкция к копии не привязывается: дерево остаётся привязанным к исходной таблице,
+     * а копия находит свои области по тем же id.
+     */
+    static ScopeTableElement copyOf(@NotNull ScopeTableElement source, @Nullable ScopeTableElement parent) {
+        ScopeTableElement copy = new ScopeTableElement(source.id, parent, null);
+        copy.owner = source.owner;
+        copy.variables.putAll(source.variables);
+        copy.variableDeclarations.putAll(source.variableDeclarations);
+        copy.localDeclarations.putAll(source.localDeclarations);
+        copy.declaredTypes.putAll(source.declaredTypes);
+        copy.typeDeclarations.putAll(source.typeDeclarations);
+        return copy;
+    }
+
+    void shareTypeVersion(@NotNull ScopeTable.TypeVersion version) {
+        this.typeVersion = version;
+    }
+
     public ScopeTableElement(@Nullable ScopeTableElement parent, @Nullable Node owner) {
         this(ID_GENERATOR.incrementAndGet(), parent, owner);
     }
@@ -99,6 +126,7 @@ public class ScopeTableElement implements Serializable {
             variables.put(decl.getIdentifier(), detachType(variableDeclaration.getType()));
             variableDeclarations.put(decl.getIdentifier(), variableDeclaration);
         }
+        typeVersion.bump();
     }
 
     public void registerVariable(@NotNull SeparatedVariableDeclaration variableDeclaration) {
@@ -114,6 +142,7 @@ public class ScopeTableElement implements Serializable {
         if (declaration != null) {
             variableDeclarations.put(name, declaration);
         }
+        typeVersion.bump();
     }
 
     public void registerDeclaration(@NotNull SimpleIdentifier name, @NotNull Declaration decl) {
@@ -150,6 +179,7 @@ public class ScopeTableElement implements Serializable {
         }
         variables.remove(name);
         variableDeclarations.remove(name);
+        typeVersion.bump();
     }
 
     public boolean hasVariable(@NotNull SimpleIdentifier name) {
@@ -192,6 +222,7 @@ public class ScopeTableElement implements Serializable {
         }
 
         variables.put(name, detachType(type));
+        typeVersion.bump();
     }
 
     public void changeVariableType(@NotNull SimpleIdentifier name, @NotNull Type type) {
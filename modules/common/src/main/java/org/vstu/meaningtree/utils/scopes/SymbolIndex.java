@@ -20,6 +20,14 @@ class SymbolIndex implements Serializable {
     @NotNull
     private final Map<Declaration, Definition> definitions = new HashMap<>();
 
+    SymbolIndex() {
+    }
+
+    SymbolIndex(@NotNull SymbolIndex source) {
+        declarations.putAll(source.declarations);
+        definitions.putAll(source.definitions);
+    }
+
     public void registerDeclaration(@NotNull SimpleIdentifier name, @NotNull Declaration declaration) {
         declarations.put(name, declaration);
     }
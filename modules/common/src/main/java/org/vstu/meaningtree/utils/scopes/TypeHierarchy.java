@@ -9,6 +9,13 @@ import java.util.*;
 public class TypeHierarchy implements Serializable {
     private final Map<UserType, Set<UserType>> parentsByType = new LinkedHashMap<>();
 
+    public TypeHierarchy() {
+    }
+
+    TypeHierarchy(@NotNull TypeHierarchy source) {
+        source.parentsByType.forEach((type, parents) -> parentsByType.put(type, new LinkedHashSet<>(parents)));
+    }
+
     public void register(@NotNull UserType type, @NotNull Set<UserType> parents) {
         parentsByType.put(type, new LinkedHashSet<>(parents));
         for (UserType parent : parents) {
@@ -18,7 +18,17 @@ class TypeIndex implements Serializable {
     private final Map<Identifier, Type> declaredTypes = new HashMap<>();
 
     @NotNull
-    private final TypeHierarchy hierarchy = new TypeHierarchy();
+    private final TypeHierarchy hierarchy;
+
+    TypeIndex() {
+        this.hierarchy = new TypeHierarchy();
+    }
+
+    TypeIndex(@NotNull TypeIndex source) {
+        typeDeclarations.putAll(source.typeDeclarations);
+        declaredTypes.putAll(source.declaredTypes);
+        this.hierarchy = new TypeHierarchy(source.hierarchy);
+    }
 
     public Identifier registerType(@NotNull Identifier name, @NotNull Type type) {
         if (!declaredTypes.containsValue(type)) {
@@ -0,0 +1,391 @@
+package org.vstu.meaningtree.utils.similarity;
+
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.nodes.Node;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Индекс похожих деревьев для поиска почти-дубликатов (например, списанных решений) среди
+ * большого числа программ на любых поддерживаемых языках.
+ * <p>
+ * Дерево сводится к {@link TreeFingerprint отпечатку} — множеству хэшей нормализованных
+ * поддеревьев, — а отпечаток к MinHash-подписи из {@code bands * rows} минимумов: доля
+ * совпавших позиций двух подписей оценивает коэффициент Жаккара их отпечатков. Подпись
+ * режется на {@code bands} полос по {@code rows} значений (LSH); кандидатами в похожие
+ * считаются деревья, у которых совпала хотя бы одна полоса целиком, и только они сравниваются
+ * по подписи. Пары с похожестью {@code s} становятся кандидатами с вероятностью
+ * {@code 1 - (1 - s^rows)^bands}: при настройках по умолчанию (16 полос по 8) порог около 0.7:
+ * переписанное с другими именами решение проходит почти наверняка, а программы, лишь
+ * собранные из тех же конструкций, до сравнения подписей обычно не доходят.
+ * <p>
+ * Деревья после добавления не хранятся — только идентификатор и подпись, поэтому индекс на
+ * сотни тысяч программ помещается в память и быстро {@link #save сохраняется}. Добавлять
+ * можно по одному в любой момент, в том числе из нескольких потоков; запросы идут параллельно
+ * с добавлением.
+ */
+public class SimilarityIndex {
+    private static final int FORMAT_VERSION = 2;
+    private static final byte[] MAGIC = {'M', 'T', 'S', 'I', FORMAT_VERSION};
+
+    public static final int DEFAULT_BANDS = 16;
+    public static final int DEFAULT_ROWS = 8;
+    public static final int DEFAULT_SHINGLE_DEPTH = 3;
+
+    /**
+     * Найденное похожее дерево.
+     *
+     * @param similarity оценка коэффициента Жаккара отпечатков, от 0 до 1
+     */
+    public record Match(String id, double similarity) {}
+
+    private final int bands;
+    private final int rows;
+    private final int shingleDepth;
+    private final long[] seeds;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> positions = new HashMap<>();
+    private final List<String> ids = new ArrayList<>();
+    /** Подписи подряд: {@code signatureLength} значений на дерево */
+    private long[] signatures = new long[0];
+    /** Следующая запись той же корзины для записи {@code tree * bands + band} или {@code -1} */
+    private int[] next = new int[0];
+    /** Открытая адресация: ключ полосы → первая запись корзины */
+    private long[] bucketKeys = new long[1024];
+    private int[] bucketHeads = filled(1024);
+    private int bucketCount = 0;
+
+    public SimilarityIndex() {
+        this(DEFAULT_BANDS, DEFAULT_ROWS, DEFAULT_SHINGLE_DEPTH);
+    }
+
+    /**
+     * @param bands        число полос LSH: больше полос — ниже порог похожести кандидатов
+     * @param rows         значений подписи в полосе: больше — круче порог
+     * @param shingleDepth глубина, до которой усекаются поддеревья отпечатка
+     */
+    public SimilarityIndex(int bands, int rows, int shingleDepth) {
+        if (bands < 1 || rows < 1 || shingleDepth < 1) {
+            throw new IllegalArgumentException("bands, rows and shingleDepth must be positive");
+        }
+        this.bands = bands;
+        this.rows = rows;
+        this.shingleDepth = shingleDepth;
+        this.seeds = new long[bands * rows];
+        long state = 0x2545F4914F6CDD1DL;
+        for (int i = 0; i < seeds.length; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            seeds[i] = scramble(state);
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ids.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(String id) {
+        lock.readLock().lock();
+        try {
+            return positions.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void add(String id, MeaningTree tree) {
+        add(id, tree.getRootNode());
+    }
+
+    /**
+     * Добавить дерево под идентификатором {@code id}. Отпечаток считается вне блокировки, так
+     * что добавление из нескольких потоков масштабируется.
+     *
+     * @throws IllegalArgumentException если такой идентификатор уже есть в индексе
+     */
+    public void add(String id, Node root) {
+        insert(id, signature(root));
+    }
+
+    /**
+     * До {@code limit} самых похожих на {@code tree} деревьев индекса, по убыванию похожести.
+     */
+    public List<Match> query(MeaningTree tree, int limit) {
+        return query(tree.getRootNode(), limit);
+    }
+
+    public List<Match> query(Node root, int limit) {
+        long[] signature = signature(root);
+        lock.readLock().lock();
+        try {
+            return search(signature, 0, -1, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * До {@code limit} самых похожих на уже добавленное дерево {@code id}, не считая его самого.
+     *
+     * @throws NoSuchElementException если такого идентификатора нет
+     */
+    public List<Match> querySimilar(String id, int limit) {
+        lock.readLock().lock();
+        try {
+            Integer position = positions.get(id);
+            if (position == null) {
+                throw new NoSuchElementException("Tree is not indexed: " + id);
+            }
+            return search(signatures, position * signatureLength(), position, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Оценка похожести двух деревьев без индекса — тем же способом, что и в запросах.
+     */
+    public double similarity(Node first, Node second) {
+        return agreement(signature(first), 0, signature(second), 0);
+    }
+
+    /* -----------------------------
+    |           Хранение            |
+    ------------------------------ */
+
+    /**
+     * Записать индекс в файл. Пишется во временный файл рядом и переносится на место атомарно.
+     */
+    public void save(Path path) throws IOException {
+        Path target = path.toAbsolutePath().normalize();
+        Path directory = target.getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            lock.readLock().lock();
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+                out.write(MAGIC);
+                out.writeInt(bands);
+                out.writeInt(rows);
+                out.writeInt(shingleDepth);
+                out.writeInt(ids.size());
+                int length = signatureLength();
+                for (int tree = 0; tree < ids.size(); tree++) {
+                    out.writeUTF(ids.get(tree));
+                    for (int k = 0; k < length; k++) {
+                        out.writeLong(signatures[tree * length + k]);
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            try {
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Прочитать индекс, записанный {@link #save}, с теми же настройками.
+     *
+     * @throws IOException если файл не является индексом этой версии или обрезан
+     */
+    public static SimilarityIndex load(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            if (!Arrays.equals(in.readNBytes(MAGIC.length), MAGIC)) {
+                throw new IOException("Not a similarity index of version " + FORMAT_VERSION + ": " + path);
+            }
+            SimilarityIndex index;
+            try {
+                index = new SimilarityIndex(in.readInt(), in.readInt(), in.readInt());
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Corrupted similarity index: " + path, e);
+            }
+            int count = in.readInt();
+            int length = index.signatureLength();
+            for (int tree = 0; tree < count; tree++) {
+                String id = in.readUTF();
+                long[] signature = new long[length];
+                for (int k = 0; k < length; k++) {
+                    signature[k] = in.readLong();
+                }
+                index.insert(id, signature);
+            }
+            return index;
+        }
+    }
+
+    /* -----------------------------
+    |            MinHash            |
+    ------------------------------ */
+
+    private int signatureLength() {
+        return bands * rows;
+    }
+
+    private long[] signature(Node root) {
+        long[] shingles = TreeFingerprint.shingles(root, shingleDepth);
+        long[] signature = new long[seeds.length];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (long shingle : shingles) {
+            for (int k = 0; k < seeds.length; k++) {
+                long value = scramble(shingle ^ seeds[k]);
+                if (value < signature[k]) {
+                    signature[k] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    private double agreement(long[] first, int firstOffset, long[] second, int secondOffset) {
+        int length = signatureLength();
+        int equal = 0;
+        for (int k = 0; k < length; k++) {
+            if (first[firstOffset + k] == second[secondOffset + k]) {
+                equal++;
+            }
+        }
+        return (double) equal / length;
+    }
+
+    private long bandKey(long[] signature, int offset, int band) {
+        long h = band;
+        for (int k = 0; k < rows; k++) {
+            h = TreeFingerprint.mix(h, signature[offset + band * rows + k]);
+        }
+        return h;
+    }
+
+    /**
+     * Финализатор MurmurHash3: независимые перестановки для MinHash получаются из него
+     * подмешиванием разных зёрен.
+     */
+    private static long scramble(long x) {
+        x ^= x >>> 33;
+        x *= 0xFF51AFD7ED558CCDL;
+        x ^= x >>> 33;
+        x *= 0xC4CEB9FE1A85EC53L;
+        x ^= x >>> 33;
+        return x;
+    }
+
+    /* -----------------------------
+    |              LSH              |
+    ------------------------------ */
+
+    private void insert(String id, long[] signature) {
+        lock.writeLock().lock();
+        try {
+            if (positions.containsKey(id)) {
+                throw new IllegalArgumentException("Tree is already indexed: " + id);
+            }
+            int tree = ids.size();
+            int length = signatureLength();
+            if ((tree + 1) * length > signatures.length) {
+                int capacity = Math.max(16, tree * 2);
+                signatures = Arrays.copyOf(signatures, capacity * length);
+                next = Arrays.copyOf(next, capacity * bands);
+            }
+            System.arraycopy(signature, 0, signatures, tree * length, length);
+            positions.put(id, tree);
+            ids.add(id);
+            for (int band = 0; band < bands; band++) {
+                long key = bandKey(signature, 0, band);
+                int slot = findSlot(key);
+                if (bucketHeads[slot] == -1) {
+                    bucketKeys[slot] = key;
+                    bucketCount++;
+                }
+                next[tree * bands + band] = bucketHeads[slot];
+                bucketHeads[slot] = tree * bands + band;
+                if (bucketCount * 2 > bucketKeys.length) {
+                    rehash();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<Match> search(long[] signature, int offset, int exclude, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        // Худший из лучших наверху; при равной похожести раньше добавленное дерево лучше
+        PriorityQueue<int[]> best = new PriorityQueue<>(limit + 1, (x, y) -> x[1] != y[1]
+                ? Integer.compare(x[1], y[1]) : Integer.compare(y[0], x[0]));
+        Set<Integer> seen = new HashSet<>();
+        int length = signatureLength();
+        for (int band = 0; band < bands; band++) {
+            int slot = findSlot(bandKey(signature, offset, band));
+            for (int entry = bucketHeads[slot]; entry != -1; entry = next[entry]) {
+                int tree = entry / bands;
+                if (tree == exclude || !seen.add(tree)) {
+                    continue;
+                }
+                int equal = 0;
+                for (int k = 0; k < length; k++) {
+                    if (signatures[tree * length + k] == signature[offset + k]) {
+                        equal++;
+                    }
+                }
+                best.add(new int[] {tree, equal});
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+        List<Match> result = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            int[] candidate = best.poll();
+            result.add(new Match(ids.get(candidate[0]), (double) candidate[1] / length));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    private int findSlot(long key) {
+        int mask = bucketKeys.length - 1;
+        int slot = (int) scramble(key) & mask;
+        while (bucketHeads[slot] != -1 && bucketKeys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        long[] oldKeys = bucketKeys;
+        int[] oldHeads = bucketHeads;
+        bucketKeys = new long[oldKeys.length * 2];
+        bucketHeads = filled(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldHeads[i] != -1) {
+                int slot = findSlot(oldKeys[i]);
+                bucketKeys[slot] = oldKeys[i];
+                bucketHeads[slot] = oldHeads[i];
+            }
+        }
+    }
+
+    private static int[] filled(int length) {
+        int[] result = new int[length];
+        Arrays.fill(result, -1);
+        return result;
+    }
+}
@@ -0,0 +1,161 @@
+package org.vstu.meaningtree.utils.similarity;
+
+import org.vstu.meaningtree.iterators.utils.TreeNode;
+import org.vstu.meaningtree.nodes.Node;
+import org.vstu.meaningtree.nodes.expressions.literals.FloatLiteral;
+import org.vstu.meaningtree.nodes.expressions.literals.IntegerLiteral;
+import org.vstu.meaningtree.nodes.expressions.literals.NumericLiteral;
+import org.vstu.meaningtree.nodes.statements.loops.ForEachLoop;
+import org.vstu.meaningtree.nodes.statements.loops.ForLoop;
+import org.vstu.meaningtree.nodes.statements.loops.GeneralForLoop;
+import org.vstu.meaningtree.nodes.statements.loops.RangeForLoop;
+
+import java.lang.reflect.Field;
+import java.util.*;
+
+/**
+ * Отпечаток дерева для поиска похожих: множество хэшей нормализованных поддеревьев,
+ * усечённых по глубине.
+ * <p>
+ * Нормализация отбрасывает всё, что меняется при переписывании чужого решения без изменения
+ * его устройства: собственные значения узлов (имена идентификаторов, значения литералов) в
+ * хэш не входят вовсе, а два вида узлов сводятся к общему предку в иерархии {@link Node}:
+ * целый и вещественный литерал — к числовому, {@code for} с заголовком и цикл по диапазону —
+ * к счётному циклу (Java и C++ пишут первый, Python — второй). Остальные виды, в том числе
+ * {@link ForEachLoop}, {@code this}/{@code self} и метки переходов, не сводятся: они меняют
+ * устройство решения. Остаются тип узла и упорядоченные дети, так что одно и то же решение
+ * на Java, Python и C++ даёт почти одинаковые множества.
+ * <p>
+ * Поддерево узла усекается до {@code depth} уровней: целые поддеревья большой программы почти
+ * все уникальны, а короткие «черепицы» переживают локальные правки.
+ */
+final class TreeFingerprint {
+    /**
+     * Вид узла → общий предок, к которому он сводится. Сравнение точное: подклассы сюда не
+     * попадают, пока их не перечислят явно.
+     */
+    private static final Map<Class<?>, Class<?>> ABSTRACTIONS = Map.of(
+            IntegerLiteral.class, NumericLiteral.class,
+            FloatLiteral.class, NumericLiteral.class,
+            GeneralForLoop.class, ForLoop.class,
+            RangeForLoop.class, ForLoop.class);
+
+    private static final ClassValue<Long> TYPE_HASH = new ClassValue<>() {
+        @Override
+        protected Long computeValue(Class<?> type) {
+            Class<?> normalized = ABSTRACTIONS.getOrDefault(type, type);
+            return mix(0x5EEDL, normalized.getName().hashCode());
+        }
+    };
+
+    private static final ClassValue<Field[]> CHILD_FIELDS = new ClassValue<>() {
+        @Override
+        protected Field[] computeValue(Class<?> type) {
+            List<Field> result = new ArrayList<>();
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (field.isAnnotationPresent(TreeNode.class)) {
+                        field.setAccessible(true);
+                        result.add(field);
+                    }
+                }
+            }
+            return result.toArray(new Field[0]);
+        }
+    };
+
+    private TreeFingerprint() {}
+
+    /**
+     * Отсортированные различные хэши поддеревьев высотой от 2 до {@code depth} уровней для
+     * каждого узла. Лист даёт хэш своего типа.
+     */
+    static long[] shingles(Node root, int depth) {
+        // Прямой обход: родитель всегда раньше детей
+        Node[] nodes = new Node[64];
+        int[] parent = new int[64];
+        int size = 0;
+        ArrayDeque<Node> stack = new ArrayDeque<>();
+        ArrayDeque<Integer> stackParent = new ArrayDeque<>();
+        stack.push(root);
+        stackParent.push(-1);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                parent = Arrays.copyOf(parent, size * 2);
+            }
+            nodes[size] = node;
+            parent[size] = stackParent.pop();
+            int position = size++;
+            for (Field field : CHILD_FIELDS.get(node.getClass())) {
+                Object value;
+                try {
+                    value = field.get(node);
+                } catch (IllegalAccessException e) {
+                    continue;
+                }
+                if (value instanceof Optional<?> optional) {
+                    value = optional.orElse(null);
+                }
+                if (value instanceof Node child) {
+                    stack.push(child);
+                    stackParent.push(position);
+                } else if (value instanceof Node[] array) {
+                    for (Node child : array) {
+                        if (child != null) {
+                            stack.push(child);
+                            stackParent.push(position);
+                        }
+                    }
+                } else if (value instanceof Collection<?> collection) {
+                    for (Object element : collection) {
+                        if (element instanceof Node child) {
+                            stack.push(child);
+                            stackParent.push(position);
+                        }
+                    }
+                }
+            }
+        }
+
+        // level[k][i] — хэш поддерева узла i, усечённого до k + 1 уровней. Дети обрабатываются
+        // раньше родителя и сразу подмешиваются в его накопитель
+        long[][] level = new long[depth][size];
+        for (int i = 0; i < size; i++) {
+            long type = TYPE_HASH.get(nodes[i].getClass());
+            for (int k = 0; k < depth; k++) {
+                level[k][i] = type;
+            }
+        }
+        long[] result = new long[size * Math.max(1, depth - 1)];
+        int count = 0;
+        for (int i = size - 1; i >= 0; i--) {
+            for (int k = 1; k < depth; k++) {
+                level[k][i] = mix(level[k][i], k);
+                result[count++] = level[k][i];
+            }
+            if (depth == 1) {
+                result[count++] = level[0][i];
+            }
+            if (parent[i] != -1) {
+                for (int k = 1; k < depth; k++) {
+                    level[k][parent[i]] = mix(level[k][parent[i]], level[k - 1][i]);
+                }
+            }
+        }
+        Arrays.sort(result, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || result[distinct - 1] != result[i]) {
+                result[distinct++] = result[i];
+            }
+        }
+        return Arrays.copyOf(result, distinct);
+    }
+
+    static long mix(long h, long value) {
+        h = (h ^ value) * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+}
@@ -0,0 +1,300 @@
+package org.vstu.meaningtree.utils.tokens;
+
+import org.jetbrains.annotations.Nullable;
+import org.vstu.meaningtree.utils.BytePosition;
+
+import java.util.*;
+
+/**
+ * Компактное хранилище последовательности токенов: параллельные примитивные массивы вместо
+ * объекта на каждый токен.
+ * <p>
+ * Тип, значение (индекс в таблице интернированных строк), id и байтовая позиция лежат в
+ * столбцах. Простые токены ({@link Token} и {@link OperandToken} без привязанного значения и
+ * владельца) хранятся только в столбцах; у операнда дополнительно запоминаются id оператора и
+ * позиция. Остальные токены — операторы, псевдотокены, токены со значениями — хранятся
+ * целиком в разреженной таблице, но их столбцы тоже заполнены, так что проход по типам и
+ * значениям объектов не трогает.
+ * <p>
+ * {@link #get(int)} собирает представление простого токена по требованию, с тем же id.
+ * Представление — снимок: его изменение в хранилище не попадает. Добавление идёт мимо хуков
+ * {@link TokenList}: хранилище для чтения и сериализации, а не для пошагового редактирования.
+ */
+public class CompactTokenList extends AbstractList<Token> implements RandomAccess {
+    private static final byte PLAIN = 0;
+    private static final byte OPERAND = 1;
+    private static final byte RICH = 2;
+
+    private static final TokenType[] TYPES = TokenType.values();
+    private static final OperandPosition[] POSITIONS = OperandPosition.values();
+
+    private int size = 0;
+    private byte[] kinds;
+    private byte[] types;
+    private int[] values;
+    private long[] ids;
+    /** Смещение в байтах или {@code -1}, если позиции нет */
+    private int[] byteStarts;
+    private int[] byteLengths;
+    /** Для операндов: id оператора и номер позиции ({@code -1}, если позиции нет) */
+    private long[] operandOf;
+    private byte[] operandPositions;
+
+    private final List<String> valueTable = new ArrayList<>();
+    private final Map<String, Integer> valueIndex = new HashMap<>();
+    private final Map<Integer, Token> richTokens = new HashMap<>();
+    private final Map<Long, OperatorToken> operators = new HashMap<>();
+
+    public CompactTokenList() {
+        this(16);
+    }
+
+    public CompactTokenList(int capacity) {
+        capacity = Math.max(capacity, 1);
+        kinds = new byte[capacity];
+        types = new byte[capacity];
+        values = new int[capacity];
+        ids = new long[capacity];
+        byteStarts = new int[capacity];
+        byteLengths = new int[capacity];
+        operandOf = new long[capacity];
+        operandPositions = new byte[capacity];
+    }
+
+    public static CompactTokenList of(Collection<? extends Token> tokens) {
+        CompactTokenList result = new CompactTokenList(tokens.size());
+        result.appendAll(tokens);
+        return result;
+    }
+
+    /* --------------------------- Добавление --------------------------- */
+
+    /**
+     * Добавить простой токен без создания объекта. Id выдаётся из общего счётчика токенов.
+     *
+     * @param byteStart смещение в байтах или {@code -1}, если позиции нет
+     * @return индекс добавленного токена
+     */
+    public int append(TokenType type, String value, int byteStart, int byteLength) {
+        int index = reserve(PLAIN, type, value, Token.nextId());
+        byteStarts[index] = byteStart;
+        byteLengths[index] = byteStart < 0 ? 0 : byteLength;
+        return index;
+    }
+
+    /**
+     * Добавить токен. Простые токены раскладываются по столбцам, остальные сохраняются как есть.
+     *
+     * @return индекс добавленного токена
+     */
+    public int append(Token token) {
+        Objects.requireNonNull(token, "token must not be null");
+        byte kind = kindOf(token);
+        int index = reserve(kind, token.type, token.value, token.getId());
+        BytePosition position = token.bytePos();
+        if (position != null && position.offset() <= Integer.MAX_VALUE) {
+            byteStarts[index] = (int) position.offset();
+            byteLengths[index] = position.length();
+        } else {
+            byteStarts[index] = -1;
+            byteLengths[index] = 0;
+        }
+        if (kind == OPERAND) {
+            OperandToken operand = (OperandToken) token;
+            OperatorToken operator = operand.operandOf();
+            if (operator != null) {
+                operators.putIfAbsent(operator.getId(), operator);
+                operandOf[index] = operator.getId();
+            }
+            operandPositions[index] = operand.operandPosition() == null ? -1 : (byte) operand.operandPosition().ordinal();
+        } else if (kind == RICH) {
+            richTokens.put(index, token);
+            if (token instanceof OperatorToken operator) {
+                operators.putIfAbsent(operator.getId(), operator);
+            }
+        }
+        return index;
+    }
+
+    public void appendAll(Collection<? extends Token> tokens) {
+        ensureCapacity(size + tokens.size());
+        for (Token token : tokens) {
+            append(token);
+        }
+    }
+
+    @Override
+    public boolean add(Token token) {
+        append(token);
+        return true;
+    }
+
+    private static byte kindOf(Token token) {
+        if (token.getAssignedValue() != null || token.belongsTo() != null) {
+            return RICH;
+        }
+        if (token.getClass() == Token.class) {
+            return PLAIN;
+        }
+        if (token.getClass() == OperandToken.class) {
+            return OPERAND;
+        }
+        return RICH;
+    }
+
+    private int reserve(byte kind, TokenType type, String value, long id) {
+        ensureCapacity(size + 1);
+        int index = size++;
+        kinds[index] = kind;
+        types[index] = (byte) type.ordinal();
+        values[index] = intern(value);
+        ids[index] = id;
+        operandOf[index] = 0;
+        operandPositions[index] = -1;
+        modCount++;
+        return index;
+    }
+
+    private int intern(String value) {
+        Integer index = valueIndex.get(value);
+        if (index == null) {
+            index = valueTable.size();
+            valueTable.add(value);
+            valueIndex.put(value, index);
+        }
+        return index;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= kinds.length) {
+            return;
+        }
+        int capacity = Math.max(required, kinds.length + (kinds.length >> 1));
+        kinds = Arrays.copyOf(kinds, capacity);
+        types = Arrays.copyOf(types, capacity);
+        values = Arrays.copyOf(values, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        byteStarts = Arrays.copyOf(byteStarts, capacity);
+        byteLengths = Arrays.copyOf(byteLengths, capacity);
+        operandOf = Arrays.copyOf(operandOf, capacity);
+        operandPositions = Arrays.copyOf(operandPositions, capacity);
+    }
+
+    /* ----------------------------- Столбцы ----------------------------- */
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public TokenType type(int index) {
+        Objects.checkIndex(index, size);
+        return TYPES[types[index]];
+    }
+
+    public String value(int index) {
+        Objects.checkIndex(index, size);
+        return valueTable.get(values[index]);
+    }
+
+    public long id(int index) {
+        Objects.checkIndex(index, size);
+        return ids[index];
+    }
+
+    public boolean hasBytePosition(int index) {
+        Objects.checkIndex(index, size);
+        return byteStarts[index] >= 0;
+    }
+
+    public int byteStart(int index) {
+        Objects.checkIndex(index, size);
+        return byteStarts[index];
+    }
+
+    public int byteLength(int index) {
+        Objects.checkIndex(index, size);
+        return byteLengths[index];
+    }
+
+    /**
+     * Хранится ли токен целиком, а не в столбцах.
+     */
+    public boolean isStoredAsObject(int index) {
+        Objects.checkIndex(index, size);
+        return kinds[index] == RICH;
+    }
+
+    public boolean isOperand(int index) {
+        Objects.checkIndex(index, size);
+        return kinds[index] == OPERAND || (kinds[index] == RICH && richTokens.get(index) instanceof OperandToken);
+    }
+
+    /**
+     * Оператор, операндом которого является токен, либо {@code null}.
+     */
+    @Nullable
+    public OperatorToken operandOf(int index) {
+        Objects.checkIndex(index, size);
+        return switch (kinds[index]) {
+            case OPERAND -> operators.get(operandOf[index]);
+            case RICH -> richTokens.get(index) instanceof OperandToken operand ? operand.operandOf() : null;
+            default -> null;
+        };
+    }
+
+    @Nullable
+    public OperandPosition operandPosition(int index) {
+        Objects.checkIndex(index, size);
+        return switch (kinds[index]) {
+            case OPERAND -> operandPositions[index] < 0 ? null : POSITIONS[operandPositions[index]];
+            case RICH -> richTokens.get(index) instanceof OperandToken operand ? operand.operandPosition() : null;
+            default -> null;
+        };
+    }
+
+    /**
+     * Число различных значений токенов в таблице интернированных строк.
+     */
+    public int distinctValues() {
+        return valueTable.size();
+    }
+
+    /* -------------------------- Представления -------------------------- */
+
+    /**
+     * Токен по индексу. Токены, хранящиеся целиком, возвращаются как есть; для остальных
+     * собирается новое представление с тем же id.
+     */
+    @Override
+    public Token get(int index) {
+        Objects.checkIndex(index, size);
+        if (kinds[index] == RICH) {
+            return richTokens.get(index);
+        }
+        String value = valueTable.get(values[index]);
+        TokenType type = TYPES[types[index]];
+        Token token;
+        if (kinds[index] == OPERAND) {
+            OperandToken operand = new OperandToken(value, type, ids[index]);
+            operand.setMetadata(operators.get(operandOf[index]), operandPosition(index));
+            token = operand;
+        } else {
+            token = new Token(value, type, ids[index]);
+        }
+        if (byteStarts[index] >= 0) {
+            token.setBytePosition(new BytePosition(byteStarts[index], byteLengths[index]));
+        }
+        return token;
+    }
+
+    /**
+     * Обычный {@link TokenList} со всеми токенами; заполняется без срабатывания его хуков.
+     */
+    public TokenList toTokenList() {
+        TokenList result = new TokenList();
+        result.ensureCapacity(size);
+        result.addAllSilent(this);
+        return result;
+    }
+}
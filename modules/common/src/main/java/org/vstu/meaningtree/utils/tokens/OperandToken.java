@@ -36,6 +36,10 @@ public class OperandToken extends Token {
         super(value, type);
     }
 
+    OperandToken(String value, TokenType type, long id) {
+        super(value, type, id);
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(super.hashCode(), operandOf, operandPos);
@@ -17,12 +17,24 @@ public class Token implements Serializable {
     protected static int idCounter = 0;
 
     protected Object assignedValue = null;
-    private long id = _id_generator.incrementAndGet();
+    private final long id;
     protected BytePosition bytePos = null;
 
     public Token(String value, TokenType type) {
+        this(value, type, nextId());
+    }
+
+    /**
+     * Токен с уже выданным id — для представлений {@link CompactTokenList}.
+     */
+    Token(String value, TokenType type, long id) {
         this.value = value;
         this.type = type;
+        this.id = id;
+    }
+
+    static long nextId() {
+        return _id_generator.incrementAndGet();
     }
 
     /** Может быть недоступно в случае выбора tokenizeExtended (detailedToken)*/
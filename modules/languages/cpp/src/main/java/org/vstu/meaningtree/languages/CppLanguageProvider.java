@@ -0,0 +1,25 @@
+package org.vstu.meaningtree.languages;
+
+import org.vstu.meaningtree.languages.configs.Config;
+
+public class CppLanguageProvider implements LanguageProvider {
+    @Override
+    public String getLanguageName() {
+        return "c++";
+    }
+
+    @Override
+    public int getLanguageId() {
+        return CppTranslator.ID;
+    }
+
+    @Override
+    public Class<? extends LanguageTranslator> getTranslatorClass() {
+        return CppTranslator.class;
+    }
+
+    @Override
+    public LanguageTranslator create(Config config) {
+        return new CppTranslator(config);
+    }
+}
@@ -7,6 +7,7 @@ import org.treesitter.TSNode;
 import org.treesitter.TreeSitterCpp;
 import org.vstu.meaningtree.MeaningTree;
 import org.vstu.meaningtree.exceptions.UnsupportedParsingException;
+import org.vstu.meaningtree.languages.configs.TranslationUnitMode;
 import org.vstu.meaningtree.nodes.*;
 import org.vstu.meaningtree.nodes.declarations.*;
 import org.vstu.meaningtree.nodes.declarations.components.DeclarationArgument;
@@ -75,7 +76,7 @@ import java.util.List;
 
 public class CppParser extends LanguageParser {
     public CppParser(LanguageTranslator translator) {
-        super(translator, new TreeSitterCpp());
+        super(translator, () -> new TreeSitterCpp());
         configureTsNodeHandlers();
     }
 
@@ -147,7 +148,7 @@ public class CppParser extends LanguageParser {
 
         TSNode rootNode = getRootNode();
         List<String> errors = lookupErrors(rootNode);
-        if (!errors.isEmpty() && !getConfigParameter("skipErrors").asBoolean()) {
+        if (!errors.isEmpty() && !settings().skipErrors()) {
             throw new UnsupportedParsingException(String.format("Given code has syntax errors: %s", errors));
         }
 
@@ -159,7 +160,7 @@ public class CppParser extends LanguageParser {
         // Оборачиваем функцию main в узел ProgramEntryPoint
         if (node instanceof FunctionDefinition functionDefinition
                 && functionDefinition.getName().toString().equals("main")) {
-            if (getConfigParameter("translationUnitMode").equalsValue("simple")) {
+            if (settings().translationUnitMode() == TranslationUnitMode.SIMPLE) {
                 node = new ProgramEntryPoint(List.of(functionDefinition.getBody().getNodes()), node);
             } else {
                 node = new ProgramEntryPoint(List.of(node), node);
@@ -1697,7 +1698,7 @@ public class CppParser extends LanguageParser {
                     && functionDefinition.getName().toString().equals("main")
             ) {
                 entryPoint = n;
-                if (getConfigParameter("translationUnitMode").equalsValue("simple")) {
+                if (settings().translationUnitMode() == TranslationUnitMode.SIMPLE) {
                     n = new ProgramEntryPoint(List.of(functionDefinition.getBody().getNodes()), n);
                     return n;
                 }
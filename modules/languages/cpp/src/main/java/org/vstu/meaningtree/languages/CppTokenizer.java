@@ -424,6 +424,18 @@ public class CppTokenizer extends LanguageTokenizer {
         return result;
     }
 
+    @Override
+    protected boolean emitsTokensDirectly(Node node) {
+        return node instanceof BinaryExpression || node instanceof UnaryExpression
+                || node instanceof AssignmentExpression || node instanceof CastTypeExpression
+                || node instanceof MemberAccess || node instanceof CompoundComparison
+                || node instanceof TernaryOperator || node instanceof ParenthesizedExpression
+                || (node instanceof IndexExpression index && !(index.getIndex() instanceof ExpressionSequence))
+                || (node instanceof FunctionCall call
+                        && (call instanceof MethodCall || call.getFunction() instanceof SimpleIdentifier));
+    }
+
+    @Override
     public TokenGroup tokenizeExtended(Node node, TokenList result) {
         if (node instanceof BinaryExpression expr) {
             node = this.viewer.parenFiller.process(expr);
@@ -556,9 +568,7 @@ public class CppTokenizer extends LanguageTokenizer {
                 result.add(new Token(";", TokenType.SEPARATOR));
             }
             default ->  {
-                String s = viewer.toString(node);
-                TokenList tokens = tokenize(s);
-                result.addAll(tokens.subList(0, tokens.getLast().type == TokenType.SEPARATOR ? tokens.size() - 1 : tokens.size()));
+                tokenizeRendered(node, result, true);
             }
         }
         int posStop = result.size();
@@ -724,8 +734,7 @@ public class CppTokenizer extends LanguageTokenizer {
             default -> null;
         };
         if (operator == null) {
-            String s = viewer.toString(unaryOp);
-            result.addAll(tokenize(s));
+            tokenizeRendered(unaryOp, result, false);
             return;
         }
         TokenGroup op;
@@ -858,8 +867,7 @@ public class CppTokenizer extends LanguageTokenizer {
             return;
         }
         if (operator == null) {
-            String s = viewer.toString(binOp);
-            result.addAll(tokenize(s));
+            tokenizeRendered(binOp, result, false);
             return;
         }
         TokenGroup left = tokenizeExtended(binOp.getLeft(), result);
@@ -8,6 +8,7 @@ import org.vstu.meaningtree.utils.tokens.Token;
 import org.vstu.meaningtree.utils.tokens.TokenList;
 import org.vstu.meaningtree.utils.tokens.TokenType;
 
+import java.util.List;
 import java.util.Map;
 
 public class CppTranslator extends LanguageTranslator {
@@ -38,6 +39,11 @@ public class CppTranslator extends LanguageTranslator {
         return "c++";
     }
 
+    @Override
+    public List<String> getFileExtensions() {
+        return List.of(".cpp", ".cc", ".cxx", ".c", ".hpp", ".hh", ".hxx", ".h");
+    }
+
     @Override
     protected Config extendConfigParameters() {
         var cMode = ConfigParameters.registerIfNotExists(this, "preferC", new ConfigValue(false), ConfigScope.ANY);
@@ -4,6 +4,8 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.vstu.meaningtree.MeaningTree;
 import org.vstu.meaningtree.exceptions.UnsupportedViewingException;
+import org.vstu.meaningtree.languages.configs.Config;
+import org.vstu.meaningtree.languages.configs.TranslationUnitMode;
 import org.vstu.meaningtree.languages.helpers.ComprehensionLowerer;
 import org.vstu.meaningtree.languages.helpers.LoopElseLowerer;
 import org.vstu.meaningtree.languages.support.features.NonDirectionalRangeForFeature;
@@ -90,6 +92,13 @@ public class CppViewer extends LanguageViewer {
         configureSupportAndRenderers();
     }
 
+    @Override
+    public void setConfig(Config config) {
+        super.setConfig(config);
+        _preferC = config.get("preferC").asBoolean();
+        _preferHeapAlloc = config.get("preferHeapAlloc").asBoolean();
+    }
+
     @Override
     protected MeaningTree preprocessTree(MeaningTree tree) {
         return LoopElseLowerer.lower(comprehensionLowered(tree));
@@ -256,6 +265,8 @@ public class CppViewer extends LanguageViewer {
     private final boolean _openBracketOnSameLine;
     private final boolean _bracketsAroundCaseBranches;
     private final boolean _autoVariableDeclaration;
+    private boolean _preferC;
+    private boolean _preferHeapAlloc;
 
 
     /*******************************************************************/
@@ -1472,7 +1483,7 @@ public class CppViewer extends LanguageViewer {
         // TODO: required main function creation or expression mode
 
         String prefix = isCMode() && requiresCStandardLibrary(entryPoint) ? "#include <stdlib.h>\n" : "";
-        if (getConfigParameter("translationUnitMode").equalsValue("full") && !entryPoint.hasEntryPoint()) {
+        if (settings().translationUnitMode() == TranslationUnitMode.FULL && !entryPoint.hasEntryPoint()) {
             return prefix + makeSimpleProgram(entryPoint.getBody());
         }
 
@@ -1577,7 +1588,7 @@ public class CppViewer extends LanguageViewer {
     }
 
     private boolean usesHeapArrayAllocation(VariableDeclaration declaration) {
-        if (isCMode() || !getConfigParameter("preferHeapAlloc").asBoolean()
+        if (isCMode() || !_preferHeapAlloc
                 || !(declaration.getType() instanceof ArrayType)) {
             return false;
         }
@@ -1586,7 +1597,7 @@ public class CppViewer extends LanguageViewer {
     }
 
     private boolean shouldUseHeapAllocation(NewExpression newExpression) {
-        return getConfigParameter("preferHeapAlloc").asBoolean() && !newExpression.isStackAllocated();
+        return _preferHeapAlloc && !newExpression.isStackAllocated();
     }
 
     @NotNull
@@ -1813,7 +1824,7 @@ public class CppViewer extends LanguageViewer {
     }
 
     private boolean isCMode() {
-        return getConfigParameter("preferC").asBoolean();
+        return _preferC;
     }
 
     @NotNull
@@ -0,0 +1,25 @@
+package org.vstu.meaningtree.languages;
+
+import org.vstu.meaningtree.languages.configs.Config;
+
+public class JavaLanguageProvider implements LanguageProvider {
+    @Override
+    public String getLanguageName() {
+        return "java";
+    }
+
+    @Override
+    public int getLanguageId() {
+        return JavaTranslator.ID;
+    }
+
+    @Override
+    public Class<? extends LanguageTranslator> getTranslatorClass() {
+        return JavaTranslator.class;
+    }
+
+    @Override
+    public LanguageTranslator create(Config config) {
+        return new JavaTranslator(config);
+    }
+}
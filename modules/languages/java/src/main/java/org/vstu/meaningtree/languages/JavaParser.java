@@ -6,6 +6,7 @@ import org.jetbrains.annotations.Nullable;
 import org.treesitter.*;
 import org.vstu.meaningtree.MeaningTree;
 import org.vstu.meaningtree.exceptions.UnsupportedParsingException;
+import org.vstu.meaningtree.languages.configs.TranslationUnitMode;
 import org.vstu.meaningtree.nodes.*;
 import org.vstu.meaningtree.nodes.declarations.*;
 import org.vstu.meaningtree.nodes.declarations.components.DeclarationArgument;
@@ -69,7 +70,7 @@ public class JavaParser extends LanguageParser {
     private final Map<String, UserType> _userTypes;
 
     public JavaParser(LanguageTranslator translator) {
-        super(translator, new TreeSitterJava());
+        super(translator, () -> new TreeSitterJava());
         _userTypes = new HashMap<>();
         configureTsNodeHandlers();
     }
@@ -134,7 +135,7 @@ public class JavaParser extends LanguageParser {
         setCode(code);
         TSNode rootNode = getRootNode();
         List<String> errors = lookupErrors(rootNode);
-        if (!errors.isEmpty() && !getConfigParameter("skipErrors").asBoolean()) {
+        if (!errors.isEmpty() && !settings().skipErrors()) {
             throw new UnsupportedParsingException(String.format("Given code has syntax errors: %s", errors));
         }
 
@@ -1298,7 +1299,7 @@ public class JavaParser extends LanguageParser {
 
         List<VariableDeclarator> declarators = new ArrayList<>();
 
-        TSQuery all_declarators = new TSQuery(_tsLanguage, "(variable_declarator) @decls");
+        TSQuery all_declarators = new TSQuery(tsLanguage(), "(variable_declarator) @decls");
         TSQueryCursor cursor = new TSQueryCursor();
         cursor.exec(all_declarators, node);
         TSQueryMatch match = new TSQueryMatch();
@@ -1352,10 +1353,10 @@ public class JavaParser extends LanguageParser {
         /*
         Node[] nodes = builder.getCurrentNodes();
         if (
-                (nodes.length > 1 && getConfigParameter("expressionMode").getBooleanValue())
+                (nodes.length > 1 && settings().isExpressionMode())
                         || (nodes.length > 0 && !(nodes[0] instanceof ExpressionStatement) &&
                         !(nodes[0] instanceof AssignmentStatement) &&
-                        !(nodes[0] instanceof Expression) && getConfigParameter("expressionMode").getBooleanValue()
+                        !(nodes[0] instanceof Expression) && settings().isExpressionMode()
                         )
         ) {
             throw new UnsupportedParsingException("Cannot parse the code as expression in expression mode");
@@ -1365,11 +1366,11 @@ public class JavaParser extends LanguageParser {
 
         List<Node> body = statements.getNodes();
 
-        if (mainMethod != null && getConfigParameter("translationUnitMode").equalsValue("simple")) {
+        if (mainMethod != null && settings().translationUnitMode() == TranslationUnitMode.SIMPLE) {
             return new ProgramEntryPoint(Arrays.asList(mainMethod.getBody().getNodes()), mainClass, mainMethod);
         }
 
-        if (mainMethod != null && getConfigParameter("translationUnitMode").equalsValue("procedural")) {
+        if (mainMethod != null && settings().translationUnitMode() == TranslationUnitMode.PROCEDURAL) {
             return JavaProceduralProgramTransformer.transform(body, mainClass, mainMethod);
         }
 
@@ -393,6 +393,19 @@ public class JavaTokenizer extends LanguageTokenizer {
         return result;
     }
 
+    @Override
+    protected boolean emitsTokensDirectly(Node node) {
+        return node instanceof BinaryExpression || node instanceof UnaryExpression
+                || node instanceof AssignmentExpression || node instanceof CastTypeExpression
+                || node instanceof MemberAccess || node instanceof CompoundComparison
+                || node instanceof IndexExpression || node instanceof TernaryOperator
+                || node instanceof ParenthesizedExpression
+                || node instanceof ObjectNewExpression || node instanceof ArrayNewExpression
+                || (node instanceof FunctionCall call
+                        && (call instanceof MethodCall || call.getFunction() instanceof SimpleIdentifier));
+    }
+
+    @Override
     public TokenGroup tokenizeExtended(Node node, TokenList result) {
         if (node instanceof BinaryExpression expr) {
             node = this.viewer.parenFiller.process(expr);
@@ -492,9 +505,7 @@ public class JavaTokenizer extends LanguageTokenizer {
                 result.add(new Token(";", TokenType.SEPARATOR));
             }
             default -> {
-                String s = viewer.toString(node);
-                TokenList tokens = tokenize(s);
-                result.addAll(tokens.subList(0, tokens.getLast().type == TokenType.SEPARATOR ? tokens.size() - 1 : tokens.size()));
+                tokenizeRendered(node, result, true);
             }
         }
         int posStop = result.size();
@@ -612,8 +623,7 @@ public class JavaTokenizer extends LanguageTokenizer {
             default -> null;
         };
         if (operator == null) {
-            String s = viewer.toString(unaryOp);
-            result.addAll(tokenize(translator.prepareCode(s)));
+            tokenizeRendered(unaryOp, result, false);
             return;
         }
         TokenGroup op;
@@ -673,8 +683,7 @@ public class JavaTokenizer extends LanguageTokenizer {
             return;
         }
         if (operator == null) {
-            String s = viewer.toString(binOp);
-            result.addAll(tokenize(s));
+            tokenizeRendered(binOp, result, false);
             return;
         }
         TokenGroup left = tokenizeExtended(binOp.getLeft(), result);
@@ -5,6 +5,7 @@ import org.vstu.meaningtree.utils.tokens.Token;
 import org.vstu.meaningtree.utils.tokens.TokenList;
 import org.vstu.meaningtree.utils.tokens.TokenType;
 
+import java.util.List;
 import java.util.Map;
 
 public class JavaTranslator extends LanguageTranslator {
@@ -35,6 +36,11 @@ public class JavaTranslator extends LanguageTranslator {
         return "java";
     }
 
+    @Override
+    public List<String> getFileExtensions() {
+        return List.of(".java");
+    }
+
     @Override
     protected Config extendConfigParameters() {
         return null;
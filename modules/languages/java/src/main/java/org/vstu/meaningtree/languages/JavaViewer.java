@@ -4,6 +4,7 @@ import org.jetbrains.annotations.Nullable;
 import org.vstu.meaningtree.MeaningTree;
 import org.vstu.meaningtree.exceptions.MeaningTreeException;
 import org.vstu.meaningtree.exceptions.UnsupportedViewingException;
+import org.vstu.meaningtree.languages.configs.TranslationUnitMode;
 import org.vstu.meaningtree.languages.helpers.ComprehensionLowerer;
 import org.vstu.meaningtree.languages.helpers.LoopElseLowerer;
 import org.vstu.meaningtree.languages.support.SemanticFeature;
@@ -2276,7 +2277,7 @@ public class JavaViewer extends LanguageViewer {
     }
 
     public String toStringProgramEntryPoint(ProgramEntryPoint entryPoint) {
-        if (getConfigParameter("translationUnitMode").equalsValue("procedural") && entryPoint.hasMainClass()) {
+        if (settings().translationUnitMode() == TranslationUnitMode.PROCEDURAL && entryPoint.hasMainClass()) {
             entryPoint = JavaProceduralProgramTransformer.transform(
                     new ArrayList<>(entryPoint.getBody()),
                     entryPoint.getMainClass(),
@@ -2288,7 +2289,7 @@ public class JavaViewer extends LanguageViewer {
 
         List<Node> nodes = entryPoint.getBody();
 
-        if (getConfigParameter("translationUnitMode").equalsValue("full") && !entryPoint.hasMainClass()) {
+        if (settings().translationUnitMode() == TranslationUnitMode.FULL && !entryPoint.hasMainClass()) {
             return makeSimpleProgram(nodes);
         }
 
@@ -0,0 +1,25 @@
+package org.vstu.meaningtree.languages;
+
+import org.vstu.meaningtree.languages.configs.Config;
+
+public class PythonLanguageProvider implements LanguageProvider {
+    @Override
+    public String getLanguageName() {
+        return "python";
+    }
+
+    @Override
+    public int getLanguageId() {
+        return PythonTranslator.ID;
+    }
+
+    @Override
+    public Class<? extends LanguageTranslator> getTranslatorClass() {
+        return PythonTranslator.class;
+    }
+
+    @Override
+    public LanguageTranslator create(Config config) {
+        return new PythonTranslator(config);
+    }
+}
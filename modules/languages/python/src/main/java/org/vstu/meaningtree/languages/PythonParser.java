@@ -5,6 +5,7 @@ import org.treesitter.TSNode;
 import org.treesitter.TreeSitterPython;
 import org.vstu.meaningtree.MeaningTree;
 import org.vstu.meaningtree.exceptions.UnsupportedParsingException;
+import org.vstu.meaningtree.languages.configs.Config;
 import org.vstu.meaningtree.languages.utils.PythonSpecificFeatures;
 import org.vstu.meaningtree.nodes.*;
 import org.vstu.meaningtree.nodes.declarations.*;
@@ -63,11 +64,19 @@ import java.util.*;
 import java.util.stream.Stream;
 
 public class PythonParser extends LanguageParser {
+    private boolean ensureFixedListSize;
+
     public PythonParser(LanguageTranslator translator) {
-        super(translator, new TreeSitterPython());
+        super(translator, () -> new TreeSitterPython());
         configureTsNodeHandlers();
     }
 
+    @Override
+    public void setConfig(Config config) {
+        super.setConfig(config);
+        ensureFixedListSize = config.get("ensureFixedListSize").asBoolean();
+    }
+
     private void configureTsNodeHandlers() {
         registerTSNodeHandler("ERROR", Node.class, node -> parseTSNode(node.getChild(0)));
         registerTSNodeHandler("module", Node.class, this::createEntryPoint);
@@ -127,7 +136,7 @@ public class PythonParser extends LanguageParser {
         setCode(code);
         TSNode rootNode = getRootNode();
         List<String> errors = lookupErrors(rootNode);
-        if (!errors.isEmpty() && !getConfigParameter("skipErrors").asBoolean()) {
+        if (!errors.isEmpty() && !settings().skipErrors()) {
             throw new UnsupportedParsingException(String.format("Given code has syntax errors: %s", errors));
         }
         return new MeaningTree(parseTSNode(rootNode));
@@ -1186,7 +1195,7 @@ public class PythonParser extends LanguageParser {
             Type leftType = scopeTable.getVariableType(variableName);
             Type declaredType = node.getChildByFieldName("type") == null || node.getChildByFieldName("type").isNull() ? new UnknownType() :
                     (Type) parseTSNode(node.getChildByFieldName("type"));
-            if (getConfigParameter("ensureFixedListSize").asBoolean()
+            if (ensureFixedListSize
                     && rightExpr instanceof ArrayLiteral
                     && declaredType instanceof ListType listType) {
                 declaredType = fixedSizeArrayType(listType);
@@ -1250,7 +1259,7 @@ public class PythonParser extends LanguageParser {
             exprs.add(expr);
         }
         return switch (type) {
-            case "list" -> getConfigParameter("ensureFixedListSize").asBoolean()
+            case "list" -> ensureFixedListSize
                     ? new ArrayLiteral(exprs)
                     : new ListLiteral(exprs.toArray(new Expression[0]));
             case "tuple" -> new UnmodifiableListLiteral(exprs.toArray(new Expression[0]));
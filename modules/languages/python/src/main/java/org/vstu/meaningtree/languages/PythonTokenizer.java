@@ -381,6 +381,18 @@ public class PythonTokenizer extends LanguageTokenizer {
         return result;
     }
 
+    @Override
+    protected boolean emitsTokensDirectly(Node node) {
+        // Присваивание-выражение не берётся: токенизатор поддерживает его только для идентификаторов
+        return node instanceof BinaryExpression || node instanceof UnaryExpression
+                || node instanceof CastTypeExpression || node instanceof MemberAccess
+                || node instanceof CompoundComparison || node instanceof IndexExpression
+                || node instanceof TernaryOperator || node instanceof ParenthesizedExpression
+                || (node instanceof FunctionCall call
+                        && (call instanceof MethodCall || call.getFunction() instanceof SimpleIdentifier));
+    }
+
+    @Override
     public TokenGroup tokenizeExtended(Node node, TokenList result) {
         if (node == null) {
             throw new MeaningTreeException("Null node passed");
@@ -516,8 +528,7 @@ public class PythonTokenizer extends LanguageTokenizer {
                 tokenizeExtended(new ObjectNewExpression(cast.getCastType(), cast.getValue()), result);
             }
             default ->  {
-                String s = viewer.toString(node);
-                result.addAll(tokenize(s));
+                tokenizeRendered(node, result, false);
             }
         }
         int posStop = result.size();
@@ -648,8 +659,7 @@ public class PythonTokenizer extends LanguageTokenizer {
         }
 
         if (operator == null) {
-            String s = viewer.toString(unaryOp);
-            result.addAll(tokenize(s));
+            tokenizeRendered(unaryOp, result, false);
             return;
         }
         TokenGroup op;
@@ -700,8 +710,7 @@ public class PythonTokenizer extends LanguageTokenizer {
             default -> null;
         };
         if (operator == null) {
-            String s = viewer.toString(binOp);
-            result.addAll(tokenize(s));
+            tokenizeRendered(binOp, result, false);
             return;
         }
         TokenGroup left = tokenizeExtended(binOp.getLeft(), result);
@@ -6,6 +6,7 @@ import org.vstu.meaningtree.languages.configs.ConfigScope;
 import org.vstu.meaningtree.languages.configs.ConfigValue;
 import org.vstu.meaningtree.utils.tokens.TokenList;
 
+import java.util.List;
 import java.util.Map;
 
 public class PythonTranslator extends LanguageTranslator {
@@ -36,6 +37,11 @@ public class PythonTranslator extends LanguageTranslator {
         return "python";
     }
 
+    @Override
+    public List<String> getFileExtensions() {
+        return List.of(".py", ".pyi");
+    }
+
     @Override
     protected Config extendConfigParameters() {
         var compoundComparisons = ConfigParameters.registerIfNotExists(this, "disableCompoundComparisons", new ConfigValue(false), ConfigScope.VIEWER);
@@ -2,6 +2,8 @@ package org.vstu.meaningtree.languages;
 
 import org.vstu.meaningtree.exceptions.MeaningTreeException;
 import org.vstu.meaningtree.exceptions.UnsupportedViewingException;
+import org.vstu.meaningtree.languages.configs.Config;
+import org.vstu.meaningtree.languages.configs.TranslationUnitMode;
 import org.vstu.meaningtree.languages.helpers.ContextualNodeRenderer;
 import org.vstu.meaningtree.languages.support.features.*;
 import org.vstu.meaningtree.languages.utils.PythonSpecificFeatures;
@@ -67,11 +69,21 @@ import java.util.stream.Collectors;
 
 
 public class PythonViewer extends LanguageViewer {
+    private boolean disableTypeAnnotations;
+    private boolean disableCompoundComparisons;
+
     public PythonViewer(LanguageTranslator translator) {
         super(translator);
         configureSupportAndRenderers();
     }
 
+    @Override
+    public void setConfig(Config config) {
+        super.setConfig(config);
+        disableTypeAnnotations = config.get("disableTypeAnnotations").asBoolean();
+        disableCompoundComparisons = config.get("disableCompoundComparisons").asBoolean();
+    }
+
     private void configureSupportAndRenderers() {
         registerTabRenderer(ProgramEntryPoint.class, this::entryPointToString);
         registerTabRenderer(AssignmentExpression.class, (node, tab) -> assignmentExpressionToString(node));
@@ -182,6 +194,10 @@ public class PythonViewer extends LanguageViewer {
      * и {@code ctx.isInNode(...)} начнёт врать.
      */
     public String toString(Node node, Tab tab) {
+        String placeholder = placeholderFor(node);
+        if (placeholder != null) {
+            return placeholder;
+        }
         Node preparedNode = applyPreRenderPreparations(node);
         return renderPrepared(preparedNode, tab);
     }
@@ -535,7 +551,7 @@ public class PythonViewer extends LanguageViewer {
             Node entryPointNode = programEntryPoint.getEntryPoint();
             if (entryPointNode instanceof FunctionDefinition func) {
                 entryPointFunction = func;
-                if (!getConfigParameter("translationUnitMode").equalsValue("full")) {
+                if (settings().translationUnitMode() != TranslationUnitMode.FULL) {
                     omitEntryPointInNonFullMode = true;
                 } else {
                     Identifier ident;
@@ -568,14 +584,14 @@ public class PythonViewer extends LanguageViewer {
                 nodes.addAll(entryPointFunction.getBody().getNodeList());
             }
         }
-        if (!getConfigParameter("translationUnitMode").equalsValue("full") && entryPointIf != null && !omitEntryPointInNonFullMode) {
+        if (settings().translationUnitMode() != TranslationUnitMode.FULL && entryPointIf != null && !omitEntryPointInNonFullMode) {
             Statement body = entryPointIf.getBranches().getFirst().getBody();
             if (body instanceof CompoundStatement compoundStatement) {
                 nodes.addAll(compoundStatement.getNodeList());
             } else {
                 nodes.add(body);
             }
-        } else if (getConfigParameter("translationUnitMode").equalsValue("full") && entryPointIf != null) {
+        } else if (settings().translationUnitMode() == TranslationUnitMode.FULL && entryPointIf != null) {
             nodes.add(entryPointIf);
         }
         String body = nodeListToString(nodes, tab);
@@ -699,7 +715,7 @@ public class PythonViewer extends LanguageViewer {
             // UPDATE: хинты о типах не добавляются в случае, если много переменных,
             // т.к. это синтаксическая ошибка
             if (decls.length == 1 && varDecl.getType() != null && !(varDecl.getType() instanceof UnknownType)
-                    && !getConfigParameter("disableTypeAnnotations").asBoolean()) {
+                    && !disableTypeAnnotations) {
                  lValues.append(String.format(": %s", toString(varDecl.getType())));
             }
             String initialValue = declarationInitialValueToString(decls[i], varDecl.getType());
@@ -1005,7 +1021,7 @@ public class PythonViewer extends LanguageViewer {
             try {
                 Node result = PythonSpecialNodeTransformations.detectCompoundComparison(node);
                 if (result instanceof CompoundComparison
-                        && !getConfigParameter("disableCompoundComparisons").asBoolean()) {
+                        && !disableCompoundComparisons) {
                     return compoundComparisonToString((CompoundComparison) result);
                 } else {
                     return preferExplicitAndOpToString(result);
@@ -1025,7 +1041,7 @@ public class PythonViewer extends LanguageViewer {
     private String preferExplicitAndOpToString(Node node) {
         if (node instanceof ShortCircuitAndOp op) {
             return String.format("%s and %s", preferExplicitAndOpToString(op.getLeft()), preferExplicitAndOpToString(op.getRight()));
-        } else if (node instanceof CompoundComparison op && getConfigParameter("disableCompoundComparisons").asBoolean()) {
+        } else if (node instanceof CompoundComparison op && disableCompoundComparisons) {
            return preferExplicitAndOpToString(BinaryExpression.fromManyOperands
                    (op.getComparisons().toArray(new BinaryComparison[0]), 0, ShortCircuitAndOp.class));
         } else {
@@ -0,0 +1,126 @@
+package org.vstu.meaningtree;
+
+import org.junit.jupiter.api.Test;
+import org.vstu.meaningtree.iterators.DFSNodeIterator;
+import org.vstu.meaningtree.iterators.utils.NodeInfo;
+import org.vstu.meaningtree.languages.JavaTranslator;
+import org.vstu.meaningtree.nodes.Expression;
+import org.vstu.meaningtree.nodes.expressions.BinaryExpression;
+import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
+import org.vstu.meaningtree.nodes.expressions.math.AddOp;
+import org.vstu.meaningtree.nodes.expressions.math.SubOp;
+
+import java.util.Map;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Цепочки операций глубиной 100 000: обход, сравнение, копирование, разбор и рендеринг
+ * не должны упираться в стек потока.
+ */
+class DeepNestingTests {
+    private static final int DEPTH = 100_000;
+
+    /**
+     * Левая цепочка {@code ((x0 + x1) - x2) + ...} из {@code operations} операций.
+     */
+    static Expression leftChain(int operations) {
+        Expression result = new SimpleIdentifier("x0");
+        for (int i = 1; i <= operations; i++) {
+            SimpleIdentifier operand = new SimpleIdentifier("x" + (i % 10));
+            result = i % 2 == 0 ? new SubOp(result, operand) : new AddOp(result, operand);
+        }
+        return result;
+    }
+
+    @Test
+    void dfsIteratesDeepChain() {
+        Expression chain = leftChain(DEPTH);
+        DFSNodeIterator iterator = new DFSNodeIterator(chain);
+        NodeInfo first = iterator.next();
+        assertEquals(new SimpleIdentifier("x0"), first.node());
+        assertEquals(DEPTH, first.depth());
+
+        int count = 1;
+        NodeInfo last = first;
+        while (iterator.hasNext()) {
+            last = iterator.next();
+            count++;
+        }
+        assertEquals(2 * DEPTH + 1, count);
+        assertSame(chain, last.node());
+
+        int withoutRoot = 0;
+        for (DFSNodeIterator children = new DFSNodeIterator(chain, false); children.hasNext(); children.next()) {
+            withoutRoot++;
+        }
+        assertEquals(2 * DEPTH, withoutRoot);
+    }
+
+    @Test
+    void equalsHashCodeAndCloneHandleDeepChain() {
+        Expression chain = leftChain(DEPTH);
+        Expression same = leftChain(DEPTH);
+        assertEquals(chain, same);
+        assertEquals(chain.hashCode(), same.hashCode());
+
+        Expression copy = chain.clone();
+        assertNotSame(chain, copy);
+        assertEquals(chain, copy);
+        assertNotSame(((BinaryExpression) chain).getLeft(), ((BinaryExpression) copy).getLeft());
+
+        assertNotEquals(chain, leftChain(DEPTH - 1));
+        assertNotEquals(chain, new AddOp(((BinaryExpression) chain).getLeft(), new SimpleIdentifier("y")));
+    }
+
+    @Test
+    void hashCodeKeepsRecursiveFormula() {
+        SimpleIdentifier a = new SimpleIdentifier("a");
+        SimpleIdentifier b = new SimpleIdentifier("b");
+        SimpleIdentifier c = new SimpleIdentifier("c");
+        int sum = Objects.hash(Objects.hash("AddOp"), a, b);
+        assertEquals(sum, new AddOp(a, b).hashCode());
+        assertEquals(Objects.hash(Objects.hash("SubOp"), sum, c), new SubOp(new AddOp(a, b), c).hashCode());
+    }
+
+    @Test
+    void fromManyOperandsBuildsLongChain() {
+        Expression[] operands = new Expression[DEPTH];
+        for (int i = 0; i < DEPTH; i++) {
+            operands[i] = new SimpleIdentifier("x" + (i % 10));
+        }
+        Expression chain = BinaryExpression.fromManyOperands(operands, 0, AddOp.class);
+        int operations = 0;
+        Expression current = chain;
+        while (current instanceof AddOp add) {
+            assertSame(operands[operations], add.getLeft());
+            current = add.getRight();
+            operations++;
+        }
+        assertEquals(DEPTH - 1, operations);
+        assertSame(operands[DEPTH - 1], current);
+    }
+
+    @Test
+    void javaParsesAndRendersDeepChain() {
+        StringBuilder expression = new StringBuilder("a");
+        for (int i = 1; i <= DEPTH; i++) {
+            expression.append(i % 2 == 0 ? " - " : " + ").append('a');
+        }
+        String code = "class Main { static int f(int a) { return " + expression + "; } }";
+        JavaTranslator java = new JavaTranslator(Map.of("translationUnitMode", "full"));
+
+        MeaningTree tree = java.getMeaningTree(code);
+        int operations = 0;
+        for (NodeInfo info : tree) {
+            if (info.node() instanceof AddOp || info.node() instanceof SubOp) {
+                operations++;
+            }
+        }
+        assertEquals(DEPTH, operations);
+
+        String rendered = java.getCode(tree);
+        assertTrue(rendered.contains(expression));
+    }
+}
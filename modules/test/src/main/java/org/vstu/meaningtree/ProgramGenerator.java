@@ -0,0 +1,190 @@
+package org.vstu.meaningtree;
+
+import org.vstu.meaningtree.languages.LanguageTranslator;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Генератор синтетических программ заданного размера для нагрузочных замеров.
+ * <p>
+ * Программа строится на Java: класс из {@code functions} статических функций над целыми
+ * числами. Каждая функция объявляет свои переменные до использования, циклы ограничены
+ * константой, делитель в {@code %} всегда ненулевая константа, функции вызывают только
+ * объявленные раньше них, так что рекурсии нет. Программы на остальных языках получаются
+ * трансляцией разобранного дерева — так они заведомо описывают одно и то же.
+ * <p>
+ * Генерация детерминирована: одинаковые форма и зерно дают одинаковый текст.
+ */
+public class ProgramGenerator {
+
+    /**
+     * @param functions             число функций
+     * @param statementsPerFunction число инструкций на каждом уровне вложенности
+     * @param depth                 глубина вложенности условий и циклов
+     * @param expressionLength      число операндов в арифметическом выражении
+     * @param identifiers           число локальных переменных каждой функции
+     */
+    public record Shape(int functions, int statementsPerFunction, int depth, int expressionLength, int identifiers) {
+        public Shape {
+            if (functions < 1 || statementsPerFunction < 1 || depth < 0 || expressionLength < 1 || identifiers < 1) {
+                throw new IllegalArgumentException("Invalid program shape: " + this);
+            }
+        }
+
+        public static Shape defaults() {
+            return new Shape(4, 4, 2, 4, 4);
+        }
+
+        /**
+         * Та же форма с числом функций, умноженным на {@code factor}: размер программы растёт
+         * линейно, а устройство каждой функции не меняется.
+         */
+        public Shape scaled(int factor) {
+            return new Shape(functions * factor, statementsPerFunction, depth, expressionLength, identifiers);
+        }
+    }
+
+    private final Shape shape;
+    private final long seed;
+
+    private Random random;
+    private StringBuilder code;
+    private int currentFunction;
+    private final List<String> scope = new ArrayList<>();
+
+    public ProgramGenerator(Shape shape, long seed) {
+        this.shape = shape;
+        this.seed = seed;
+    }
+
+    public Shape shape() {
+        return shape;
+    }
+
+    public String java() {
+        random = new Random(seed);
+        code = new StringBuilder("class Generated {\n");
+        for (currentFunction = 0; currentFunction < shape.functions(); currentFunction++) {
+            function();
+        }
+        code.append("    public static void main(String[] args) {\n")
+                .append("        int result = f").append(shape.functions() - 1).append("(1, 2);\n")
+                .append("    }\n")
+                .append("}\n");
+        return code.toString();
+    }
+
+    /**
+     * Программа на языке каждого транслятора. Для Java — сгенерированный текст, для
+     * остальных — его трансляция.
+     *
+     * @param java    транслятор Java, которым разбирается исходный текст
+     * @param targets трансляторы, на языки которых переводится программа
+     * @return название языка → код
+     */
+    public Map<String, String> allLanguages(LanguageTranslator java, List<? extends LanguageTranslator> targets) {
+        String source = java();
+        MeaningTree tree = java.getMeaningTree(source);
+        Map<String, String> result = new LinkedHashMap<>();
+        result.put(java.getLanguageName(), source);
+        for (LanguageTranslator target : targets) {
+            if (!target.getLanguageName().equals(java.getLanguageName())) {
+                result.put(target.getLanguageName(), target.getCode(tree));
+            }
+        }
+        return result;
+    }
+
+    private void function() {
+        scope.clear();
+        code.append("    static int f").append(currentFunction).append("(int p0, int p1) {\n");
+        scope.add("p0");
+        scope.add("p1");
+        for (int v = 0; v < shape.identifiers(); v++) {
+            String name = "v" + v;
+            indent(2).append("int ").append(name).append(" = ").append(expression(2)).append(";\n");
+            scope.add(name);
+        }
+        block(2, shape.depth());
+        indent(2).append("return ").append(expression(shape.expressionLength())).append(";\n");
+        code.append("    }\n");
+    }
+
+    private void block(int indent, int depth) {
+        for (int s = 0; s < shape.statementsPerFunction(); s++) {
+            statement(indent, depth);
+        }
+    }
+
+    private void statement(int indent, int depth) {
+        int kind = random.nextInt(depth > 0 ? 5 : 3);
+        String target = "v" + random.nextInt(shape.identifiers());
+        switch (kind) {
+            case 0 -> indent(indent).append(target).append(" = ").append(expression(shape.expressionLength())).append(";\n");
+            case 1 -> indent(indent).append(target).append(" += ").append(expression(shape.expressionLength())).append(";\n");
+            case 2 -> {
+                if (currentFunction == 0) {
+                    indent(indent).append(target).append(" = ").append(expression(shape.expressionLength())).append(" % 7;\n");
+                } else {
+                    indent(indent).append(target).append(" = f").append(random.nextInt(currentFunction)).append('(')
+                            .append(expression(2)).append(", ").append(expression(2)).append(");\n");
+                }
+            }
+            case 3 -> {
+                indent(indent).append("if (").append(condition()).append(") {\n");
+                block(indent + 1, depth - 1);
+                indent(indent).append("} else {\n");
+                block(indent + 1, depth - 1);
+                indent(indent).append("}\n");
+            }
+            default -> {
+                String counter = "i" + (shape.depth() - depth);
+                indent(indent).append("for (int ").append(counter).append(" = 0; ").append(counter).append(" < ")
+                        .append(2 + random.nextInt(10)).append("; ").append(counter).append("++) {\n");
+                scope.add(counter);
+                block(indent + 1, depth - 1);
+                scope.removeLast();
+                indent(indent).append("}\n");
+            }
+        }
+    }
+
+    private String condition() {
+        String[] comparisons = {"<", ">", "==", "!="};
+        String left = expression(Math.max(1, shape.expressionLength() / 2)) + " "
+                + comparisons[random.nextInt(comparisons.length)] + " " + operand();
+        if (random.nextBoolean()) {
+            return left;
+        }
+        return left + (random.nextBoolean() ? " && " : " || ") + operand() + " > " + random.nextInt(100);
+    }
+
+    private String expression(int operands) {
+        String[] operators = {"+", "-", "*"};
+        StringBuilder expression = new StringBuilder(operand());
+        for (int i = 1; i < operands; i++) {
+            expression.append(' ').append(operators[random.nextInt(operators.length)]).append(' ');
+            if (operands - i > 1 && random.nextInt(4) == 0) {
+                expression.append('(').append(operand()).append(" % ").append(2 + random.nextInt(9)).append(')');
+            } else {
+                expression.append(operand());
+            }
+        }
+        return expression.toString();
+    }
+
+    private String operand() {
+        if (random.nextInt(3) == 0) {
+            return Integer.toString(random.nextInt(100));
+        }
+        return scope.get(random.nextInt(scope.size()));
+    }
+
+    private StringBuilder indent(int level) {
+        return code.append("    ".repeat(level));
+    }
+}
@@ -0,0 +1,47 @@
+package org.vstu.meaningtree;
+
+import org.junit.jupiter.api.Test;
+import org.vstu.meaningtree.languages.CppTranslator;
+import org.vstu.meaningtree.languages.JavaTranslator;
+import org.vstu.meaningtree.languages.PythonTranslator;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Генератор синтетических программ: детерминизм, рост с формой, разбор результата.
+ */
+class ProgramGeneratorTests {
+    private static final Map<String, Object> CONFIG = Map.of("translationUnitMode", "full");
+
+    @Test
+    void sameSeedGivesSameProgram() {
+        ProgramGenerator.Shape shape = ProgramGenerator.Shape.defaults();
+        assertEquals(new ProgramGenerator(shape, 7).java(), new ProgramGenerator(shape, 7).java());
+        assertNotEquals(new ProgramGenerator(shape, 7).java(), new ProgramGenerator(shape, 8).java());
+    }
+
+    @Test
+    void sizeGrowsWithScale() {
+        ProgramGenerator.Shape shape = ProgramGenerator.Shape.defaults();
+        int small = new ProgramGenerator(shape, 1).java().length();
+        int large = new ProgramGenerator(shape.scaled(10), 1).java().length();
+        assertTrue(large > small * 5);
+    }
+
+    @Test
+    void generatedProgramTranslatesToEveryLanguage() {
+        JavaTranslator java = new JavaTranslator(CONFIG);
+        ProgramGenerator generator = new ProgramGenerator(new ProgramGenerator.Shape(3, 3, 3, 5, 3), 11);
+        Map<String, String> programs = generator.allLanguages(java,
+                List.of(java, new PythonTranslator(CONFIG), new CppTranslator(CONFIG)));
+
+        assertEquals(List.of("java", "python", "c++"), List.copyOf(programs.keySet()));
+        for (String code : programs.values()) {
+            assertTrue(code.contains("f2"));
+        }
+        assertNotNull(java.getMeaningTree(java.getCode(java.getMeaningTree(programs.get("java")))).getRootNode());
+    }
+}
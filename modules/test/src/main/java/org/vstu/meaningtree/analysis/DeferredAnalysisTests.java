@@ -0,0 +1,131 @@
+package org.vstu.meaningtree.analysis;
+
+import org.junit.jupiter.api.Test;
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.nodes.Expression;
+import org.vstu.meaningtree.nodes.Node;
+import org.vstu.meaningtree.nodes.ProgramEntryPoint;
+import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
+import org.vstu.meaningtree.nodes.expressions.literals.IntegerLiteral;
+import org.vstu.meaningtree.nodes.expressions.math.AddOp;
+import org.vstu.meaningtree.nodes.expressions.other.Range;
+import org.vstu.meaningtree.nodes.statements.CompoundStatement;
+import org.vstu.meaningtree.nodes.statements.ExpressionStatement;
+import org.vstu.meaningtree.nodes.statements.loops.RangeForLoop;
+import org.vstu.meaningtree.utils.analysis.DeferredAnalysis;
+import org.vstu.meaningtree.utils.analysis.expressions.ExpressionValueEvaluator;
+import org.vstu.meaningtree.utils.analysis.loops.LoopIterationAnalyzer;
+import org.vstu.meaningtree.utils.analysis.symbols.SymbolResolver;
+import org.vstu.meaningtree.utils.scopes.ScopeTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeferredAnalysisTests {
+
+    /**
+     * {@code for i in range(10, 0, -2): 2 + 3} с анализом, отложенным так же, как в
+     * {@code LanguageParser}: привязка узлов идёт обходом {@code SymbolResolver}.
+     */
+    private static MeaningTree deferredTree(AtomicInteger runs) {
+        return deferred(new MeaningTree(new ProgramEntryPoint(List.of(loop()))), runs);
+    }
+
+    private static RangeForLoop loop() {
+        return new RangeForLoop(
+                new Range(new IntegerLiteral(10), new IntegerLiteral(0), new IntegerLiteral(-2), false, true, Range.Direction.UNKNOWN),
+                new SimpleIdentifier("i"),
+                new CompoundStatement(new ExpressionStatement(new AddOp(new IntegerLiteral(2), new IntegerLiteral(3))))
+        );
+    }
+
+    private static MeaningTree deferred(MeaningTree tree, AtomicInteger runs) {
+        ScopeTable scope = new ScopeTable();
+        DeferredAnalysis deferred = new DeferredAnalysis(tree, analyzed -> {
+            runs.incrementAndGet();
+            ExpressionValueEvaluator evaluator = new ExpressionValueEvaluator(analyzed, scope);
+            evaluator.analyze();
+            new LoopIterationAnalyzer().analyze(analyzed, evaluator);
+        });
+        new SymbolResolver(tree, scope).alongside(deferred.attachingPass()).resolve();
+        tree.deferAnalysis(deferred);
+        return tree;
+    }
+
+    private static RangeForLoop loopOf(MeaningTree tree) {
+        return (RangeForLoop) ((ProgramEntryPoint) tree.getRootNode()).getBody().getFirst();
+    }
+
+    @Test
+    void firstReadOfEstimateRunsAnalysisOnce() {
+        AtomicInteger runs = new AtomicInteger();
+        MeaningTree tree = deferredTree(runs);
+        MeaningTree copy = tree.clone();
+        assertTrue(tree.isAnalysisPending());
+        assertEquals(0, runs.get());
+
+        RangeForLoop loop = loopOf(tree);
+        assertEquals(5, loop.getIterationEstimate().orElseThrow().exactIterations().getAsLong());
+        assertEquals(1, runs.get());
+        assertFalse(tree.isAnalysisPending());
+
+        // Оценки выражений посчитаны тем же запуском
+        ExpressionStatement statement = (ExpressionStatement) ((CompoundStatement) loop.getBody()).getNodes()[0];
+        assertEquals(java.util.Optional.of(5L), statement.getExpression().getValueEstimate().orElseThrow().exactValue());
+        assertEquals(Range.Direction.DOWN, loop.getRange().getDirection());
+
+        // Копия, снятая до анализа, читает оценки оригинала по id
+        assertEquals(5, loopOf(copy).getIterationEstimate().orElseThrow().exactIterations().getAsLong());
+        tree.ensureAnalyzed();
+        copy.ensureAnalyzed();
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void clonesSharingIdsDoNotBreakResultLookup() {
+        AtomicInteger runs = new AtomicInteger();
+        // Клон сохраняет id оригинала, как после понижения: индекс по id на таком дереве
+        // падает, а поиск результатов им не пользуется
+        ExpressionStatement statement = new ExpressionStatement(new AddOp(new IntegerLiteral(2), new IntegerLiteral(3)));
+        MeaningTree tree = deferred(new MeaningTree(new ProgramEntryPoint(List.of(statement, statement.clone()))), runs);
+        assertThrows(IllegalStateException.class, tree::makeIndex);
+        MeaningTree copy = tree.clone();
+
+        for (MeaningTree each : List.of(tree, copy)) {
+            for (Node node : ((ProgramEntryPoint) each.getRootNode()).getBody()) {
+                Expression expression = ((ExpressionStatement) node).getExpression();
+                assertEquals(Optional.of(5L), expression.getValueEstimate().orElseThrow().exactValue());
+            }
+        }
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void concurrentReadersSeeCompleteResults() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        MeaningTree snapshot = deferredTree(runs).asReadOnly();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Long>> counts = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                counts.add(pool.submit(() -> {
+                    start.await();
+                    return loopOf(snapshot).getIterationEstimate().orElseThrow().exactIterations().getAsLong();
+                }));
+            }
+            start.countDown();
+            for (Future<Long> count : counts) {
+                assertEquals(5L, (long) count.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, runs.get());
+    }
+}
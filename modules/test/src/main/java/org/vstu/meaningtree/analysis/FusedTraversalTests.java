@@ -0,0 +1,153 @@
+package org.vstu.meaningtree.analysis;
+
+import org.junit.jupiter.api.Test;
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.iterators.utils.NodeInfo;
+import org.vstu.meaningtree.nodes.Node;
+import org.vstu.meaningtree.nodes.ProgramEntryPoint;
+import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
+import org.vstu.meaningtree.nodes.expressions.logical.ShortCircuitAndOp;
+import org.vstu.meaningtree.nodes.expressions.other.TernaryOperator;
+import org.vstu.meaningtree.nodes.statements.CompoundStatement;
+import org.vstu.meaningtree.nodes.statements.ExpressionStatement;
+import org.vstu.meaningtree.nodes.statements.Loop;
+import org.vstu.meaningtree.nodes.statements.conditions.IfStatement;
+import org.vstu.meaningtree.nodes.statements.loops.WhileLoop;
+import org.vstu.meaningtree.utils.analysis.AnalysisBundle;
+import org.vstu.meaningtree.utils.analysis.AnalysisPass;
+import org.vstu.meaningtree.utils.analysis.CyclomaticComplexityAnalyzer;
+import org.vstu.meaningtree.utils.analysis.FusedTraversal;
+import org.vstu.meaningtree.utils.analysis.loops.LoopIterationAnalyzer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FusedTraversalTests {
+
+    /**
+     * {@code while (a && b) { if (c) x ? y : z; }}
+     */
+    private static WhileLoop loop() {
+        return new WhileLoop(
+                new ShortCircuitAndOp(new SimpleIdentifier("a"), new SimpleIdentifier("b")),
+                new CompoundStatement(new IfStatement(new SimpleIdentifier("c"), new ExpressionStatement(
+                        new TernaryOperator(new SimpleIdentifier("x"), new SimpleIdentifier("y"), new SimpleIdentifier("z")))))
+        );
+    }
+
+    /**
+     * {@code count} раз {@link #loop()}
+     */
+    private static MeaningTree program(int count) {
+        List<Node> body = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            body.add(loop());
+        }
+        return new MeaningTree(new ProgramEntryPoint(body));
+    }
+
+    @Test
+    void bundleComputesRequestedAnalysesInOneTraversal() {
+        MeaningTree tree = program(3);
+        List<Node> walked = new ArrayList<>();
+        for (NodeInfo info : tree) {
+            walked.add(info.node());
+        }
+
+        AnalysisBundle bundle = tree.analyses();
+        bundle.compute(CyclomaticComplexityAnalyzer.COMPLEXITY, LoopIterationAnalyzer.LOOPS);
+        assertEquals(1, bundle.traversals());
+        // Каждый цикл: 1 (цикл) + 1 (&&) + 1 (ветвь if) + 1 (тернарный оператор)
+        assertEquals(1 + 3 * 4, (int) bundle.get(CyclomaticComplexityAnalyzer.COMPLEXITY));
+        assertEquals(walked.stream().filter(Loop.class::isInstance).toList(), bundle.get(LoopIterationAnalyzer.LOOPS));
+        assertEquals(1, bundle.traversals());
+        assertEquals(1 + 3 * 4, new CyclomaticComplexityAnalyzer().analyze(tree.getRootNode()));
+
+        // Изменение дерева сбрасывает результаты
+        tree.changeRoot(program(1).getRootNode());
+        assertNotSame(bundle, tree.analyses());
+        assertEquals(1 + 4, new CyclomaticComplexityAnalyzer().analyze(tree));
+    }
+
+    /**
+     * После понижения loop-else и включений в дереве есть клоны с общим id, и индекс по id на
+     * нём не строится; совместный обход идёт итератором и от индекса не зависит.
+     */
+    @Test
+    void traversalToleratesClonesWithSharedIds() {
+        WhileLoop loop = loop();
+        MeaningTree tree = new MeaningTree(new CompoundStatement(loop, loop.clone()));
+        assertThrows(IllegalStateException.class, tree::makeIndex);
+
+        assertEquals(1 + 2 * 4, new CyclomaticComplexityAnalyzer().analyze(tree));
+        assertEquals(2, tree.analyses().get(LoopIterationAnalyzer.LOOPS).size());
+    }
+
+    @Test
+    void analyzerSeesInPlaceEdits() {
+        CompoundStatement body = new CompoundStatement(new ExpressionStatement(new SimpleIdentifier("x")));
+        MeaningTree tree = new MeaningTree(body);
+        CyclomaticComplexityAnalyzer analyzer = new CyclomaticComplexityAnalyzer();
+        assertEquals(1, analyzer.analyze(tree));
+        assertEquals(1, (int) tree.analyses().get(CyclomaticComplexityAnalyzer.COMPLEXITY));
+
+        // Правка на месте не сбрасывает кэш дерева, но анализатор считает заново
+        body.insert(0, new IfStatement(new SimpleIdentifier("c"), new ExpressionStatement(new SimpleIdentifier("y"))));
+        assertEquals(2, analyzer.analyze(tree));
+    }
+
+    @Test
+    void passesSeeOnlyDeclaredTypesInTreeOrder() {
+        MeaningTree tree = program(4);
+        List<Node> expected = new ArrayList<>();
+        for (NodeInfo info : tree) {
+            if (info.node() instanceof Loop || info.node() instanceof IfStatement) {
+                expected.add(info.node());
+            }
+        }
+
+        List<Node> seen = new ArrayList<>();
+        AnalysisPass<List<Loop>> loops = AnalysisPass.collecting(Loop.class);
+        new FusedTraversal()
+                .add(loops)
+                .add(AnalysisPass.forEach(Loop.class, info -> seen.add(info.node())))
+                .add(AnalysisPass.forEach(IfStatement.class, info -> seen.add(info.node())))
+                .run(tree);
+        assertEquals(expected, seen);
+        assertEquals(4, loops.result().size());
+    }
+
+    @Test
+    void traversalStopsWhenAllPassesAreDone() {
+        MeaningTree tree = program(10);
+        int[] visits = {0};
+        AnalysisPass<Void> firstFive = new AnalysisPass<>() {
+            @Override
+            public Set<Class<? extends Node>> nodeTypes() {
+                return Set.of(Node.class);
+            }
+
+            @Override
+            public void visit(NodeInfo info) {
+                visits[0]++;
+            }
+
+            @Override
+            public boolean isDone() {
+                return visits[0] == 5;
+            }
+
+            @Override
+            public Void result() {
+                return null;
+            }
+        };
+        new FusedTraversal().add(firstFive).run(tree);
+        assertEquals(5, visits[0]);
+        assertTrue(tree.hasNodeType(WhileLoop.class));
+        assertFalse(tree.hasNodeType(org.vstu.meaningtree.nodes.statements.loops.DoWhileLoop.class));
+    }
+}
@@ -0,0 +1,141 @@
+package org.vstu.meaningtree.analysis;
+
+import org.junit.jupiter.api.Test;
+import org.vstu.meaningtree.nodes.Expression;
+import org.vstu.meaningtree.nodes.Type;
+import org.vstu.meaningtree.nodes.declarations.VariableDeclaration;
+import org.vstu.meaningtree.nodes.expressions.comparison.GtOp;
+import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
+import org.vstu.meaningtree.nodes.expressions.literals.FloatLiteral;
+import org.vstu.meaningtree.nodes.expressions.literals.IntegerLiteral;
+import org.vstu.meaningtree.nodes.expressions.math.AddOp;
+import org.vstu.meaningtree.nodes.expressions.math.DivOp;
+import org.vstu.meaningtree.nodes.expressions.math.MulOp;
+import org.vstu.meaningtree.nodes.expressions.math.SubOp;
+import org.vstu.meaningtree.nodes.expressions.unary.UnaryMinusOp;
+import org.vstu.meaningtree.nodes.types.builtin.BooleanType;
+import org.vstu.meaningtree.nodes.types.builtin.FloatType;
+import org.vstu.meaningtree.nodes.types.builtin.IntType;
+import org.vstu.meaningtree.utils.analysis.types.SimpleTypeInferrer;
+import org.vstu.meaningtree.utils.analysis.types.TypeInferenceCache;
+import org.vstu.meaningtree.utils.scopes.ScopeTable;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TypeInferenceCacheTests {
+    private static final SimpleIdentifier A = new SimpleIdentifier("a");
+    private static final SimpleIdentifier B = new SimpleIdentifier("b");
+
+    /**
+     * {@code ((a + b) * a) - b}
+     */
+    private static Expression arithmetic() {
+        return new SubOp(new MulOp(new AddOp(A.clone(), B.clone()), A.clone()), B.clone());
+    }
+
+    private static ScopeTable intVariables() {
+        return intVariables(true);
+    }
+
+    private static ScopeTable intVariables(boolean memoize) {
+        ScopeTable scope = new ScopeTable();
+        scope.inferenceCache().setEnabled(memoize);
+        scope.changeVariableType(A, new IntType());
+        scope.changeVariableType(B, new IntType());
+        return scope;
+    }
+
+    /**
+     * Вывести тип с кэшем и без и проверить, что результат и типы переменных совпали.
+     */
+    private static Type inferBoth(Expression expression, ScopeTable cached, ScopeTable uncached) {
+        Type expected = SimpleTypeInferrer.inference(expression, uncached);
+        assertEquals(expected, SimpleTypeInferrer.inference(expression, cached));
+        assertEquals(uncached.getVariableType(A), cached.getVariableType(A));
+        assertEquals(uncached.getVariableType(B), cached.getVariableType(B));
+        return expected;
+    }
+
+    @Test
+    void repeatedInferenceHitsCache() {
+        ScopeTable scope = intVariables();
+        Expression expression = arithmetic();
+
+        Type first = SimpleTypeInferrer.inference(expression, scope);
+        TypeInferenceCache.Stats afterFirst = scope.inferenceCache().stats();
+        assertEquals(0, afterFirst.hits());
+        assertEquals(3, afterFirst.stored());
+
+        Type second = SimpleTypeInferrer.inference(expression, scope);
+        assertEquals(first, second);
+        assertNotSame(first, second);
+        assertEquals(1, scope.inferenceCache().stats().hits());
+    }
+
+    @Test
+    void variableTypeChangeInvalidatesEntries() {
+        ScopeTable cached = intVariables(true);
+        ScopeTable uncached = intVariables(false);
+        Expression expression = arithmetic();
+        assertEquals(new IntType(), inferBoth(expression, cached, uncached));
+
+        cached.changeVariableType(B, new FloatType());
+        uncached.changeVariableType(B, new FloatType());
+        assertEquals(new FloatType(), inferBoth(expression, cached, uncached));
+        assertTrue(cached.inferenceCache().stats().invalidated() > 0);
+
+        // Изменение в обход таблицы, прямо в области, кэш тоже замечает
+        ScopeTable direct = intVariables();
+        assertEquals(new IntType(), SimpleTypeInferrer.inference(expression, direct));
+        direct.scope().changeVariableType(A, new FloatType());
+        assertEquals(new FloatType(), SimpleTypeInferrer.inference(expression, direct));
+    }
+
+    @Test
+    void replaceInvalidatesEntries() {
+        ScopeTable scope = intVariables();
+        Expression expression = arithmetic();
+        assertEquals(new IntType(), SimpleTypeInferrer.inference(expression, scope));
+
+        assertTrue(expression.replaceFirst(
+                info -> info.node() instanceof SimpleIdentifier identifier && identifier.equals(A),
+                node -> new FloatLiteral("1.5")).isSuccess());
+        assertEquals(new FloatType(), SimpleTypeInferrer.inference(expression, scope));
+    }
+
+    @Test
+    void entryIsBoundToScope() {
+        ScopeTable scope = intVariables();
+        Expression expression = arithmetic();
+        long outer = scope.currentScopeId();
+        scope.enter();
+        long inner = scope.currentScopeId();
+        scope.registerVariable(new VariableDeclaration(new FloatType(), A.clone()));
+
+        scope.setCurrentScope(outer);
+        assertEquals(new IntType(), SimpleTypeInferrer.inference(expression, scope));
+        scope.setCurrentScope(inner);
+        assertEquals(new FloatType(), SimpleTypeInferrer.inference(expression, scope));
+    }
+
+    @Test
+    void cacheDoesNotChangeInferenceResults() {
+        List<Expression> expressions = List.of(
+                arithmetic(),
+                new DivOp(new AddOp(A.clone(), new IntegerLiteral("1")), B.clone()),
+                new GtOp(new UnaryMinusOp(A.clone()), new MulOp(B.clone(), new FloatLiteral("2.0"))),
+                new AddOp(new AddOp(A.clone(), B.clone()), new AddOp(A.clone(), B.clone()))
+        );
+        for (Expression expression : expressions) {
+            ScopeTable cached = new ScopeTable();
+            ScopeTable uncached = new ScopeTable();
+            uncached.inferenceCache().setEnabled(false);
+            for (int i = 0; i < 3; i++) {
+                inferBoth(expression, cached, uncached);
+            }
+        }
+        assertEquals(new BooleanType(), SimpleTypeInferrer.inference(expressions.get(2), new ScopeTable()));
+    }
+}
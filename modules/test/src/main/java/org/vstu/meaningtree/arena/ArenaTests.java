@@ -0,0 +1,170 @@
+package org.vstu.meaningtree.arena;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.iterators.utils.NodeInfo;
+import org.vstu.meaningtree.languages.JavaTranslator;
+import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
+import org.vstu.meaningtree.nodes.expressions.literals.IntegerLiteral;
+import org.vstu.meaningtree.nodes.expressions.math.AddOp;
+import org.vstu.meaningtree.nodes.statements.CompoundStatement;
+import org.vstu.meaningtree.nodes.statements.assignments.AssignmentStatement;
+import org.vstu.meaningtree.serializers.json.JsonSerializer;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaTests {
+    private static final String CODE = """
+            class Main {
+                public static void main(String[] args) {
+                    int total = 0;
+                    for (int i = 0; i < 10; i++) {
+                        if (i % 2 == 0) {
+                            total += i * 2.5;
+                        }
+                    }
+                    System.out.println("total " + total + true);
+                }
+            }
+            """;
+
+    private static MeaningTree parse() {
+        return new JavaTranslator(Map.of("translationUnitMode", "full")).getMeaningTree(CODE);
+    }
+
+    @Test
+    void roundTripThroughArenaKeepsTree() {
+        MeaningTree tree = parse();
+        JsonObject expected = new JsonSerializer().serialize(tree);
+
+        MeaningTreeArena arena = MeaningTreeArena.of(tree);
+        assertEquals(expected, new JsonSerializer().serialize(arena.toMeaningTree()));
+        assertEquals(expected, new JsonSerializer().serialize(MeaningTreeArena.fromJson(expected).toMeaningTree()));
+    }
+
+    @Test
+    void iterationVisitsSameNodesAsObjectTree() {
+        MeaningTree tree = parse();
+        MeaningTreeArena arena = MeaningTreeArena.of(tree);
+
+        Set<Long> objectIds = new HashSet<>();
+        for (NodeInfo info : tree) {
+            objectIds.add(info.node().getId());
+        }
+        assertEquals(objectIds.size(), arena.size());
+
+        Set<Long> dfsIds = new HashSet<>();
+        Set<Integer> seen = new HashSet<>();
+        PrimitiveIterator.OfInt dfs = arena.dfs();
+        int last = -1;
+        while (dfs.hasNext()) {
+            int node = dfs.nextInt();
+            for (int child = arena.firstChild(node); child != -1; child = arena.nextSibling(child)) {
+                assertTrue(seen.contains(child), "Children must precede their parent");
+            }
+            seen.add(node);
+            dfsIds.add(arena.nodeId(node));
+            last = node;
+        }
+        assertEquals(objectIds, dfsIds);
+        assertEquals(arena.root(), last);
+
+        Set<Long> bfsIds = new HashSet<>();
+        int previousDepth = 0;
+        PrimitiveIterator.OfInt bfs = arena.bfs();
+        while (bfs.hasNext()) {
+            int node = bfs.nextInt();
+            assertTrue(arena.depth(node) >= previousDepth);
+            previousDepth = arena.depth(node);
+            bfsIds.add(arena.nodeId(node));
+        }
+        assertEquals(objectIds, bfsIds);
+    }
+
+    @Test
+    void sideTablesExposeLiteralsAndIdentifiers() {
+        MeaningTree tree = parse();
+        MeaningTreeArena arena = MeaningTreeArena.of(tree);
+
+        Set<Object> literals = new HashSet<>();
+        Set<String> identifiers = new HashSet<>();
+        for (int node = 0; node < arena.size(); node++) {
+            if (arena.isLiteral(node)) {
+                literals.add(arena.literalValue(node));
+            }
+            if (arena.isIdentifier(node)) {
+                identifiers.add(arena.identifierName(node));
+            }
+            assertEquals(tree.getNodeById(arena.nodeId(node)).node(), arena.toNode(node));
+        }
+        assertTrue(literals.containsAll(Set.of(0L, 10L, 2.5, "total ", true)));
+        assertTrue(identifiers.containsAll(Set.of("total", "i", "args")));
+    }
+
+    @Test
+    void arenaFromNodesMatchesArenaFromJson() {
+        MeaningTree tree = new MeaningTree(new CompoundStatement(
+                new AssignmentStatement(new SimpleIdentifier("x"),
+                        new AddOp(new SimpleIdentifier("x"), new IntegerLiteral(1))),
+                new AssignmentStatement(new SimpleIdentifier("y"), new IntegerLiteral(1))));
+        JsonObject expected = new JsonSerializer().serialize(tree);
+
+        MeaningTreeArena arena = MeaningTreeArena.of(tree);
+        assertEquals(expected, new JsonSerializer().serialize(arena.toMeaningTree()));
+        assertEquals(MeaningTreeArena.fromJson(expected).toJson(0), arena.toJson(0));
+        Set<Object> literals = new HashSet<>();
+        Set<String> identifiers = new HashSet<>();
+        for (int node = 0; node < arena.size(); node++) {
+            if (arena.isLiteral(node)) {
+                literals.add(arena.literalValue(node));
+            }
+            if (arena.isIdentifier(node)) {
+                identifiers.add(arena.identifierName(node));
+            }
+        }
+        assertEquals(Set.of(1L), literals);
+        assertEquals(Set.of("x", "y"), identifiers);
+    }
+
+    @Test
+    void toJsonKeepsEmptySlotsOfNodeArrays() {
+        MeaningTree tree = new MeaningTree(new CompoundStatement(
+                new AssignmentStatement(new SimpleIdentifier("x"), new IntegerLiteral(1)),
+                new AssignmentStatement(new SimpleIdentifier("y"), new IntegerLiteral(2))));
+        JsonObject root = withoutHashes(new JsonSerializer().serialize(tree.getRootNode())).getAsJsonObject();
+        JsonArray statements = root.getAsJsonArray("statements");
+        JsonArray withGaps = new JsonArray();
+        withGaps.add(JsonNull.INSTANCE);
+        withGaps.add(statements.get(0));
+        withGaps.add(JsonNull.INSTANCE);
+        withGaps.add(statements.get(1));
+        withGaps.add(JsonNull.INSTANCE);
+        withGaps.add(JsonNull.INSTANCE);
+        root.add("statements", withGaps);
+
+        MeaningTreeArena arena = MeaningTreeArena.fromJson(root);
+        assertEquals(root, arena.toJson(0));
+        assertEquals(3, arena.fieldIndex(arena.nextSibling(arena.firstChild(0))));
+    }
+
+    /** В JSON арены нет {@code unique_hash}: хэш считается по узлам при десериализации. */
+    private static JsonElement withoutHashes(JsonElement element) {
+        if (element.isJsonObject()) {
+            JsonObject json = element.getAsJsonObject();
+            json.remove("unique_hash");
+            json.entrySet().forEach(property -> withoutHashes(property.getValue()));
+        } else if (element.isJsonArray()) {
+            element.getAsJsonArray().forEach(ArenaTests::withoutHashes);
+        }
+        return element;
+    }
+}
@@ -0,0 +1,76 @@
+package org.vstu.meaningtree.benchmarks;
+
+import com.google.gson.JsonObject;
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.arena.MeaningTreeArena;
+import org.vstu.meaningtree.iterators.utils.NodeInfo;
+import org.vstu.meaningtree.languages.JavaTranslator;
+import org.vstu.meaningtree.serializers.json.JsonDeserializer;
+import org.vstu.meaningtree.serializers.json.JsonSerializer;
+
+import java.util.Map;
+import java.util.PrimitiveIterator;
+
+/**
+ * Сравнение объектного дерева и арены: удерживаемая память на пачке загруженных
+ * деревьев и скорость полного обхода.
+ * <p>
+ * Запуск: {@code ArenaBenchmark [число методов] [число копий]}. Замер памяти грубый, см.
+ * {@link Bench#retained}.
+ */
+public class ArenaBenchmark {
+    public static void main(String[] args) {
+        int methods = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int copies = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        MeaningTree tree = new JavaTranslator(Map.of("translationUnitMode", "full")).getMeaningTree(generate(methods));
+        JsonObject json = new JsonSerializer().serialize(tree);
+        MeaningTreeArena arena = MeaningTreeArena.fromJson(json);
+        System.out.printf("Nodes per tree: %d, trees loaded: %d%n", arena.size(), copies);
+
+        long objectBytes = Bench.retained(copies, () -> new JsonDeserializer().deserializeTree(json));
+        long arenaBytes = Bench.retained(copies, () -> MeaningTreeArena.fromJson(json));
+        System.out.printf("Retained heap per tree: objects %d KiB, arena %d KiB%n", objectBytes / 1024, arenaBytes / 1024);
+
+        System.out.printf("DFS over objects: %.3f ms%n", Bench.measure(() -> {
+            long sum = 0;
+            for (NodeInfo info : tree) {
+                sum += info.node().getId();
+            }
+            return sum;
+        }));
+        System.out.printf("DFS over arena:   %.3f ms%n", Bench.measure(() -> {
+            long sum = 0;
+            PrimitiveIterator.OfInt it = arena.dfs();
+            while (it.hasNext()) {
+                sum += arena.nodeId(it.nextInt());
+            }
+            return sum;
+        }));
+        System.out.printf("Linear arena scan: %.3f ms%n", Bench.measure(() -> {
+            long sum = 0;
+            for (int node = 0; node < arena.size(); node++) {
+                sum += arena.nodeId(node);
+            }
+            return sum;
+        }));
+    }
+
+    static String generate(int methods) {
+        StringBuilder code = new StringBuilder("class Generated {\n");
+        for (int m = 0; m < methods; m++) {
+            code.append("    static int method").append(m).append("(int a, int b) {\n")
+                    .append("        int total = 0;\n")
+                    .append("        for (int i = 0; i < a; i++) {\n")
+                    .append("            if (i % 3 == 0 && b > ").append(m).append(") {\n")
+                    .append("                total += i * b - ").append(m).append(";\n")
+                    .append("            } else {\n")
+                    .append("                total -= method").append(Math.max(0, m - 1)).append("(i, b + 1);\n")
+                    .append("            }\n")
+                    .append("        }\n")
+                    .append("        return total;\n")
+                    .append("    }\n");
+        }
+        return code.append("}\n").toString();
+    }
+}
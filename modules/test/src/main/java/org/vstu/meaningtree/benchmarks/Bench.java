@@ -0,0 +1,95 @@
+package org.vstu.meaningtree.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Общий замер для бенчмарков этого пакета: прогрев, затем среднее по прогонам. Сами
+ * бенчмарки описывают только нагрузку.
+ * <p>
+ * Результат нагрузки сворачивается в хэш, который проверяется после замера, — иначе JIT
+ * вправе выбросить вычисление целиком.
+ */
+final class Bench {
+    static final int WARMUP = 5;
+    static final int ROUNDS = 20;
+
+    /**
+     * Среднее на один прогон: время и байты, выделенные текущим потоком.
+     */
+    record Sample(double millis, long bytes) {}
+
+    private Bench() {
+    }
+
+    /** Среднее время прогона в миллисекундах после {@link #WARMUP} прогревочных, за {@link #ROUNDS} прогонов. */
+    static double measure(Supplier<?> workload) {
+        return measure(ROUNDS, workload);
+    }
+
+    static double measure(int rounds, Supplier<?> workload) {
+        return sample(rounds, workload).millis();
+    }
+
+    /**
+     * Время и выделенная память на прогон. Прогрев — не больше {@code rounds} прогонов, чтобы
+     * на больших входах с малым числом прогонов он не стоил дороже самого замера.
+     */
+    static Sample sample(int rounds, Supplier<?> workload) {
+        int sink = 0;
+        for (int i = 0; i < Math.min(WARMUP, rounds); i++) {
+            sink += Objects.hashCode(workload.get());
+        }
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += Objects.hashCode(workload.get());
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+        if (sink == Integer.MIN_VALUE) {
+            System.out.print("");
+        }
+        return new Sample(elapsed / 1_000_000.0 / rounds, allocated / rounds);
+    }
+
+    /**
+     * Грубая оценка памяти, удерживаемой одной копией: разница занятой кучи после сборки
+     * мусора до и после построения {@code copies} копий. Для точных цифр запускать с
+     * {@code -Xmx}, заведомо большим нужного, и без параллельной нагрузки.
+     */
+    static long retained(int copies, Supplier<?> factory) {
+        List<Object> holder = new ArrayList<>(copies);
+        long before = usedHeap();
+        for (int i = 0; i < copies; i++) {
+            holder.add(factory.get());
+        }
+        long after = usedHeap();
+        if (holder.size() != copies) {
+            System.out.print("");
+        }
+        return (after - before) / copies;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Байты, выделенные текущим потоком, или 0, если JVM этого не умеет.
+     */
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()) {
+            return threads.getThreadAllocatedBytes(Thread.currentThread().threadId());
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,77 @@
+package org.vstu.meaningtree.benchmarks;
+
+import org.vstu.meaningtree.languages.configs.*;
+
+/**
+ * Проверки конфигурации на горячих путях: поиск параметра по строковому id с разбором
+ * значения, как было, и чтение полей {@link ConfigSnapshot}. На разобранный узел —
+ * {@code bytePositionAnnotations} и режим выражения, на отрисованный — сравнение
+ * {@code translationUnitMode} и {@code skipErrors}. Конфигурация — подмножество парсера
+ * из конфигурации по умолчанию, как её получает компонент транслятора.
+ * <p>
+ * Запуск: {@code ConfigSnapshotBenchmark [наибольшее число узлов]}.
+ */
+public class ConfigSnapshotBenchmark {
+    public static void main(String[] args) {
+        int maxNodes = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Config config = ConfigParameters.defaultConfig()
+                .subset(ConfigParameter.forScopes(ConfigScope.PARSER, ConfigScope.TRANSLATOR, ConfigScope.ANY));
+        ConfigSnapshot settings = ConfigSnapshot.of(config);
+
+        System.out.printf("%10s %14s %14s %14s %14s%n",
+                "nodes", "parse by id", "parse fields", "render by id", "render fields");
+        for (int nodes = 10_000; nodes <= maxNodes; nodes *= 10) {
+            int count = nodes;
+            double parseById = Bench.measure(() -> {
+                int sink = 0;
+                for (int i = 0; i < count; i++) {
+                    if (config.get("bytePositionAnnotations").asBoolean()) {
+                        sink++;
+                    }
+                    if (config.get("translationUnitMode").asString().equals("expression")) {
+                        sink++;
+                    }
+                }
+                return sink;
+            });
+            double parseFields = Bench.measure(() -> {
+                int sink = 0;
+                for (int i = 0; i < count; i++) {
+                    if (settings.bytePositionAnnotations()) {
+                        sink++;
+                    }
+                    if (settings.isExpressionMode()) {
+                        sink++;
+                    }
+                }
+                return sink;
+            });
+            double renderById = Bench.measure(() -> {
+                int sink = 0;
+                for (int i = 0; i < count; i++) {
+                    if (config.get("translationUnitMode").equalsValue("full")) {
+                        sink++;
+                    }
+                    if (!config.get("skipErrors").asBoolean()) {
+                        sink++;
+                    }
+                }
+                return sink;
+            });
+            double renderFields = Bench.measure(() -> {
+                int sink = 0;
+                for (int i = 0; i < count; i++) {
+                    if (settings.translationUnitMode() == TranslationUnitMode.FULL) {
+                        sink++;
+                    }
+                    if (!settings.skipErrors()) {
+                        sink++;
+                    }
+                }
+                return sink;
+            });
+            System.out.printf("%10d %14.3f %14.3f %14.3f %14.3f%n",
+                    nodes, parseById, parseFields, renderById, renderFields);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.vstu.meaningtree.benchmarks;
+
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.iterators.DFSNodeIterator;
+import org.vstu.meaningtree.languages.JavaTranslator;
+import org.vstu.meaningtree.nodes.Expression;
+import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
+import org.vstu.meaningtree.nodes.expressions.math.AddOp;
+import org.vstu.meaningtree.nodes.expressions.math.SubOp;
+
+import java.util.Map;
+
+/**
+ * Время операций над левыми цепочками {@code ((a + a) - a) + ...} глубиной от тысячи до
+ * сотни тысяч звеньев. Всё работает со стеком потока по умолчанию; обход, сравнение, хэш и
+ * копирование должны расти линейно, разбор — тоже. Рендеринг склеивает строки звеньев и
+ * растёт быстрее: каждое звено копирует строку своего левого операнда.
+ * <p>
+ * Запуск: {@code DeepNestingBenchmark [наибольшая глубина]}.
+ */
+public class DeepNestingBenchmark {
+    public static void main(String[] args) {
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        JavaTranslator java = new JavaTranslator(Map.of("translationUnitMode", "full"));
+
+        System.out.printf("%8s %10s %10s %10s %10s %10s %10s%n",
+                "depth", "dfs ms", "hash ms", "equals ms", "clone ms", "parse ms", "render ms");
+        for (int depth = 1000; depth <= maxDepth; depth *= 10) {
+            int rounds = Math.max(1, Bench.ROUNDS * 1000 / depth);
+            Expression chain = leftChain(depth);
+            Expression same = leftChain(depth);
+            String code = "class Main { static int f(int a) { return " + sourceChain(depth) + "; } }";
+            MeaningTree tree = java.getMeaningTree(code);
+
+            System.out.printf("%8d %10.3f %10.3f %10.3f %10.3f %10.3f %10.3f%n", depth,
+                    Bench.measure(rounds, () -> {
+                        int count = 0;
+                        for (DFSNodeIterator iterator = new DFSNodeIterator(chain); iterator.hasNext(); iterator.next()) {
+                            count++;
+                        }
+                        return count;
+                    }),
+                    Bench.measure(rounds, chain::hashCode),
+                    Bench.measure(rounds, () -> chain.equals(same) ? 1 : 0),
+                    Bench.measure(rounds, () -> chain.clone().hashCode()),
+                    Bench.measure(rounds, () -> java.getMeaningTree(code).getRootNode().hashCode()),
+                    Bench.measure(rounds, () -> java.getCode(tree).length()));
+        }
+    }
+
+    private static Expression leftChain(int operations) {
+        Expression result = new SimpleIdentifier("a");
+        for (int i = 1; i <= operations; i++) {
+            SimpleIdentifier operand = new SimpleIdentifier("a");
+            result = i % 2 == 0 ? new SubOp(result, operand) : new AddOp(result, operand);
+        }
+        return result;
+    }
+
+    private static String sourceChain(int operations) {
+        StringBuilder expression = new StringBuilder("a");
+        for (int i = 1; i <= operations; i++) {
+            expression.append(i % 2 == 0 ? " - " : " + ").append('a');
+        }
+        return expression.toString();
+    }
+}
@@ -0,0 +1,87 @@
+package org.vstu.meaningtree.benchmarks;
+
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.iterators.utils.NodeInfo;
+import org.vstu.meaningtree.nodes.Node;
+import org.vstu.meaningtree.nodes.ProgramEntryPoint;
+import org.vstu.meaningtree.nodes.expressions.Identifier;
+import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
+import org.vstu.meaningtree.nodes.expressions.logical.ShortCircuitAndOp;
+import org.vstu.meaningtree.nodes.expressions.math.AddOp;
+import org.vstu.meaningtree.nodes.expressions.other.TernaryOperator;
+import org.vstu.meaningtree.nodes.statements.CompoundStatement;
+import org.vstu.meaningtree.nodes.statements.ExpressionStatement;
+import org.vstu.meaningtree.nodes.statements.Loop;
+import org.vstu.meaningtree.nodes.statements.conditions.IfStatement;
+import org.vstu.meaningtree.nodes.statements.loops.WhileLoop;
+import org.vstu.meaningtree.utils.analysis.AnalysisPass;
+import org.vstu.meaningtree.utils.analysis.CyclomaticComplexityAnalyzer;
+import org.vstu.meaningtree.utils.analysis.FusedTraversal;
+import org.vstu.meaningtree.utils.analysis.loops.LoopIterationAnalyzer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Независимые анализы дерева по отдельности и одним {@link FusedTraversal}. По отдельности —
+ * как было: индекс по id, цикломатическая сложность, поиск циклов и перебор идентификаторов
+ * (по образцу проверки поддержки) обходят дерево каждый сам. Вместе — один рефлексивный
+ * обход при построении индекса и один проход по индексу для всех анализов.
+ * <p>
+ * Каждый раунд начинается с нового {@link MeaningTree} без индекса над теми же узлами.
+ * Запуск: {@code FusedTraversalBenchmark [наибольшее число операторов]}.
+ */
+public class FusedTraversalBenchmark {
+    public static void main(String[] args) {
+        int maxStatements = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        System.out.printf("%10s %10s %10s %12s %10s %12s%n",
+                "statements", "nodes", "walks", "separate ms", "walks", "fused ms");
+        for (int statements = 100; statements <= maxStatements; statements *= 10) {
+            Node root = program(statements);
+            int nodes = new MeaningTree(root).iterate().size();
+
+            double separate = Bench.measure(() -> {
+                MeaningTree tree = new MeaningTree(root);
+                tree.makeIndex();
+                int sink = new CyclomaticComplexityAnalyzer().analyze(root);
+                for (NodeInfo info : tree) {
+                    if (info.node() instanceof Loop) {
+                        sink++;
+                    }
+                }
+                for (NodeInfo info : tree) {
+                    if (info.node() instanceof Identifier) {
+                        sink++;
+                    }
+                }
+                return sink;
+            });
+            double fused = Bench.measure(() -> {
+                MeaningTree tree = new MeaningTree(root);
+                int[] identifiers = {0};
+                tree.analyses().compute(new FusedTraversal()
+                                .add(AnalysisPass.forEach(Identifier.class, info -> identifiers[0]++)),
+                        CyclomaticComplexityAnalyzer.COMPLEXITY, LoopIterationAnalyzer.LOOPS);
+                return tree.analyses().get(CyclomaticComplexityAnalyzer.COMPLEXITY)
+                        + tree.analyses().get(LoopIterationAnalyzer.LOOPS).size() + identifiers[0];
+            });
+            System.out.printf("%10d %10d %10d %12.2f %10d %12.2f%n", statements, nodes, 4, separate, 1, fused);
+        }
+    }
+
+    /**
+     * {@code while (a && b) { if (c) y + (p ? q : r); }}, повторённое {@code statements} раз.
+     */
+    private static Node program(int statements) {
+        List<Node> body = new ArrayList<>(statements);
+        for (int i = 0; i < statements; i++) {
+            body.add(new WhileLoop(
+                    new ShortCircuitAndOp(new SimpleIdentifier("a"), new SimpleIdentifier("b")),
+                    new CompoundStatement(new IfStatement(new SimpleIdentifier("c"), new ExpressionStatement(
+                            new AddOp(new SimpleIdentifier("y"), new TernaryOperator(
+                                    new SimpleIdentifier("p"), new SimpleIdentifier("q"), new SimpleIdentifier("r"))))))
+            ));
+        }
+        return new ProgramEntryPoint(body);
+    }
+}
@@ -0,0 +1,119 @@
+package org.vstu.meaningtree.benchmarks;
+
+import org.vstu.meaningtree.languages.JavaTranslator;
+import org.vstu.meaningtree.languages.LanguageTranslator;
+import org.vstu.meaningtree.languages.PythonTranslator;
+import org.vstu.meaningtree.nodes.Expression;
+import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
+import org.vstu.meaningtree.nodes.expressions.literals.IntegerLiteral;
+import org.vstu.meaningtree.nodes.expressions.math.AddOp;
+import org.vstu.meaningtree.nodes.expressions.math.MulOp;
+import org.vstu.meaningtree.nodes.expressions.math.SubOp;
+import org.vstu.meaningtree.nodes.types.builtin.IntType;
+import org.vstu.meaningtree.utils.analysis.types.SimpleTypeInferrer;
+import org.vstu.meaningtree.utils.analysis.types.TypeInferenceCache;
+import org.vstu.meaningtree.utils.scopes.ScopeTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Выигрыш от кэша вывода типов ({@code memoizeTypeInference}) на арифметике.
+ * <p>
+ * Первая таблица — сам вывод: типы выводятся для каждого узла цепочки снизу вверх, как их
+ * запрашивает разбор, строящий выражение по операндам. Без кэша это квадратично по длине
+ * цепочки. Вторая — круговая трансляция Java → Python программы из длинных арифметических
+ * присваиваний, с кэшем и без.
+ * <p>
+ * Запуск: {@code InferenceCacheBenchmark [наибольшая длина выражения]}.
+ */
+public class InferenceCacheBenchmark {
+    private static final int STATEMENTS = 50;
+
+    public static void main(String[] args) {
+        int maxLength = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+
+        System.out.printf("%8s %14s %14s %10s%n", "length", "infer plain", "infer cached", "hit rate");
+        for (int length = 10; length <= maxLength; length *= 10) {
+            List<Expression> nodes = bottomUp(length);
+            int rounds = Math.max(1, Bench.ROUNDS * 10 / length);
+            TypeInferenceCache.Stats[] stats = new TypeInferenceCache.Stats[1];
+            System.out.printf("%8d %14.3f %14.3f", length,
+                    Bench.measure(rounds, () -> inferAll(nodes, false).inferenceCache().size()),
+                    Bench.measure(rounds, () -> {
+                        ScopeTable scope = inferAll(nodes, true);
+                        stats[0] = scope.inferenceCache().stats();
+                        return scope.inferenceCache().size();
+                    }));
+            System.out.printf(" %9.1f%%%n", stats[0].hitRate() * 100);
+        }
+
+        System.out.printf("%n%8s %14s %14s%n", "length", "trip plain", "trip cached");
+        for (int length = 10; length <= maxLength; length *= 10) {
+            String code = program(length);
+            int rounds = Math.max(1, Bench.ROUNDS * 10 / length);
+            JavaTranslator plainParser = new JavaTranslator(config(false));
+            JavaTranslator cachedParser = new JavaTranslator(config(true));
+            LanguageTranslator plainViewer = new PythonTranslator(config(false));
+            LanguageTranslator cachedViewer = new PythonTranslator(config(true));
+            System.out.printf("%8d %14.3f %14.3f%n", length,
+                    Bench.measure(rounds, () -> plainViewer.getCode(plainParser.getMeaningTree(code)).length()),
+                    Bench.measure(rounds, () -> cachedViewer.getCode(cachedParser.getMeaningTree(code)).length()));
+        }
+    }
+
+    private static Map<String, Object> config(boolean memoize) {
+        return Map.of("translationUnitMode", "full", "memoizeTypeInference", memoize);
+    }
+
+    /**
+     * Узлы цепочки {@code ((v0 * v1) - 2) + v3 ...} длиной {@code length}, от самого
+     * глубокого к корню.
+     */
+    private static List<Expression> bottomUp(int length) {
+        List<Expression> nodes = new ArrayList<>();
+        Expression current = new SimpleIdentifier("v0");
+        for (int i = 1; i <= length; i++) {
+            Expression operand = i % 2 == 0 ? new IntegerLiteral(i) : new SimpleIdentifier("v" + (i % 5));
+            current = switch (i % 3) {
+                case 0 -> new AddOp(current, operand);
+                case 1 -> new MulOp(current, operand);
+                default -> new SubOp(current, operand);
+            };
+            nodes.add(current);
+        }
+        return nodes;
+    }
+
+    private static ScopeTable inferAll(List<Expression> nodes, boolean memoize) {
+        ScopeTable scope = new ScopeTable();
+        scope.inferenceCache().setEnabled(memoize);
+        for (int i = 0; i < 5; i++) {
+            scope.changeVariableType(new SimpleIdentifier("v" + i), new IntType());
+        }
+        for (Expression node : nodes) {
+            SimpleTypeInferrer.inference(node, scope);
+        }
+        return scope;
+    }
+
+    private static String program(int length) {
+        StringBuilder body = new StringBuilder();
+        for (int statement = 0; statement < STATEMENTS; statement++) {
+            body.append("        r = r + ");
+            for (int i = 0; i < length; i++) {
+                body.append(i > 0 ? (i % 3 == 0 ? " * " : " - ") : "").append(i % 2 == 0 ? "a" : "b");
+            }
+            body.append(";\n");
+        }
+        return """
+                class Main {
+                    static int f(int a, int b) {
+                        int r = 0;
+                %s        return r;
+                    }
+                }
+                """.formatted(body);
+    }
+}
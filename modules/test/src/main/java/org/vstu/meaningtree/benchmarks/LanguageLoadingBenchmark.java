@@ -0,0 +1,109 @@
+package org.vstu.meaningtree.benchmarks;
+
+import org.treesitter.TSLanguage;
+import org.treesitter.TreeSitterCpp;
+import org.treesitter.TreeSitterJava;
+import org.treesitter.TreeSitterPython;
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.languages.LanguageProviders;
+import org.vstu.meaningtree.languages.LanguageTranslator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * Цена запуска перевода между парой языков в свежей JVM: время от старта до выхода и загруженные
+ * грамматики tree-sitter (по журналу загрузки классов). Режим {@code eager} воспроизводит прежнее
+ * поведение, когда грамматика создавалась в конструкторе парсера каждого созданного транслятора,
+ * в том числе целевого, который код не разбирает; {@code lazy} — текущее.
+ * <p>
+ * Запуск: {@code LanguageLoadingBenchmark}; дочерние JVM получают тот же путь классов.
+ */
+public class LanguageLoadingBenchmark {
+    private static final int RUNS = 7;
+
+    private static final Map<String, Supplier<TSLanguage>> GRAMMARS = Map.of(
+            "java", () -> new TreeSitterJava(),
+            "python", () -> new TreeSitterPython(),
+            "c++", () -> new TreeSitterCpp()
+    );
+
+    private static final Map<String, String> SAMPLES = Map.of(
+            "java", "class Main { static int f(int n) { int s = 0; for (int i = 0; i < n; i++) { s += i; } return s; } }",
+            "python", "def f(n):\n    s = 0\n    for i in range(n):\n        s += i\n    return s\n",
+            "c++", "int f(int n) { int s = 0; for (int i = 0; i < n; i++) { s += i; } return s; }"
+    );
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 3 && args[0].equals("child")) {
+            translate(args[1], args[2], false);
+            return;
+        }
+        if (args.length == 3 && args[0].equals("child-eager")) {
+            translate(args[1], args[2], true);
+            return;
+        }
+        String[][] pairs = {{"python", "java"}, {"java", "python"}, {"c++", "python"}};
+        System.out.printf("%-16s %10s %10s   %-24s %s%n", "pair", "eager ms", "lazy ms", "eager grammars", "lazy grammars");
+        for (String[] pair : pairs) {
+            Run eager = median("child-eager", pair[0], pair[1]);
+            Run lazy = median("child", pair[0], pair[1]);
+            System.out.printf("%-16s %10d %10d   %-24s %s%n", pair[0] + " -> " + pair[1],
+                    eager.millis(), lazy.millis(), eager.grammars(), lazy.grammars());
+        }
+    }
+
+    private static void translate(String from, String to, boolean eager) {
+        LanguageTranslator source = LanguageProviders.find(from).orElseThrow().create();
+        LanguageTranslator target = LanguageProviders.find(to).orElseThrow().create();
+        if (eager) {
+            GRAMMARS.get(from).get();
+            GRAMMARS.get(to).get();
+        }
+        MeaningTree tree = source.getMeaningTree(SAMPLES.get(from));
+        if (target.getCode(tree).isEmpty()) {
+            throw new IllegalStateException("Empty translation " + from + " -> " + to);
+        }
+    }
+
+    private record Run(long millis, TreeSet<String> grammars) {}
+
+    private static Run median(String mode, String from, String to) throws IOException, InterruptedException {
+        long[] times = new long[RUNS];
+        TreeSet<String> grammars = new TreeSet<>();
+        for (int i = 0; i < RUNS; i++) {
+            List<String> line = new ArrayList<>(List.of(
+                    Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-Xlog:class+load=info", "-cp", System.getProperty("java.class.path"),
+                    LanguageLoadingBenchmark.class.getName(), mode, from, to));
+            long start = System.nanoTime();
+            Process process = new ProcessBuilder(line)
+                    .redirectError(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            try (BufferedReader log = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String entry;
+                while ((entry = log.readLine()) != null) {
+                    int at = entry.indexOf("org.treesitter.TreeSitter");
+                    if (at >= 0) {
+                        grammars.add(entry.substring(at + "org.treesitter.".length()).split("\\s")[0]);
+                    }
+                }
+            }
+            if (process.waitFor() != 0) {
+                throw new IllegalStateException("Command failed: " + String.join(" ", line));
+            }
+            times[i] = (System.nanoTime() - start) / 1_000_000;
+        }
+        Arrays.sort(times);
+        return new Run(times[RUNS / 2], grammars);
+    }
+}
@@ -0,0 +1,93 @@
+package org.vstu.meaningtree.benchmarks;
+
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.nodes.Node;
+import org.vstu.meaningtree.nodes.ProgramEntryPoint;
+import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
+import org.vstu.meaningtree.nodes.expressions.literals.IntegerLiteral;
+import org.vstu.meaningtree.nodes.expressions.math.AddOp;
+import org.vstu.meaningtree.nodes.expressions.math.MulOp;
+import org.vstu.meaningtree.nodes.expressions.other.Range;
+import org.vstu.meaningtree.nodes.statements.CompoundStatement;
+import org.vstu.meaningtree.nodes.statements.ExpressionStatement;
+import org.vstu.meaningtree.nodes.statements.loops.RangeForLoop;
+import org.vstu.meaningtree.utils.analysis.DeferredAnalysis;
+import org.vstu.meaningtree.utils.analysis.expressions.ExpressionValueEvaluator;
+import org.vstu.meaningtree.utils.analysis.loops.LoopIterationAnalyzer;
+import org.vstu.meaningtree.utils.analysis.symbols.SymbolResolver;
+import org.vstu.meaningtree.utils.scopes.ScopeTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Стадия анализа после разбора, как в {@code LanguageParser}, при {@code lazyAnalysis}
+ * выключенном и включённом. В ленивом режиме без потребителя оценок выполняется только
+ * разрешение символов; с потребителем оценки считаются при первом обращении к ним.
+ * <p>
+ * Каждый раунд анализирует свежую копию синтетического дерева — копирование входит во все
+ * три замера одинаково. Запуск: {@code LazyAnalysisBenchmark [наибольшее число операторов]}.
+ */
+public class LazyAnalysisBenchmark {
+    public static void main(String[] args) {
+        int maxStatements = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        System.out.printf("%10s %10s %12s %12s %14s%n",
+                "statements", "nodes", "eager ms", "lazy ms", "lazy+read ms");
+        for (int statements = 100; statements <= maxStatements; statements *= 10) {
+            MeaningTree source = new MeaningTree(program(statements));
+            int nodes = source.iterate().size();
+
+            double eager = Bench.measure(() -> {
+                MeaningTree tree = source.clone();
+                ScopeTable scope = new ScopeTable();
+                new SymbolResolver(tree, scope).resolve();
+                estimate(scope).accept(tree);
+                return firstEstimate(tree);
+            });
+            double lazy = Bench.measure(() -> {
+                MeaningTree tree = deferred(source.clone());
+                return tree.isAnalysisPending() ? 1 : 0;
+            });
+            double lazyRead = Bench.measure(() -> firstEstimate(deferred(source.clone())));
+            System.out.printf("%10d %10d %12.2f %12.2f %14.2f%n", statements, nodes, eager, lazy, lazyRead);
+        }
+    }
+
+    private static MeaningTree deferred(MeaningTree tree) {
+        ScopeTable scope = new ScopeTable();
+        DeferredAnalysis deferred = new DeferredAnalysis(tree, estimate(scope));
+        new SymbolResolver(tree, scope).alongside(deferred.attachingPass()).resolve();
+        tree.deferAnalysis(deferred);
+        return tree;
+    }
+
+    private static Consumer<MeaningTree> estimate(ScopeTable scope) {
+        return tree -> {
+            ExpressionValueEvaluator evaluator = new ExpressionValueEvaluator(tree, scope);
+            evaluator.analyze();
+            new LoopIterationAnalyzer().analyze(tree, evaluator);
+        };
+    }
+
+    private static int firstEstimate(MeaningTree tree) {
+        RangeForLoop loop = (RangeForLoop) ((ProgramEntryPoint) tree.getRootNode()).getBody().getFirst();
+        return (int) loop.getIterationEstimate().orElseThrow().exactIterations().orElse(0);
+    }
+
+    /**
+     * {@code for i in range(0, 100, 3): x + 2 * 3}, повторённое {@code statements} раз.
+     */
+    private static Node program(int statements) {
+        List<Node> body = new ArrayList<>(statements);
+        for (int i = 0; i < statements; i++) {
+            body.add(new RangeForLoop(
+                    new Range(new IntegerLiteral(0), new IntegerLiteral(100), new IntegerLiteral(3), false, true, Range.Direction.UNKNOWN),
+                    new SimpleIdentifier("i"),
+                    new CompoundStatement(new ExpressionStatement(
+                            new AddOp(new SimpleIdentifier("x"), new MulOp(new IntegerLiteral(2), new IntegerLiteral(3)))))
+            ));
+        }
+        return new ProgramEntryPoint(body);
+    }
+}
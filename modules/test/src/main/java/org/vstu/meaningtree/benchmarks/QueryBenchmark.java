@@ -0,0 +1,81 @@
+package org.vstu.meaningtree.benchmarks;
+
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.iterators.utils.NodeInfo;
+import org.vstu.meaningtree.languages.JavaTranslator;
+import org.vstu.meaningtree.nodes.expressions.Literal;
+import org.vstu.meaningtree.nodes.expressions.calls.FunctionCall;
+import org.vstu.meaningtree.nodes.expressions.comparison.BinaryComparison;
+import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
+import org.vstu.meaningtree.nodes.statements.Loop;
+import org.vstu.meaningtree.nodes.statements.ReturnStatement;
+import org.vstu.meaningtree.nodes.statements.conditions.IfStatement;
+import org.vstu.meaningtree.nodes.statements.loops.GeneralForLoop;
+import org.vstu.meaningtree.utils.query.NodeQuery;
+import org.vstu.meaningtree.utils.query.QueryBatch;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Сравнение структурных запросов с рукописными циклами по дереву: каждый запрос отдельно
+ * по индексу типов, все запросы пакетом за один обход и по циклу на каждый шаблон.
+ * Индекс типов строится деревом один раз и переиспользуется между запросами и раундами.
+ * <p>
+ * Запуск: {@code QueryBenchmark [число методов]}.
+ */
+public class QueryBenchmark {
+    public static void main(String[] args) {
+        int methods = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        MeaningTree tree = new JavaTranslator(Map.of("translationUnitMode", "full"))
+                .getMeaningTree(ArenaBenchmark.generate(methods));
+
+        List<NodeQuery> queries = List.of(
+                NodeQuery.parse("GeneralForLoop(condition: BinaryComparison(left: SimpleIdentifier, right: Literal))"),
+                NodeQuery.parse("Loop // FunctionCall"),
+                NodeQuery.parse("IfStatement // ReturnStatement"),
+                NodeQuery.parse("BinaryComparison(right: Literal)")
+        );
+        QueryBatch batch = QueryBatch.of(queries);
+
+        System.out.printf("Nodes: %d%n", tree.getTypeIndex().size());
+        System.out.printf("Naive loops:     %.3f ms%n", Bench.measure(() -> naive(tree)));
+        System.out.printf("Batched queries: %.3f ms%n", Bench.measure(() -> batch.run(tree).values().stream().mapToInt(List::size).sum()));
+        System.out.printf("Indexed queries: %.3f ms%n", Bench.measure(() -> queries.stream().mapToInt(q -> q.findAll(tree).size()).sum()));
+    }
+
+    private static int naive(MeaningTree tree) {
+        int found = 0;
+        for (NodeInfo info : tree) {
+            if (info.node() instanceof GeneralForLoop loop && loop.hasCondition()
+                    && loop.getCondition() instanceof BinaryComparison cmp && cmp.getLeft() instanceof SimpleIdentifier && cmp.getRight() instanceof Literal) {
+                found++;
+            }
+        }
+        for (NodeInfo info : tree) {
+            if (info.node() instanceof FunctionCall && hasAncestor(info, Loop.class)) {
+                found++;
+            }
+        }
+        for (NodeInfo info : tree) {
+            if (info.node() instanceof ReturnStatement && hasAncestor(info, IfStatement.class)) {
+                found++;
+            }
+        }
+        for (NodeInfo info : tree) {
+            if (info.node() instanceof BinaryComparison cmp && cmp.getRight() instanceof Literal) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private static boolean hasAncestor(NodeInfo info, Class<?> type) {
+        for (NodeInfo current = info.parent(); current != null; current = current.parent()) {
+            if (type.isInstance(current.node())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,102 @@
+package org.vstu.meaningtree.benchmarks;
+
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.ProgramGenerator;
+import org.vstu.meaningtree.languages.*;
+import org.vstu.meaningtree.serializers.json.JsonSerializer;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Масштабирование по размеру входа: время и выделенная память каждой фазы на программах
+ * {@link ProgramGenerator} размером 1×, 10×, 100×, 1000× от базового. Для каждой пары
+ * соседних размеров печатается показатель роста {@code log(t2/t1) / log(s2/s1)}: около 1 —
+ * линейный рост, заметно больше — сверхлинейный, такие фазы помечаются.
+ * <p>
+ * Число повторов уменьшается с размером, чтобы большие шаги укладывались в разумное время.
+ * <p>
+ * Запуск: {@code ScalingBenchmark [число функций базовой программы] [наибольший множитель]}.
+ */
+public class ScalingBenchmark {
+    private static final long SEED = 42;
+
+    /** Показатель роста, выше которого фаза считается сверхлинейной */
+    private static final double SUPERLINEAR = 1.3;
+    /** Фазы быстрее этого не оцениваются: на них шум больше самого роста */
+    private static final double NOISE_FLOOR_MS = 0.5;
+
+    private record Sample(long chars, double millis, long bytes) {}
+
+    public static void main(String[] args) {
+        int functions = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        int maxFactor = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        Map<String, Object> config = Map.of("translationUnitMode", "full");
+        JavaTranslator java = new JavaTranslator(config);
+        List<LanguageTranslator> translators = List.of(java, new PythonTranslator(config), new CppTranslator(config));
+        JsonSerializer serializer = new JsonSerializer();
+        ProgramGenerator.Shape base = new ProgramGenerator.Shape(functions, 4, 2, 4, 4);
+
+        Map<String, List<Sample>> results = new LinkedHashMap<>();
+        for (int factor = 1; factor <= maxFactor; factor *= 10) {
+            ProgramGenerator generator = new ProgramGenerator(base.scaled(factor), SEED);
+            Map<String, String> programs = generator.allLanguages(java, translators);
+            int rounds = Math.max(1, Bench.ROUNDS / factor);
+            long chars = programs.get(java.getLanguageName()).length();
+            System.out.printf("%d× — %d functions, %d chars of Java, %d rounds%n",
+                    factor, base.functions() * factor, chars, rounds);
+
+            MeaningTree tree = java.getMeaningTree(programs.get(java.getLanguageName()));
+            for (LanguageTranslator translator : translators) {
+                String code = programs.get(translator.getLanguageName());
+                record(results, "parse " + translator.getLanguageName(), chars, rounds,
+                        () -> translator.getMeaningTree(code).getRootNode().hashCode());
+            }
+            for (LanguageTranslator translator : translators) {
+                record(results, "render " + translator.getLanguageName(), chars, rounds,
+                        () -> translator.getCode(tree).length());
+            }
+            LanguageTranslator python = translators.get(1);
+            record(results, "source map", chars, rounds,
+                    () -> new SourceMapGenerator(python).process(tree).hashCode());
+            record(results, "json", chars, rounds, () -> serializer.serialize(tree).size());
+            record(results, "tokens", chars, rounds, () -> java.getCodeAsTokens(tree, false).size());
+        }
+
+        System.out.println();
+        System.out.printf("%-14s %10s %12s %14s %8s%n", "phase", "chars", "ms", "allocated KiB", "growth");
+        List<String> superlinear = new ArrayList<>();
+        for (var phase : results.entrySet()) {
+            Sample previous = null;
+            for (Sample sample : phase.getValue()) {
+                String growth = "";
+                if (previous != null && previous.millis() >= NOISE_FLOOR_MS) {
+                    double exponent = Math.log(sample.millis() / previous.millis())
+                            / Math.log((double) sample.chars() / previous.chars());
+                    growth = "%.2f".formatted(exponent);
+                    if (exponent > SUPERLINEAR) {
+                        growth += " !";
+                        superlinear.add("%s at %d chars (%.2f)".formatted(phase.getKey(), sample.chars(), exponent));
+                    }
+                }
+                System.out.printf("%-14s %10d %12.3f %14.1f %8s%n",
+                        phase.getKey(), sample.chars(), sample.millis(), sample.bytes() / 1024.0, growth);
+                previous = sample;
+            }
+        }
+        System.out.println();
+        if (superlinear.isEmpty()) {
+            System.out.println("No superlinear phases");
+        } else {
+            System.out.println("Superlinear phases:");
+            superlinear.forEach(line -> System.out.println("  " + line));
+        }
+    }
+
+    private static void record(Map<String, List<Sample>> results, String phase, long chars, int rounds,
+                               Supplier<Integer> workload) {
+        Bench.Sample sample = Bench.sample(rounds, workload);
+        results.computeIfAbsent(phase, key -> new ArrayList<>())
+                .add(new Sample(chars, sample.millis(), sample.bytes()));
+    }
+}
@@ -0,0 +1,47 @@
+package org.vstu.meaningtree.benchmarks;
+
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.ProgramGenerator;
+import org.vstu.meaningtree.languages.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Выигрыш от рендеринга на копии таблицы областей видимости разбора: круговая трансляция
+ * {@code getCode(getMeaningTree(code))} и отдельно рендеринг уже разобранного дерева, с
+ * {@code reuseParseScopeTable} и без него, на программах {@link ProgramGenerator} растущего
+ * размера.
+ * <p>
+ * Запуск: {@code ScopeReuseBenchmark [наибольший множитель]}.
+ */
+public class ScopeReuseBenchmark {
+    private static final long SEED = 42;
+
+    public static void main(String[] args) {
+        int maxFactor = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        Map<String, Object> reuse = Map.of("translationUnitMode", "full");
+        Map<String, Object> rebuild = Map.of("translationUnitMode", "full", "reuseParseScopeTable", false);
+        List<Function<Map<String, Object>, LanguageTranslator>> targets =
+                List.of(JavaTranslator::new, PythonTranslator::new, CppTranslator::new);
+
+        System.out.printf("%6s %-8s %14s %14s %14s %14s%n", "factor", "target",
+                "trip rebuild", "trip reuse", "render rebuild", "render reuse");
+        for (int factor = 1; factor <= maxFactor; factor *= 10) {
+            String code = new ProgramGenerator(ProgramGenerator.Shape.defaults().scaled(factor), SEED).java();
+            int rounds = Math.max(1, Bench.ROUNDS / factor);
+            for (var target : targets) {
+                JavaTranslator parser = new JavaTranslator(reuse);
+                LanguageTranslator rebuilding = target.apply(rebuild);
+                LanguageTranslator reusing = target.apply(reuse);
+                MeaningTree tree = parser.getMeaningTree(code);
+                System.out.printf("%6d %-8s %14.3f %14.3f %14.3f %14.3f%n", factor, reusing.getLanguageName(),
+                        Bench.measure(rounds, () -> rebuilding.getCode(parser.getMeaningTree(code)).length()),
+                        Bench.measure(rounds, () -> reusing.getCode(parser.getMeaningTree(code)).length()),
+                        Bench.measure(rounds, () -> rebuilding.getCode(tree).length()),
+                        Bench.measure(rounds, () -> reusing.getCode(tree).length()));
+            }
+        }
+    }
+}
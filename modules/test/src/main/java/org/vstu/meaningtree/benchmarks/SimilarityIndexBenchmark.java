@@ -0,0 +1,154 @@
+package org.vstu.meaningtree.benchmarks;
+
+import org.vstu.meaningtree.nodes.Expression;
+import org.vstu.meaningtree.nodes.Node;
+import org.vstu.meaningtree.nodes.ProgramEntryPoint;
+import org.vstu.meaningtree.nodes.Statement;
+import org.vstu.meaningtree.nodes.expressions.comparison.GtOp;
+import org.vstu.meaningtree.nodes.expressions.comparison.LtOp;
+import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
+import org.vstu.meaningtree.nodes.expressions.literals.IntegerLiteral;
+import org.vstu.meaningtree.nodes.expressions.math.AddOp;
+import org.vstu.meaningtree.nodes.expressions.math.MulOp;
+import org.vstu.meaningtree.nodes.expressions.math.SubOp;
+import org.vstu.meaningtree.nodes.statements.CompoundStatement;
+import org.vstu.meaningtree.nodes.statements.assignments.AssignmentStatement;
+import org.vstu.meaningtree.nodes.statements.conditions.IfStatement;
+import org.vstu.meaningtree.nodes.statements.loops.WhileLoop;
+import org.vstu.meaningtree.utils.similarity.SimilarityIndex;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * {@link SimilarityIndex} на синтетических корпусах «решений»: корпус делится на семейства по
+ * {@code FAMILY} программ, внутри семейства программы одного устройства с другими именами и
+ * константами, а у трети ещё удалён или добавлен оператор. Замеряются добавление (отпечаток
+ * и вставка, без построения деревьев), запрос похожих на добавленное дерево, полнота — доля
+ * программ своего семейства среди {@code FAMILY - 1} найденных, — сохранение и загрузка.
+ * <p>
+ * Запуск: {@code SimilarityIndexBenchmark [наибольший размер корпуса]}.
+ */
+public class SimilarityIndexBenchmark {
+    private static final int FAMILY = 20;
+    private static final int QUERIES = 1000;
+
+    public static void main(String[] args) throws Exception {
+        int maxTrees = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        Path directory = Files.createTempDirectory("meaningtree-similarity");
+        System.out.printf("%10s %12s %12s %12s %10s %10s %10s %10s%n",
+                "trees", "nodes/tree", "add us/tree", "query us", "recall", "save ms", "load ms", "file MiB");
+        for (int trees = 1_000; trees <= maxTrees; trees *= 10) {
+            SimilarityIndex index = new SimilarityIndex();
+            long nodes = 0;
+            long adding = 0;
+            for (int t = 0; t < trees; t++) {
+                Node program = program(t / FAMILY, t % FAMILY);
+                if (t < FAMILY * 5) {
+                    nodes += program.iterate(true).size();
+                }
+                long start = System.nanoTime();
+                index.add(id(t), program);
+                adding += System.nanoTime() - start;
+            }
+
+            int total = trees;
+            double query = Bench.measure(() -> {
+                int sink = 0;
+                for (int q = 0; q < QUERIES; q++) {
+                    sink += index.querySimilar(id((int) ((q * 7919L) % total)), FAMILY - 1).size();
+                }
+                return sink;
+            }) * 1000 / QUERIES;
+
+            long found = 0;
+            for (int q = 0; q < QUERIES; q++) {
+                int t = (int) ((q * 7919L) % total);
+                for (SimilarityIndex.Match match : index.querySimilar(id(t), FAMILY - 1)) {
+                    if (Integer.parseInt(match.id().substring(1)) / FAMILY == t / FAMILY) {
+                        found++;
+                    }
+                }
+            }
+
+            Path file = directory.resolve("index-" + trees + ".mtsi");
+            long start = System.nanoTime();
+            index.save(file);
+            double save = (System.nanoTime() - start) / 1_000_000.0;
+            start = System.nanoTime();
+            SimilarityIndex loaded = SimilarityIndex.load(file);
+            double load = (System.nanoTime() - start) / 1_000_000.0;
+            if (loaded.size() != trees) {
+                throw new IllegalStateException("Loaded " + loaded.size() + " of " + trees);
+            }
+
+            System.out.printf("%10d %12d %12.1f %12.1f %10.3f %10.1f %10.1f %10.1f%n",
+                    trees, nodes / (FAMILY * 5), adding / 1000.0 / trees, query,
+                    (double) found / (QUERIES * (FAMILY - 1)), save, load, Files.size(file) / (1024.0 * 1024.0));
+            Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    private static String id(int tree) {
+        return "s" + tree;
+    }
+
+    /**
+     * Программа {@code variant} из семейства {@code family}: устройство задаёт зерно семейства,
+     * имена и константы — зерно варианта.
+     */
+    private static Node program(int family, int variant) {
+        Random shape = new Random(family);
+        Random names = new Random(family * 1_000_003L + variant);
+        List<Node> body = new ArrayList<>();
+        int statements = 10 + shape.nextInt(15);
+        for (int s = 0; s < statements; s++) {
+            body.add(statement(shape, names, 2));
+        }
+        switch (names.nextInt(6)) {
+            case 0 -> body.remove(names.nextInt(body.size()));
+            case 1 -> body.add(names.nextInt(body.size()), statement(names, names, 1));
+            default -> { }
+        }
+        return new ProgramEntryPoint(body);
+    }
+
+    private static Statement statement(Random shape, Random names, int depth) {
+        int kind = depth == 0 ? 0 : shape.nextInt(4);
+        return switch (kind) {
+            case 1 -> new IfStatement(new GtOp(expression(shape, names, 1), expression(shape, names, 1)),
+                    block(shape, names, depth - 1));
+            case 2 -> new WhileLoop(new LtOp(variable(names), expression(shape, names, 1)),
+                    block(shape, names, depth - 1));
+            default -> new AssignmentStatement(variable(names), expression(shape, names, 2));
+        };
+    }
+
+    private static CompoundStatement block(Random shape, Random names, int depth) {
+        List<Node> body = new ArrayList<>();
+        int statements = 1 + shape.nextInt(3);
+        for (int s = 0; s < statements; s++) {
+            body.add(statement(shape, names, depth));
+        }
+        return new CompoundStatement(body);
+    }
+
+    private static Expression expression(Random shape, Random names, int depth) {
+        int kind = depth == 0 ? shape.nextInt(2) : shape.nextInt(5);
+        return switch (kind) {
+            case 0 -> variable(names);
+            case 1 -> new IntegerLiteral(names.nextInt(100));
+            case 2 -> new AddOp(expression(shape, names, depth - 1), expression(shape, names, depth - 1));
+            case 3 -> new SubOp(expression(shape, names, depth - 1), expression(shape, names, depth - 1));
+            default -> new MulOp(expression(shape, names, depth - 1), expression(shape, names, depth - 1));
+        };
+    }
+
+    private static SimpleIdentifier variable(Random names) {
+        return new SimpleIdentifier("v" + names.nextInt(1000));
+    }
+}
@@ -0,0 +1,93 @@
+package org.vstu.meaningtree.benchmarks;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.vstu.meaningtree.utils.NodePositions;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Поиск самого глубокого узла под смещением в карте исходника: перебор всех позиций, как
+ * приходилось делать по {@code Map<Long, Pair>}, против индекса вложенности
+ * {@link NodePositions#nodeAt(int)}. Разметка синтетическая: программа из операторов, каждый —
+ * дерево с ветвлением {@link #FANOUT} и глубиной {@link #DEPTH}.
+ * <p>
+ * Запуск: {@code SourceMapLookupBenchmark [наибольшее число операторов]}.
+ */
+public class SourceMapLookupBenchmark {
+    private static final int QUERIES = 1000;
+    private static final int FANOUT = 3;
+    private static final int DEPTH = 4;
+
+    public static void main(String[] args) {
+        int maxStatements = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        System.out.printf("%10s %10s %14s %14s%n", "statements", "nodes", "scan us/query", "index us/query");
+        for (int statements = 10; statements <= maxStatements; statements *= 10) {
+            Map<Long, Pair<Integer, Integer>> plain = new HashMap<>();
+            int length = layout(plain, statements);
+            NodePositions positions = NodePositions.of(plain);
+            int[] offsets = new Random(42).ints(QUERIES, 0, length).toArray();
+
+            double scan = Bench.measure(() -> {
+                int sink = 0;
+                for (int offset : offsets) {
+                    sink += (int) scan(plain, offset);
+                }
+                return sink;
+            });
+            double index = Bench.measure(() -> {
+                int sink = 0;
+                for (int offset : offsets) {
+                    sink += (int) positions.nodeAt(offset).orElse(-1);
+                }
+                return sink;
+            });
+            System.out.printf("%10d %10d %14.3f %14.3f%n", statements, plain.size(),
+                    scan * 1000 / QUERIES, index * 1000 / QUERIES);
+        }
+    }
+
+    private static long scan(Map<Long, Pair<Integer, Integer>> positions, int offset) {
+        long best = -1;
+        int bestLength = Integer.MAX_VALUE;
+        for (var entry : positions.entrySet()) {
+            int start = entry.getValue().getLeft();
+            int length = entry.getValue().getRight();
+            if (start <= offset && offset < start + length && length < bestLength) {
+                best = entry.getKey();
+                bestLength = length;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Разметка программы; возвращает длину кода.
+     */
+    private static int layout(Map<Long, Pair<Integer, Integer>> positions, int statements) {
+        long[] nextId = {1};
+        int cursor = 0;
+        int programStart = cursor;
+        long programId = nextId[0]++;
+        for (int i = 0; i < statements; i++) {
+            cursor = node(positions, nextId, cursor, DEPTH) + 1;
+        }
+        positions.put(programId, Pair.of(programStart, cursor - programStart));
+        return cursor;
+    }
+
+    private static int node(Map<Long, Pair<Integer, Integer>> positions, long[] nextId, int start, int depth) {
+        long id = nextId[0]++;
+        int cursor = start + 1;
+        if (depth > 0) {
+            for (int i = 0; i < FANOUT; i++) {
+                cursor = node(positions, nextId, cursor, depth - 1) + 1;
+            }
+        } else {
+            cursor += 3;
+        }
+        positions.put(id, Pair.of(start, cursor - start));
+        return cursor;
+    }
+}
@@ -0,0 +1,93 @@
+package org.vstu.meaningtree.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Время запуска CLI целиком (от старта JVM до выхода) на коротких командах: без архива классов
+ * и с архивом AppCDS, который строит команда {@code warmup}. Каждая команда запускается
+ * {@code RUNS} раз, печатается медиана. Сериализация в JSON не трогает Jena, в RDF — трогает,
+ * так что разница между ними — цена инициализации Jena.
+ * <p>
+ * Запуск: {@code StartupBenchmark <собранный jar приложения> [файл на Java]}.
+ */
+public class StartupBenchmark {
+    private static final int RUNS = 7;
+
+    private static final String SAMPLE = """
+            public class Main {
+                public static void main(String[] args) {
+                    int s = 0;
+                    for (int i = 0; i < 10; i++) {
+                        if (i % 2 == 0) {
+                            s += i;
+                        }
+                    }
+                    System.out.println(s);
+                }
+            }
+            """;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: StartupBenchmark <application.jar> [input.java]");
+            return;
+        }
+        Path jar = Path.of(args[0]).toAbsolutePath();
+        Path input;
+        if (args.length > 1) {
+            input = Path.of(args[1]);
+        } else {
+            input = Files.createTempFile("meaningtree-startup", ".java");
+            Files.writeString(input, SAMPLE);
+        }
+        Path archive = Files.createTempDirectory("meaningtree-startup").resolve("application.jsa");
+        run(List.of(), jar, "warmup", "--archive", archive.toString());
+
+        List<String[]> commands = List.of(
+                new String[] {"list-langs"},
+                new String[] {"translate", "--from", "java", "--to", "python", input.toString()},
+                new String[] {"translate", "--from", "java", "--serialize", "json", input.toString()},
+                new String[] {"translate", "--from", "java", "--serialize", "rdf-turtle", input.toString()}
+        );
+        System.out.printf("%-45s %12s %12s%n", "command", "default ms", "archive ms");
+        for (String[] command : commands) {
+            long plain = median(List.of(), jar, command);
+            long shared = median(List.of("-XX:SharedArchiveFile=" + archive), jar, command);
+            System.out.printf("%-45s %12d %12d%n", String.join(" ", command).replace(input.toString(), "<file>"),
+                    plain, shared);
+        }
+        Files.deleteIfExists(archive);
+    }
+
+    private static long median(List<String> jvmOptions, Path jar, String... command) throws Exception {
+        long[] times = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            run(jvmOptions, jar, command);
+            times[i] = (System.nanoTime() - start) / 1_000_000;
+        }
+        Arrays.sort(times);
+        return times[RUNS / 2];
+    }
+
+    private static void run(List<String> jvmOptions, Path jar, String... command) throws IOException, InterruptedException {
+        List<String> line = new ArrayList<>();
+        line.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        line.addAll(jvmOptions);
+        line.add("-jar");
+        line.add(jar.toString());
+        line.addAll(List.of(command));
+        Process process = new ProcessBuilder(line)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("Command failed: " + String.join(" ", line));
+        }
+    }
+}
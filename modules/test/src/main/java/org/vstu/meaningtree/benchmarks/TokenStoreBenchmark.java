@@ -0,0 +1,56 @@
+package org.vstu.meaningtree.benchmarks;
+
+import org.vstu.meaningtree.languages.JavaTranslator;
+import org.vstu.meaningtree.serializers.json.JsonSerializer;
+import org.vstu.meaningtree.utils.tokens.CompactTokenList;
+import org.vstu.meaningtree.utils.tokens.Token;
+import org.vstu.meaningtree.utils.tokens.TokenList;
+
+import java.util.Map;
+
+/**
+ * Сравнение {@link TokenList} и столбцового {@link CompactTokenList}: занимаемая память,
+ * скорость заполнения и сериализации в JSON на токенах сгенерированной программы.
+ * <p>
+ * Запуск: {@code TokenStoreBenchmark [число методов] [число копий для замера памяти]}.
+ */
+public class TokenStoreBenchmark {
+    public static void main(String[] args) {
+        int methods = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        int copies = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        String code = ArenaBenchmark.generate(methods);
+        JavaTranslator translator = new JavaTranslator(Map.of("translationUnitMode", "full"));
+        TokenList source = translator.getCodeAsTokens(code, false, false);
+        JsonSerializer serializer = new JsonSerializer();
+
+        CompactTokenList compact = CompactTokenList.of(source);
+        System.out.printf("Tokens: %d, distinct values: %d%n", source.size(), compact.distinctValues());
+
+        System.out.printf("Build TokenList:         %.3f ms%n", Bench.measure(() -> {
+            TokenList list = new TokenList();
+            for (Token token : source) {
+                list.add(token);
+            }
+            return list.size();
+        }));
+        System.out.printf("Build CompactTokenList:  %.3f ms%n", Bench.measure(() -> CompactTokenList.of(source).size()));
+        System.out.printf("JSON TokenList:          %.3f ms%n", Bench.measure(() -> serializer.serialize(source).size()));
+        System.out.printf("JSON CompactTokenList:   %.3f ms%n", Bench.measure(() -> serializer.serialize(compact).size()));
+
+        System.out.printf("Heap TokenList:          %.1f KiB per copy%n", Bench.retained(copies, () -> copy(source)) / 1024.0);
+        System.out.printf("Heap CompactTokenList:   %.1f KiB per copy%n", Bench.retained(copies, () -> CompactTokenList.of(copy(source))) / 1024.0);
+    }
+
+    /**
+     * Токены копии клонируются, чтобы в замер памяти попали сами токены, а не только ссылки
+     * на общие объекты; у {@link CompactTokenList} в куче остаются лишь те клоны, что
+     * хранятся целиком.
+     */
+    private static TokenList copy(TokenList source) {
+        TokenList list = new TokenList();
+        for (Token token : source) {
+            list.addSilent(token.clone());
+        }
+        return list;
+    }
+}
@@ -0,0 +1,29 @@
+package org.vstu.meaningtree.benchmarks;
+
+import org.treesitter.TSParser;
+import org.treesitter.TreeSitterJava;
+import org.vstu.meaningtree.languages.JavaTranslator;
+
+import java.util.Map;
+
+/**
+ * Стоимость токенизации исходного кода относительно голого разбора tree-sitter и полного
+ * построения MeaningTree. Токенизация идёт по синтаксическому дереву и должна стоить
+ * немногим больше разбора tree-sitter.
+ * <p>
+ * Запуск: {@code TokenizeBenchmark [число методов]}.
+ */
+public class TokenizeBenchmark {
+    public static void main(String[] args) {
+        int methods = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        String code = ArenaBenchmark.generate(methods);
+        JavaTranslator translator = new JavaTranslator(Map.of("translationUnitMode", "full"));
+        TSParser parser = new TSParser();
+        parser.setLanguage(new TreeSitterJava());
+
+        System.out.printf("Source: %d chars%n", code.length());
+        System.out.printf("Tree-sitter parse: %.3f ms%n", Bench.measure(() -> parser.parseString(null, code).getRootNode().getChildCount()));
+        System.out.printf("Tokenize:          %.3f ms%n", Bench.measure(() -> translator.getCodeAsTokens(code, false, false).size()));
+        System.out.printf("MeaningTree parse: %.3f ms%n", Bench.measure(() -> translator.getMeaningTree(code).getRootNode().hashCode()));
+    }
+}
@@ -0,0 +1,66 @@
+package org.vstu.meaningtree.benchmarks;
+
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.nodes.Node;
+import org.vstu.meaningtree.nodes.ProgramEntryPoint;
+import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
+import org.vstu.meaningtree.nodes.expressions.literals.IntegerLiteral;
+import org.vstu.meaningtree.nodes.expressions.math.AddOp;
+import org.vstu.meaningtree.nodes.expressions.math.MulOp;
+import org.vstu.meaningtree.nodes.statements.ExpressionStatement;
+import org.vstu.meaningtree.utils.diff.EditOperation;
+import org.vstu.meaningtree.utils.diff.EditScript;
+import org.vstu.meaningtree.utils.diff.TreeDiff;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link TreeDiff} на программах разного размера. Целевая программа — та же, но примерно в
+ * каждом сотом операторе переименован идентификатор, вставлен новый оператор или оператор
+ * переставлен в начало. Для сравнения — {@link Node#equals} исходной программы с её
+ * неизменённой копией: полный обход, который отвечает только «равны или нет».
+ * <p>
+ * Запуск: {@code TreeDiffBenchmark [наибольшее число операторов]}.
+ */
+public class TreeDiffBenchmark {
+    public static void main(String[] args) {
+        int maxStatements = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        System.out.printf("%10s %10s %10s %10s %10s %10s %10s %12s%n",
+                "statements", "nodes", "equals ms", "diff ms", "update", "move", "insert", "json chars");
+        for (int statements = 200; statements <= maxStatements; statements *= 10) {
+            MeaningTree source = new MeaningTree(new ProgramEntryPoint(program(statements, false)));
+            MeaningTree target = new MeaningTree(new ProgramEntryPoint(program(statements, true)));
+            Node copy = new ProgramEntryPoint(program(statements, false));
+            int nodes = source.iterate().size();
+
+            double equals = Bench.measure(() -> source.getRootNode().equals(copy) ? 1 : 0);
+            double diff = Bench.measure(() -> new TreeDiff().compute(source, target).operations().size());
+            EditScript script = new TreeDiff().compute(source, target);
+            System.out.printf("%10d %10d %10.2f %10.2f %10d %10d %10d %12d%n", statements, nodes, equals, diff,
+                    script.count(EditOperation.Kind.UPDATE), script.count(EditOperation.Kind.MOVE),
+                    script.count(EditOperation.Kind.INSERT), script.toJson().toString().length());
+        }
+    }
+
+    /**
+     * {@code a_i = x_i * i + i}; при {@code edited} каждый сотый оператор изменён.
+     */
+    private static List<Node> program(int statements, boolean edited) {
+        List<Node> body = new ArrayList<>(statements);
+        for (int i = 0; i < statements; i++) {
+            String name = edited && i % 100 == 10 ? "renamed" + i : "x" + i;
+            body.add(new ExpressionStatement(new AddOp(
+                    new MulOp(new SimpleIdentifier(name), new IntegerLiteral(i)), new IntegerLiteral(i))));
+            if (edited && i % 100 == 50) {
+                body.add(new ExpressionStatement(new AddOp(new SimpleIdentifier("inserted"), new IntegerLiteral(i))));
+            }
+        }
+        if (edited) {
+            for (int i = 90; i < body.size(); i += 100) {
+                body.addFirst(body.remove(i));
+            }
+        }
+        return body;
+    }
+}
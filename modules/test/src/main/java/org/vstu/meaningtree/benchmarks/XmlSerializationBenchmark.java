@@ -0,0 +1,95 @@
+package org.vstu.meaningtree.benchmarks;
+
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.nodes.Expression;
+import org.vstu.meaningtree.nodes.Node;
+import org.vstu.meaningtree.nodes.ProgramEntryPoint;
+import org.vstu.meaningtree.nodes.declarations.VariableDeclaration;
+import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
+import org.vstu.meaningtree.nodes.expressions.literals.IntegerLiteral;
+import org.vstu.meaningtree.nodes.expressions.math.AddOp;
+import org.vstu.meaningtree.nodes.expressions.math.MulOp;
+import org.vstu.meaningtree.nodes.expressions.math.SubOp;
+import org.vstu.meaningtree.nodes.types.builtin.IntType;
+import org.vstu.meaningtree.serializers.json.JsonDeserializer;
+import org.vstu.meaningtree.serializers.json.JsonSerializer;
+import org.vstu.meaningtree.serializers.xml.JsonXmlConverter;
+import org.vstu.meaningtree.serializers.xml.XMLDeserializer;
+import org.vstu.meaningtree.serializers.xml.XMLSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * XML-сериализация через {@link JsonXmlConverter} (JSON-строка, её разбор, W3C DOM и
+ * {@code Transformer}) против потоковой записи и чтения {@link XMLSerializer} и
+ * {@link XMLDeserializer}. Для каждого размера дерева печатаются время и выделенная память
+ * на одну операцию.
+ * <p>
+ * Запуск: {@code XmlSerializationBenchmark [наибольшее число объявлений]}.
+ */
+public class XmlSerializationBenchmark {
+    private static final int CHAIN = 20;
+
+    public static void main(String[] args) throws Exception {
+        int maxDeclarations = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        JsonSerializer jsonSerializer = new JsonSerializer();
+        JsonDeserializer jsonDeserializer = new JsonDeserializer();
+        XMLSerializer xmlSerializer = new XMLSerializer(true);
+        XMLDeserializer xmlDeserializer = new XMLDeserializer();
+
+        System.out.printf("%8s %10s %12s %12s %12s %12s%n", "decls", "xml KiB",
+                "dom write", "stream write", "dom read", "stream read");
+        for (int declarations = 10; declarations <= maxDeclarations; declarations *= 10) {
+            MeaningTree tree = program(declarations);
+            String xml = xmlSerializer.serialize(tree);
+            int rounds = Math.max(1, Bench.ROUNDS * 100 / declarations);
+
+            Bench.Sample domWrite = Bench.sample(rounds, () -> {
+                try {
+                    return JsonXmlConverter.jsonToXml(jsonSerializer.serialize(tree), true).length();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            Bench.Sample streamWrite = Bench.sample(rounds, () -> xmlSerializer.serialize(tree).length());
+            Bench.Sample domRead = Bench.sample(rounds, () -> {
+                try {
+                    return jsonDeserializer.deserializeTree(JsonXmlConverter.xmlToJsonObject(xml)).hashCode();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            Bench.Sample streamRead = Bench.sample(rounds, () -> xmlDeserializer.deserializeTree(xml).hashCode());
+
+            System.out.printf("%8d %10d %12s %12s %12s %12s%n", declarations, xml.length() / 1024,
+                    format(domWrite), format(streamWrite), format(domRead), format(streamRead));
+        }
+        System.out.println();
+        System.out.println("Cells: ms / allocated MiB per operation");
+    }
+
+    /**
+     * Программа из объявлений {@code int vN = ((v0 * 1) - v2) + ...} с цепочками длины {@link #CHAIN}.
+     */
+    private static MeaningTree program(int declarations) {
+        List<Node> body = new ArrayList<>();
+        for (int declaration = 0; declaration < declarations; declaration++) {
+            Expression current = new SimpleIdentifier("v0");
+            for (int i = 1; i <= CHAIN; i++) {
+                Expression operand = i % 2 == 0 ? new IntegerLiteral(i) : new SimpleIdentifier("v" + (i % 5));
+                current = switch (i % 3) {
+                    case 0 -> new AddOp(current, operand);
+                    case 1 -> new MulOp(current, operand);
+                    default -> new SubOp(current, operand);
+                };
+            }
+            body.add(new VariableDeclaration(new IntType(), new SimpleIdentifier("v" + declaration), current));
+        }
+        return new MeaningTree(new ProgramEntryPoint(body));
+    }
+
+    private static String format(Bench.Sample sample) {
+        return "%.2f/%.1f".formatted(sample.millis(), sample.bytes() / 1024.0 / 1024.0);
+    }
+}
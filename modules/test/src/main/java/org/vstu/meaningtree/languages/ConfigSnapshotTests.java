@@ -0,0 +1,41 @@
+package org.vstu.meaningtree.languages;
+
+import org.junit.jupiter.api.Test;
+import org.vstu.meaningtree.languages.configs.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigSnapshotTests {
+
+    @Test
+    void snapshotParsesBuiltinParameters() {
+        Config config = ConfigParameters.defaultConfig().merge(new Config(
+                ConfigParameters.translationUnitMode.withValue("expression"),
+                ConfigParameters.supportCheckMode.withValue("failFast"),
+                ConfigParameters.skipErrors.withValue(true),
+                ConfigParameters.targetLanguageVersion.withValue("c++17")
+        ));
+        ConfigSnapshot settings = ConfigSnapshot.of(config);
+        assertEquals(TranslationUnitMode.EXPRESSION, settings.translationUnitMode());
+        assertTrue(settings.isExpressionMode());
+        assertEquals(SupportCheckMode.FAIL_FAST, settings.supportCheckMode());
+        assertTrue(settings.skipErrors());
+        assertEquals("c++17", settings.targetLanguageVersion());
+        assertTrue(settings.isCompiledFrom(config));
+        assertFalse(settings.isCompiledFrom(config.clone()));
+    }
+
+    @Test
+    void parametersOutsideComponentSubsetTakeDefaults() {
+        // Подмножество viewer: параметров парсера в нём нет
+        Config viewerConfig = ConfigParameters.defaultConfig()
+                .merge(new Config(ConfigParameters.lazyAnalysis.withValue(true)))
+                .subset(ConfigParameter.forScopes(ConfigScope.VIEWER, ConfigScope.TRANSLATOR));
+        assertFalse(viewerConfig.has(ConfigParameters.lazyAnalysis.getId()));
+
+        ConfigSnapshot settings = ConfigSnapshot.of(viewerConfig);
+        assertFalse(settings.lazyAnalysis());
+        assertEquals(TranslationUnitMode.FULL, settings.translationUnitMode());
+        assertNull(settings.targetLanguageVersion());
+    }
+}
@@ -0,0 +1,103 @@
+package org.vstu.meaningtree.languages;
+
+import org.junit.jupiter.api.Test;
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.nodes.ProgramEntryPoint;
+import org.vstu.meaningtree.nodes.declarations.VariableDeclaration;
+import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
+import org.vstu.meaningtree.nodes.expressions.literals.IntegerLiteral;
+import org.vstu.meaningtree.nodes.expressions.math.AddOp;
+import org.vstu.meaningtree.nodes.types.builtin.IntType;
+import org.vstu.meaningtree.utils.tokens.OperatorToken;
+import org.vstu.meaningtree.utils.tokens.Token;
+import org.vstu.meaningtree.utils.tokens.TokenList;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Детальная токенизация целых программ: выражения внутри инструкций выдаются по дереву,
+ * инструкции — по отрендеренному скелету.
+ */
+class ExtendedTokenizationTests {
+    private static final Map<String, Object> CONFIG = Map.of("translationUnitMode", "full");
+
+    private static final String CODE = """
+            class Main {
+                public static void main(String[] args) {
+                    int total = 0;
+                    for (int i = 0; i < 10; i++) {
+                        if (i % 2 == 0) {
+                            total = total + i;
+                        }
+                    }
+                }
+            }
+            """;
+
+    private static String squeeze(String text) {
+        return text.replaceAll("\\s+", "");
+    }
+
+    @Test
+    void programTokensFollowRenderedCode() {
+        JavaTranslator translator = new JavaTranslator(CONFIG);
+        MeaningTree tree = translator.getMeaningTree(CODE);
+        TokenList tokens = translator.getCodeAsTokens(tree, false, true, false);
+
+        for (Token token : tokens) {
+            assertFalse(token.value.startsWith(LanguageViewer.PLACEHOLDER_PREFIX), token.toString());
+        }
+        String joined = tokens.stream().map(token -> token.value).collect(Collectors.joining());
+        assertEquals(squeeze(translator.getCode(tree)), squeeze(joined));
+    }
+
+    @Test
+    void expressionsInsideStatementsKeepOperatorTokens() {
+        for (LanguageTranslator translator : new LanguageTranslator[] {
+                new JavaTranslator(CONFIG), new PythonTranslator(CONFIG), new CppTranslator(CONFIG)}) {
+            MeaningTree tree = new JavaTranslator(CONFIG).getMeaningTree(CODE);
+            TokenList tokens = translator.getCodeAsTokens(tree, false, true, false);
+            assertTrue(tokens.stream().anyMatch(token -> token instanceof OperatorToken && token.value.equals("%")),
+                    translator.getLanguageName());
+        }
+    }
+
+    @Test
+    void onlyPlaceholdersOfTheRenderAreRecognized() {
+        LanguageViewer.Skeleton skeleton = new JavaTranslator(CONFIG)._viewer
+                .renderSkeleton(new AddOp(new SimpleIdentifier("a"), new IntegerLiteral(2)), node -> node instanceof IntegerLiteral);
+        assertEquals(1, skeleton.placeholders().size());
+        String placeholder = skeleton.placeholderPrefix() + "0";
+        assertTrue(skeleton.text().contains(placeholder), skeleton.text());
+        assertNotEquals(LanguageViewer.PLACEHOLDER_PREFIX, skeleton.placeholderPrefix());
+
+        assertEquals(0, skeleton.placeholderIndex(placeholder));
+        assertEquals(-1, skeleton.placeholderIndex(skeleton.placeholderPrefix() + "1"));
+        assertEquals(-1, skeleton.placeholderIndex(skeleton.placeholderPrefix() + "x"));
+        assertEquals(-1, skeleton.placeholderIndex(LanguageViewer.PLACEHOLDER_PREFIX + "0"));
+        assertEquals(-1, skeleton.placeholderIndex(LanguageViewer.PLACEHOLDER_PREFIX + "x"));
+        assertEquals(-1, skeleton.placeholderIndex("a"));
+    }
+
+    @Test
+    void sourceIdentifiersWithPlaceholderPrefixAreKept() {
+        // Имена совпадают с общим префиксом заглушек, но не с заглушками рендеринга
+        MeaningTree tree = new MeaningTree(new ProgramEntryPoint(List.of(
+                new VariableDeclaration(new IntType(), new SimpleIdentifier("__mt_placeholder_x"), new IntegerLiteral(1)),
+                new VariableDeclaration(new IntType(), new SimpleIdentifier("__mt_placeholder_0"),
+                        new AddOp(new SimpleIdentifier("__mt_placeholder_x"), new IntegerLiteral(2)))
+        )));
+        for (LanguageTranslator translator : new LanguageTranslator[] {
+                new JavaTranslator(CONFIG), new PythonTranslator(CONFIG), new CppTranslator(CONFIG)}) {
+            TokenList tokens = translator.getCodeAsTokens(tree, false, true, false);
+            String joined = tokens.stream().map(token -> token.value).collect(Collectors.joining());
+            assertEquals(squeeze(translator.getCode(tree)), squeeze(joined), translator.getLanguageName());
+            assertEquals(2, tokens.stream().filter(token -> token.value.equals("__mt_placeholder_x")).count(),
+                    translator.getLanguageName());
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.vstu.meaningtree.languages;
+
+import org.junit.jupiter.api.Test;
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
+import org.vstu.meaningtree.nodes.expressions.literals.IntegerLiteral;
+import org.vstu.meaningtree.nodes.expressions.math.AddOp;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LanguageProvidersTests {
+
+    @Test
+    void everyLanguageModuleIsDiscovered() {
+        assertEquals(List.of("c++", "java", "python"),
+                LanguageProviders.byName().keySet().stream().sorted().toList());
+        for (LanguageProvider provider : LanguageProviders.byName().values()) {
+            LanguageTranslator translator = provider.create();
+            assertSame(provider.getTranslatorClass(), translator.getClass());
+            assertEquals(provider.getLanguageName(), translator.getLanguageName());
+            assertEquals(provider, LanguageProviders.find(translator.getLanguageId()).orElseThrow());
+        }
+        assertTrue(LanguageProviders.find("Python").isPresent());
+        assertTrue(LanguageProviders.find("kotlin").isEmpty());
+    }
+
+    @Test
+    void rawConfigIsValidatedAgainstTranslatorParameters() {
+        LanguageTranslator translator = LanguageProviders.find("python").orElseThrow()
+                .create(Map.of("skipErrors", true));
+        assertTrue(translator.getConfigFlag("skipErrors"));
+
+        // Рендеринг не разбирает код, поэтому обходится без грамматики
+        String code = translator.getCode(new MeaningTree(
+                new AddOp(new SimpleIdentifier("a"), new IntegerLiteral(1))));
+        assertEquals("a + 1", code.strip());
+    }
+}
@@ -0,0 +1,113 @@
+package org.vstu.meaningtree.languages;
+
+import org.junit.jupiter.api.Test;
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.exceptions.IllegalUsageException;
+import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
+import org.vstu.meaningtree.nodes.expressions.literals.IntegerLiteral;
+import org.vstu.meaningtree.nodes.statements.CompoundStatement;
+import org.vstu.meaningtree.nodes.statements.assignments.AssignmentStatement;
+import org.vstu.meaningtree.utils.SourceMap;
+import org.vstu.meaningtree.utils.hooks.HookHandle;
+import org.vstu.meaningtree.utils.hooks.HookPhase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Одновременный рендеринг одного дерева в несколько языков через общий снимок.
+ */
+class MultiTargetRenderingTests {
+    private static final Map<String, Object> CONFIG = Map.of("translationUnitMode", "full");
+
+    private static final String CODE = """
+            class Main {
+                public static void main(String[] args) {
+                    int total = 0;
+                    for (int i = 0; i < 10; i++) {
+                        if (i % 2 == 0) {
+                            total = total + i * (i - 1);
+                        }
+                    }
+                    System.out.println(total);
+                }
+            }
+            """;
+
+    private static List<LanguageTranslator> targets() {
+        return List.of(new JavaTranslator(CONFIG), new PythonTranslator(CONFIG), new CppTranslator(CONFIG));
+    }
+
+    @Test
+    void parallelRenderingMatchesSequential() throws Exception {
+        MeaningTree tree = new JavaTranslator(CONFIG).getMeaningTree(CODE);
+        List<String> sequential = targets().stream().map(target -> target.getCode(tree)).toList();
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            for (int round = 0; round < 5; round++) {
+                List<CompletableFuture<String>> futures = LanguageTranslator.getCodeForAll(tree, targets(), executor);
+                for (int i = 0; i < futures.size(); i++) {
+                    assertEquals(sequential.get(i), futures.get(i).get());
+                }
+            }
+            List<CompletableFuture<SourceMap>> maps = LanguageTranslator.getSourceMapsForAll(tree, targets(), executor);
+            for (int i = 0; i < maps.size(); i++) {
+                assertEquals(sequential.get(i), maps.get(i).get().code());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void snapshotIsReadOnlyAndSharesNodes() {
+        MeaningTree tree = new JavaTranslator(CONFIG).getMeaningTree(CODE);
+        MeaningTree snapshot = tree.asReadOnly();
+
+        assertTrue(snapshot.isReadOnly());
+        assertSame(tree.getRootNode(), snapshot.getRootNode());
+        assertSame(snapshot, snapshot.asReadOnly());
+        long id = snapshot.getRootNode().getId();
+        assertThrows(IllegalUsageException.class, () -> snapshot.replace(id, new SimpleIdentifier("x")));
+        assertFalse(snapshot.clone().isReadOnly());
+    }
+
+    @Test
+    void sameTranslatorTwiceIsRejected() {
+        MeaningTree tree = new JavaTranslator(CONFIG).getMeaningTree(CODE);
+        PythonTranslator python = new PythonTranslator(CONFIG);
+        assertThrows(IllegalArgumentException.class,
+                () -> LanguageTranslator.getCodeForAll(tree, List.of(python, python)));
+    }
+
+    @Test
+    void treeRenderInterceptorGetsPrivateCopy() {
+        MeaningTree snapshot = new MeaningTree(new CompoundStatement(
+                new AssignmentStatement(new SimpleIdentifier("x"), new IntegerLiteral(1)))).asReadOnly();
+        JavaTranslator java = new JavaTranslator(Map.of("translationUnitMode", "simple"));
+        List<MeaningTree> received = new ArrayList<>();
+        try (HookHandle ignored = java._viewer.hooks().intercept(HookPhase.BEFORE_TREE_RENDER,
+                (subject, value, context) -> {
+                    received.add(value);
+                    value.changeRoot(new CompoundStatement(
+                            new AssignmentStatement(new SimpleIdentifier("y"), new IntegerLiteral(2))));
+                    return value;
+                })) {
+            assertTrue(java.getCode(snapshot).contains("y = 2"));
+        }
+
+        assertEquals(1, received.size());
+        assertNotSame(snapshot, received.getFirst());
+        assertFalse(received.getFirst().isReadOnly());
+        String original = java.getCode(snapshot);
+        assertTrue(original.contains("x = 1"));
+        assertFalse(original.contains("y"));
+    }
+}
@@ -0,0 +1,98 @@
+package org.vstu.meaningtree.languages;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.iterators.utils.NodeInfo;
+import org.vstu.meaningtree.nodes.statements.Loop;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Кэш разбора на диске: попадания по содержимому, переживание перезапуска, предел объёма.
+ */
+class ParseCacheTests {
+    private static final Map<String, Object> CONFIG = Map.of("translationUnitMode", "full");
+
+    private static final String CODE = """
+            class Main {
+                public static void main(String[] args) {
+                    int total = 0;
+                    for (int i = 0; i < 10; i++) {
+                        total = total + i;
+                    }
+                }
+            }
+            """;
+
+    @Test
+    void unchangedCodeIsNotParsedAgain(@TempDir Path directory) throws IOException {
+        JavaTranslator java = new JavaTranslator(CONFIG);
+        ParseCache cache = ParseCache.open(directory, 64L * 1024 * 1024);
+
+        ParseCache.Entry parsed = cache.parse(java, CODE);
+        ParseCache.Entry cached = cache.parse(java, CODE);
+        assertEquals(1, cache.stats().hits());
+        assertEquals(1, cache.stats().misses());
+        assertNotSame(parsed.tree(), cached.tree());
+        assertNotNull(cached.scopeTable());
+
+        PythonTranslator python = new PythonTranslator(CONFIG);
+        assertEquals(python.getCode(parsed.tree()), python.getCode(cached.tree()));
+
+        ParseCache reopened = ParseCache.open(directory, 64L * 1024 * 1024);
+        assertEquals(1, reopened.stats().entries());
+        reopened.parse(java, CODE);
+        reopened.parse(java, CODE.replace("10", "20"));
+        assertEquals(1, reopened.stats().hits());
+        assertEquals(1, reopened.stats().misses());
+    }
+
+    @Test
+    void cachedTreeKeepsAnalysisEstimates(@TempDir Path directory) throws IOException {
+        // При отложенном анализе он обязан выполниться до записи в кэш
+        JavaTranslator java = new JavaTranslator(Map.of("translationUnitMode", "full", "lazyAnalysis", true));
+        ParseCache cache = ParseCache.open(directory, 64L * 1024 * 1024);
+
+        Loop parsed = firstLoop(cache.parse(java, CODE).tree());
+        MeaningTree cached = ParseCache.open(directory, 64L * 1024 * 1024).parse(java, CODE).tree();
+        assertEquals(0, cache.stats().failures());
+
+        Loop loop = firstLoop(cached);
+        assertFalse(cached.isAnalysisPending());
+        assertTrue(loop.getIterationEstimate().isPresent());
+        assertEquals(parsed.getIterationEstimate(), loop.getIterationEstimate());
+    }
+
+    private static Loop firstLoop(MeaningTree tree) {
+        for (NodeInfo info : tree) {
+            if (info.node() instanceof Loop loop) {
+                return loop;
+            }
+        }
+        throw new AssertionError("no loop in " + tree);
+    }
+
+    @Test
+    void configurationIsPartOfTheKey(@TempDir Path directory) throws IOException {
+        ParseCache cache = ParseCache.open(directory, 64L * 1024 * 1024);
+        cache.parse(new JavaTranslator(CONFIG), CODE);
+        cache.parse(new JavaTranslator(Map.of("translationUnitMode", "full", "skipErrors", true)), CODE);
+        assertEquals(0, cache.stats().hits());
+        assertEquals(2, cache.stats().entries());
+    }
+
+    @Test
+    void sizeLimitEvictsLeastRecentlyUsed(@TempDir Path directory) throws IOException {
+        ParseCache cache = ParseCache.open(directory, 1);
+        JavaTranslator java = new JavaTranslator(CONFIG);
+        cache.parse(java, CODE);
+        cache.parse(java, CODE.replace("10", "20"));
+        assertEquals(1, cache.stats().entries());
+        assertEquals(1, cache.stats().evictions());
+    }
+}
@@ -0,0 +1,90 @@
+package org.vstu.meaningtree.languages;
+
+import org.junit.jupiter.api.Test;
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.ProgramGenerator;
+import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
+import org.vstu.meaningtree.nodes.expressions.literals.IntegerLiteral;
+import org.vstu.meaningtree.utils.scopes.ScopeTable;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Рендеринг дерева прямо из разбора на копии таблицы областей видимости разбора.
+ */
+class ParseScopeReuseTests {
+    private static final Map<String, Object> REUSE = Map.of("translationUnitMode", "full");
+    private static final Map<String, Object> REBUILD =
+            Map.of("translationUnitMode", "full", "reuseParseScopeTable", false);
+
+    private static final String CODE = """
+            class Main {
+                static double average(int[] values) {
+                    int total = 0;
+                    for (int i = 0; i < values.length; i++) {
+                        total += values[i];
+                    }
+                    double result = total;
+                    return result / values.length;
+                }
+
+                public static void main(String[] args) {
+                    int count = 3;
+                    String label = "count: " + count;
+                    System.out.println(label);
+                }
+            }
+            """;
+
+    private static List<LanguageTranslator> targets(Map<String, Object> config) {
+        return List.of(new JavaTranslator(config), new PythonTranslator(config), new CppTranslator(config));
+    }
+
+    @Test
+    void reusedTableRendersTheSameCode() {
+        String generated = new ProgramGenerator(ProgramGenerator.Shape.defaults(), 7).java();
+        for (String code : List.of(CODE, generated)) {
+            List<LanguageTranslator> reusing = targets(REUSE);
+            List<LanguageTranslator> rebuilding = targets(REBUILD);
+            for (int i = 0; i < reusing.size(); i++) {
+                MeaningTree tree = new JavaTranslator(REUSE).getMeaningTree(code);
+                assertTrue(tree.getScopeSnapshot().isPresent());
+                assertEquals(rebuilding.get(i).getCode(new JavaTranslator(REUSE).getMeaningTree(code)),
+                        reusing.get(i).getCode(tree),
+                        reusing.get(i).getLanguageName());
+            }
+        }
+    }
+
+    @Test
+    void viewerWorksOnCopy() {
+        JavaTranslator java = new JavaTranslator(REUSE);
+        MeaningTree tree = java.getMeaningTree(CODE);
+        ScopeTable parsed = java.getParseScopeTable();
+        assertSame(parsed, tree.getScopeSnapshot().orElseThrow());
+
+        java.getCode(tree);
+        ScopeTable rendered = java.getRenderScopeTable();
+        assertNotSame(parsed, rendered);
+        assertEquals(parsed.allScopes().size(), rendered.allScopes().size());
+        assertSame(parsed, tree.getScopeSnapshot().orElseThrow());
+    }
+
+    @Test
+    void changedTreeDropsSnapshot() {
+        MeaningTree tree = new JavaTranslator(REUSE).getMeaningTree(CODE);
+        assertTrue(tree.asReadOnly().getScopeSnapshot().isPresent());
+        assertTrue(tree.clone().getScopeSnapshot().isEmpty());
+
+        var count = tree.iterate().stream()
+                .filter(info -> info.node() instanceof SimpleIdentifier identifier && identifier.getName().equals("count"))
+                .findFirst()
+                .orElseThrow();
+        assertTrue(tree.replace(count, new IntegerLiteral("3")).isSuccess());
+        assertTrue(tree.getScopeSnapshot().isEmpty());
+        assertFalse(new PythonTranslator(REUSE).getCode(tree).isEmpty());
+    }
+}
@@ -0,0 +1,131 @@
+package org.vstu.meaningtree.languages;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.vstu.meaningtree.nodes.Type;
+import org.vstu.meaningtree.nodes.declarations.ClassDeclaration;
+import org.vstu.meaningtree.nodes.declarations.FunctionDeclaration;
+import org.vstu.meaningtree.nodes.declarations.VariableDeclaration;
+import org.vstu.meaningtree.nodes.declarations.components.DeclarationArgument;
+import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
+import org.vstu.meaningtree.nodes.types.builtin.FloatType;
+import org.vstu.meaningtree.nodes.types.builtin.IntType;
+import org.vstu.meaningtree.nodes.types.user.Class;
+import org.vstu.meaningtree.utils.scopes.ProjectIndex;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Трансляция проекта: общий индекс символов и отрисовка всех файлов.
+ */
+class ProjectTranslatorTests {
+    private static final Map<String, Object> CONFIG = Map.of("translationUnitMode", "full");
+
+    private static Path project(Path root) throws IOException {
+        Files.createDirectories(root.resolve("shapes"));
+        Files.writeString(root.resolve("shapes/Point.java"), """
+                class Point {
+                    int x;
+                    int y;
+                }
+                """);
+        Files.writeString(root.resolve("Main.java"), """
+                class Main {
+                    public static void main(String[] args) {
+                        int total = 0;
+                        for (int i = 0; i < 10; i++) {
+                            total = total + i;
+                        }
+                    }
+                }
+                """);
+        Files.writeString(root.resolve("notes.txt"), "not a source file");
+        return root;
+    }
+
+    @Test
+    void indexCoversAllFiles(@TempDir Path directory) throws IOException {
+        Path root = project(directory);
+        ProjectTranslator.Result result = new ProjectTranslator(new JavaTranslator(CONFIG), null)
+                .withParallelism(2)
+                .index(root);
+
+        assertTrue(result.isSuccessful());
+        assertEquals(2, result.files());
+        ProjectIndex index = result.index();
+        assertEquals(List.of(Path.of("Main.java"), Path.of("shapes/Point.java")), List.copyOf(index.files()));
+        assertEquals(List.of(Path.of("shapes/Point.java")), index.declaringFiles(new SimpleIdentifier("Point")));
+        assertTrue(index.findDeclaration(new SimpleIdentifier("Point"), null).isPresent());
+
+        // Разбор Main.java с подключённым индексом видит класс из другого файла
+        TranslatorContext context = new JavaTranslator(CONFIG).withProjectIndex(index)._viewer.context();
+        assertInstanceOf(ClassDeclaration.class, context.lookupDeclaration("Point").orElseThrow());
+        assertTrue(context.lookupRegisteredType(new SimpleIdentifier("Point")).isPresent());
+    }
+
+    @Test
+    void contextFallsBackToProjectIndex() {
+        SimpleIdentifier point = new SimpleIdentifier("Point");
+        SimpleIdentifier limit = new SimpleIdentifier("limit");
+        ClassDeclaration pointDeclaration = new ClassDeclaration(point);
+        VariableDeclaration limitDeclaration = new VariableDeclaration(new IntType(), limit);
+        Class pointType = new Class(point);
+        ProjectIndex index = ProjectIndex.of(List.of(new ProjectIndex.FileSymbols(Path.of("shapes/Point.java"),
+                Map.of(point, pointDeclaration, limit, limitDeclaration), Map.of(point, pointType), Set.of())));
+
+        TranslatorContext context = new JavaTranslator(CONFIG).withProjectIndex(index)._viewer.context();
+        assertSame(limitDeclaration, context.lookupDeclaration("limit", VariableDeclaration.class).orElseThrow());
+        assertTrue(context.lookupDeclaration("limit", FunctionDeclaration.class).isEmpty());
+        assertSame(pointDeclaration, context.lookupDeclaration("Point").orElseThrow());
+        assertSame(pointType, context.lookupRegisteredType(point).orElseThrow());
+
+        TranslatorContext standalone = new JavaTranslator(CONFIG)._viewer.context();
+        assertTrue(standalone.lookupDeclaration("limit").isEmpty());
+        assertTrue(standalone.lookupRegisteredType(point).isEmpty());
+    }
+
+    @Test
+    void everyFileIsRenderedOnce(@TempDir Path directory) throws IOException {
+        Path root = project(directory);
+        Map<Path, String> outputs = new ConcurrentHashMap<>();
+        Map<ProjectTranslator.Stage, Integer> progress = new ConcurrentHashMap<>();
+        ProjectTranslator.Result result = new ProjectTranslator(new JavaTranslator(CONFIG), new PythonTranslator(CONFIG))
+                .withParallelism(2)
+                .withProgressListener((stage, file, done, total) -> progress.merge(stage, 1, Integer::sum))
+                .translate(root, (file, code) -> assertNull(outputs.put(file, code)));
+
+        assertTrue(result.isSuccessful(), result.failures().toString());
+        assertEquals(2, result.translated());
+        assertEquals(Map.of(ProjectTranslator.Stage.INDEX, 2, ProjectTranslator.Stage.RENDER, 2), progress);
+        assertTrue(outputs.get(Path.of("Main.java")).contains("total"));
+        assertTrue(outputs.get(Path.of("shapes/Point.java")).contains("Point"));
+    }
+
+    private static String fingerprint(Type variableType, Type parameterType, Type returnType) {
+        SimpleIdentifier limit = new SimpleIdentifier("limit");
+        SimpleIdentifier scale = new SimpleIdentifier("scale");
+        return ProjectIndex.of(List.of(new ProjectIndex.FileSymbols(Path.of("globals.cpp"),
+                Map.of(limit, new VariableDeclaration(variableType, limit),
+                        scale, new FunctionDeclaration(scale, returnType, List.of(),
+                                new DeclarationArgument(parameterType, new SimpleIdentifier("value"), null))),
+                Map.of(), Set.of()))).fingerprint();
+    }
+
+    @Test
+    void fingerprintFollowsDeclarationSignatures() {
+        String original = fingerprint(new IntType(), new IntType(), new FloatType());
+        assertEquals(original, fingerprint(new IntType(), new IntType(), new FloatType()));
+        assertNotEquals(original, fingerprint(new FloatType(), new IntType(), new FloatType()));
+        assertNotEquals(original, fingerprint(new IntType(64), new IntType(), new FloatType()));
+        assertNotEquals(original, fingerprint(new IntType(), new FloatType(), new FloatType()));
+        assertNotEquals(original, fingerprint(new IntType(), new IntType(), new IntType()));
+    }
+}
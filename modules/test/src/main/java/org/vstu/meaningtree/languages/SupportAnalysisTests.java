@@ -0,0 +1,120 @@
+package org.vstu.meaningtree.languages;
+
+import org.junit.jupiter.api.Test;
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.exceptions.UnsupportedConversionException;
+import org.vstu.meaningtree.languages.support.SupportIssue;
+import org.vstu.meaningtree.languages.support.SupportReport;
+import org.vstu.meaningtree.nodes.ProgramEntryPoint;
+import org.vstu.meaningtree.nodes.declarations.VariableDeclaration;
+import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
+import org.vstu.meaningtree.nodes.expressions.literals.IntegerLiteral;
+import org.vstu.meaningtree.nodes.types.builtin.IntType;
+import org.vstu.meaningtree.nodes.types.builtin.PointerType;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Режимы анализа поддержки: полный отчёт, обрыв на первой критической проблеме и проверка,
+ * совмещённая с рендерингом.
+ */
+class SupportAnalysisTests {
+    private static final Map<String, Object> CONFIG = Map.of(
+            "translationUnitMode", "full",
+            "skipErrors", false
+    );
+
+    private static final String POINTERS = """
+            int main() {
+                int value = 1;
+                int* first = &value;
+                int* second = &value;
+                return 0;
+            }
+            """;
+
+    private static final String PLAIN = """
+            int main() {
+                int value = 1;
+                while (value < 10) {
+                    value = value + 1;
+                }
+                return 0;
+            }
+            """;
+
+    @Test
+    void failFastStopsAtFirstCriticalIssue() {
+        MeaningTree tree = new CppTranslator(CONFIG).getMeaningTree(POINTERS);
+        PythonTranslator python = new PythonTranslator(CONFIG);
+
+        SupportReport full = python.analyzeSupport(tree, false, false);
+        SupportReport failFast = python.analyzeSupport(tree, false, true);
+
+        assertTrue(pointerIssues(full).size() >= 2, "Both pointer declarations must be reported");
+        assertFalse(failFast.isSupported());
+        assertTrue(failFast.issues().size() < full.issues().size());
+        List<SupportIssue> issues = failFast.issues();
+        assertTrue(issues.getLast().requiresThrow(), "Fail-fast report must end with the critical issue");
+        assertTrue(issues.subList(0, issues.size() - 1).stream().noneMatch(SupportIssue::requiresThrow));
+    }
+
+    @Test
+    void everySupportModeRejectsUnsupportedTree() {
+        MeaningTree tree = new CppTranslator(CONFIG).getMeaningTree(POINTERS);
+        for (String mode : List.of("full", "failFast", "fused")) {
+            PythonTranslator python = new PythonTranslator(withMode(mode));
+            assertThrows(UnsupportedConversionException.class, () -> python.getCode(tree),
+                    "Mode " + mode + " accepted pointer types");
+        }
+    }
+
+    @Test
+    void everySupportModeRendersSupportedTreeIdentically() {
+        MeaningTree tree = new CppTranslator(CONFIG).getMeaningTree(PLAIN);
+        String expected = new PythonTranslator(withMode("full")).getCode(tree);
+        assertEquals(expected, new PythonTranslator(withMode("failFast")).getCode(tree));
+        assertEquals(expected, new PythonTranslator(withMode("fused")).getCode(tree));
+    }
+
+    @Test
+    void fusedModeChecksSubtreesSkippedByRenderer() {
+        // Без аннотаций тип переменной не рендерится, но проверяться должен, как в full
+        MeaningTree tree = new MeaningTree(new ProgramEntryPoint(List.of(
+                new VariableDeclaration(new PointerType(new IntType()), new SimpleIdentifier("p"), new IntegerLiteral(0))
+        )));
+        for (String mode : List.of("full", "fused")) {
+            Map<String, Object> config = withMode(mode);
+            config.put("disableTypeAnnotations", true);
+            PythonTranslator python = new PythonTranslator(config);
+            assertThrows(UnsupportedConversionException.class, () -> python.getCode(tree),
+                    "Mode " + mode + " accepted pointer types");
+        }
+    }
+
+    @Test
+    void fusedTranslatorStaysReusableAfterRejection() {
+        PythonTranslator python = new PythonTranslator(withMode("fused"));
+        CppTranslator cpp = new CppTranslator(CONFIG);
+
+        assertThrows(UnsupportedConversionException.class, () -> python.getCode(cpp.getMeaningTree(POINTERS)));
+        MeaningTree plain = cpp.getMeaningTree(PLAIN);
+        assertEquals(new PythonTranslator(CONFIG).getCode(plain), python.getCode(plain));
+    }
+
+    private static List<SupportIssue> pointerIssues(SupportReport report) {
+        return report.issues().stream()
+                .filter(issue -> issue.featureId().equals("feature-pointer-type"))
+                .toList();
+    }
+
+    private static Map<String, Object> withMode(String mode) {
+        Map<String, Object> config = new HashMap<>(CONFIG);
+        config.put("supportCheckMode", mode);
+        return config;
+    }
+}
@@ -0,0 +1,70 @@
+package org.vstu.meaningtree.languages;
+
+import org.junit.jupiter.api.Test;
+import org.vstu.meaningtree.exceptions.UnsupportedParsingException;
+import org.vstu.meaningtree.utils.hooks.HookHandle;
+import org.vstu.meaningtree.utils.hooks.HookPhase;
+import org.vstu.meaningtree.utils.tokens.TokenList;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Токенизация кода идёт только по дереву tree-sitter: MeaningTree не строится, поэтому
+ * конструкции, которые парсер не поддерживает, ей не мешают, а синтаксические ошибки — мешают.
+ */
+class TokenizationTests {
+    private static final Map<String, Object> CONFIG = Map.of("translationUnitMode", "full", "skipErrors", false);
+
+    private static final String CODE = """
+            class Main {
+                static int twice(int n) {
+                    return n + n;
+                }
+            }
+            """;
+
+    private static List<String> values(TokenList tokens) {
+        return tokens.stream().map(token -> token.value).toList();
+    }
+
+    @Test
+    void tokenizeDoesNotBuildMeaningTree() {
+        JavaTranslator java = new JavaTranslator(CONFIG);
+        AtomicInteger parsedTrees = new AtomicInteger();
+        try (HookHandle ignored = java._language.hooks().observe(HookPhase.AFTER_TREE_PARSE,
+                (tree, value, context) -> parsedTrees.incrementAndGet())) {
+            TokenList tokens = java.getTokenizer().tokenize(CODE);
+            assertEquals(0, parsedTrees.get());
+            assertTrue(values(tokens).containsAll(List.of("class", "Main", "twice", "return", "n", "+")),
+                    values(tokens).toString());
+
+            java.getMeaningTree(CODE);
+            assertEquals(1, parsedTrees.get());
+        }
+    }
+
+    @Test
+    void constructsUnsupportedByParserAreTokenized() {
+        String code = """
+                enum Color {
+                    RED(1), GREEN(2);
+                    Color(int code) {}
+                }
+                """;
+        JavaTranslator java = new JavaTranslator(CONFIG);
+        assertThrows(UnsupportedParsingException.class, () -> java.getMeaningTree(code));
+
+        List<String> values = values(java.getTokenizer().tokenize(code));
+        assertTrue(values.containsAll(List.of("enum", "Color", "RED", "GREEN", "1", "2")), values.toString());
+    }
+
+    @Test
+    void syntaxErrorsStillFailTokenization() {
+        String code = "class Main { int x = ; }";
+        assertThrows(UnsupportedParsingException.class, () -> new JavaTranslator(CONFIG).getTokenizer().tokenize(code));
+    }
+}
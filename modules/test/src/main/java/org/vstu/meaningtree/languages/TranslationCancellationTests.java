@@ -0,0 +1,140 @@
+package org.vstu.meaningtree.languages;
+
+import org.junit.jupiter.api.Test;
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.ProgramGenerator;
+import org.vstu.meaningtree.exceptions.TranslationCancelledException;
+import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
+import org.vstu.meaningtree.utils.CancellationToken;
+import org.vstu.meaningtree.utils.hooks.HookHandle;
+import org.vstu.meaningtree.utils.hooks.HookPhase;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Кооперативная отмена трансляции: маркер прерывает разбор и рендеринг, а транслятор после
+ * отмены работает так же, как новый.
+ */
+class TranslationCancellationTests {
+    private static final Map<String, Object> CONFIG = Map.of("translationUnitMode", "full");
+
+    private static final String CODE = """
+            class Main {
+                static int sum(int n) {
+                    int total = 0;
+                    for (int i = 0; i < n; i++) {
+                        total = total + i * 2;
+                    }
+                    return total;
+                }
+            }
+            """;
+
+    /** Насколько отмена может запоздать относительно срока — с большим запасом на медленные машины */
+    private static final long LATENCY_BOUND_MS = 1000;
+
+    @Test
+    void cancelledTokenStopsTranslationAndTranslatorStaysUsable() {
+        JavaTranslator java = new JavaTranslator(CONFIG);
+        MeaningTree tree = java.getMeaningTree(CODE);
+        PythonTranslator python = new PythonTranslator(CONFIG);
+        String expected = python.getCode(tree);
+
+        CancellationToken token = CancellationToken.create();
+        token.cancel();
+        java.withCancellation(token);
+        python.withCancellation(token);
+        TranslationCancelledException parse = assertThrows(TranslationCancelledException.class,
+                () -> java.getMeaningTree(CODE));
+        assertFalse(parse.isDeadlineExceeded());
+        assertThrows(TranslationCancelledException.class, () -> python.getCode(tree));
+
+        java.withCancellation(null);
+        python.withCancellation(CancellationToken.create());
+        assertEquals(expected, python.getCode(java.getMeaningTree(CODE)));
+        assertEquals(tree.getRootNode(), java.getMeaningTree(CODE).getRootNode());
+    }
+
+    @Test
+    void deadlineBoundsTranslationOfLargeProgram() {
+        String code = new ProgramGenerator(ProgramGenerator.Shape.defaults().scaled(500), 1).java();
+        JavaTranslator java = new JavaTranslator(CONFIG);
+        Duration timeout = Duration.ofMillis(50);
+
+        long start = System.nanoTime();
+        java.withCancellation(CancellationToken.withTimeout(timeout));
+        TranslationCancelledException error = assertThrows(TranslationCancelledException.class,
+                () -> java.getMeaningTree(code));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(error.isDeadlineExceeded());
+        assertTrue(elapsedMs < timeout.toMillis() + LATENCY_BOUND_MS,
+                "Cancellation took %d ms for a %d ms deadline".formatted(elapsedMs, timeout.toMillis()));
+
+        java.withCancellation(null);
+        assertEquals(new JavaTranslator(CONFIG).getMeaningTree(CODE).getRootNode(),
+                java.getMeaningTree(CODE).getRootNode());
+    }
+
+    @Test
+    void hookCanCancelParsing() {
+        JavaTranslator java = new JavaTranslator(CONFIG);
+        CancellationToken token = CancellationToken.create();
+        java.withCancellation(token);
+        try (HookHandle ignored = java._language.registerOnNodeParsedHook(SimpleIdentifier.class,
+                (tsNode, identifier) -> token.cancel())) {
+            assertThrows(TranslationCancelledException.class, () -> java.getMeaningTree(CODE));
+        }
+        assertTrue(token.isCancelled());
+
+        java.withCancellation(CancellationToken.create());
+        assertNotNull(java.getMeaningTree(CODE).getRootNode());
+    }
+
+    @Test
+    void renderingIsCancelledFromAnotherThread() throws Exception {
+        MeaningTree tree = new JavaTranslator(CONFIG).getMeaningTree(CODE);
+        PythonTranslator python = new PythonTranslator(CONFIG);
+        String expected = python.getCode(tree);
+
+        CancellationToken token = CancellationToken.create();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        Thread canceller = new Thread(() -> {
+            try {
+                if (started.await(10, TimeUnit.SECONDS)) {
+                    token.cancel();
+                }
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            } finally {
+                cancelled.countDown();
+            }
+        });
+        canceller.start();
+
+        python.withCancellation(token);
+        try (HookHandle ignored = python._viewer.hooks().observe(HookPhase.BEFORE_NODE_RENDER,
+                (node, value, context) -> {
+                    if (started.getCount() > 0) {
+                        started.countDown();
+                        try {
+                            cancelled.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                })) {
+            assertThrows(TranslationCancelledException.class, () -> python.getCode(tree));
+        }
+        canceller.join();
+
+        python.withCancellation(null);
+        assertEquals(expected, python.getCode(tree));
+    }
+}
@@ -0,0 +1,60 @@
+package org.vstu.meaningtree.languages;
+
+import org.junit.jupiter.api.Test;
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.utils.metrics.TranslationMetrics;
+import org.vstu.meaningtree.utils.metrics.TranslationPhase;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Сбор пофазовых метрик трансляции по флагу {@code collectMetrics}.
+ */
+class TranslationMetricsTests {
+    private static final String CODE = """
+            class Main {
+                public static void main(String[] args) {
+                    int total = 0;
+                    for (int i = 0; i < 10; i++) {
+                        total = total + i;
+                    }
+                    System.out.println(total);
+                }
+            }
+            """;
+
+    @Test
+    void metricsAreAbsentByDefault() {
+        JavaTranslator translator = new JavaTranslator(Map.of("translationUnitMode", "full"));
+        translator.getCode(translator.getMeaningTree(CODE));
+        assertNull(translator.getLastMetrics());
+    }
+
+    @Test
+    void parseAndRenderArePhased() {
+        Map<String, Object> config = Map.of("translationUnitMode", "full", "collectMetrics", true);
+        JavaTranslator java = new JavaTranslator(config);
+        MeaningTree tree = java.getMeaningTree(CODE);
+
+        TranslationMetrics parse = java.getLastMetrics();
+        assertNotNull(parse);
+        assertEquals("java", parse.language());
+        assertTrue(parse.phaseNanos(TranslationPhase.TREE_SITTER) > 0);
+        assertTrue(parse.phaseNanos(TranslationPhase.PARSE) > 0);
+        assertTrue(parse.nodesParsed() > 0);
+        assertEquals(0, parse.nodesRendered());
+        assertTrue(parse.otherNanos() >= 0);
+
+        PythonTranslator python = new PythonTranslator(config);
+        String code = python.getCode(tree);
+        TranslationMetrics render = python.getLastMetrics();
+        assertNotNull(render);
+        assertTrue(render.phaseNanos(TranslationPhase.RENDER) > 0);
+        assertTrue(render.nodesRendered() > 0);
+        assertEquals(code.getBytes(StandardCharsets.UTF_8).length, render.bytesProduced());
+        assertTrue(render.totalNanos() >= render.phaseNanos(TranslationPhase.RENDER));
+    }
+}
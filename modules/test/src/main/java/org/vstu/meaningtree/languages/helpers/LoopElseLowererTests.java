@@ -6,9 +6,13 @@ import org.vstu.meaningtree.languages.CppTranslator;
 import org.vstu.meaningtree.languages.JavaTranslator;
 import org.vstu.meaningtree.languages.PythonTranslator;
 import org.vstu.meaningtree.nodes.Node;
+import org.vstu.meaningtree.nodes.expressions.comparison.EqOp;
+import org.vstu.meaningtree.nodes.expressions.comparison.LtOp;
 import org.vstu.meaningtree.nodes.statements.CompoundStatement;
 import org.vstu.meaningtree.nodes.statements.Loop;
 import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
+import org.vstu.meaningtree.nodes.expressions.literals.IntegerLiteral;
+import org.vstu.meaningtree.nodes.expressions.math.AddOp;
 import org.vstu.meaningtree.nodes.statements.assignments.AssignmentStatement;
 import org.vstu.meaningtree.nodes.statements.conditions.IfStatement;
 import org.vstu.meaningtree.nodes.statements.loops.WhileLoop;
@@ -123,6 +127,26 @@ public class LoopElseLowererTests {
         }
     }
 
+    @Test
+    void fullSupportCheckAcceptsLoweredTreeWithClonedFlag() {
+        // while x < 10: if x == 5: break; x = x + 1 / else: y = 1 — без разбора Python
+        WhileLoop loop = new WhileLoop(new LtOp(new SimpleIdentifier("x"), new IntegerLiteral(10)),
+                new CompoundStatement(
+                        new IfStatement(new EqOp(new SimpleIdentifier("x"), new IntegerLiteral(5)),
+                                new CompoundStatement(new BreakStatement())),
+                        new AssignmentStatement(new SimpleIdentifier("x"),
+                                new AddOp(new SimpleIdentifier("x"), new IntegerLiteral(1)))));
+        loop.setElseBranch(new AssignmentStatement(new SimpleIdentifier("y"), new IntegerLiteral(1)));
+        MeaningTree tree = new MeaningTree(new CompoundStatement(loop));
+
+        // Флаг вставляется клонами с общим id — проверка поддержки не должна строить индекс по id
+        String java = new JavaTranslator(Map.of("translationUnitMode", "simple", "supportCheckMode", "full"))
+                .getCode(tree);
+
+        assertTrue(java.contains("_loop_else_1 = false;"), java);
+        assertTrue(java.contains("if (_loop_else_1)"), java);
+    }
+
     @Test
     void pythonRendersElseNatively() {
         String source = """
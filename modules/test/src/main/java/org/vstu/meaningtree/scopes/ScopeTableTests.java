@@ -8,11 +8,14 @@ import org.vstu.meaningtree.nodes.ProgramEntryPoint;
 import org.vstu.meaningtree.nodes.Type;
 import org.vstu.meaningtree.nodes.declarations.ClassDeclaration;
 import org.vstu.meaningtree.nodes.declarations.FunctionDeclaration;
+import org.vstu.meaningtree.nodes.declarations.VariableDeclaration;
 import org.vstu.meaningtree.nodes.definitions.ClassDefinition;
 import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
 import org.vstu.meaningtree.nodes.statements.CompoundStatement;
 import org.vstu.meaningtree.nodes.types.UnknownType;
 import org.vstu.meaningtree.nodes.types.UserType;
+import org.vstu.meaningtree.nodes.types.builtin.FloatType;
+import org.vstu.meaningtree.nodes.types.builtin.IntType;
 import org.vstu.meaningtree.serializers.json.JsonDeserializer;
 import org.vstu.meaningtree.serializers.json.JsonSerializer;
 import org.vstu.meaningtree.utils.SourceMap;
@@ -187,6 +190,32 @@ public class ScopeTableTests {
                 .isPresent());
     }
 
+    @Test
+    void copyIsIndependentAndKeepsScopeIds() {
+        ScopeTable original = new ScopeTable();
+        original.registerDeclaration(new SimpleIdentifier("global"), functionDeclaration("global"));
+        CompoundStatement body = new CompoundStatement();
+        original.enter(body);
+        long bodyScope = original.currentScopeId();
+        original.registerVariable(new VariableDeclaration(new IntType(), new SimpleIdentifier("x")));
+
+        ScopeTable copy = original.copy();
+        assertEquals(bodyScope, copy.currentScopeId());
+        assertSame(original.scope(), body.getScope().orElseThrow());
+        assertInstanceOf(IntType.class, copy.getVariableType(new SimpleIdentifier("x")));
+
+        copy.changeVariableType(new SimpleIdentifier("x"), new FloatType());
+        copy.registerVariable(new VariableDeclaration(new IntType(), new SimpleIdentifier("y")));
+        copy.leave();
+        copy.registerDeclaration(new SimpleIdentifier("other"), functionDeclaration("other"));
+
+        assertInstanceOf(IntType.class, original.getVariableType(new SimpleIdentifier("x")));
+        assertFalse(original.hasVariable(new SimpleIdentifier("y")));
+        assertEquals(bodyScope, original.currentScopeId());
+        assertTrue(original.findDeclaration(new SimpleIdentifier("other"), null).isEmpty());
+        assertTrue(copy.findDeclaration(new SimpleIdentifier("global"), null).isPresent());
+    }
+
     private static FunctionDeclaration functionDeclaration(String name) {
         return new FunctionDeclaration(new SimpleIdentifier(name), new UnknownType(), List.of());
     }
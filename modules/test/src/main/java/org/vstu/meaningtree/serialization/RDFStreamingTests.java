@@ -0,0 +1,94 @@
+package org.vstu.meaningtree.serialization;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFFormat;
+import org.junit.jupiter.api.Test;
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.nodes.Expression;
+import org.vstu.meaningtree.nodes.expressions.calls.FunctionCall;
+import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
+import org.vstu.meaningtree.nodes.expressions.literals.FloatLiteral;
+import org.vstu.meaningtree.nodes.expressions.literals.IntegerLiteral;
+import org.vstu.meaningtree.nodes.expressions.math.AddOp;
+import org.vstu.meaningtree.nodes.expressions.math.MulOp;
+import org.vstu.meaningtree.serializers.model.UniversalSerializer;
+import org.vstu.meaningtree.serializers.rdf.RDFDeserializer;
+import org.vstu.meaningtree.serializers.rdf.RDFSerializer;
+import org.vstu.meaningtree.serializers.rdf.StreamingRDFDeserializer;
+import org.vstu.meaningtree.serializers.rdf.StreamingRDFSerializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RDFStreamingTests {
+
+    /**
+     * {@code f(a + 1, b * 2.5, g())}
+     */
+    private static MeaningTree tree() {
+        Expression expression = new FunctionCall(new SimpleIdentifier("f"),
+                new AddOp(new SimpleIdentifier("a"), new IntegerLiteral(1)),
+                new MulOp(new SimpleIdentifier("b"), new FloatLiteral("2.5")),
+                new FunctionCall(new SimpleIdentifier("g")));
+        return new MeaningTree(expression);
+    }
+
+    private static byte[] ntriples(MeaningTree tree) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new StreamingRDFSerializer().write(tree, out, RDFFormat.NTRIPLES);
+        return out.toByteArray();
+    }
+
+    @Test
+    void streamedTriplesMatchModelSerializer() {
+        MeaningTree tree = tree();
+        Model expected = new RDFSerializer().serialize(tree);
+
+        Model streamed = ModelFactory.createDefaultModel();
+        RDFDataMgr.read(streamed, new ByteArrayInputStream(ntriples(tree)), Lang.NTRIPLES);
+        assertTrue(expected.isIsomorphicWith(streamed));
+
+        // IRI узлов и метки ячеек списков не зависят от запуска
+        assertEquals(new String(ntriples(tree), StandardCharsets.UTF_8), new String(ntriples(tree), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void streamingReadMatchesModelDeserializer() {
+        MeaningTree tree = tree();
+        byte[] serialized = ntriples(tree);
+
+        Model model = ModelFactory.createDefaultModel();
+        RDFDataMgr.read(model, new ByteArrayInputStream(serialized), Lang.NTRIPLES);
+        assertEquals(
+                new RDFDeserializer().deserialize(model,
+                        model.getResource(RDFSerializer.NS + "MeaningTree")
+                                .getPropertyResourceValue(model.createProperty(RDFSerializer.NS, "hasField"))),
+                new StreamingRDFDeserializer().read(new ByteArrayInputStream(serialized)));
+
+        assertEquals(new UniversalSerializer().serialize(tree),
+                new StreamingRDFDeserializer().read(new ByteArrayInputStream(serialized)));
+        MeaningTree restored = new StreamingRDFDeserializer().deserializeTree(new ByteArrayInputStream(serialized));
+        assertEquals(tree.getRootNode(), restored.getRootNode());
+    }
+
+    @Test
+    void treesWithDifferentBasesShareGraph() {
+        Model graph = ModelFactory.createDefaultModel();
+        for (String base : new String[]{"http://example.org/first#", "http://example.org/second#"}) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            new StreamingRDFSerializer(base).write(tree(), out, RDFFormat.TURTLE_BLOCKS);
+            RDFDataMgr.read(graph, new ByteArrayInputStream(out.toByteArray()), Lang.TURTLE);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RDFDataMgr.write(out, graph, RDFFormat.NTRIPLES);
+        MeaningTree second = new StreamingRDFDeserializer("http://example.org/second#", Lang.NTRIPLES)
+                .deserializeTree(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(tree().getRootNode(), second.getRootNode());
+    }
+}
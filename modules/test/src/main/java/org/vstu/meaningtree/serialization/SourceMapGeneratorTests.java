@@ -11,6 +11,7 @@ import org.vstu.meaningtree.nodes.expressions.literals.IntegerLiteral;
 import org.vstu.meaningtree.nodes.expressions.literals.StringLiteral;
 import org.vstu.meaningtree.nodes.expressions.math.AddOp;
 import org.vstu.meaningtree.nodes.expressions.math.MulOp;
+import org.vstu.meaningtree.nodes.statements.CompoundStatement;
 import org.vstu.meaningtree.nodes.statements.ExpressionStatement;
 import org.vstu.meaningtree.nodes.statements.conditions.IfStatement;
 import org.vstu.meaningtree.nodes.statements.loops.WhileLoop;
@@ -167,6 +168,19 @@ public class SourceMapGeneratorTests {
         assertEquals(3, branchingComplexity, "One if branch and one loop add one each");
     }
 
+    @Test
+    void treeWithClonesSharingIdsIsProcessed() {
+        // Клон сохраняет id оригинала, как после понижения loop-else
+        WhileLoop loop = new WhileLoop(new SimpleIdentifier("x"),
+                new CompoundStatement(new ExpressionStatement(new SimpleIdentifier("y"))));
+        MeaningTree tree = new MeaningTree(new CompoundStatement(loop, loop.clone()));
+        assertThrows(IllegalStateException.class, tree::makeIndex);
+
+        JavaTranslator translator = new JavaTranslator(CONFIG);
+        SourceMap map = new SourceMapGenerator(translator).process(tree);
+        assertEquals(3, map.metrics().get("cyclomatic").intValue());
+    }
+
     @Test
     void scopeTableIsAttachedToSourceMap() {
         JavaTranslator translator = new JavaTranslator(CONFIG);
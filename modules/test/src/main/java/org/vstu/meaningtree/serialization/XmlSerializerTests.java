@@ -0,0 +1,159 @@
+package org.vstu.meaningtree.serialization;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.nodes.Expression;
+import org.vstu.meaningtree.nodes.Node;
+import org.vstu.meaningtree.nodes.ProgramEntryPoint;
+import org.vstu.meaningtree.nodes.declarations.VariableDeclaration;
+import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
+import org.vstu.meaningtree.nodes.expressions.literals.IntegerLiteral;
+import org.vstu.meaningtree.nodes.expressions.literals.StringLiteral;
+import org.vstu.meaningtree.nodes.expressions.math.AddOp;
+import org.vstu.meaningtree.nodes.expressions.math.SubOp;
+import org.vstu.meaningtree.nodes.types.builtin.IntType;
+import org.vstu.meaningtree.nodes.types.builtin.StringType;
+import org.vstu.meaningtree.serializers.json.JsonDeserializer;
+import org.vstu.meaningtree.serializers.json.JsonSerializer;
+import org.vstu.meaningtree.serializers.xml.JsonXmlConverter;
+import org.vstu.meaningtree.serializers.xml.XMLDeserializer;
+import org.vstu.meaningtree.serializers.xml.XMLSerializer;
+import org.vstu.meaningtree.utils.BytePosition;
+import org.vstu.meaningtree.utils.NodePositions;
+import org.vstu.meaningtree.utils.SourceMap;
+import org.vstu.meaningtree.utils.scopes.ScopeTable;
+import org.vstu.meaningtree.utils.tokens.OperatorArity;
+import org.vstu.meaningtree.utils.tokens.OperatorAssociativity;
+import org.vstu.meaningtree.utils.tokens.OperatorToken;
+import org.vstu.meaningtree.utils.tokens.Token;
+import org.vstu.meaningtree.utils.tokens.TokenList;
+import org.vstu.meaningtree.utils.tokens.TokenType;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Потоковая XML-сериализация должна давать ровно то же, что конвертер
+ * {@link JsonXmlConverter} через DOM, и читаться обратно в то же JSON-представление.
+ */
+class XmlSerializerTests {
+
+    private static MeaningTree program() {
+        Expression chain = new SimpleIdentifier("x0");
+        for (int i = 1; i <= 50; i++) {
+            SimpleIdentifier operand = new SimpleIdentifier("x" + (i % 10));
+            chain = i % 2 == 0 ? new SubOp(chain, operand) : new AddOp(chain, operand);
+        }
+        List<Node> body = List.of(
+                new VariableDeclaration(new IntType(), new SimpleIdentifier("a"), new IntegerLiteral(1)),
+                new VariableDeclaration(new StringType(), new SimpleIdentifier("s"),
+                        StringLiteral.fromUnescaped("<a href=\"x\">&\t'\r\n\u0085 😀</a>", StringLiteral.Type.NONE)),
+                new VariableDeclaration(new IntType(), new SimpleIdentifier("r"), chain)
+        );
+        return new MeaningTree(new ProgramEntryPoint(body));
+    }
+
+    @Test
+    void streamingOutputMatchesConverter() throws Exception {
+        MeaningTree tree = program();
+        JsonObject json = new JsonSerializer().serialize(tree);
+        for (boolean pretty : new boolean[]{false, true}) {
+            assertEquals(JsonXmlConverter.jsonToXml(json, pretty), new XMLSerializer(pretty).serialize(tree));
+
+            StringWriter out = new StringWriter();
+            new XMLSerializer(pretty).serialize(tree, out);
+            assertEquals(JsonXmlConverter.jsonToXml(json, pretty), out.toString());
+        }
+    }
+
+    /**
+     * Потоковое чтение сравнивается и с разбором конвертера через DOM, и с исходным деревом:
+     * имена полей, которых не восстановить по тегам, хранятся в атрибуте {@code field}.
+     */
+    @Test
+    void streamingReadMatchesConverter() throws Exception {
+        MeaningTree tree = program();
+        JsonSerializer serializer = new JsonSerializer();
+        JsonDeserializer jsonDeserializer = new JsonDeserializer();
+        for (boolean pretty : new boolean[]{false, true}) {
+            String treeXml = new XMLSerializer(pretty).serialize(tree);
+            assertEquals(serializer.serialize(tree), serializer.serialize(new XMLDeserializer().deserializeTree(treeXml)));
+            JsonElement expectedTree = withoutIds(serializer.serialize(
+                    jsonDeserializer.deserializeTree(JsonXmlConverter.xmlToJsonObject(treeXml))));
+            assertEquals(expectedTree, withoutIds(serializer.serialize(new XMLDeserializer().deserializeTree(treeXml))));
+            assertEquals(expectedTree, withoutIds(serializer.serialize(
+                    new XMLDeserializer().deserializeTree(new StringReader(treeXml)))));
+
+            String nodeXml = new XMLSerializer(pretty).serialize(tree.getRootNode());
+            assertEquals(
+                    withoutIds(serializer.serialize(jsonDeserializer.deserialize(JsonXmlConverter.xmlToJsonObject(nodeXml)))),
+                    withoutIds(serializer.serialize(new XMLDeserializer().deserialize(nodeXml))));
+        }
+    }
+
+    @Test
+    void sourceMapRoundTripsThroughStreamingXml() {
+        MeaningTree tree = program();
+        List<Node> declarations = ((ProgramEntryPoint) tree.getRootNode()).getBody();
+        NodePositions positions = NodePositions.builder()
+                .put(tree.getRootNode().getId(), 0, 120)
+                .put(declarations.get(0).getId(), 0, 10)
+                .put(declarations.get(1).getId(), 11, 40)
+                .build();
+        SourceMap sourceMap = new SourceMap("int a = 1;", tree.getRootNode(), positions, new ScopeTable(), "java",
+                Map.of("nodes", 57, "seconds", 0.25), "/project", "src/Main.java");
+        JsonSerializer serializer = new JsonSerializer();
+
+        for (boolean pretty : new boolean[]{false, true}) {
+            String xml = new XMLSerializer(pretty).serialize(sourceMap);
+            SourceMap restored = new XMLDeserializer().deserializeSourceMap(xml);
+            assertEquals(serializer.serialize(sourceMap), serializer.serialize(restored));
+            assertEquals(positions, restored.bytePositions());
+            assertEquals(xml, new XMLSerializer(pretty).serialize(restored));
+        }
+    }
+
+    @Test
+    void tokenListRoundTripsThroughStreamingXml() {
+        TokenList tokens = new TokenList();
+        tokens.add(new Token("int", TokenType.KEYWORD));
+        tokens.add(new Token("a", TokenType.IDENTIFIER));
+        tokens.add(new OperatorToken("=", TokenType.OPERATOR, 14, OperatorAssociativity.RIGHT,
+                OperatorArity.BINARY, false));
+        tokens.add(new Token("\"<&>\"", TokenType.CONST));
+        tokens.getFirst().setBytePosition(new BytePosition(0, 3));
+        JsonSerializer serializer = new JsonSerializer();
+
+        for (boolean pretty : new boolean[]{false, true}) {
+            String xml = new XMLSerializer(pretty).serialize(tokens);
+            TokenList restored = new XMLDeserializer().deserializeTokens(xml);
+            assertEquals(withoutIds(serializer.serialize(tokens)), withoutIds(serializer.serialize(restored)));
+            assertEquals(new BytePosition(0, 3), restored.getFirst().bytePos());
+        }
+    }
+
+    private static JsonElement withoutIds(JsonElement json) {
+        if (json.isJsonObject()) {
+            JsonObject result = new JsonObject();
+            for (Map.Entry<String, JsonElement> entry : json.getAsJsonObject().entrySet()) {
+                if (!entry.getKey().equals("id")) {
+                    result.add(entry.getKey(), withoutIds(entry.getValue()));
+                }
+            }
+            return result;
+        }
+        if (json.isJsonArray()) {
+            JsonArray result = new JsonArray();
+            json.getAsJsonArray().forEach(item -> result.add(withoutIds(item)));
+            return result;
+        }
+        return json;
+    }
+}
@@ -0,0 +1,115 @@
+package org.vstu.meaningtree.utils;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.Test;
+import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
+import org.vstu.meaningtree.serializers.json.JsonDeserializer;
+import org.vstu.meaningtree.serializers.json.JsonSerializer;
+import org.vstu.meaningtree.utils.scopes.ScopeTable;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NodePositionsTests {
+
+    /**
+     * Случайная правильно вложенная разметка: узел делит свой отрезок между детьми,
+     * оставляя промежутки; бывают и узлы нулевой длины.
+     */
+    private static void nest(Random random, Map<Long, Pair<Integer, Integer>> positions, long[] nextId,
+                             int start, int end, int depth) {
+        positions.put(nextId[0]++, Pair.of(start, end - start));
+        if (depth == 0 || end - start < 2) {
+            return;
+        }
+        int cursor = start + random.nextInt(2);
+        while (cursor < end) {
+            int childEnd = Math.min(end, cursor + random.nextInt(Math.max(1, (end - start) / 2)));
+            nest(random, positions, nextId, cursor, childEnd, depth - 1);
+            cursor = childEnd + random.nextInt(3);
+        }
+    }
+
+    private static boolean covers(Pair<Integer, Integer> position, int offset) {
+        return position.getLeft() <= offset && offset < position.getLeft() + position.getRight();
+    }
+
+    @Test
+    void behavesAsMap() {
+        Map<Long, Pair<Integer, Integer>> plain = new HashMap<>(Map.of(
+                7L, Pair.of(0, 10), 3L, Pair.of(2, 3), 5L, Pair.of(6, 0)));
+        NodePositions positions = NodePositions.of(plain);
+
+        assertEquals(plain, positions);
+        assertEquals(positions, plain);
+        assertEquals(plain.hashCode(), positions.hashCode());
+        assertEquals(Pair.of(2, 3), positions.get(3L));
+        assertNull(positions.get(4L));
+        assertTrue(positions.containsKey(5L));
+        assertSame(positions, NodePositions.of(positions));
+        assertThrows(UnsupportedOperationException.class, () -> positions.put(1L, Pair.of(0, 1)));
+
+        // Как у Map.put, побеждает последняя позиция узла
+        NodePositions rewritten = NodePositions.builder().put(1, 0, 5).put(2, 1, 1).put(1, 3, 2).build();
+        assertEquals(Map.of(1L, Pair.of(3, 2), 2L, Pair.of(1, 1)), rewritten);
+    }
+
+    @Test
+    void offsetQueriesMatchLinearScan() {
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            Map<Long, Pair<Integer, Integer>> plain = new HashMap<>();
+            int length = 1 + random.nextInt(300);
+            nest(random, plain, new long[]{1}, 0, length, 6);
+            NodePositions positions = NodePositions.of(plain);
+
+            for (int offset = -1; offset <= length + 1; offset++) {
+                int at = offset;
+                List<Long> covering = plain.entrySet().stream()
+                        .filter(entry -> covers(entry.getValue(), at))
+                        .sorted(Comparator.comparing((Map.Entry<Long, Pair<Integer, Integer>> entry) -> entry.getValue().getRight())
+                                .thenComparing(entry -> -entry.getKey()))
+                        .map(Map.Entry::getKey)
+                        .toList();
+                long[] chain = positions.enclosingChain(offset);
+                assertEquals(covering.size(), chain.length, "offset " + offset);
+                for (int i = 0; i < chain.length; i++) {
+                    assertEquals(plain.get(covering.get(i)).getRight(), plain.get(chain[i]).getRight());
+                }
+                assertEquals(covering.isEmpty() ? OptionalLong.empty() : OptionalLong.of(chain[0]),
+                        positions.nodeAt(offset));
+            }
+
+            for (int i = 0; i < 20; i++) {
+                int from = random.nextInt(length + 1);
+                int to = from + random.nextInt(length - from + 1);
+                Set<Long> expected = new HashSet<>();
+                plain.forEach((id, position) -> {
+                    // Пустой отрезок и узлы нулевой длины не пересекаются ни с чем
+                    if (from < to && position.getRight() > 0
+                            && position.getLeft() < to && from < position.getLeft() + position.getRight()) {
+                        expected.add(id);
+                    }
+                });
+                Set<Long> actual = new HashSet<>();
+                long[] overlapping = positions.nodesOverlapping(ByteRange.from(from, to));
+                Arrays.stream(overlapping).forEach(actual::add);
+                assertEquals(expected, actual, "range " + from + ".." + to);
+                assertEquals(expected.size(), overlapping.length);
+            }
+        }
+    }
+
+    @Test
+    void jsonRoundTripKeepsPositions() {
+        NodePositions positions = NodePositions.builder().put(10, 0, 8).put(11, 0, 3).put(12, 4, 4).build();
+        SourceMap sourceMap = new SourceMap("int a = 1;", new SimpleIdentifier("a"), positions,
+                new ScopeTable(), "java");
+
+        SourceMap restored = new JsonDeserializer().deserializeSourceMap(new JsonSerializer().serialize(sourceMap));
+        assertEquals(positions, restored.bytePositions());
+        assertEquals(OptionalLong.of(11), restored.positions().nodeAt(2));
+        assertArrayEquals(new long[]{12, 10}, restored.positions().enclosingChain(5));
+    }
+}
@@ -0,0 +1,100 @@
+package org.vstu.meaningtree.utils.diff;
+
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.nodes.Node;
+import org.vstu.meaningtree.nodes.ProgramEntryPoint;
+import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
+import org.vstu.meaningtree.nodes.expressions.literals.IntegerLiteral;
+import org.vstu.meaningtree.nodes.expressions.math.AddOp;
+import org.vstu.meaningtree.nodes.statements.ExpressionStatement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TreeDiffTests {
+
+    /**
+     * {@code x0 + 0; x1 + 1; ...}
+     */
+    private static List<Node> statements(int count) {
+        List<Node> body = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            body.add(statement("x" + i, i));
+        }
+        return body;
+    }
+
+    private static Node statement(String name, int value) {
+        return new ExpressionStatement(new AddOp(new SimpleIdentifier(name), new IntegerLiteral(value)));
+    }
+
+    private static MeaningTree program(List<Node> body) {
+        return new MeaningTree(new ProgramEntryPoint(body));
+    }
+
+    @Test
+    void identicalTreesHaveEmptyScript() {
+        MeaningTree source = program(statements(5));
+        MeaningTree target = program(statements(5));
+        EditScript script = new TreeDiff().compute(source, target);
+        assertTrue(script.isEmpty());
+        assertEquals(source.iterate().size(), script.matches().size());
+    }
+
+    @Test
+    void changedLeafIsUpdate() {
+        List<Node> changed = statements(5);
+        changed.set(2, statement("y", 2));
+        EditScript script = new TreeDiff().compute(program(statements(5)), program(changed));
+        assertEquals(1, script.operations().size());
+        EditOperation update = script.operations().getFirst();
+        assertEquals(EditOperation.Kind.UPDATE, update.kind());
+        assertInstanceOf(SimpleIdentifier.class, update.source());
+        assertEquals(List.of(new EditOperation.ValueChange("name", "x2", "y")), update.changes());
+    }
+
+    @Test
+    void insertionIntoListDoesNotMoveTail() {
+        List<Node> source = statements(6);
+        List<Node> inserted = statements(6);
+        Node extra = statement("z", 100);
+        inserted.add(3, extra);
+        MeaningTree target = program(inserted);
+        EditScript script = new TreeDiff().compute(program(source), target);
+        // Оператор, сложение и два листа
+        assertEquals(4, script.count(EditOperation.Kind.INSERT));
+        assertEquals(script.operations().size(), script.count(EditOperation.Kind.INSERT));
+        EditOperation top = script.operations().getFirst();
+        assertSame(extra, top.target());
+        assertEquals("body", top.slot().getName());
+        assertEquals(3, top.slot().getIndex());
+        assertEquals(target.getRootNode().getId(), top.parentId());
+
+        EditScript reverse = new TreeDiff().compute(target, program(statements(6)));
+        assertEquals(4, reverse.count(EditOperation.Kind.DELETE));
+        assertEquals(4, reverse.operations().size());
+    }
+
+    @Test
+    void swappedStatementsAreOneMove() {
+        List<Node> swapped = statements(5);
+        swapped.add(0, swapped.remove(3));
+        EditScript script = new TreeDiff().compute(program(statements(5)), program(swapped));
+        assertEquals(1, script.operations().size());
+        EditOperation move = script.operations().getFirst();
+        assertEquals(EditOperation.Kind.MOVE, move.kind());
+        assertEquals(0, move.slot().getIndex());
+
+        JsonObject json = script.toJson();
+        assertEquals("edit_script", json.get("type").getAsString());
+        JsonObject operation = json.getAsJsonArray("operations").get(0).getAsJsonObject();
+        assertEquals("move", operation.get("op").getAsString());
+        assertEquals(move.sourceId(), operation.get("node").getAsLong());
+        assertEquals("body", operation.get("slot").getAsString());
+        assertEquals(0, operation.get("index").getAsInt());
+    }
+}
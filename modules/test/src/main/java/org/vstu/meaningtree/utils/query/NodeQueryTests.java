@@ -0,0 +1,107 @@
+package org.vstu.meaningtree.utils.query;
+
+import org.junit.jupiter.api.Test;
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.exceptions.IllegalUsageException;
+import org.vstu.meaningtree.iterators.utils.NodeInfo;
+import org.vstu.meaningtree.languages.JavaTranslator;
+import org.vstu.meaningtree.nodes.expressions.Literal;
+import org.vstu.meaningtree.nodes.expressions.comparison.BinaryComparison;
+import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
+import org.vstu.meaningtree.nodes.statements.loops.WhileLoop;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NodeQueryTests {
+    private static final String CODE = """
+            class Main {
+                static int compute(int a, int b) {
+                    return a * b;
+                }
+
+                public static void main(String[] args) {
+                    int i = 0;
+                    int n = 5;
+                    while (i < 10) {
+                        i = i + compute(i, 2);
+                    }
+                    if (n > 0) {
+                        while (n > i) {
+                            n = n - compute(n, i);
+                        }
+                    }
+                }
+            }
+            """;
+
+    private static MeaningTree parse() {
+        return new JavaTranslator(Map.of("translationUnitMode", "full")).getMeaningTree(CODE);
+    }
+
+    @Test
+    void textAndBuilderQueriesAgree() {
+        MeaningTree tree = parse();
+        NodeQuery built = NodePattern.of(WhileLoop.class)
+                .field("condition", NodePattern.of(BinaryComparison.class)
+                        .field("left", NodePattern.of(SimpleIdentifier.class))
+                        .field("right", NodePattern.of(Literal.class)))
+                .compile();
+        NodeQuery parsed = NodeQuery.parse(
+                "WhileLoop(condition: BinaryComparison(left: SimpleIdentifier, right: Literal))");
+
+        List<NodeInfo> expected = built.findAll(tree);
+        assertEquals(1, expected.size());
+        assertEquals(ids(expected), ids(parsed.findAll(tree)));
+    }
+
+    @Test
+    void predicatesAndAncestorConstraints() {
+        MeaningTree tree = parse();
+        NodeQuery nested = NodeQuery.parse("IfStatement // WhileLoop");
+        assertEquals(1, nested.findAll(tree).size());
+
+        NodeQuery named = NodePattern.of(SimpleIdentifier.class)
+                .where(identifier -> identifier.getName().equals("n"))
+                .inside(NodePattern.of(WhileLoop.class))
+                .compile();
+        assertFalse(named.findAll(tree).isEmpty());
+        assertTrue(named.findAll(tree).stream()
+                .allMatch(info -> ((SimpleIdentifier) info.node()).getName().equals("n")));
+    }
+
+    @Test
+    void indexedFieldClause() {
+        MeaningTree tree = parse();
+        assertEquals(1, NodeQuery.parse("FunctionCall(arguments[1]: IntegerLiteral)").findAll(tree).size());
+        assertEquals(2, NodeQuery.parse("FunctionCall(arguments[0]: *)").findAll(tree).size());
+    }
+
+    @Test
+    void batchMatchesSeparateQueries() {
+        MeaningTree tree = parse();
+        List<NodeQuery> queries = List.of(
+                NodeQuery.parse("WhileLoop"),
+                NodeQuery.parse("Loop // FunctionCall"),
+                NodeQuery.parse("BinaryComparison(right: Literal)"),
+                NodeQuery.parse("ReturnStatement")
+        );
+        Map<NodeQuery, List<NodeInfo>> batched = QueryBatch.of(queries).run(tree);
+        for (NodeQuery query : queries) {
+            assertEquals(ids(query.findAll(tree)), ids(batched.get(query)), query.toString());
+        }
+    }
+
+    @Test
+    void invalidQueriesAreRejected() {
+        assertThrows(IllegalUsageException.class, () -> NodeQuery.parse("WhileLoop(conditoin: *)"));
+        assertThrows(IllegalUsageException.class, () -> NodeQuery.parse("NoSuchNode"));
+        assertThrows(IllegalUsageException.class, () -> NodeQuery.parse("WhileLoop(condition: *"));
+    }
+
+    private static List<Long> ids(List<NodeInfo> nodes) {
+        return nodes.stream().map(NodeInfo::id).toList();
+    }
+}
@@ -0,0 +1,144 @@
+package org.vstu.meaningtree.utils.similarity;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.vstu.meaningtree.MeaningTree;
+import org.vstu.meaningtree.languages.JavaTranslator;
+import org.vstu.meaningtree.languages.PythonTranslator;
+import org.vstu.meaningtree.nodes.Expression;
+import org.vstu.meaningtree.nodes.Node;
+import org.vstu.meaningtree.nodes.ProgramEntryPoint;
+import org.vstu.meaningtree.nodes.expressions.comparison.LtOp;
+import org.vstu.meaningtree.nodes.expressions.identifiers.SelfReference;
+import org.vstu.meaningtree.nodes.expressions.identifiers.SimpleIdentifier;
+import org.vstu.meaningtree.nodes.expressions.literals.FloatLiteral;
+import org.vstu.meaningtree.nodes.expressions.literals.IntegerLiteral;
+import org.vstu.meaningtree.nodes.expressions.math.AddOp;
+import org.vstu.meaningtree.nodes.expressions.math.MulOp;
+import org.vstu.meaningtree.nodes.statements.CompoundStatement;
+import org.vstu.meaningtree.nodes.statements.assignments.AssignmentStatement;
+import org.vstu.meaningtree.nodes.statements.conditions.IfStatement;
+import org.vstu.meaningtree.nodes.statements.loops.WhileLoop;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimilarityIndexTests {
+
+    /**
+     * Сумма с условием в цикле: {@code while (i < n) { if (i < k) s = s + i * c; i = i + 1; }},
+     * {@code extra} раз дописывается {@code s = s * c;}.
+     */
+    private static MeaningTree loopSum(String i, String s, int limit, int extra) {
+        List<Node> body = new ArrayList<>();
+        body.add(new AssignmentStatement(new SimpleIdentifier(s), new IntegerLiteral(0)));
+        body.add(new WhileLoop(new LtOp(new SimpleIdentifier(i), new IntegerLiteral(limit)), new CompoundStatement(
+                new IfStatement(new LtOp(new SimpleIdentifier(i), new IntegerLiteral(limit / 2)),
+                        new AssignmentStatement(new SimpleIdentifier(s), new AddOp(new SimpleIdentifier(s),
+                                new MulOp(new SimpleIdentifier(i), new IntegerLiteral(3))))),
+                new AssignmentStatement(new SimpleIdentifier(i),
+                        new AddOp(new SimpleIdentifier(i), new IntegerLiteral(1))))));
+        for (int k = 0; k < extra; k++) {
+            body.add(new AssignmentStatement(new SimpleIdentifier(s),
+                    new MulOp(new SimpleIdentifier(s), new IntegerLiteral(k))));
+        }
+        return new MeaningTree(new ProgramEntryPoint(body));
+    }
+
+    /**
+     * Цепочка сложений без циклов и условий.
+     */
+    private static MeaningTree straightLine(int length) {
+        List<Node> body = new ArrayList<>();
+        for (int k = 0; k < length; k++) {
+            body.add(new AssignmentStatement(new SimpleIdentifier("v" + k),
+                    new AddOp(new SimpleIdentifier("v" + (k + 1)), new SimpleIdentifier("w"))));
+        }
+        return new MeaningTree(new ProgramEntryPoint(body));
+    }
+
+    private static SimilarityIndex sample() {
+        SimilarityIndex index = new SimilarityIndex();
+        index.add("original", loopSum("i", "sum", 10, 0));
+        index.add("extended", loopSum("j", "total", 20, 3));
+        index.add("unrelated", straightLine(8));
+        return index;
+    }
+
+    @Test
+    void renamedCopyIsTopMatch() {
+        SimilarityIndex index = sample();
+        List<SimilarityIndex.Match> matches = index.query(loopSum("idx", "acc", 100, 0), 3);
+
+        assertEquals("original", matches.get(0).id());
+        assertEquals(1.0, matches.get(0).similarity());
+        assertEquals("extended", matches.get(1).id());
+        assertTrue(matches.get(1).similarity() < 1.0);
+        assertTrue(matches.stream().noneMatch(match -> match.id().equals("unrelated")));
+
+        assertEquals("original", index.querySimilar("extended", 1).getFirst().id());
+        assertThrows(IllegalArgumentException.class, () -> index.add("original", straightLine(2)));
+    }
+
+    @Test
+    void loadedIndexAnswersTheSame(@TempDir Path directory) throws Exception {
+        SimilarityIndex index = sample();
+        Path file = directory.resolve("index.mtsi");
+        index.save(file);
+        SimilarityIndex loaded = SimilarityIndex.load(file);
+
+        assertEquals(3, loaded.size());
+        MeaningTree probe = loopSum("a", "b", 5, 1);
+        assertEquals(index.query(probe, 3), loaded.query(probe, 3));
+        loaded.add("more", straightLine(9));
+        assertEquals("unrelated", loaded.querySimilar("more", 1).getFirst().id());
+    }
+
+    /**
+     * {@code x = x + 1; y = x * 2;}, где имена и литералы создаются переданными фабриками.
+     */
+    private static Node assignments(Function<String, Expression> name, Function<Integer, Expression> literal) {
+        return new ProgramEntryPoint(List.of(
+                new AssignmentStatement(new SimpleIdentifier("x"), new AddOp(name.apply("x"), literal.apply(1))),
+                new AssignmentStatement(new SimpleIdentifier("y"), new MulOp(name.apply("x"), literal.apply(2)))));
+    }
+
+    @Test
+    void onlyDocumentedNodeKindsAreMerged() {
+        SimilarityIndex index = new SimilarityIndex();
+        Node plain = assignments(SimpleIdentifier::new, IntegerLiteral::new);
+
+        assertEquals(1.0, index.similarity(plain, assignments(SimpleIdentifier::new, value -> new FloatLiteral(value))));
+        assertTrue(index.similarity(plain, assignments(SelfReference::new, IntegerLiteral::new)) < 1.0);
+    }
+
+    @Test
+    void sameSolutionInJavaAndPythonIsNearDuplicate() {
+        MeaningTree java = new JavaTranslator(Map.of("translationUnitMode", "simple")).getMeaningTree("""
+                int total = 0;
+                for (int i = 0; i < 10; i++) {
+                    if (i % 2 == 0) {
+                        total = total + i * 3;
+                    }
+                }
+                """);
+        MeaningTree python = new PythonTranslator(Map.of("translationUnitMode", "simple")).getMeaningTree("""
+                total = 0
+                for i in range(0, 10):
+                    if i % 2 == 0:
+                        total = total + i * 3
+                """);
+        SimilarityIndex index = new SimilarityIndex();
+        index.add("java", java);
+        index.add("unrelated", straightLine(8));
+
+        assertEquals("java", index.query(python, 2).getFirst().id());
+        assertTrue(index.similarity(java.getRootNode(), python.getRootNode())
+                > index.similarity(straightLine(8).getRootNode(), python.getRootNode()));
+    }
+}
@@ -0,0 +1,79 @@
+package org.vstu.meaningtree.utils.tokens;
+
+import org.junit.jupiter.api.Test;
+import org.vstu.meaningtree.serializers.json.JsonSerializer;
+import org.vstu.meaningtree.utils.BytePosition;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Столбцовое хранилище токенов должно быть неотличимо от {@link TokenList} при чтении и сериализации.
+ */
+class CompactTokenListTests {
+
+    /** {@code a + 1;} с привязкой операндов к оператору и одним токеном со значением */
+    private static TokenList sample() {
+        TokenList tokens = new TokenList();
+        OperatorToken plus = new OperatorToken("+", TokenType.OPERATOR, 4,
+                OperatorAssociativity.LEFT, OperatorArity.BINARY, false, OperatorTokenPosition.INFIX);
+        OperandToken left = new OperandToken("a", TokenType.IDENTIFIER);
+        left.setMetadata(plus, OperandPosition.LEFT);
+        left.setBytePosition(new BytePosition(0, 1));
+        OperandToken right = new OperandToken("1", TokenType.CONST);
+        right.setMetadata(plus, OperandPosition.RIGHT);
+        Token separator = new Token(";", TokenType.SEPARATOR);
+        separator.setBytePosition(new BytePosition(5, 1));
+        Token labelled = new Token("a", TokenType.IDENTIFIER);
+        labelled.assignValue(42);
+        tokens.add(left);
+        tokens.add(plus);
+        tokens.add(right);
+        tokens.add(separator);
+        tokens.add(labelled);
+        return tokens;
+    }
+
+    @Test
+    void viewsKeepIdsAndMetadata() {
+        TokenList tokens = sample();
+        CompactTokenList compact = CompactTokenList.of(tokens);
+
+        assertEquals(tokens.size(), compact.size());
+        assertEquals(4, compact.distinctValues());
+        for (int i = 0; i < tokens.size(); i++) {
+            Token expected = tokens.get(i);
+            Token actual = compact.get(i);
+            assertEquals(expected, actual);
+            assertSame(expected.getClass(), actual.getClass());
+            assertEquals(expected.value, actual.value);
+            assertEquals(expected.type, actual.type);
+            assertEquals(expected.bytePos(), actual.bytePos());
+            assertEquals(expected.getAssignedValue(), actual.getAssignedValue());
+        }
+        OperandToken right = (OperandToken) compact.get(2);
+        assertSame(tokens.get(1), right.operandOf());
+        assertEquals(OperandPosition.RIGHT, right.operandPosition());
+        assertTrue(compact.isStoredAsObject(1));
+        assertFalse(compact.isStoredAsObject(3));
+        assertEquals(tokens, compact.toTokenList());
+    }
+
+    @Test
+    void appendWithoutObjectsIssuesFreshIds() {
+        CompactTokenList compact = new CompactTokenList();
+        compact.append(TokenType.KEYWORD, "return", 0, 6);
+        compact.append(TokenType.SEPARATOR, ";", -1, 0);
+
+        assertNotEquals(compact.id(0), compact.id(1));
+        assertEquals(new BytePosition(0, 6), compact.get(0).bytePos());
+        assertNull(compact.get(1).bytePos());
+        assertEquals(compact.id(1), compact.get(1).getId());
+    }
+
+    @Test
+    void serializesLikeTokenList() {
+        TokenList tokens = sample();
+        JsonSerializer serializer = new JsonSerializer();
+        assertEquals(serializer.serialize(tokens), serializer.serialize(CompactTokenList.of(tokens)));
+    }
+}